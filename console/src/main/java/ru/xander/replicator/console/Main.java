@@ -9,10 +9,20 @@ import org.apache.commons.cli.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.xander.replicator.Replicator;
+import ru.xander.replicator.cache.MetadataCache;
+import ru.xander.replicator.metrics.CsvMetricsExporter;
+import ru.xander.replicator.metrics.JmxMetrics;
+import ru.xander.replicator.metrics.JsonMetricsExporter;
+import ru.xander.replicator.metrics.Metrics;
+import ru.xander.replicator.metrics.MetricsExporter;
+import ru.xander.replicator.schema.ConnectionPool;
 import ru.xander.replicator.schema.SchemaConfig;
 
+import javax.management.ObjectName;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.util.Map;
 
 /**
  * @author Alexander Shakhov
@@ -34,6 +44,8 @@ public class Main {
     private static final String PARAM_TRG_PWD = "trgPwd";
     private static final String PARAM_TRG_SCHEMA = "trgSchema";
     private static final String PARAM_DUMP_TABLES = "dumpTables";
+    private static final String PARAM_METADATA_CACHE = "metadataCache";
+    private static final String PARAM_METRICS = "metrics";
 
     private static final Options options;
 
@@ -63,9 +75,16 @@ public class Main {
                 .argName("Рабочая схема приемника").desc("Рабочая схема приемника").build());
         options.addOption(Option.builder(PARAM_DUMP_TABLES).hasArg()
                 .argName("Таблицы для дампа").desc("Список таблицы, для которых будет выполняться команда dump (через запятую)").build());
+        options.addOption(Option.builder(PARAM_METADATA_CACHE).hasArg()
+                .argName("Файл кэша метаданных").desc("Файл, в котором между запусками сохраняются описания таблиц").build());
+        options.addOption(Option.builder(PARAM_METRICS).hasArg()
+                .argName("Файл показателей").desc("Файл, в который по окончании сохраняются показатели (*.csv - в формате CSV, иначе JSON)").build());
     }
 
     private final CommandLine commandLine;
+    private final MetadataCache metadataCache = new MetadataCache();
+    private final ConnectionPool connectionPool = new ConnectionPool();
+    private final Metrics metrics = new Metrics();
 
     private Main(String[] args) throws ParseException {
         commandLine = new DefaultParser().parse(options, args);
@@ -73,11 +92,77 @@ public class Main {
 
     private void execute() throws Exception {
         String cmd = commandLine.getOptionValue(PARAM_CMD);
-        if ("dump".equals(cmd)) {
-            requireArgs(PARAM_DUMP_TABLES);
-            dump();
-        } else {
-            throw new ParseException("Неизвестная операция: " + cmd);
+        loadMetadataCache();
+        ObjectName metricsName = JmxMetrics.register(metrics, JmxMetrics.DEFAULT_OBJECT_NAME);
+        try {
+            if ("dump".equals(cmd)) {
+                requireArgs(PARAM_DUMP_TABLES);
+                dump();
+            } else {
+                throw new ParseException("Неизвестная операция: " + cmd);
+            }
+        } finally {
+            connectionPool.close();
+            JmxMetrics.unregister(metricsName);
+        }
+        saveMetadataCache();
+        saveMetrics();
+    }
+
+    private void loadMetadataCache() {
+        if (!commandLine.hasOption(PARAM_METADATA_CACHE)) {
+            return;
+        }
+        File cacheFile = new File(commandLine.getOptionValue(PARAM_METADATA_CACHE));
+        if (!cacheFile.exists()) {
+            return;
+        }
+        try (FileInputStream inputStream = new FileInputStream(cacheFile)) {
+            metadataCache.load(inputStream);
+            log.info("Metadata cache loaded from {} ({} tables)", cacheFile.getAbsolutePath(), metadataCache.size());
+        } catch (Exception e) {
+            log.warn("Не удалось загрузить кэш метаданных: {}", e.getMessage());
+        }
+    }
+
+    private void saveMetadataCache() {
+        if (!commandLine.hasOption(PARAM_METADATA_CACHE)) {
+            return;
+        }
+        File cacheFile = new File(commandLine.getOptionValue(PARAM_METADATA_CACHE));
+        try (FileOutputStream outputStream = new FileOutputStream(cacheFile)) {
+            metadataCache.save(outputStream);
+        } catch (Exception e) {
+            log.warn("Не удалось сохранить кэш метаданных: {}", e.getMessage());
+        }
+    }
+
+    private void saveMetrics() {
+        if (!commandLine.hasOption(PARAM_METRICS)) {
+            return;
+        }
+        File metricsFile = new File(commandLine.getOptionValue(PARAM_METRICS));
+        MetricsExporter exporter = metricsFile.getName().toLowerCase().endsWith(".csv")
+                ? new CsvMetricsExporter()
+                : new JsonMetricsExporter();
+        try (FileOutputStream outputStream = new FileOutputStream(metricsFile)) {
+            exporter.export(metrics, outputStream);
+            log.info("Metrics saved to {}", metricsFile.getAbsolutePath());
+        } catch (Exception e) {
+            log.warn("Не удалось сохранить показатели: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Время действия по этапам (запросы к словарю, выборка, сериализация, запись).
+     * Этапы могут пересекаться, поэтому сумма долей может превышать 100%.
+     */
+    private static void logPhaseTimings(String action, Metrics actionMetrics, long nanos) {
+        double totalMillis = nanos / 1_000_000.0d;
+        log.info("{} completed in {} ms", action, String.format("%.0f", totalMillis));
+        for (Map.Entry<String, Double> phase : actionMetrics.getPhaseMillis().entrySet()) {
+            double percent = totalMillis > 0 ? phase.getValue() * 100.0d / totalMillis : 0.0d;
+            log.info("    {}: {} ms ({}%)", phase.getKey(), String.format("%.0f", phase.getValue()), String.format("%.1f", percent));
         }
     }
 
@@ -92,12 +177,15 @@ public class Main {
             File dumpFile = new File(outPath, tableName + ".sql");
             try (FileOutputStream outputStream = new FileOutputStream(dumpFile)) {
                 log.info("Dump table {}", tableName);
+                Metrics actionMetrics = new Metrics(metrics);
+                long start = System.nanoTime();
                 Replicator.dump()
-                        .schemaConfig(createSourceSchemaConfig())
+                        .schemaConfig(createSourceSchemaConfig(actionMetrics))
                         .outputStream(outputStream)
                         .tableName(tableName)
                         .configure()
                         .execute();
+                logPhaseTimings("Dump table " + tableName, actionMetrics, System.nanoTime() - start);
 //                    replicator.dump(tableName, outputStream, new DumpConfig());
                 log.info("Dump saved to {}", dumpFile.getAbsolutePath());
             } catch (Exception e) {
@@ -106,7 +194,7 @@ public class Main {
         }
     }
 
-    private SchemaConfig createSourceSchemaConfig() {
+    private SchemaConfig createSourceSchemaConfig(Metrics actionMetrics) {
         return SchemaConfig.builder()
                 .jdbcDriver(commandLine.getOptionValue(PARAM_SRC_DRIVER))
                 .jdbcUrl(commandLine.getOptionValue(PARAM_SRC_URL))
@@ -114,10 +202,13 @@ public class Main {
                 .password(commandLine.getOptionValue(PARAM_SRC_PWD))
                 .workSchema(commandLine.getOptionValue(PARAM_SRC_SCHEMA))
                 .listener(new ConsoleListener("SOURCE"))
+                .metadataCache(metadataCache)
+                .connectionPool(connectionPool)
+                .metrics(actionMetrics)
                 .build();
     }
 
-    private SchemaConfig createTargetSchemaOption() {
+    private SchemaConfig createTargetSchemaOption(Metrics actionMetrics) {
         return SchemaConfig.builder()
                 .jdbcDriver(commandLine.getOptionValue(PARAM_TRG_DRIVER))
                 .jdbcUrl(commandLine.getOptionValue(PARAM_TRG_URL))
@@ -125,6 +216,9 @@ public class Main {
                 .password(commandLine.getOptionValue(PARAM_TRG_PWD))
                 .workSchema(commandLine.getOptionValue(PARAM_TRG_SCHEMA))
                 .listener(new ConsoleListener("TARGET"))
+                .metadataCache(metadataCache)
+                .connectionPool(connectionPool)
+                .metrics(actionMetrics)
                 .build();
     }
 
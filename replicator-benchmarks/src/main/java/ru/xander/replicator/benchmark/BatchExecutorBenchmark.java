@@ -0,0 +1,94 @@
+package ru.xander.replicator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaFactory;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableBatchExecutor;
+import ru.xander.replicator.schema.TableField;
+import ru.xander.replicator.schema.TableRow;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетная вставка строк при разных размерах пакета, результат в строках в секунду.
+ * Перед каждой итерацией таблица очищается.
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(BatchExecutorBenchmark.ROW_COUNT)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchExecutorBenchmark {
+
+    static final int ROW_COUNT = 10_000;
+
+    @Param({"1", "10", "100", "1000"})
+    private int batchSize;
+
+    private BenchmarkDatabase database;
+    private Schema schema;
+    private Table table;
+    private TableRow[] rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase("batch_" + batchSize, 0);
+        schema = SchemaFactory.getInstance().create(database.schemaConfig());
+        table = schema.getTable(BenchmarkDatabase.TABLE_NAME);
+        List<Column> columns = new ArrayList<>(table.getColumns());
+        rows = new TableRow[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Object[] values = {i, "name " + i, BigDecimal.valueOf(i * 100L + 25, 2), (i % 2) == 0,
+                    new Timestamp(1500000000000L + i * 1000L)};
+            TableField[] fields = new TableField[columns.size()];
+            for (int j = 0; j < fields.length; j++) {
+                fields[j] = new TableField(columns.get(j));
+                fields[j].setValue(values[j]);
+            }
+            rows[i] = new TableRow(table, fields);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws Exception {
+        database.execute("TRUNCATE TABLE " + BenchmarkDatabase.WORK_SCHEMA + '.' + BenchmarkDatabase.TABLE_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        schema.close();
+        database.close();
+    }
+
+    @Benchmark
+    public long execute() {
+        try (TableBatchExecutor batchExecutor = schema.createTableBatchExecutor(table, new BatchOptions(batchSize, 0L))) {
+            for (TableRow row : rows) {
+                batchExecutor.execute(row);
+            }
+            batchExecutor.finish();
+            return batchExecutor.getTotalRows();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.xander.replicator.benchmark;
+
+import ru.xander.replicator.schema.SchemaConfig;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Тестовая база HSQLDB в памяти с таблицей {@value #TABLE_NAME}.
+ * <p>
+ * Столбцы таблицы покрывают основные типы: целое, строка, число с дробной частью, логическое и дата-время.
+ * База живет, пока открыто соединение, и удаляется {@link #close()}.
+ *
+ * @author Alexander Shakhov
+ */
+class BenchmarkDatabase implements AutoCloseable {
+
+    static final String WORK_SCHEMA = "BENCH";
+    static final String TABLE_NAME = "ROWS";
+
+    private final String jdbcUrl;
+    private final Connection connection;
+
+    /**
+     * @param name     имя базы (у каждого бенчмарка своя)
+     * @param rowCount количество строк таблицы
+     */
+    BenchmarkDatabase(String name, int rowCount) throws SQLException {
+        this.jdbcUrl = "jdbc:hsqldb:mem:" + name;
+        this.connection = DriverManager.getConnection(jdbcUrl, "SA", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + WORK_SCHEMA);
+            statement.execute("CREATE TABLE " + WORK_SCHEMA + '.' + TABLE_NAME + " (ID INTEGER, NAME VARCHAR(100), "
+                    + "AMOUNT NUMERIC(12, 2), FLAG BOOLEAN, CREATED TIMESTAMP)");
+        }
+        String insertQuery = "INSERT INTO " + WORK_SCHEMA + '.' + TABLE_NAME + " VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(insertQuery)) {
+            for (int i = 1; i <= rowCount; i++) {
+                statement.setInt(1, i);
+                statement.setString(2, (i % 10) == 0 ? null : "name 'quoted' " + i);
+                statement.setBigDecimal(3, BigDecimal.valueOf(i * 100L + 25, 2));
+                statement.setBoolean(4, (i % 2) == 0);
+                statement.setTimestamp(5, new Timestamp(1500000000000L + i * 1000L));
+                statement.addBatch();
+                if (((i % 1000) == 0) || (i == rowCount)) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+
+    SchemaConfig schemaConfig() {
+        return SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(jdbcUrl)
+                .username("SA")
+                .password("")
+                .workSchema(WORK_SCHEMA)
+                .build();
+    }
+
+    void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        execute("SHUTDOWN");
+        connection.close();
+    }
+}
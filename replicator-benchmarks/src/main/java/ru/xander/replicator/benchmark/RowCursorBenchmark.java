@@ -0,0 +1,78 @@
+package ru.xander.replicator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.xander.replicator.schema.RowCountMode;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaFactory;
+import ru.xander.replicator.schema.SelectRowsOptions;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.schema.TableRowCursor;
+
+/**
+ * Чтение строк таблицы курсором, результат в строках в секунду.
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(RowCursorBenchmark.ROW_COUNT)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RowCursorBenchmark {
+
+    static final int ROW_COUNT = 10_000;
+
+    private BenchmarkDatabase database;
+    private Schema schema;
+    private Table table;
+    private SelectRowsOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase("cursor", ROW_COUNT);
+        schema = SchemaFactory.getInstance().create(database.schemaConfig());
+        table = schema.getTable(BenchmarkDatabase.TABLE_NAME);
+        options = new SelectRowsOptions(ROW_COUNT);
+        options.setRowCountMode(RowCountMode.NONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        schema.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void nextRow(Blackhole blackhole) throws Exception {
+        try (TableRowCursor cursor = schema.selectRows(table, options)) {
+            TableRow row;
+            while ((row = cursor.nextRow()) != null) {
+                blackhole.consume(row);
+            }
+        }
+    }
+
+    @Benchmark
+    public void nextDetachedRow(Blackhole blackhole) throws Exception {
+        try (TableRowCursor cursor = schema.selectRows(table, options)) {
+            TableRow row;
+            while ((row = cursor.nextDetachedRow()) != null) {
+                blackhole.consume(row);
+            }
+        }
+    }
+}
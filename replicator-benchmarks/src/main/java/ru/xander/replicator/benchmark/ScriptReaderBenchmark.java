@@ -0,0 +1,81 @@
+package ru.xander.replicator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.xander.replicator.pump.LineScriptReader;
+import ru.xander.replicator.pump.MappedScriptReader;
+import ru.xander.replicator.pump.ScriptReader;
+import ru.xander.replicator.pump.ScriptStatement;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Разбор SQL-скрипта на запросы, результат в запросах в секунду.
+ * Скрипт содержит вставки со строками, комментарии и PL/SQL-блоки.
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(ScriptReaderBenchmark.STATEMENT_COUNT)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptReaderBenchmark {
+
+    static final int STATEMENT_COUNT = 10_000;
+
+    @Param({"LINE", "MAPPED"})
+    private String reader;
+
+    private final Charset charset = StandardCharsets.UTF_8;
+    private File scriptFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        scriptFile = File.createTempFile("benchmark", ".sql");
+        try (BufferedWriter writer = Files.newBufferedWriter(scriptFile.toPath(), charset)) {
+            for (int i = 0; i < STATEMENT_COUNT; i++) {
+                if ((i % 100) == 0) {
+                    writer.write("-- block " + i + "\nBEGIN\n  NULL;\nEND;\n/\n");
+                } else {
+                    writer.write("INSERT INTO ROWS (ID, NAME) VALUES (" + i + ", 'name; ''" + i + "''');\n");
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        scriptFile.delete();
+    }
+
+    @Benchmark
+    public void nextStatement(Blackhole blackhole) throws Exception {
+        try (ScriptReader scriptReader = "MAPPED".equals(reader)
+                ? new MappedScriptReader(scriptFile, charset)
+                : new LineScriptReader(scriptFile, charset)) {
+            ScriptStatement statement;
+            while ((statement = scriptReader.nextStatement()) != null) {
+                blackhole.consume(statement);
+            }
+        }
+    }
+}
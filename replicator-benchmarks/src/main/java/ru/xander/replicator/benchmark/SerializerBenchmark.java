@@ -0,0 +1,116 @@
+package ru.xander.replicator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.xander.replicator.dump.BinaryTableSerializer;
+import ru.xander.replicator.dump.DumpOptions;
+import ru.xander.replicator.dump.DumpType;
+import ru.xander.replicator.dump.JsonTableSerializer;
+import ru.xander.replicator.dump.SqlTableSerializer;
+import ru.xander.replicator.dump.TableSerializer;
+import ru.xander.replicator.dump.XmlTableSerializer;
+import ru.xander.replicator.schema.RowCountMode;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaFactory;
+import ru.xander.replicator.schema.Table;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Сериализация таблицы в дамп каждого формата, результат в строках в секунду.
+ * Дамп пишется в поток, отбрасывающий данные, чтобы измерялась только сериализация.
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(SerializerBenchmark.ROW_COUNT)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializerBenchmark {
+
+    static final int ROW_COUNT = 10_000;
+
+    @Param({"SQL", "JSON", "XML", "BINARY"})
+    private DumpType dumpType;
+
+    /**
+     * Строк в одном INSERT для дампа SQL, например -p rowsPerInsert=1,100.
+     */
+    @Param({"1"})
+    private int rowsPerInsert;
+
+    private BenchmarkDatabase database;
+    private Schema schema;
+    private Table table;
+    private TableSerializer serializer;
+    private DumpOptions options;
+    private final OutputStream output = new NullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase("serializer_" + dumpType.name().toLowerCase(), ROW_COUNT);
+        schema = SchemaFactory.getInstance().create(database.schemaConfig());
+        table = schema.getTable(BenchmarkDatabase.TABLE_NAME);
+        switch (dumpType) {
+            case SQL:
+                serializer = new SqlTableSerializer();
+                break;
+            case JSON:
+                serializer = new JsonTableSerializer();
+                break;
+            case XML:
+                serializer = new XmlTableSerializer();
+                break;
+            case BINARY:
+                serializer = new BinaryTableSerializer();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported dump type " + dumpType);
+        }
+        options = new DumpOptions();
+        options.setDumpDdl(false);
+        options.setDumpDml(true);
+        options.setCharset(StandardCharsets.UTF_8);
+        options.setVerboseEach(ROW_COUNT);
+        options.setCommitEach(0L);
+        options.setRowsPerInsert(rowsPerInsert);
+        options.setFormat(false);
+        options.setParallelism(1);
+        options.setRowCountMode(RowCountMode.NONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        schema.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void serialize() throws Exception {
+        serializer.serialize(table, schema, output, options);
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
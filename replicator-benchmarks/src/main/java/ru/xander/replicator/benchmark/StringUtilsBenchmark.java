@@ -0,0 +1,38 @@
+package ru.xander.replicator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.xander.replicator.util.StringUtils;
+
+/**
+ * Сравнение текстов без учета пробельных символов (используется при сравнении триггеров и check-ограничений).
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+    private final String text = "BEGIN\n  IF :NEW.ID IS NULL THEN\n    SELECT SEQ_ROWS.NEXTVAL INTO :NEW.ID FROM DUAL;\n  END IF;\nEND;";
+    private final String sameText = "\n" + text.replace('\n', ' ') + "\n";
+    private final String otherText = "BEGIN\n  IF :NEW.ID IS NULL THEN\n    SELECT SEQ_ROWS.NEXTVAL INTO :NEW.ID FROM DUAL;\n  END IF;\nEND ;";
+
+    @Benchmark
+    public boolean equalsIgnoreWhiteSpace() {
+        return StringUtils.equalsStringIgnoreWhiteSpace(text, sameText);
+    }
+
+    @Benchmark
+    public boolean notEqualsIgnoreWhiteSpace() {
+        return StringUtils.equalsStringIgnoreWhiteSpace(text, otherText);
+    }
+}
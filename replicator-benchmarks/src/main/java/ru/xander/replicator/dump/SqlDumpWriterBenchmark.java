@@ -0,0 +1,108 @@
+package ru.xander.replicator.dump;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Запись текста дампа SQL через {@link SqlDumpWriter} в сравнении с прежним способом -
+ * {@link String#getBytes(Charset)} каждой строки в {@link BufferedOutputStream}, результат в строках в секунду.
+ * Текст пишется либо в поток, отбрасывающий данные, либо во временный файл.
+ * Находится в пакете записи, так как она недоступна за пределами пакета.
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(SqlDumpWriterBenchmark.LINE_COUNT)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SqlDumpWriterBenchmark {
+
+    static final int LINE_COUNT = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"NULL", "FILE"})
+    private String target;
+
+    @Param({"UTF-8"})
+    private String charsetName;
+
+    private final String[] lines = new String[LINE_COUNT];
+    private Charset charset;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        charset = "UTF-8".equals(charsetName) ? StandardCharsets.UTF_8 : Charset.forName(charsetName);
+        for (int i = 0; i < LINE_COUNT; i++) {
+            lines[i] = "INSERT INTO SAMPLE_TABLE (ID, NAME, AMOUNT, CREATED) VALUES ("
+                    + i + ", 'Строка номер " + i + "', " + (i * 7) + ".25, "
+                    + "TO_DATE('2019-01-01 10:00:00', 'YYYY-MM-DD HH24:MI:SS'));\n";
+        }
+        if ("FILE".equals(target)) {
+            file = File.createTempFile("writer", ".sql");
+            file.deleteOnExit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (file != null && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public void sqlDumpWriter() throws IOException {
+        try (OutputStream output = openOutput()) {
+            SqlDumpWriter writer = new SqlDumpWriter(output, charset, BUFFER_SIZE);
+            for (String line : lines) {
+                writer.write(line);
+            }
+            writer.finish();
+        }
+    }
+
+    @Benchmark
+    public void getBytesBuffered() throws IOException {
+        try (OutputStream output = new BufferedOutputStream(openOutput(), BUFFER_SIZE)) {
+            for (String line : lines) {
+                output.write(line.getBytes(charset));
+            }
+        }
+    }
+
+    private OutputStream openOutput() throws IOException {
+        return file == null ? new NullOutputStream() : new FileOutputStream(file);
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.xander.replicator.schema.oracle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnFormatter;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.DataFormatter;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Форматирование значений для дампа SQL под Oracle, по одному замеру на каждый метод {@link DataFormatter}
+ * и на форматтеры столбцов ({@link DataFormatter#compile(Column)}), дописывающие значение в общий буфер.
+ * Находится в пакете форматтера, так как он недоступен за пределами пакета.
+ *
+ * @author Alexander Shakhov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OracleDataFormatterBenchmark {
+
+    private final DataFormatter formatter = new OracleDataFormatter();
+    private final Column integerColumn = column(ColumnType.INTEGER, 10, 0);
+    private final Column floatColumn = column(ColumnType.FLOAT, 12, 4);
+    private final Column stringColumn = column(ColumnType.STRING, 100, 0);
+    private final Column dateColumn = column(ColumnType.DATE, 0, 0);
+
+    private final Long integerValue = 1234567890L;
+    private final BigDecimal floatValue = new BigDecimal("12345.6789");
+    private final String stringValue = "It's a string\nwith a line break";
+    private final Date dateValue = new Date(1500000000000L);
+    private final Time timeValue = new Time(1500000000000L);
+    private final Timestamp timestampValue = new Timestamp(1500000000123L);
+
+    private final ColumnFormatter floatFormatter = formatter.compile(floatColumn);
+    private final ColumnFormatter stringFormatter = formatter.compile(stringColumn);
+    private final ColumnFormatter timestampFormatter = formatter.compile(column(ColumnType.TIMESTAMP, 0, 0));
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    @Benchmark
+    public String formatBoolean() {
+        return formatter.formatBoolean(Boolean.TRUE, integerColumn);
+    }
+
+    @Benchmark
+    public String formatInteger() {
+        return formatter.formatInteger(integerValue, integerColumn);
+    }
+
+    @Benchmark
+    public String formatFloat() {
+        return formatter.formatFloat(floatValue, floatColumn);
+    }
+
+    @Benchmark
+    public String formatSerial() {
+        return formatter.formatSerial(integerValue, integerColumn);
+    }
+
+    @Benchmark
+    public String formatChar() {
+        return formatter.formatChar("Y", stringColumn);
+    }
+
+    @Benchmark
+    public String formatString() {
+        return formatter.formatString(stringValue, stringColumn);
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return formatter.formatDate(dateValue, dateColumn);
+    }
+
+    @Benchmark
+    public String formatTime() {
+        return formatter.formatTime(timeValue, dateColumn);
+    }
+
+    @Benchmark
+    public String formatTimestamp() {
+        return formatter.formatTimestamp(timestampValue, dateColumn);
+    }
+
+    @Benchmark
+    public int compiledFloat() {
+        buffer.setLength(0);
+        floatFormatter.format(floatValue, buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int compiledString() {
+        buffer.setLength(0);
+        stringFormatter.format(stringValue, buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int compiledTimestamp() {
+        buffer.setLength(0);
+        timestampFormatter.format(timestampValue, buffer);
+        return buffer.length();
+    }
+
+    private static Column column(ColumnType columnType, int size, int scale) {
+        Column column = new Column();
+        column.setName(columnType.name());
+        column.setColumnType(columnType);
+        column.setSize(size);
+        column.setScale(scale);
+        column.setNullable(true);
+        return column;
+    }
+}
@@ -3,6 +3,7 @@ package ru.xander.replicator;
 import ru.xander.replicator.action.CompareActionConfigurer;
 import ru.xander.replicator.action.DropActionConfigurer;
 import ru.xander.replicator.action.DumpActionConfigurer;
+import ru.xander.replicator.action.LoadActionConfigurer;
 import ru.xander.replicator.action.PumpActionConfigurer;
 import ru.xander.replicator.action.ReplicateActionConfigurer;
 import ru.xander.replicator.action.TableListActionConfigurer;
@@ -36,6 +37,10 @@ public final class Replicator {
         return new DumpActionConfigurer();
     }
 
+    public static LoadActionConfigurer load() {
+        return new LoadActionConfigurer();
+    }
+
     public static PumpActionConfigurer pump() {
         return new PumpActionConfigurer();
     }
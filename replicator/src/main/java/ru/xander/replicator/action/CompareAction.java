@@ -5,6 +5,8 @@ import ru.xander.replicator.compare.CompareKind;
 import ru.xander.replicator.compare.CompareOptions;
 import ru.xander.replicator.compare.CompareResult;
 import ru.xander.replicator.compare.CompareResultType;
+import ru.xander.replicator.compare.DataComparator;
+import ru.xander.replicator.exception.ReplicatorException;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
 import ru.xander.replicator.schema.ColumnDiff;
@@ -20,17 +22,21 @@ import ru.xander.replicator.schema.Table;
 import ru.xander.replicator.schema.Trigger;
 import ru.xander.replicator.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 /**
@@ -38,7 +44,11 @@ import java.util.function.Function;
  */
 public class CompareAction implements Action {
 
-    private final ExecutorService executorService;
+    /**
+     * Наибольшее количество таблиц, описания которых загружаются одним запросом.
+     */
+    private static final int MAX_CHUNK_SIZE = 128;
+
     private final SchemaConfig sourceConfig;
     private final SchemaConfig targetConfig;
     private final String[] tables;
@@ -51,37 +61,83 @@ public class CompareAction implements Action {
         if (tables.length == 0) {
             throw new IllegalArgumentException("At least one table must be specified for compare");
         }
+        if (options.isCompareData() && ((options.getRowChunkSize() <= 0) || (options.getMaxDataDiffs() <= 0))) {
+            throw new IllegalArgumentException("Row chunk size and max data diffs must be greatest than 0");
+        }
+        if (options.getParallelism() <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greatest than 0");
+        }
         this.sourceConfig = sourceConfig;
         this.targetConfig = targetConfig;
         this.tables = tables;
         this.options = options;
-        this.executorService = Executors.newFixedThreadPool(2);
     }
 
     public Map<String, CompareResult> execute() {
-        return withTwoSchemasAndReturn(sourceConfig, targetConfig, (source, target) -> {
-            Map<String, CompareResult> resultMap = new HashMap<>();
-            for (String tableName : tables) {
-                CompareResult compareResult = compareTable(tableName, source, target);
-                resultMap.put(tableName, compareResult);
-            }
-            return resultMap;
-        });
+        Map<String, CompareResult> resultMap = new ConcurrentHashMap<>();
+        execute(resultMap::put);
+        return resultMap;
     }
 
-    private CompareResult compareTable(String tableName, Schema source, Schema target) {
-        Future<Table> sourceTableFuture = executorService.submit(() -> source.getTable(tableName));
-        Future<Table> targetTableFuture = executorService.submit(() -> target.getTable(tableName));
-
-        Table sourceTable;
-        Table targetTable;
+    /**
+     * Сравнение с передачей результата по каждой таблице сразу после его получения.
+     * При параллельном сравнении consumer вызывается из рабочих потоков.
+     */
+    public void execute(BiConsumer<String, CompareResult> consumer) {
+        // таблицы делятся на порции так, чтобы каждому потоку досталась хотя бы одна
+        int chunkSize = Math.min(MAX_CHUNK_SIZE, (tables.length + options.getParallelism() - 1) / options.getParallelism());
+        Queue<List<String>> chunks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < tables.length; i += chunkSize) {
+            chunks.add(Arrays.asList(Arrays.copyOfRange(tables, i, Math.min(i + chunkSize, tables.length))));
+        }
+        int parallelism = Math.min(options.getParallelism(), chunks.size());
+        if (parallelism == 1) {
+            compareChunks(chunks, consumer);
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
         try {
-            sourceTable = sourceTableFuture.get();
-            targetTable = targetTableFuture.get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Interrupter get table task: " + e.getMessage());
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(executorService.submit(() -> compareChunks(chunks, consumer)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReplicatorException("Compare interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ReplicatorException("Failed to compare tables: " + cause.getMessage(), cause);
+        } finally {
+            // при ошибке одного из потоков остальные прекращают работу, очередь таблиц очищается
+            chunks.clear();
+            executorService.shutdownNow();
         }
+    }
 
+    /**
+     * Рабочий поток: собственная пара схем (соединения берутся из пула, если он задан),
+     * описания таблиц загружаются порциями до исчерпания общей очереди.
+     */
+    private void compareChunks(Queue<List<String>> chunks, BiConsumer<String, CompareResult> consumer) {
+        withTwoSchemas(sourceConfig, targetConfig, (source, target) -> {
+            List<String> chunk;
+            while (((chunk = chunks.poll()) != null) && !Thread.currentThread().isInterrupted()) {
+                Map<String, Table> sourceTables = source.loadTables(chunk);
+                Map<String, Table> targetTables = target.loadTables(chunk);
+                for (String tableName : chunk) {
+                    consumer.accept(tableName, compareTable(sourceTables.get(tableName), targetTables.get(tableName), source, target));
+                }
+            }
+        });
+    }
+
+    private CompareResult compareTable(Table sourceTable, Table targetTable, Schema source, Schema target) {
         if (sourceTable == null) {
             return new CompareResult(CompareResultType.ABSENT_ON_SOURCE, Collections.emptyList());
         }
@@ -97,6 +153,10 @@ public class CompareAction implements Action {
         compareIndexes(sourceTable, targetTable, diffCollector);
         compareTriggers(sourceTable, targetTable, diffCollector);
         compareSequence(sourceTable, targetTable, diffCollector);
+        if (options.isCompareData()) {
+            DataComparator dataComparator = new DataComparator(source, target, options, sourceConfig.getListener());
+            diffCollector.diffs.addAll(dataComparator.compare(sourceTable, targetTable));
+        }
         if (diffCollector.diffs.isEmpty()) {
             return new CompareResult(CompareResultType.EQUALS, Collections.emptyList());
         } else {
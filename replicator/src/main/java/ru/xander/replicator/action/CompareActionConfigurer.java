@@ -10,6 +10,11 @@ public class CompareActionConfigurer implements ActionConfigurer<CompareAction>
 
     private static final boolean DEFAULT_SKIP_COMMENTS = false;
     private static final boolean DEFAULT_SKIP_DEFAULTS = false;
+    private static final int DEFAULT_PARALLELISM = 1;
+    private static final boolean DEFAULT_COMPARE_DATA = false;
+    private static final long DEFAULT_DATA_CHUNK_SIZE = 100_000L;
+    private static final long DEFAULT_ROW_CHUNK_SIZE = 1_000L;
+    private static final int DEFAULT_MAX_DATA_DIFFS = 1_000;
     /**
      * Конфигурация схемы-источника.
      */
@@ -35,6 +40,32 @@ public class CompareActionConfigurer implements ActionConfigurer<CompareAction>
      */
     private boolean skipDefaults = DEFAULT_SKIP_DEFAULTS;
 
+    /**
+     * Количество потоков сравнения. У каждого потока своя пара соединений,
+     * поэтому для сравнения большого числа таблиц рекомендуется задать пул соединений в конфигурации схем.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Если true, то кроме структуры сравниваются данные таблиц (по контрольным суммам диапазонов первичного ключа).
+     */
+    private boolean compareData = DEFAULT_COMPARE_DATA;
+
+    /**
+     * Количество значений ключа в порции, для которой контрольная сумма считается на сервере.
+     */
+    private long dataChunkSize = DEFAULT_DATA_CHUNK_SIZE;
+
+    /**
+     * Количество значений ключа в порции, различия в которой ищутся построчно.
+     */
+    private long rowChunkSize = DEFAULT_ROW_CHUNK_SIZE;
+
+    /**
+     * Максимальное количество различающихся строк по одной таблице.
+     */
+    private int maxDataDiffs = DEFAULT_MAX_DATA_DIFFS;
+
     public CompareActionConfigurer sourceConfig(SchemaConfig sourceConfig) {
         this.sourceConfig = sourceConfig;
         return this;
@@ -60,11 +91,41 @@ public class CompareActionConfigurer implements ActionConfigurer<CompareAction>
         return this;
     }
 
+    public CompareActionConfigurer parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public CompareActionConfigurer compareData(boolean compareData) {
+        this.compareData = compareData;
+        return this;
+    }
+
+    public CompareActionConfigurer dataChunkSize(long dataChunkSize) {
+        this.dataChunkSize = dataChunkSize;
+        return this;
+    }
+
+    public CompareActionConfigurer rowChunkSize(long rowChunkSize) {
+        this.rowChunkSize = rowChunkSize;
+        return this;
+    }
+
+    public CompareActionConfigurer maxDataDiffs(int maxDataDiffs) {
+        this.maxDataDiffs = maxDataDiffs;
+        return this;
+    }
+
     @Override
     public CompareAction configure() {
         CompareOptions options = new CompareOptions();
         options.setSkipComments(skipComments);
         options.setSkipDefaults(skipDefaults);
+        options.setParallelism(parallelism);
+        options.setCompareData(compareData);
+        options.setDataChunkSize(dataChunkSize);
+        options.setRowChunkSize(rowChunkSize);
+        options.setMaxDataDiffs(maxDataDiffs);
         return new CompareAction(sourceConfig, targetConfig, tables, options);
     }
 }
@@ -1,5 +1,6 @@
 package ru.xander.replicator.action;
 
+import ru.xander.replicator.dump.BinaryTableSerializer;
 import ru.xander.replicator.dump.DumpOptions;
 import ru.xander.replicator.dump.DumpType;
 import ru.xander.replicator.dump.JsonTableSerializer;
@@ -58,14 +59,21 @@ public class DumpAction implements Action {
             case XML:
                 tableSerializer = new XmlTableSerializer();
                 break;
+            case BINARY:
+                tableSerializer = new BinaryTableSerializer();
+                break;
             default:
                 throw new DumpException("Unsupported dump type <" + dumpType + ">");
         }
+        long start = System.nanoTime();
         try {
             tableSerializer.serialize(table, schema, output, options);
         } catch (Exception e) {
             String errorMessage = "Failed to dump table " + tableName + ": " + e.getMessage();
             throw new DumpException(errorMessage, e);
+        } finally {
+            // время сериализации по формату (dump.sql, dump.json, ...), включая выборку строк (fetch.*)
+            schema.getMetrics().timer("dump." + dumpType.name().toLowerCase()).record(System.nanoTime() - start);
         }
     }
 }
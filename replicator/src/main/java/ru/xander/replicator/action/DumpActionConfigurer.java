@@ -2,6 +2,7 @@ package ru.xander.replicator.action;
 
 import ru.xander.replicator.dump.DumpOptions;
 import ru.xander.replicator.dump.DumpType;
+import ru.xander.replicator.schema.RowCountMode;
 import ru.xander.replicator.schema.SchemaConfig;
 
 import java.io.OutputStream;
@@ -19,7 +20,10 @@ public class DumpActionConfigurer implements ActionConfigurer<DumpAction> {
     public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
     public static final long DEFAULT_VERBOSE_EACH = 1000L;
     public static final long DEFAULT_COMMIT_EACH = 1000L;
+    public static final int DEFAULT_ROWS_PER_INSERT = 1;
     public static final boolean DEFAULT_FORMAT = false;
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final RowCountMode DEFAULT_ROW_COUNT_MODE = RowCountMode.ESTIMATED;
 
     /**
      * Конфигурация схемы.
@@ -36,7 +40,8 @@ public class DumpActionConfigurer implements ActionConfigurer<DumpAction> {
      * Возможные значения:
      *  SQL - дампа в виде sql-запросов;
      *  JSON - дампа в виде json-файла;
-     *  XML - дампа в виде xml-файла.
+     *  XML - дампа в виде xml-файла;
+     *  BINARY - дампа в виде бинарного файла со сжатыми колоночными блоками.
      * По умолчанию значение SQL.
      */
     private DumpType dumpType = DEFAULT_DUMP_TYPE;
@@ -67,11 +72,35 @@ public class DumpActionConfigurer implements ActionConfigurer<DumpAction> {
      */
     private long commitEach = DEFAULT_COMMIT_EACH;
 
+    /**
+     * Наибольшее количество строк в одном запросе INSERT (только для формата SQL).
+     * Если больше 1, то строки группируются в запросы вставки нескольких строк, размер которых
+     * дополнительно ограничен лимитами СУБД на длину запроса и количеством commitEach.
+     */
+    private int rowsPerInsert = DEFAULT_ROWS_PER_INSERT;
+
     /**
      * Форматировать вывод (только для форматов JSON и XML).
      */
     private boolean format = DEFAULT_FORMAT;
 
+    /**
+     * Количество соединений для параллельной выборки строк таблицы.
+     * Если 1, то строки выбираются одним запросом.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Способ определения количества строк для событий прогресса.
+     * Возможные значения:
+     *  EXACT - SELECT COUNT(*) перед выборкой;
+     *  ESTIMATED - оценка по статистике СУБД;
+     *  PARALLEL - COUNT(*) в отдельном соединении параллельно с выборкой;
+     *  NONE - количество не определяется.
+     * По умолчанию значение ESTIMATED.
+     */
+    private RowCountMode rowCountMode = DEFAULT_ROW_COUNT_MODE;
+
     /**
      * Имя таблицы, для которой следует снять дамп.
      */
@@ -117,11 +146,26 @@ public class DumpActionConfigurer implements ActionConfigurer<DumpAction> {
         return this;
     }
 
+    public DumpActionConfigurer rowsPerInsert(int rowsPerInsert) {
+        this.rowsPerInsert = rowsPerInsert;
+        return this;
+    }
+
     public DumpActionConfigurer format(boolean format) {
         this.format = format;
         return this;
     }
 
+    public DumpActionConfigurer parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public DumpActionConfigurer rowCountMode(RowCountMode rowCountMode) {
+        this.rowCountMode = rowCountMode;
+        return this;
+    }
+
     public DumpActionConfigurer tableName(String tableName) {
         this.tableName = tableName;
         return this;
@@ -135,7 +179,10 @@ public class DumpActionConfigurer implements ActionConfigurer<DumpAction> {
         options.setCharset(charset);
         options.setVerboseEach(verboseEach);
         options.setCommitEach(commitEach);
+        options.setRowsPerInsert(rowsPerInsert);
         options.setFormat(format);
+        options.setParallelism(parallelism);
+        options.setRowCountMode(rowCountMode);
         return new DumpAction(schemaConfig, dumpType, outputStream, options, tableName);
     }
 }
@@ -0,0 +1,173 @@
+package ru.xander.replicator.action;
+
+import ru.xander.replicator.dump.BinaryDumpReader;
+import ru.xander.replicator.dump.DumpReader;
+import ru.xander.replicator.dump.DumpType;
+import ru.xander.replicator.dump.JsonDumpReader;
+import ru.xander.replicator.dump.LoadOptions;
+import ru.xander.replicator.dump.XmlDumpReader;
+import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.listener.Progress;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.BuildOptions;
+import ru.xander.replicator.schema.PrimaryKey;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaConfig;
+import ru.xander.replicator.schema.Sequence;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableBatchExecutor;
+import ru.xander.replicator.schema.TableObjectsBuilder;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Загрузка строк таблицы из дампа в формате JSON, XML или BINARY.
+ * Строки вставляются пакетами через параметризованный запрос, без формирования sql-литералов.
+ *
+ * @author Alexander Shakhov
+ */
+public class LoadAction implements Action {
+
+    private final SchemaConfig schemaConfig;
+    private final DumpType dumpType;
+    private final InputStream input;
+    private final LoadOptions options;
+    private final String tableName;
+
+    public LoadAction(SchemaConfig schemaConfig, DumpType dumpType, InputStream input, LoadOptions options, String tableName) {
+        Objects.requireNonNull(schemaConfig, "Configure schema");
+        Objects.requireNonNull(dumpType, "Choose dump type");
+        Objects.requireNonNull(input, "Input stream cannot be null");
+        Objects.requireNonNull(options, "Options cannot be null");
+        this.schemaConfig = schemaConfig;
+        this.dumpType = dumpType;
+        this.input = input;
+        this.options = options;
+        this.tableName = tableName;
+    }
+
+    public void execute() {
+        withSchema(schemaConfig, this::loadTable);
+    }
+
+    private void loadTable(Schema schema) {
+        String targetName = tableName;
+        try (DumpReader dumpReader = createDumpReader()) {
+            Table dumpTable = dumpReader.readTable();
+            if (targetName == null) {
+                if (dumpTable == null) {
+                    throw new DumpException("Dump has no table section, specify table name for load");
+                }
+                targetName = dumpTable.getName();
+            }
+            Table table = schema.getTable(targetName);
+            boolean created = false;
+            if (table == null) {
+                if (!options.isCreateTable() || (dumpTable == null)) {
+                    throw new DumpException("Table " + targetName + " not found");
+                }
+                dumpTable.setName(targetName);
+                createTable(schema, dumpTable);
+                table = dumpTable;
+                created = true;
+            }
+            loadRows(schema, table, dumpReader);
+            if (created) {
+                finishTable(schema, table);
+            }
+        } catch (DumpException e) {
+            throw e;
+        } catch (Exception e) {
+            String errorMessage = "Failed to load table " + targetName + ": " + e.getMessage();
+            throw new DumpException(errorMessage, e);
+        }
+    }
+
+    private DumpReader createDumpReader() throws IOException {
+        switch (dumpType) {
+            case JSON:
+                return new JsonDumpReader(input);
+            case XML:
+                return new XmlDumpReader(input);
+            case BINARY:
+                return new BinaryDumpReader(input);
+            default:
+                throw new DumpException("Unsupported dump type <" + dumpType + "> for load, use pump for SQL scripts");
+        }
+    }
+
+    private void createTable(Schema schema, Table table) {
+        schema.createTable(table);
+        if (!StringUtils.isEmpty(table.getComment())) {
+            schema.createTableComment(table);
+        }
+        table.getColumns().forEach(schema::createColumnComment);
+        if (options.isBulkLoad()) {
+            // индексы и ограничения создаются в finishTable после загрузки строк
+            return;
+        }
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        if (primaryKey != null) {
+            schema.createPrimaryKey(primaryKey);
+        }
+        table.getImportedKeys().forEach(schema::createImportedKey);
+        table.getCheckConstraints().forEach(schema::createCheckConstraint);
+        table.getIndices().forEach(schema::createIndex);
+    }
+
+    /**
+     * Последовательность и триггеры создаются после загрузки данных,
+     * чтобы триггеры не срабатывали на каждую строку.
+     */
+    private void finishTable(Schema schema, Table table) {
+        if (options.isBulkLoad()) {
+            BuildOptions buildOptions = new BuildOptions(options.getBuildParallelism(), options.isValidateConstraints());
+            new TableObjectsBuilder(schemaConfig, buildOptions).build(schema, table, importedKey -> true);
+        }
+        Sequence sequence = table.getSequence();
+        if (sequence != null) {
+            schema.createSequence(sequence);
+        }
+        table.getTriggers().forEach(schema::createTrigger);
+        schema.analyzeTable(table);
+    }
+
+    private void loadRows(Schema schema, Table table, DumpReader dumpReader) throws IOException {
+        String progressMessage = "Load rows to table " + table.getName();
+        long verboseEach = options.getVerboseEach();
+        BatchOptions batchOptions = new BatchOptions(options.getBatchSize(), options.getCommitEach());
+        batchOptions.setDirectPath(options.isDirectPath());
+        batchOptions.setNoLogging(options.isNoLogging());
+        try (TableBatchExecutor batchExecutor = schema.createTableBatchExecutor(table, batchOptions)) {
+            TableRow row;
+            while ((row = dumpReader.nextRow(table)) != null) {
+                batchExecutor.execute(row);
+                if ((verboseEach > 0) && ((batchExecutor.getTotalRows() % verboseEach) == 0)) {
+                    progress(new Progress(batchExecutor.getTotalRows(), -1, progressMessage));
+                }
+            }
+            batchExecutor.finish();
+            notify("Loaded " + batchExecutor.getTotalRows() + " rows to table " + table.getName()
+                    + " (" + batchExecutor.getStatistics() + ")");
+        }
+    }
+
+    private void progress(Progress progress) {
+        Listener listener = schemaConfig.getListener();
+        if (listener != null) {
+            listener.progress(progress);
+        }
+    }
+
+    private void notify(String message) {
+        Listener listener = schemaConfig.getListener();
+        if (listener != null) {
+            listener.notify(message);
+        }
+    }
+}
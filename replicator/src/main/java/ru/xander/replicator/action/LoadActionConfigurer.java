@@ -0,0 +1,180 @@
+package ru.xander.replicator.action;
+
+import ru.xander.replicator.dump.DumpType;
+import ru.xander.replicator.dump.LoadOptions;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.BuildOptions;
+import ru.xander.replicator.schema.SchemaConfig;
+
+import java.io.InputStream;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class LoadActionConfigurer implements ActionConfigurer<LoadAction> {
+
+    public static final DumpType DEFAULT_DUMP_TYPE = DumpType.JSON;
+    public static final boolean DEFAULT_CREATE_TABLE = false;
+    public static final int DEFAULT_BATCH_SIZE = BatchOptions.DEFAULT_BATCH_SIZE;
+    public static final long DEFAULT_COMMIT_EACH = BatchOptions.DEFAULT_COMMIT_EACH;
+    public static final long DEFAULT_VERBOSE_EACH = 1000L;
+    public static final boolean DEFAULT_DIRECT_PATH = false;
+    public static final boolean DEFAULT_NO_LOGGING = false;
+    public static final boolean DEFAULT_BULK_LOAD = false;
+    public static final int DEFAULT_BUILD_PARALLELISM = BuildOptions.DEFAULT_PARALLELISM;
+    public static final boolean DEFAULT_VALIDATE_CONSTRAINTS = BuildOptions.DEFAULT_VALIDATE;
+
+    /**
+     * Конфигурация схемы.
+     */
+    private SchemaConfig schemaConfig;
+
+    /**
+     * Входной поток с дампом.
+     */
+    private InputStream inputStream;
+
+    /**
+     * Тип загружаемого дампа.
+     * Возможные значения:
+     *  JSON - дамп в виде json-файла;
+     *  XML - дамп в виде xml-файла;
+     *  BINARY - дамп в виде бинарного файла.
+     * Дамп в виде sql-запросов загружается через pump.
+     * По умолчанию значение JSON.
+     */
+    private DumpType dumpType = DEFAULT_DUMP_TYPE;
+
+    /**
+     * Создавать таблицу по секции DDL дампа, если её нет в схеме.
+     */
+    private boolean createTable = DEFAULT_CREATE_TABLE;
+
+    /**
+     * Количество строк в одном пакете.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Количество строк, после которого будет выполняться коммит.
+     * Если 0, то коммит будет только в конце.
+     */
+    private long commitEach = DEFAULT_COMMIT_EACH;
+
+    /**
+     * Вставлять строки в обход буферного кэша (direct-path), если СУБД это поддерживает.
+     * На время загрузки отключаются неуникальные индексы, триггеры и внешние ключи таблицы.
+     */
+    private boolean directPath = DEFAULT_DIRECT_PATH;
+
+    /**
+     * Не писать в redo-лог изменения таблицы при вставке direct-path.
+     */
+    private boolean noLogging = DEFAULT_NO_LOGGING;
+
+    /**
+     * Количество строк, после которого будет генерироваться событие прогресса.
+     */
+    private long verboseEach = DEFAULT_VERBOSE_EACH;
+
+    /**
+     * Создавать первичный ключ, индексы и ограничения новой таблицы после загрузки строк, а не до нее.
+     */
+    private boolean bulkLoad = DEFAULT_BULK_LOAD;
+
+    /**
+     * Степень параллелизма построения индексов после загрузки строк.
+     */
+    private int buildParallelism = DEFAULT_BUILD_PARALLELISM;
+
+    /**
+     * Проверять ли загруженные строки при создании ограничений после загрузки.
+     */
+    private boolean validateConstraints = DEFAULT_VALIDATE_CONSTRAINTS;
+
+    /**
+     * Имя таблицы, в которую загружаются строки.
+     * Если не указано, то берется из секции DDL дампа.
+     */
+    private String tableName;
+
+    public LoadActionConfigurer schemaConfig(SchemaConfig schemaConfig) {
+        this.schemaConfig = schemaConfig;
+        return this;
+    }
+
+    public LoadActionConfigurer inputStream(InputStream inputStream) {
+        this.inputStream = inputStream;
+        return this;
+    }
+
+    public LoadActionConfigurer dumpType(DumpType dumpType) {
+        this.dumpType = dumpType;
+        return this;
+    }
+
+    public LoadActionConfigurer createTable(boolean createTable) {
+        this.createTable = createTable;
+        return this;
+    }
+
+    public LoadActionConfigurer batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public LoadActionConfigurer commitEach(long commitEach) {
+        this.commitEach = commitEach;
+        return this;
+    }
+
+    public LoadActionConfigurer directPath(boolean directPath) {
+        this.directPath = directPath;
+        return this;
+    }
+
+    public LoadActionConfigurer noLogging(boolean noLogging) {
+        this.noLogging = noLogging;
+        return this;
+    }
+
+    public LoadActionConfigurer verboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+        return this;
+    }
+
+    public LoadActionConfigurer bulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+        return this;
+    }
+
+    public LoadActionConfigurer buildParallelism(int buildParallelism) {
+        this.buildParallelism = buildParallelism;
+        return this;
+    }
+
+    public LoadActionConfigurer validateConstraints(boolean validateConstraints) {
+        this.validateConstraints = validateConstraints;
+        return this;
+    }
+
+    public LoadActionConfigurer tableName(String tableName) {
+        this.tableName = tableName;
+        return this;
+    }
+
+    @Override
+    public LoadAction configure() {
+        LoadOptions options = new LoadOptions();
+        options.setCreateTable(createTable);
+        options.setBatchSize(batchSize);
+        options.setCommitEach(commitEach);
+        options.setDirectPath(directPath);
+        options.setNoLogging(noLogging);
+        options.setVerboseEach(verboseEach);
+        options.setBulkLoad(bulkLoad);
+        options.setBuildParallelism(buildParallelism);
+        options.setValidateConstraints(validateConstraints);
+        return new LoadAction(schemaConfig, dumpType, inputStream, options, tableName);
+    }
+}
@@ -1,13 +1,20 @@
 package ru.xander.replicator.action;
 
 import ru.xander.replicator.exception.ReplicatorException;
-import ru.xander.replicator.schema.BatchExecutor;
+import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.listener.Progress;
+import ru.xander.replicator.pump.LineScriptReader;
+import ru.xander.replicator.pump.MappedScriptReader;
+import ru.xander.replicator.pump.PumpOptions;
+import ru.xander.replicator.pump.ScriptPump;
+import ru.xander.replicator.pump.ScriptReader;
+import ru.xander.replicator.pump.ScriptStatement;
 import ru.xander.replicator.schema.Schema;
 import ru.xander.replicator.schema.SchemaConfig;
+import ru.xander.replicator.schema.SchemaFactory;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -17,15 +24,22 @@ public class PumpAction implements Action {
 
     private final SchemaConfig schemaConfig;
     private final File[] scriptFiles;
+    private final PumpOptions options;
 
-    public PumpAction(SchemaConfig schemaConfig, File[] scriptFiles) {
+    public PumpAction(SchemaConfig schemaConfig, File[] scriptFiles, PumpOptions options) {
         Objects.requireNonNull(schemaConfig, "Configure schema");
         Objects.requireNonNull(scriptFiles, "Script files");
+        Objects.requireNonNull(options, "Options cannot be null");
+        Objects.requireNonNull(options.getCharset(), "Charset cannot be null");
         if (scriptFiles.length == 0) {
             throw new IllegalArgumentException("At least one script file must be specified for pump");
         }
+        if (options.getQueueSize() <= 0) {
+            throw new IllegalArgumentException("Queue size must be greatest than 0");
+        }
         this.schemaConfig = schemaConfig;
         this.scriptFiles = scriptFiles;
+        this.options = options;
     }
 
     public void execute() {
@@ -37,61 +51,54 @@ public class PumpAction implements Action {
     }
 
     private void pumpScript(Schema target, File scriptFile) {
-        long fileSize = scriptFile.length();
-        long verboseStep = 1024L * 1024L;//(long) (fileSize / 1000.0d);
         int lineNumber = 0;
-        long readBytes = 0;
-        long readBatch = 0;
         try (
-                BufferedReader bufferedReader = new BufferedReader(new FileReader(scriptFile));
-                BatchExecutor batchExecutor = target.createBatchExecutor()
+                ScriptReader scriptReader = createScriptReader(scriptFile);
+                ScriptPump scriptPump = new ScriptPump(target, this::createWorkerSchema, options, schemaConfig.getListener())
         ) {
-            String line;
-            StringBuilder statement = new StringBuilder();
-            boolean script = false;
-            while ((line = bufferedReader.readLine()) != null) {
-                int lineSize = line.length();
-                readBytes += (lineSize + 1);
-                readBatch += (lineSize + 1);
-                lineNumber++;
-                if (lineSize == 0) {
-                    continue;
-                }
-
-                if (!script) {
-                    script = line.startsWith("BEGIN");
-                }
-
-                boolean endStatement;
-                if (script) {
-                    endStatement = line.endsWith("END;");
-                } else {
-                    endStatement = line.charAt(lineSize - 1) == ';';
-                }
-
-                if (endStatement) {
-                    if (script) {
-                        statement.append(line);
-                    } else {
-                        statement.append(line, 0, line.length() - 1);
-                    }
-                    batchExecutor.execute(statement.toString());
-                    statement.setLength(0);
-                    script = false;
-                } else {
-                    statement.append(line).append('\n');
-                }
-
-                if (readBatch >= verboseStep) {
-                    //TODO:
-//                    listener.progress(new Progress(readBytes, fileSize, "Pump script " + scriptFile.getName() + " to target"));
-                    readBatch = 0;
+            String progressMessage = "Pump script " + scriptFile.getName() + " to target";
+            long verboseEach = options.getVerboseEach();
+            long nextProgress = verboseEach;
+            ScriptStatement statement;
+            while ((statement = scriptReader.nextStatement()) != null) {
+                lineNumber = statement.getLineNumber();
+                scriptPump.execute(statement);
+                if ((verboseEach > 0) && (scriptReader.getPosition() >= nextProgress)) {
+                    progress(new Progress(scriptReader.getPosition(), scriptReader.getSize(), progressMessage));
+                    nextProgress = scriptReader.getPosition() + verboseEach;
                 }
             }
-            batchExecutor.finish();
+            scriptPump.finish();
+            progress(new Progress(scriptReader.getSize(), scriptReader.getSize(), progressMessage));
+            scriptPump.getWorkerStatistics().forEach(this::notify);
         } catch (Exception e) {
             String errorMessage = "Failed to pump script " + scriptFile.getAbsolutePath() + " at line " + lineNumber + ": " + e.getMessage();
             throw new ReplicatorException(errorMessage, e);
         }
     }
+
+    private ScriptReader createScriptReader(File scriptFile) throws IOException {
+        if (MappedScriptReader.isSupported(options.getCharset())) {
+            return new MappedScriptReader(scriptFile, options.getCharset());
+        }
+        return new LineScriptReader(scriptFile, options.getCharset());
+    }
+
+    private Schema createWorkerSchema() {
+        return SchemaFactory.getInstance().create(schemaConfig);
+    }
+
+    private void progress(Progress progress) {
+        Listener listener = schemaConfig.getListener();
+        if (listener != null) {
+            listener.progress(progress);
+        }
+    }
+
+    private void notify(String message) {
+        Listener listener = schemaConfig.getListener();
+        if (listener != null) {
+            listener.notify(message);
+        }
+    }
 }
@@ -1,14 +1,25 @@
 package ru.xander.replicator.action;
 
+import ru.xander.replicator.pump.PumpOptions;
+import ru.xander.replicator.schema.BatchOptions;
 import ru.xander.replicator.schema.SchemaConfig;
 
 import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author Alexander Shakhov
  */
 public class PumpActionConfigurer implements ActionConfigurer<PumpAction> {
 
+    private static final int DEFAULT_BATCH_SIZE = BatchOptions.DEFAULT_BATCH_SIZE;
+    private static final long DEFAULT_COMMIT_EACH = BatchOptions.DEFAULT_COMMIT_EACH;
+    private static final int DEFAULT_PARALLELISM = 1;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    private static final long DEFAULT_VERBOSE_EACH = 1024L * 1024L;
+
     /**
      * Конфигурация схемы.
      */
@@ -19,6 +30,38 @@ public class PumpActionConfigurer implements ActionConfigurer<PumpAction> {
      */
     private File[] scriptFiles;
 
+    /**
+     * Количество запросов в одном пакете.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Количество запросов, после которого будет выполняться коммит.
+     * Если 0, то коммит будет только в конце скрипта.
+     */
+    private long commitEach = DEFAULT_COMMIT_EACH;
+
+    /**
+     * Количество соединений, выполняющих запросы INSERT параллельно.
+     * Остальные запросы выполняются после завершения всех предыдущих запросов.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Размер очереди запросов каждого соединения.
+     */
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    /**
+     * Кодировка файлов скрипта.
+     */
+    private Charset charset = DEFAULT_CHARSET;
+
+    /**
+     * Количество прочитанных байт скрипта, после которого будет генерироваться событие прогресса.
+     */
+    private long verboseEach = DEFAULT_VERBOSE_EACH;
+
     public PumpActionConfigurer schemaConfig(SchemaConfig schemaConfig) {
         this.schemaConfig = schemaConfig;
         return this;
@@ -29,8 +72,45 @@ public class PumpActionConfigurer implements ActionConfigurer<PumpAction> {
         return this;
     }
 
+    public PumpActionConfigurer batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public PumpActionConfigurer commitEach(long commitEach) {
+        this.commitEach = commitEach;
+        return this;
+    }
+
+    public PumpActionConfigurer parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public PumpActionConfigurer queueSize(int queueSize) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public PumpActionConfigurer charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    public PumpActionConfigurer verboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+        return this;
+    }
+
     @Override
     public PumpAction configure() {
-        return new PumpAction(schemaConfig, scriptFiles);
+        PumpOptions options = new PumpOptions();
+        options.setBatchSize(batchSize);
+        options.setCommitEach(commitEach);
+        options.setParallelism(parallelism);
+        options.setQueueSize(queueSize);
+        options.setCharset(charset);
+        options.setVerboseEach(verboseEach);
+        return new PumpAction(schemaConfig, scriptFiles, options);
     }
 }
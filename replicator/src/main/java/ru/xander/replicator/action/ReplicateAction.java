@@ -3,6 +3,13 @@ package ru.xander.replicator.action;
 import ru.xander.replicator.exception.ReplicatorException;
 import ru.xander.replicator.filter.Filter;
 import ru.xander.replicator.filter.FilterType;
+import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.replicate.DeltaSync;
+import ru.xander.replicator.replicate.ReplicateOptions;
+import ru.xander.replicator.replicate.SyncState;
+import ru.xander.replicator.replicate.TableGraph;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.BuildOptions;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
 import ru.xander.replicator.schema.ImportedKey;
@@ -11,17 +18,26 @@ import ru.xander.replicator.schema.PrimaryKey;
 import ru.xander.replicator.schema.Schema;
 import ru.xander.replicator.schema.SchemaConfig;
 import ru.xander.replicator.schema.SchemaUtils;
+import ru.xander.replicator.schema.SelectRowsOptions;
 import ru.xander.replicator.schema.Sequence;
 import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableBatchExecutor;
+import ru.xander.replicator.schema.TableObjectsBuilder;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.schema.TableRowCursor;
 import ru.xander.replicator.schema.Trigger;
 import ru.xander.replicator.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -33,96 +49,213 @@ import java.util.stream.Collectors;
  */
 public class ReplicateAction implements Action {
 
-    private final ExecutorService executorService;
+    private static final TableRow END_OF_ROWS = new TableRow();
+
     private final SchemaConfig sourceConfig;
     private final SchemaConfig targetConfig;
-    private final boolean updateImported;
     private final String[] tables;
+    private final ReplicateOptions options;
 
-    public ReplicateAction(SchemaConfig sourceConfig, SchemaConfig targetConfig, boolean updateImported, String[] tables) {
+    public ReplicateAction(SchemaConfig sourceConfig, SchemaConfig targetConfig, String[] tables, ReplicateOptions options) {
         Objects.requireNonNull(sourceConfig, "Configure source schema");
         Objects.requireNonNull(targetConfig, "Configure target schema");
         Objects.requireNonNull(tables, "Tables for replicate");
+        Objects.requireNonNull(options, "Options cannot be null");
         if (tables.length == 0) {
             throw new IllegalArgumentException("At least one table must be specified for replicate");
         }
+        if (options.isCopyData() && (options.getQueueSize() <= 0)) {
+            throw new IllegalArgumentException("Queue size must be greatest than 0");
+        }
+        if (options.getTableParallelism() <= 0) {
+            throw new IllegalArgumentException("Table parallelism must be greatest than 0");
+        }
+        if (options.isBulkLoad() && (options.getBuildParallelism() <= 0)) {
+            throw new IllegalArgumentException("Build parallelism must be greatest than 0");
+        }
+        if (options.isSyncData() && (options.getSyncChunkSize() <= 0)) {
+            throw new IllegalArgumentException("Sync chunk size must be greatest than 0");
+        }
         this.sourceConfig = sourceConfig;
         this.targetConfig = targetConfig;
-        this.updateImported = updateImported;
         this.tables = tables;
-        this.executorService = Executors.newFixedThreadPool(2);
+        this.options = options;
     }
 
     public void execute() {
-        withTwoSchemas(sourceConfig, targetConfig, (source, target) -> {
-            for (String tableName : tables) {
-                Set<String> createdTables = new HashSet<>();
-                replicateTable(tableName, source, target, createdTables);
-            }
-        });
-    }
-
-    private void replicateTable(String tableName, Schema source, Schema target, Set<String> createdTables) {
-        if (createdTables.contains(tableName)) {
-            return;
+        TableGraph graph = withTwoSchemasAndReturn(sourceConfig, targetConfig, this::buildGraph);
+        List<ImportedKey> deferredKeys = graph.breakCycles();
+        if (!deferredKeys.isEmpty()) {
+            notify(targetConfig, "Tables have cyclic dependencies, foreign keys "
+                    + deferredKeys.stream().map(ImportedKey::getName).collect(Collectors.joining(", "))
+                    + " will be created after all tables");
+        }
+        SyncState syncState = null;
+        if (options.isSyncData()) {
+            syncState = options.getSyncStateFile() == null ? new SyncState() : SyncState.load(options.getSyncStateFile());
         }
 
-        createdTables.add(tableName);
-
-        Future<Table> sourceTableFuture = executorService.submit(() -> source.getTable(tableName));
-        Future<Table> targetTableFuture = executorService.submit(() -> target.getTable(tableName));
-
-        Table sourceTable;
-        Table targetTable;
-        try {
-            sourceTable = sourceTableFuture.get();
-            targetTable = targetTableFuture.get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Interrupter get table task: " + e.getMessage());
+        int parallelism = Math.min(options.getTableParallelism(), graph.getTables().size());
+        if (parallelism == 1) {
+            replicateTables(graph, syncState);
+        } else {
+            ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+            try {
+                List<Future<?>> futures = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism; i++) {
+                    SyncState workerSyncState = syncState;
+                    futures.add(executorService.submit(() -> replicateTables(graph, workerSyncState)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReplicatorException("Replicate interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new ReplicatorException("Failed to replicate tables: " + cause.getMessage(), cause);
+            } finally {
+                // при ошибке одного из потоков остальные не берут новые таблицы
+                graph.fail();
+                executorService.shutdownNow();
+            }
         }
 
-        if (sourceTable == null) {
-            throw new ReplicatorException("Table " + tableName + " not found on source");
+        if (!deferredKeys.isEmpty()) {
+            withSchema(targetConfig, target -> createDeferredKeys(target, deferredKeys));
         }
+    }
 
-        // зависимости реплицируем только если это требуется опцией updateImported
-        if (updateImported) {
-            sourceTable.getImportedKeys().forEach(importedKey -> {
-                String pkTableName = importedKey.getPkTableName();
-                replicateTable(pkTableName, source, target, createdTables);
-            });
-        } else {
+    /**
+     * Граф зависимостей: запрошенные таблицы и таблицы, на которые они ссылаются.
+     * Описания таблиц источника загружаются заранее одним набором запросов на каждый уровень зависимостей,
+     * описания приемника читаются по месту, т.к. они меняются по ходу репликации.
+     */
+    private TableGraph buildGraph(Schema source, Schema target) {
+        TableGraph graph = new TableGraph();
+        List<String> tableNames = Arrays.asList(tables);
+        while (!tableNames.isEmpty()) {
+            Map<String, Table> sourceTables = source.loadTables(tableNames);
+            Set<String> importedTables = new LinkedHashSet<>();
+            for (String tableName : tableNames) {
+                Table sourceTable = sourceTables.get(tableName);
+                if (sourceTable == null) {
+                    throw new ReplicatorException("Table " + tableName + " not found on source");
+                }
+                graph.addTable(sourceTable);
+                importedTables.addAll(sourceTable.getImportedKeys().stream().map(ImportedKey::getPkTableName).collect(Collectors.toList()));
+            }
+            importedTables.removeIf(graph::containsTable);
             // когда опция updateImported отключена, зависимости реплицируем только если их нет в приемнике
-            String importedTables = sourceTable.getImportedKeys().stream().map(ImportedKey::getPkTableName).collect(Collectors.joining(","));
-            List<String> importedList = target.getTables(Collections.singletonList(new Filter(FilterType.IN, importedTables)));
-            sourceTable.getImportedKeys().forEach(importedKey -> {
-                String pkTableName = importedKey.getPkTableName();
-                if (!importedList.contains(pkTableName)) {
-                    replicateTable(pkTableName, source, target, createdTables);
+            if (!options.isUpdateImported() && !importedTables.isEmpty()) {
+                String importedList = String.join(",", importedTables);
+                importedTables.removeAll(target.getTables(Collections.singletonList(new Filter(FilterType.IN, importedList))));
+            }
+            tableNames = new ArrayList<>(importedTables);
+        }
+        for (Table table : graph.getTables()) {
+            table.getImportedKeys().stream()
+                    .filter(importedKey -> graph.containsTable(importedKey.getPkTableName()))
+                    .forEach(importedKey -> graph.addDependency(table.getName(), importedKey));
+        }
+        return graph;
+    }
+
+    /**
+     * Рабочий поток: собственная пара схем (соединения берутся из пула, если он задан),
+     * таблицы берутся из графа по мере готовности их зависимостей.
+     * Если поток завершается, не дойдя до конца графа (в том числе из-за Error), то граф прерывается,
+     * чтобы остальные потоки не ждали таблицу, которая уже не будет реплицирована.
+     */
+    private void replicateTables(TableGraph graph, SyncState syncState) {
+        boolean finished = false;
+        try {
+            withTwoSchemas(sourceConfig, targetConfig, (source, target) -> {
+                try {
+                    Table sourceTable;
+                    while ((sourceTable = graph.take()) != null) {
+                        replicateTable(sourceTable, source, target, graph, syncState);
+                        graph.complete(sourceTable.getName());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ReplicatorException("Replicate interrupted", e);
                 }
             });
+            finished = true;
+        } finally {
+            if (!finished) {
+                graph.fail();
+            }
         }
+    }
 
+    private void replicateTable(Table sourceTable, Schema source, Schema target, TableGraph graph, SyncState syncState) {
+        Table targetTable = target.getTable(sourceTable.getName());
         if (targetTable == null) {
-            createTable(target, sourceTable);
+            createTable(source, target, sourceTable, graph);
         } else {
-            updateTable(target, targetTable, sourceTable);
+            updateTable(target, targetTable, sourceTable, graph);
+        }
+
+        if (syncState != null) {
+            new DeltaSync(source, target, syncState, options, targetConfig.getListener()).sync(sourceTable);
+            if (options.getSyncStateFile() != null) {
+                syncState.save(options.getSyncStateFile());
+            }
         }
     }
 
-    private void createTable(Schema target, Table table) {
+    private void createDeferredKeys(Schema target, List<ImportedKey> deferredKeys) {
+        for (ImportedKey importedKey : deferredKeys) {
+            Table targetTable = target.getTable(importedKey.getTable().getName());
+            if (targetTable.getImportedKey(importedKey.getName()) == null) {
+                target.createImportedKey(importedKey);
+            }
+        }
+    }
+
+    private void createTable(Schema source, Schema target, Table table, TableGraph graph) {
         target.createTable(table);
         if (!StringUtils.isEmpty(table.getComment())) {
             target.createTableComment(table);
         }
         table.getColumns().forEach(target::createColumnComment);
+        if (options.isBulkLoad()) {
+            // в таблицу без индексов и ограничений данные загружаются быстрее, объекты создаются после загрузки
+            if (options.isCopyData()) {
+                copyRows(source, target, table);
+            }
+            BuildOptions buildOptions = new BuildOptions(options.getBuildParallelism(), options.isValidateConstraints());
+            new TableObjectsBuilder(targetConfig, buildOptions)
+                    .build(target, table, importedKey -> !graph.isDeferred(table.getName(), importedKey));
+            finishTable(target, table);
+            return;
+        }
         PrimaryKey primaryKey = table.getPrimaryKey();
         if (primaryKey != null) {
             target.createPrimaryKey(primaryKey);
         }
-        table.getImportedKeys().forEach(target::createImportedKey);
+        table.getImportedKeys().stream()
+                .filter(importedKey -> !graph.isDeferred(table.getName(), importedKey))
+                .forEach(target::createImportedKey);
         table.getCheckConstraints().forEach(target::createCheckConstraint);
         table.getIndices().forEach(target::createIndex);
+        // данные копируем до создания триггеров, чтобы они не срабатывали на каждую строку
+        if (options.isCopyData()) {
+            copyRows(source, target, table);
+        }
+        finishTable(target, table);
+    }
+
+    /**
+     * Последовательность и триггеры создаются после загрузки данных, статистика собирается один раз в конце.
+     */
+    private void finishTable(Schema target, Table table) {
         Sequence sequence = table.getSequence();
         if (sequence != null) {
             target.createSequence(sequence);
@@ -131,10 +264,64 @@ public class ReplicateAction implements Action {
         target.analyzeTable(table);
     }
 
-    private void updateTable(Schema target, Table targetTable, Table sourceTable) {
+    /**
+     * Копирует строки таблицы из источника в приемник.
+     * Чтение и запись выполняются в разных потоках через ограниченную очередь,
+     * поэтому выборка из источника и пакетная вставка в приемник идут параллельно.
+     */
+    private void copyRows(Schema source, Schema target, Table table) {
+        BlockingQueue<TableRow> queue = new ArrayBlockingQueue<>(options.getQueueSize());
+        SelectRowsOptions selectRowsOptions = new SelectRowsOptions(options.getVerboseEach(), Math.max(1, options.getParallelism()));
+        if (options.getRowCountMode() != null) {
+            selectRowsOptions.setRowCountMode(options.getRowCountMode());
+        }
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<?> producer = executorService.submit(() -> {
+            try (TableRowCursor cursor = source.selectRows(table, selectRowsOptions)) {
+                TableRow row;
+                while ((row = cursor.nextDetachedRow()) != null) {
+                    queue.put(row);
+                }
+            } finally {
+                queue.put(END_OF_ROWS);
+            }
+            return null;
+        });
+        BatchOptions batchOptions = new BatchOptions(options.getBatchSize(), options.getCommitEach());
+        batchOptions.setDirectPath(options.isDirectPath());
+        batchOptions.setNoLogging(options.isNoLogging());
+        try (TableBatchExecutor batchExecutor = target.createTableBatchExecutor(table, batchOptions)) {
+            TableRow row;
+            while ((row = queue.take()) != END_OF_ROWS) {
+                batchExecutor.execute(row);
+            }
+            producer.get();
+            batchExecutor.finish();
+            notify(targetConfig, "Copied " + batchExecutor.getTotalRows() + " rows to table " + table.getName()
+                    + " (" + batchExecutor.getStatistics() + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReplicatorException("Interrupted copy rows for table " + table.getName(), e);
+        } catch (ExecutionException e) {
+            String errorMessage = "Failed to copy rows for table " + table.getName() + ": " + e.getCause().getMessage();
+            throw new ReplicatorException(errorMessage, e.getCause());
+        } finally {
+            producer.cancel(true);
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void notify(SchemaConfig config, String message) {
+        Listener listener = config.getListener();
+        if (listener != null) {
+            listener.notify(message);
+        }
+    }
+
+    private void updateTable(Schema target, Table targetTable, Table sourceTable, TableGraph graph) {
         updateColumns(target, targetTable, sourceTable);
         updatePrimaryKey(target, targetTable, sourceTable);
-        updateImportedKeys(target, targetTable, sourceTable);
+        updateImportedKeys(target, targetTable, sourceTable, graph);
         updateCheckConstraints(target, targetTable, sourceTable);
         updateIndices(target, targetTable, sourceTable);
         updateComments(target, targetTable, sourceTable);
@@ -195,7 +382,7 @@ public class ReplicateAction implements Action {
         targetTable.setPrimaryKey(sourcePrimaryKey);
     }
 
-    private void updateImportedKeys(Schema target, Table targetTable, Table sourceTable) {
+    private void updateImportedKeys(Schema target, Table targetTable, Table sourceTable, TableGraph graph) {
         Map<String, ImportedKey> sourceImportedKeys = sourceTable.getImportedKeyMap();
         Map<String, ImportedKey> targetImportedKeys = targetTable.getImportedKeyMap();
 
@@ -207,7 +394,7 @@ public class ReplicateAction implements Action {
         importedKeysToDrop.forEach(targetTable::removeImportedKey);
 
         sourceImportedKeys.forEach((importedKeyName, sourceImportedKey) -> {
-            if (!targetImportedKeys.containsKey(importedKeyName)) {
+            if (!targetImportedKeys.containsKey(importedKeyName) && !graph.isDeferred(sourceTable.getName(), sourceImportedKey)) {
                 target.createImportedKey(sourceImportedKey);
                 targetTable.addImportedKey(sourceImportedKey);
             }
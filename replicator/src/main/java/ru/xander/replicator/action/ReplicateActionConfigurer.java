@@ -1,13 +1,34 @@
 package ru.xander.replicator.action;
 
+import ru.xander.replicator.replicate.ReplicateOptions;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.BuildOptions;
+import ru.xander.replicator.schema.RowCountMode;
 import ru.xander.replicator.schema.SchemaConfig;
 
+import java.io.File;
+
 /**
  * @author Alexander Shakhov
  */
 public class ReplicateActionConfigurer implements ActionConfigurer<ReplicateAction> {
 
     private static final boolean DEFAULT_UPDATE_IMPORTED = false;
+    private static final boolean DEFAULT_COPY_DATA = false;
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final long DEFAULT_VERBOSE_EACH = 10000L;
+    private static final int DEFAULT_BATCH_SIZE = BatchOptions.DEFAULT_BATCH_SIZE;
+    private static final long DEFAULT_COMMIT_EACH = BatchOptions.DEFAULT_COMMIT_EACH;
+    private static final boolean DEFAULT_DIRECT_PATH = false;
+    private static final boolean DEFAULT_NO_LOGGING = false;
+    private static final int DEFAULT_PARALLELISM = 1;
+    private static final int DEFAULT_TABLE_PARALLELISM = 1;
+    private static final RowCountMode DEFAULT_ROW_COUNT_MODE = RowCountMode.ESTIMATED;
+    private static final boolean DEFAULT_BULK_LOAD = false;
+    private static final int DEFAULT_BUILD_PARALLELISM = BuildOptions.DEFAULT_PARALLELISM;
+    private static final boolean DEFAULT_VALIDATE_CONSTRAINTS = BuildOptions.DEFAULT_VALIDATE;
+    private static final boolean DEFAULT_SYNC_DATA = false;
+    private static final long DEFAULT_SYNC_CHUNK_SIZE = 1_000L;
 
     /**
      * Конфигурация схемы-источника.
@@ -24,6 +45,90 @@ public class ReplicateActionConfigurer implements ActionConfigurer<ReplicateActi
      */
     private boolean updateImported = DEFAULT_UPDATE_IMPORTED;
 
+    /**
+     * Копировать данные в созданные таблицы.
+     */
+    private boolean copyData = DEFAULT_COPY_DATA;
+
+    /**
+     * Размер очереди строк между чтением из источника и записью в приемник.
+     */
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    /**
+     * Количество записей, после которого будет генерироваться событие прогресса.
+     */
+    private long verboseEach = DEFAULT_VERBOSE_EACH;
+
+    /**
+     * Количество строк в одном пакете вставки.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Количество строк, после которого будет выполняться коммит.
+     * Если 0, то коммит будет только после копирования всей таблицы.
+     */
+    private long commitEach = DEFAULT_COMMIT_EACH;
+
+    /**
+     * Вставлять строки в обход буферного кэша (direct-path), если СУБД это поддерживает.
+     * На время загрузки отключаются неуникальные индексы, триггеры и внешние ключи таблицы.
+     */
+    private boolean directPath = DEFAULT_DIRECT_PATH;
+
+    /**
+     * Не писать в redo-лог изменения таблицы при вставке direct-path.
+     */
+    private boolean noLogging = DEFAULT_NO_LOGGING;
+
+    /**
+     * Количество соединений для параллельной выборки строк из источника.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Количество таблиц, реплицируемых одновременно. Каждая таблица реплицируется после таблиц,
+     * на которые ссылаются ее внешние ключи, каждый поток работает через собственную пару соединений.
+     */
+    private int tableParallelism = DEFAULT_TABLE_PARALLELISM;
+
+    /**
+     * Способ определения количества строк источника для событий прогресса.
+     */
+    private RowCountMode rowCountMode = DEFAULT_ROW_COUNT_MODE;
+
+    /**
+     * Создавать новые таблицы без индексов и ограничений, а индексы и ограничения строить после загрузки данных.
+     */
+    private boolean bulkLoad = DEFAULT_BULK_LOAD;
+
+    /**
+     * Степень параллелизма построения индексов после загрузки данных.
+     */
+    private int buildParallelism = DEFAULT_BUILD_PARALLELISM;
+
+    /**
+     * Проверять ли загруженные данные при создании ограничений после загрузки.
+     */
+    private boolean validateConstraints = DEFAULT_VALIDATE_CONSTRAINTS;
+
+    /**
+     * Синхронизировать данные таблиц: применять к приемнику только изменившиеся строки.
+     */
+    private boolean syncData = DEFAULT_SYNC_DATA;
+
+    /**
+     * Количество значений ключа в наименьшем диапазоне, для которого хранится контрольная сумма.
+     */
+    private long syncChunkSize = DEFAULT_SYNC_CHUNK_SIZE;
+
+    /**
+     * Файл, в котором между запусками хранятся контрольные суммы диапазонов ключа.
+     * Если не задан, то при каждой синхронизации источник сравнивается с приемником.
+     */
+    private File syncStateFile;
+
     /**
      * Список таблиц для репликации.
      */
@@ -44,6 +149,86 @@ public class ReplicateActionConfigurer implements ActionConfigurer<ReplicateActi
         return this;
     }
 
+    public ReplicateActionConfigurer copyData(boolean copyData) {
+        this.copyData = copyData;
+        return this;
+    }
+
+    public ReplicateActionConfigurer queueSize(int queueSize) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public ReplicateActionConfigurer verboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+        return this;
+    }
+
+    public ReplicateActionConfigurer batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public ReplicateActionConfigurer commitEach(long commitEach) {
+        this.commitEach = commitEach;
+        return this;
+    }
+
+    public ReplicateActionConfigurer directPath(boolean directPath) {
+        this.directPath = directPath;
+        return this;
+    }
+
+    public ReplicateActionConfigurer noLogging(boolean noLogging) {
+        this.noLogging = noLogging;
+        return this;
+    }
+
+    public ReplicateActionConfigurer parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ReplicateActionConfigurer tableParallelism(int tableParallelism) {
+        this.tableParallelism = tableParallelism;
+        return this;
+    }
+
+    public ReplicateActionConfigurer rowCountMode(RowCountMode rowCountMode) {
+        this.rowCountMode = rowCountMode;
+        return this;
+    }
+
+    public ReplicateActionConfigurer bulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+        return this;
+    }
+
+    public ReplicateActionConfigurer buildParallelism(int buildParallelism) {
+        this.buildParallelism = buildParallelism;
+        return this;
+    }
+
+    public ReplicateActionConfigurer validateConstraints(boolean validateConstraints) {
+        this.validateConstraints = validateConstraints;
+        return this;
+    }
+
+    public ReplicateActionConfigurer syncData(boolean syncData) {
+        this.syncData = syncData;
+        return this;
+    }
+
+    public ReplicateActionConfigurer syncChunkSize(long syncChunkSize) {
+        this.syncChunkSize = syncChunkSize;
+        return this;
+    }
+
+    public ReplicateActionConfigurer syncStateFile(File syncStateFile) {
+        this.syncStateFile = syncStateFile;
+        return this;
+    }
+
     public ReplicateActionConfigurer tables(String... tables) {
         this.tables = tables;
         return this;
@@ -51,6 +236,24 @@ public class ReplicateActionConfigurer implements ActionConfigurer<ReplicateActi
 
     @Override
     public ReplicateAction configure() {
-        return new ReplicateAction(sourceConfig, targetConfig, updateImported, tables);
+        ReplicateOptions options = new ReplicateOptions();
+        options.setUpdateImported(updateImported);
+        options.setCopyData(copyData);
+        options.setQueueSize(queueSize);
+        options.setVerboseEach(verboseEach);
+        options.setBatchSize(batchSize);
+        options.setCommitEach(commitEach);
+        options.setDirectPath(directPath);
+        options.setNoLogging(noLogging);
+        options.setParallelism(parallelism);
+        options.setTableParallelism(tableParallelism);
+        options.setRowCountMode(rowCountMode);
+        options.setBulkLoad(bulkLoad);
+        options.setBuildParallelism(buildParallelism);
+        options.setValidateConstraints(validateConstraints);
+        options.setSyncData(syncData);
+        options.setSyncChunkSize(syncChunkSize);
+        options.setSyncStateFile(syncStateFile);
+        return new ReplicateAction(sourceConfig, targetConfig, tables, options);
     }
 }
@@ -0,0 +1,273 @@
+package ru.xander.replicator.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ru.xander.replicator.dump.json.TableDeserializer;
+import ru.xander.replicator.dump.json.TableSerializer;
+import ru.xander.replicator.exception.ReplicatorException;
+import ru.xander.replicator.schema.ExportedKey;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Кэш описаний таблиц. Ключ - идентификатор схемы (адрес, пользователь, рабочая схема) и имя таблицы.
+ * При превышении размера вытесняются давно не использованные описания (LRU).
+ * <p>
+ * Описания хранятся в сериализованном виде, поэтому каждое чтение возвращает новую копию таблицы,
+ * которую вызывающий код может свободно изменять. Вместе с описанием хранится версия DDL таблицы
+ * (для Oracle - по ALL_OBJECTS.LAST_DDL_TIME), по которой схема определяет актуальность описания.
+ * Собственные изменения структуры сбрасывают описание через {@code AbstractSchema.alter}.
+ * <p>
+ * Кэш можно сохранить на диск и загрузить при следующем запуске. Сохраняются только описания
+ * с известной версией DDL, т.к. актуальность остальных проверить нельзя.
+ *
+ * @author Alexander Shakhov
+ */
+public class MetadataCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final int maxSize;
+    private final Map<Key, CacheEntry> entries;
+    private final ObjectMapper objectMapper;
+
+    public MetadataCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public MetadataCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be greatest than 0");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<Key, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+                return size() > MetadataCache.this.maxSize;
+            }
+        };
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.objectMapper.registerModule(new SimpleModule()
+                .addSerializer(Table.class, new TableSerializer())
+                .addDeserializer(Table.class, new TableDeserializer()));
+    }
+
+    /**
+     * Описание таблицы из кэша.
+     *
+     * @param schemaId  идентификатор схемы
+     * @param tableName имя таблицы
+     * @param ddlTime   текущая версия DDL таблицы или null, если СУБД ее не предоставляет
+     * @return копия описания или null, если его нет в кэше или оно устарело
+     */
+    public Table get(String schemaId, String tableName, String ddlTime) {
+        Key key = new Key(schemaId, tableName);
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if ((entry != null) && (ddlTime != null) && !ddlTime.equals(entry.ddlTime)) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        return entry == null ? null : readTable(entry.data);
+    }
+
+    public void put(String schemaId, Table table, String ddlTime) {
+        CacheEntry entry = new CacheEntry(ddlTime, writeTable(table));
+        synchronized (entries) {
+            entries.put(new Key(schemaId, table.getName()), entry);
+        }
+    }
+
+    public void invalidate(String schemaId, String tableName) {
+        synchronized (entries) {
+            entries.remove(new Key(schemaId, tableName));
+        }
+    }
+
+    public void invalidateSchema(String schemaId) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.schemaId.equals(schemaId));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Сохранение снимка кэша. Описания без версии DDL не сохраняются.
+     */
+    public void save(OutputStream output) {
+        List<Map.Entry<Key, CacheEntry>> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(output)) {
+            gen.writeStartObject();
+            gen.writeNumberField("version", SNAPSHOT_VERSION);
+            gen.writeArrayFieldStart("entries");
+            for (Map.Entry<Key, CacheEntry> item : snapshot) {
+                if (item.getValue().ddlTime == null) {
+                    continue;
+                }
+                gen.writeStartObject();
+                gen.writeStringField("schemaId", item.getKey().schemaId);
+                gen.writeStringField("ddlTime", item.getValue().ddlTime);
+                gen.writeFieldName("data");
+                gen.writeTree(objectMapper.readTree(item.getValue().data));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new ReplicatorException("Failed to save metadata cache: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Загрузка снимка кэша, сохраненного {@link #save(OutputStream)}.
+     * Снимок другой версии игнорируется.
+     */
+    public void load(InputStream input) {
+        try {
+            JsonNode root = objectMapper.readTree(input);
+            if ((root == null) || (root.path("version").asInt() != SNAPSHOT_VERSION)) {
+                return;
+            }
+            synchronized (entries) {
+                for (JsonNode entryNode : root.path("entries")) {
+                    String schemaId = entryNode.path("schemaId").asText();
+                    JsonNode dataNode = entryNode.path("data");
+                    Key key = new Key(schemaId, dataNode.path("table").path("name").asText());
+                    entries.put(key, new CacheEntry(entryNode.path("ddlTime").asText(), objectMapper.writeValueAsBytes(dataNode)));
+                }
+            }
+        } catch (IOException e) {
+            throw new ReplicatorException("Failed to load metadata cache: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] writeTable(Table table) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(output)) {
+                gen.writeStartObject();
+                gen.writeObjectField("table", table);
+                // внешние ключи других таблиц не входят в секцию table дампа, сохраняем их отдельно
+                gen.writeArrayFieldStart("exportedKeys");
+                for (ExportedKey exportedKey : table.getExportedKeys()) {
+                    gen.writeStartObject();
+                    gen.writeStringField("name", exportedKey.getName());
+                    gen.writeStringField("columns", joinColumns(exportedKey.getColumns()));
+                    gen.writeObjectField("enabled", exportedKey.getEnabled());
+                    gen.writeStringField("fkTableSchema", exportedKey.getFkTableSchema());
+                    gen.writeStringField("fkTableName", exportedKey.getFkTableName());
+                    gen.writeStringField("fkName", exportedKey.getFkName());
+                    gen.writeStringField("fkColumns", joinColumns(exportedKey.getFkColumns()));
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new ReplicatorException("Failed to cache table " + table.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Table readTable(byte[] data) {
+        try {
+            JsonNode node = objectMapper.readTree(data);
+            Table table = objectMapper.treeToValue(node.path("table"), Table.class);
+            Iterator<JsonNode> exportedKeys = node.path("exportedKeys").elements();
+            while (exportedKeys.hasNext()) {
+                JsonNode exportedKeyNode = exportedKeys.next();
+                ExportedKey exportedKey = new ExportedKey();
+                exportedKey.setTable(table);
+                // textValue() возвращает null для null и отсутствующего поля, в отличие от asText()
+                exportedKey.setName(exportedKeyNode.path("name").textValue());
+                exportedKey.setColumns(splitColumns(exportedKeyNode.path("columns").textValue()));
+                exportedKey.setEnabled(readBoolean(exportedKeyNode.path("enabled")));
+                exportedKey.setFkTableSchema(exportedKeyNode.path("fkTableSchema").textValue());
+                exportedKey.setFkTableName(exportedKeyNode.path("fkTableName").textValue());
+                exportedKey.setFkName(exportedKeyNode.path("fkName").textValue());
+                exportedKey.setFkColumns(splitColumns(exportedKeyNode.path("fkColumns").textValue()));
+                table.addExportedKey(exportedKey);
+            }
+            return table;
+        } catch (IOException e) {
+            throw new ReplicatorException("Failed to read cached table: " + e.getMessage(), e);
+        }
+    }
+
+    private static String joinColumns(String[] columns) {
+        return columns == null ? null : StringUtils.joinColumns(columns);
+    }
+
+    private static String[] splitColumns(String columns) {
+        return columns == null ? null : StringUtils.splitColumns(columns);
+    }
+
+    private static Boolean readBoolean(JsonNode node) {
+        return node.isBoolean() ? Boolean.valueOf(node.booleanValue()) : null;
+    }
+
+    private static class Key {
+        private final String schemaId;
+        private final String tableName;
+
+        private Key(String schemaId, String tableName) {
+            this.schemaId = schemaId;
+            this.tableName = tableName.toUpperCase();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return schemaId.equals(key.schemaId) && tableName.equals(key.tableName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(schemaId, tableName);
+        }
+    }
+
+    private static class CacheEntry {
+        private final String ddlTime;
+        private final byte[] data;
+
+        private CacheEntry(String ddlTime, byte[] data) {
+            this.ddlTime = ddlTime;
+            this.data = data;
+        }
+    }
+}
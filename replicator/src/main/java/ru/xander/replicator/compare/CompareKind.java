@@ -33,5 +33,8 @@ public enum CompareKind {
     TRIGGER_ENABLED,
     SEQUENCE_ABSENT_ON_SOURCE,
     SEQUENCE_ABSENT_ON_TARGET,
-    SEQUENCE_NAME;
+    SEQUENCE_NAME,
+    ROW_ABSENT_ON_SOURCE,
+    ROW_ABSENT_ON_TARGET,
+    ROW_VALUES;
 }
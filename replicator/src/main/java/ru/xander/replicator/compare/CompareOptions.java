@@ -7,6 +7,11 @@ public class CompareOptions {
 
     private boolean skipComments;
     private boolean skipDefaults;
+    private int parallelism;
+    private boolean compareData;
+    private long dataChunkSize;
+    private long rowChunkSize;
+    private int maxDataDiffs;
 
     public boolean isSkipComments() {
         return skipComments;
@@ -23,4 +28,44 @@ public class CompareOptions {
     public void setSkipDefaults(boolean skipDefaults) {
         this.skipDefaults = skipDefaults;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isCompareData() {
+        return compareData;
+    }
+
+    public void setCompareData(boolean compareData) {
+        this.compareData = compareData;
+    }
+
+    public long getDataChunkSize() {
+        return dataChunkSize;
+    }
+
+    public void setDataChunkSize(long dataChunkSize) {
+        this.dataChunkSize = dataChunkSize;
+    }
+
+    public long getRowChunkSize() {
+        return rowChunkSize;
+    }
+
+    public void setRowChunkSize(long rowChunkSize) {
+        this.rowChunkSize = rowChunkSize;
+    }
+
+    public int getMaxDataDiffs() {
+        return maxDataDiffs;
+    }
+
+    public void setMaxDataDiffs(int maxDataDiffs) {
+        this.maxDataDiffs = maxDataDiffs;
+    }
 }
@@ -0,0 +1,242 @@
+package ru.xander.replicator.compare;
+
+import ru.xander.replicator.exception.KeyRangeOverflowException;
+import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.DataChecksum;
+import ru.xander.replicator.schema.KeyRange;
+import ru.xander.replicator.schema.RowCountMode;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaUtils;
+import ru.xander.replicator.schema.SelectRowsOptions;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableRowCursor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Сравнение данных таблиц по контрольным суммам.
+ * <p>
+ * Диапазон первичного ключа делится на порции, для каждой порции на обеих сторонах считается количество
+ * строк и сумма хэшей строк. Порции с различающимися суммами делятся на более мелкие
+ * ({@value #DRILL_DOWN_FACTOR} частей), пока размер порции не станет меньше {@link CompareOptions#getRowChunkSize()},
+ * после чего строки таких порций выбираются с обеих сторон и сравниваются поштучно.
+ * <p>
+ * Если обе схемы одного типа и СУБД умеет хэшировать строки ({@link ru.xander.replicator.schema.Dialect#selectChecksumQuery}),
+ * то суммы считаются на сервере и по сети передаются только они. Иначе (HSQLDB, схемы разных типов)
+ * строки выбираются и хэшируются на клиенте ({@link RowHasher}).
+ * <p>
+ * Сравниваются только таблицы с первичным ключом из одного целочисленного столбца и только столбцы,
+ * присутствующие в обеих таблицах.
+ *
+ * @author Alexander Shakhov
+ */
+public class DataComparator {
+
+    private static final int DRILL_DOWN_FACTOR = 16;
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final Schema source;
+    private final Schema target;
+    private final CompareOptions options;
+    private final Listener listener;
+    private final List<CompareDiff> diffs = new ArrayList<>();
+    private Table sourceTable;
+    private Table targetTable;
+    private int keyIndex;
+    private boolean serverSide;
+
+    public DataComparator(Schema source, Schema target, CompareOptions options, Listener listener) {
+        this.source = source;
+        this.target = target;
+        this.options = options;
+        this.listener = listener;
+    }
+
+    /**
+     * Различия в данных таблиц (не больше {@link CompareOptions#getMaxDataDiffs()}).
+     */
+    public List<CompareDiff> compare(Table sourceTable, Table targetTable) {
+        String keyColumn = SchemaUtils.getIntegerKeyColumn(sourceTable);
+        if ((keyColumn == null) || (targetTable.getColumn(keyColumn) == null)) {
+            warning("Table " + sourceTable.getName() + " has no single-column integer primary key, data is not compared");
+            return diffs;
+        }
+        this.sourceTable = project(sourceTable, targetTable);
+        this.targetTable = project(targetTable, this.sourceTable);
+        this.keyIndex = new ArrayList<>(this.sourceTable.getColumnMap().keySet()).indexOf(keyColumn);
+        this.serverSide = (source.getVendorType() == target.getVendorType())
+                && (source.getDialect().selectChecksumQuery(this.sourceTable, keyColumn) != null);
+
+        KeyRange sourceRange;
+        KeyRange targetRange;
+        try {
+            sourceRange = source.selectKeyRange(this.sourceTable, keyColumn);
+            targetRange = target.selectKeyRange(this.targetTable, keyColumn);
+        } catch (KeyRangeOverflowException e) {
+            warning(e.getMessage() + ", data is not compared");
+            return diffs;
+        }
+        if ((sourceRange == null) && (targetRange == null)) {
+            return diffs;
+        }
+        KeyRange range;
+        if (sourceRange == null) {
+            range = targetRange;
+        } else if (targetRange == null) {
+            range = sourceRange;
+        } else {
+            range = new KeyRange(keyColumn,
+                    Math.min(sourceRange.getLower(), targetRange.getLower()),
+                    Math.max(sourceRange.getUpper(), targetRange.getUpper()));
+        }
+        long chunkSize = serverSide ? options.getDataChunkSize() : options.getRowChunkSize();
+        compareRange(range, Math.max(1L, chunkSize));
+        if (diffs.size() >= options.getMaxDataDiffs()) {
+            warning("Table " + sourceTable.getName() + " has " + options.getMaxDataDiffs() + " or more different rows, the rest are skipped");
+        }
+        return diffs;
+    }
+
+    private void compareRange(KeyRange range, long chunkSize) {
+        if (range.getSpan() <= options.getRowChunkSize()) {
+            compareRows(range);
+            return;
+        }
+        Map<Long, DataChecksum> sourceChecksums = selectChecksums(source, sourceTable, range, chunkSize);
+        Map<Long, DataChecksum> targetChecksums = selectChecksums(target, targetTable, range, chunkSize);
+        TreeSet<Long> chunks = new TreeSet<>(sourceChecksums.keySet());
+        chunks.addAll(targetChecksums.keySet());
+        for (Long chunk : chunks) {
+            if (diffs.size() >= options.getMaxDataDiffs()) {
+                return;
+            }
+            if (Objects.equals(sourceChecksums.get(chunk), targetChecksums.get(chunk))) {
+                continue;
+            }
+            long lower = range.getLower() + chunk * chunkSize;
+            long upper = Math.min(range.getUpper(), lower + chunkSize - 1);
+            KeyRange chunkRange = new KeyRange(range.getKeyColumn(), lower, upper);
+            compareRange(chunkRange, Math.max(options.getRowChunkSize(), chunkSize / DRILL_DOWN_FACTOR));
+        }
+    }
+
+    private Map<Long, DataChecksum> selectChecksums(Schema schema, Table table, KeyRange range, long chunkSize) {
+        if (serverSide) {
+            return schema.selectChecksums(table, range, chunkSize);
+        }
+        Map<Long, long[]> sums = new HashMap<>();
+        try (TableRowCursor cursor = schema.selectRows(table, rangeOptions(range))) {
+            String[] values = new String[cursor.getColumnCount()];
+            while (cursor.next()) {
+                RowHasher.readRow(cursor, values);
+                long chunk = Math.floorDiv(cursor.getLong(keyIndex) - range.getLower(), chunkSize);
+                long[] sum = sums.computeIfAbsent(chunk, k -> new long[2]);
+                sum[0]++;
+                sum[1] += RowHasher.hashRow(values);
+            }
+        }
+        Map<Long, DataChecksum> checksums = new HashMap<>();
+        sums.forEach((chunk, sum) -> checksums.put(chunk, new DataChecksum(sum[0], sum[1])));
+        return checksums;
+    }
+
+    private void compareRows(KeyRange range) {
+        Map<Long, String[]> sourceRows = selectRows(source, sourceTable, range);
+        Map<Long, String[]> targetRows = selectRows(target, targetTable, range);
+        TreeSet<Long> keys = new TreeSet<>(sourceRows.keySet());
+        keys.addAll(targetRows.keySet());
+        String keyColumn = range.getKeyColumn();
+        List<Column> columns = new ArrayList<>(sourceTable.getColumns());
+        for (Long key : keys) {
+            if (diffs.size() >= options.getMaxDataDiffs()) {
+                return;
+            }
+            String[] sourceRow = sourceRows.get(key);
+            String[] targetRow = targetRows.get(key);
+            if (targetRow == null) {
+                addDiff(CompareKind.ROW_ABSENT_ON_TARGET, keyColumn + '=' + key, null);
+            } else if (sourceRow == null) {
+                addDiff(CompareKind.ROW_ABSENT_ON_SOURCE, null, keyColumn + '=' + key);
+            } else {
+                StringBuilder sourceValue = new StringBuilder(keyColumn).append('=').append(key);
+                StringBuilder targetValue = new StringBuilder(keyColumn).append('=').append(key);
+                boolean different = false;
+                for (int i = 0; i < sourceRow.length; i++) {
+                    if (!Objects.equals(sourceRow[i], targetRow[i])) {
+                        String columnName = columns.get(i).getName();
+                        sourceValue.append(", ").append(columnName).append('=').append(displayValue(sourceRow[i]));
+                        targetValue.append(", ").append(columnName).append('=').append(displayValue(targetRow[i]));
+                        different = true;
+                    }
+                }
+                if (different) {
+                    addDiff(CompareKind.ROW_VALUES, sourceValue.toString(), targetValue.toString());
+                }
+            }
+        }
+    }
+
+    private Map<Long, String[]> selectRows(Schema schema, Table table, KeyRange range) {
+        Map<Long, String[]> rows = new TreeMap<>();
+        try (TableRowCursor cursor = schema.selectRows(table, rangeOptions(range))) {
+            while (cursor.next()) {
+                String[] values = new String[cursor.getColumnCount()];
+                RowHasher.readRow(cursor, values);
+                rows.put(cursor.getLong(keyIndex), values);
+            }
+        }
+        return rows;
+    }
+
+    private void addDiff(CompareKind kind, String sourceValue, String targetValue) {
+        CompareDiff compareDiff = new CompareDiff();
+        compareDiff.setKind(kind);
+        compareDiff.setSourceValue(sourceValue);
+        compareDiff.setTargetValue(targetValue);
+        diffs.add(compareDiff);
+    }
+
+    private static SelectRowsOptions rangeOptions(KeyRange range) {
+        SelectRowsOptions selectOptions = new SelectRowsOptions(Long.MAX_VALUE);
+        selectOptions.setRowCountMode(RowCountMode.NONE);
+        selectOptions.setKeyRange(range);
+        return selectOptions;
+    }
+
+    private static String displayValue(String value) {
+        if ((value == null) || (value.length() <= MAX_VALUE_LENGTH)) {
+            return value;
+        }
+        return value.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+
+    /**
+     * Таблица с теми же именем и схемой, содержащая только столбцы, присутствующие в другой таблице
+     * (в порядке столбцов другой таблицы).
+     */
+    private static Table project(Table table, Table other) {
+        Table projection = new Table();
+        projection.setSchema(table.getSchema());
+        projection.setName(table.getName());
+        for (Column otherColumn : other.getColumns()) {
+            Column column = table.getColumn(otherColumn.getName());
+            if (column != null) {
+                projection.addColumn(column);
+            }
+        }
+        return projection;
+    }
+
+    private void warning(String message) {
+        if (listener != null) {
+            listener.warning(message);
+        }
+    }
+}
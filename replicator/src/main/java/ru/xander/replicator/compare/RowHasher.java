@@ -0,0 +1,113 @@
+package ru.xander.replicator.compare;
+
+import ru.xander.replicator.exception.ReplicatorException;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.TableRowCursor;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Хэширование строк на клиенте. Значения столбцов предварительно приводятся к представлению,
+ * не зависящему от СУБД и драйвера, поэтому хэши строк из схем разных типов можно сравнивать.
+ *
+ * @author Alexander Shakhov
+ */
+public final class RowHasher {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private RowHasher() {
+    }
+
+    /**
+     * Нормализованные значения текущей строки курсора.
+     */
+    public static void readRow(TableRowCursor cursor, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = normalize(cursor.getColumn(i), cursor.getObject(i));
+        }
+    }
+
+    /**
+     * Представление значения, не зависящее от СУБД и драйвера.
+     */
+    public static String normalize(Column column, Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value instanceof Boolean) {
+                return ((Boolean) value) ? "1" : "0";
+            }
+            if (value instanceof Number) {
+                BigDecimal number = new BigDecimal(value.toString());
+                return number.signum() == 0 ? "0" : number.stripTrailingZeros().toPlainString();
+            }
+            if (value instanceof Time) {
+                return ((Time) value).toLocalTime().toString();
+            }
+            if (value instanceof java.util.Date) {
+                LocalDateTime dateTime = (value instanceof Timestamp)
+                        ? ((Timestamp) value).toLocalDateTime()
+                        : new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime();
+                switch (column.getColumnType()) {
+                    case DATE:
+                        return dateTime.truncatedTo(ChronoUnit.SECONDS).toString();
+                    case TIME:
+                        return dateTime.toLocalTime().truncatedTo(ChronoUnit.SECONDS).toString();
+                    default:
+                        return dateTime.toString();
+                }
+            }
+            if (value instanceof Clob) {
+                Clob clob = (Clob) value;
+                return clob.getSubString(1L, (int) clob.length());
+            }
+            if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                return normalizeBytes(blob.getBytes(1L, (int) blob.length()));
+            }
+            if (value instanceof byte[]) {
+                return normalizeBytes((byte[]) value);
+            }
+            return value.toString();
+        } catch (SQLException e) {
+            String errorMessage = "Failed to read value of column " + column.getName() + ": " + e.getMessage();
+            throw new ReplicatorException(errorMessage, e);
+        }
+    }
+
+    private static String normalizeBytes(byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return bytes.length + " bytes, hash " + Long.toHexString(hash);
+    }
+
+    /**
+     * Хэш строки (FNV-1a) по нормализованным значениям столбцов.
+     */
+    public static long hashRow(String[] values) {
+        long hash = FNV_OFFSET_BASIS;
+        for (String value : values) {
+            if (value == null) {
+                hash = (hash ^ 0xff) * FNV_PRIME;
+            } else {
+                for (int i = 0; i < value.length(); i++) {
+                    hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+                }
+            }
+            hash = (hash ^ 0xfe) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
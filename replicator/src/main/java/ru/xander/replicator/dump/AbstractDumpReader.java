@@ -0,0 +1,47 @@
+package ru.xander.replicator.dump;
+
+import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableField;
+import ru.xander.replicator.schema.TableRow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Общая часть читателей дампа: сборка строки таблицы из пар "имя столбца - текстовое значение".
+ *
+ * @author Alexander Shakhov
+ */
+public abstract class AbstractDumpReader implements DumpReader {
+
+    private Table rowTable;
+    private Map<String, Integer> columnIndices;
+
+    protected TableRow createRow(Table table) {
+        if (table != rowTable) {
+            columnIndices = new HashMap<>();
+            int index = 0;
+            for (Column column : table.getColumns()) {
+                columnIndices.put(column.getName(), index++);
+            }
+            rowTable = table;
+        }
+        TableField[] fields = new TableField[columnIndices.size()];
+        int index = 0;
+        for (Column column : table.getColumns()) {
+            fields[index++] = new TableField(column);
+        }
+        return new TableRow(table, fields);
+    }
+
+    protected void setValue(TableRow row, String columnName, String value) {
+        Integer index = columnIndices.get(columnName);
+        if (index == null) {
+            throw new DumpException("Column " + columnName + " not found in table " + row.getTable().getName());
+        }
+        TableField field = row.getFields()[index];
+        field.setValue(DumpUtils.parseValue(field.getColumn().getColumnType(), value));
+    }
+}
@@ -0,0 +1,172 @@
+package ru.xander.replicator.dump;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ru.xander.replicator.dump.binary.BinaryFormat;
+import ru.xander.replicator.dump.binary.BlockDecoder;
+import ru.xander.replicator.dump.json.TableDeserializer;
+import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableField;
+import ru.xander.replicator.schema.TableRow;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Потоковое чтение бинарного дампа, записанного {@link BinaryTableSerializer}.
+ * Блоки читаются последовательно, индекс блоков в конце файла не используется.
+ *
+ * @author Alexander Shakhov
+ */
+public class BinaryDumpReader implements DumpReader {
+
+    private final DataInputStream input;
+    private final Table dumpTable;
+    private final boolean hasDdl;
+    private final BlockDecoder decoder;
+    private final Inflater inflater;
+    private byte[] compressed = new byte[0];
+    private byte[] raw = new byte[0];
+    private Object[][] block;
+    private int blockRows;
+    private int blockPosition;
+    private boolean finished;
+    private Table rowTable;
+    private int[] fieldIndices;
+
+    public BinaryDumpReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        byte[] magic = new byte[BinaryFormat.MAGIC.length];
+        this.input.readFully(magic);
+        if (!Arrays.equals(magic, BinaryFormat.MAGIC)) {
+            throw new DumpException("Invalid binary dump: wrong file signature");
+        }
+        int version = this.input.readUnsignedByte();
+        if (version != BinaryFormat.VERSION) {
+            throw new DumpException("Unsupported binary dump version " + version);
+        }
+        this.hasDdl = (this.input.readUnsignedByte() & BinaryFormat.FLAG_DDL) != 0;
+        byte[] header = new byte[(int) readVarLong()];
+        this.input.readFully(header);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new SimpleModule().addDeserializer(Table.class, new TableDeserializer()));
+        this.dumpTable = objectMapper.readValue(header, Table.class);
+        this.decoder = new BlockDecoder(dumpTable.getColumns().size());
+        this.inflater = new Inflater();
+    }
+
+    @Override
+    public Table readTable() {
+        return hasDdl ? dumpTable : null;
+    }
+
+    @Override
+    public TableRow nextRow(Table table) throws IOException {
+        if ((block == null) || (blockPosition >= blockRows)) {
+            if (finished || !readBlock()) {
+                return null;
+            }
+        }
+        if (table != rowTable) {
+            fieldIndices = mapColumns(table);
+            rowTable = table;
+        }
+        TableField[] fields = new TableField[table.getColumns().size()];
+        int index = 0;
+        for (Column column : table.getColumns()) {
+            fields[index++] = new TableField(column);
+        }
+        for (int c = 0; c < fieldIndices.length; c++) {
+            fields[fieldIndices[c]].setValue(block[c][blockPosition]);
+        }
+        blockPosition++;
+        return new TableRow(table, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        input.close();
+    }
+
+    private boolean readBlock() throws IOException {
+        int rowCount = (int) readVarLong();
+        if (rowCount == BinaryFormat.END_OF_BLOCKS) {
+            finished = true;
+            return false;
+        }
+        int rawLength = (int) readVarLong();
+        int compressedLength = (int) readVarLong();
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        input.readFully(compressed, 0, compressedLength);
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int length = 0;
+            while (length < rawLength) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if ((inflated == 0) && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new DumpException("Corrupted binary dump block: expected " + rawLength + " bytes, inflated " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new DumpException("Corrupted binary dump block: " + e.getMessage(), e);
+        }
+        block = decoder.decode(raw, rawLength, rowCount);
+        blockRows = rowCount;
+        blockPosition = 0;
+        return true;
+    }
+
+    private int[] mapColumns(Table table) {
+        Map<String, Integer> targetIndices = new HashMap<>();
+        int index = 0;
+        for (Column column : table.getColumns()) {
+            targetIndices.put(column.getName(), index++);
+        }
+        int[] indices = new int[dumpTable.getColumns().size()];
+        index = 0;
+        for (Column column : dumpTable.getColumns()) {
+            Integer targetIndex = targetIndices.get(column.getName());
+            if (targetIndex == null) {
+                throw new DumpException("Column " + column.getName() + " not found in table " + table.getName());
+            }
+            indices[index++] = targetIndex;
+        }
+        return indices;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of binary dump");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
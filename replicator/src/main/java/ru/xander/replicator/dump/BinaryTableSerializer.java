@@ -0,0 +1,79 @@
+package ru.xander.replicator.dump;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ru.xander.replicator.dump.binary.BinaryFormat;
+import ru.xander.replicator.dump.binary.BlockEncoder;
+import ru.xander.replicator.dump.binary.BlockOutput;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.schema.TableRowCursor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Бинарный дамп таблицы: заголовок с описанием таблицы и сжатые колоночные блоки строк.
+ * Формат описан в {@link BinaryFormat}.
+ *
+ * @author Alexander Shakhov
+ */
+public class BinaryTableSerializer implements TableSerializer {
+
+    @Override
+    public void serialize(Table table, Schema schema, OutputStream output, DumpOptions options) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new SimpleModule().addSerializer(Table.class, new ru.xander.replicator.dump.json.TableSerializer()));
+        byte[] header = objectMapper.writeValueAsBytes(table);
+
+        BlockOutput buffer = new BlockOutput(64);
+        buffer.write(BinaryFormat.MAGIC, 0, BinaryFormat.MAGIC.length);
+        buffer.write(BinaryFormat.VERSION);
+        buffer.write(options.isDumpDdl() ? BinaryFormat.FLAG_DDL : 0);
+        buffer.writeBytes(header);
+        output.write(buffer.getBuffer(), 0, buffer.size());
+        long offset = buffer.size();
+
+        BlockOutput index = new BlockOutput(64);
+        int blockCount = 0;
+        if (options.isDumpDml()) {
+            ColumnType[] columnTypes = table.getColumns().stream().map(Column::getColumnType).toArray(ColumnType[]::new);
+            BlockEncoder encoder = new BlockEncoder(columnTypes, BinaryFormat.DEFAULT_BLOCK_ROWS, Deflater.DEFAULT_COMPRESSION);
+            try (TableRowCursor cursor = schema.selectRows(table, DumpUtils.selectRowsOptions(options))) {
+                TableRow row;
+                while ((row = cursor.nextRow()) != null) {
+                    if (encoder.add(row)) {
+                        index.writeVarLong(offset);
+                        index.writeVarLong(encoder.getRowCount());
+                        offset += encoder.writeBlock(output);
+                        blockCount++;
+                    }
+                }
+                if (encoder.getRowCount() > 0) {
+                    index.writeVarLong(offset);
+                    index.writeVarLong(encoder.getRowCount());
+                    offset += encoder.writeBlock(output);
+                    blockCount++;
+                }
+            } finally {
+                encoder.close();
+            }
+        }
+        output.write(BinaryFormat.END_OF_BLOCKS);
+        offset++;
+
+        buffer.reset();
+        buffer.writeVarLong(blockCount);
+        buffer.write(index.getBuffer(), 0, index.size());
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer.write((int) (offset >>> shift));
+        }
+        buffer.write(BinaryFormat.INDEX_MAGIC, 0, BinaryFormat.INDEX_MAGIC.length);
+        output.write(buffer.getBuffer(), 0, buffer.size());
+        output.flush();
+    }
+}
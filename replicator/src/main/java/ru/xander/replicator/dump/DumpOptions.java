@@ -1,5 +1,7 @@
 package ru.xander.replicator.dump;
 
+import ru.xander.replicator.schema.RowCountMode;
+
 import java.nio.charset.Charset;
 
 /**
@@ -11,7 +13,10 @@ public class DumpOptions {
     private Charset charset;
     private long verboseEach;
     private long commitEach;
+    private int rowsPerInsert;
     private boolean format;
+    private int parallelism;
+    private RowCountMode rowCountMode;
 
     public boolean isDumpDdl() {
         return dumpDdl;
@@ -53,6 +58,14 @@ public class DumpOptions {
         this.commitEach = commitEach;
     }
 
+    public int getRowsPerInsert() {
+        return rowsPerInsert;
+    }
+
+    public void setRowsPerInsert(int rowsPerInsert) {
+        this.rowsPerInsert = rowsPerInsert;
+    }
+
     public boolean isFormat() {
         return format;
     }
@@ -60,4 +73,20 @@ public class DumpOptions {
     public void setFormat(boolean format) {
         this.format = format;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public RowCountMode getRowCountMode() {
+        return rowCountMode;
+    }
+
+    public void setRowCountMode(RowCountMode rowCountMode) {
+        this.rowCountMode = rowCountMode;
+    }
 }
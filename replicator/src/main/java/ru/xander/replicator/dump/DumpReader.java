@@ -0,0 +1,31 @@
+package ru.xander.replicator.dump;
+
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableRow;
+
+import java.io.IOException;
+
+/**
+ * Потоковое чтение дампа таблицы. Сначала читается секция DDL ({@link #readTable()}),
+ * затем строки по одной ({@link #nextRow(Table)}).
+ *
+ * @author Alexander Shakhov
+ */
+public interface DumpReader extends AutoCloseable {
+
+    /**
+     * Описание таблицы из секции DDL. Если секции нет, то возвращает null.
+     * Вызывается один раз до чтения строк.
+     */
+    Table readTable() throws IOException;
+
+    /**
+     * Следующая строка дампа. Поля строки идут в порядке {@link Table#getColumns()} переданной таблицы,
+     * значения приводятся к типам её столбцов. Столбцы, которых нет в дампе, получают значение null.
+     * Если строки закончились, то возвращает null.
+     */
+    TableRow nextRow(Table table) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -6,5 +6,6 @@ package ru.xander.replicator.dump;
 public enum DumpType {
     SQL,
     JSON,
-    XML
+    XML,
+    BINARY
 }
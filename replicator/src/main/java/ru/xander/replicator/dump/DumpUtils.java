@@ -1,28 +1,47 @@
 package ru.xander.replicator.dump;
 
 import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.SelectRowsOptions;
 
 import javax.xml.bind.DatatypeConverter;
+import java.math.BigDecimal;
 import java.sql.Blob;
 import java.sql.SQLException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
 public abstract class DumpUtils {
 
-    private static final DateFormat dateFormat = new SimpleDateFormat("yyyy'-'MM'-'dd'T'HH':'mm':'ss'.'SSS");
+    private static final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy'-'MM'-'dd'T'HH':'mm':'ss'.'SSS");
+
+    public static SelectRowsOptions selectRowsOptions(DumpOptions options) {
+        SelectRowsOptions selectRowsOptions = new SelectRowsOptions(options.getVerboseEach(), Math.max(1, options.getParallelism()));
+        if (options.getRowCountMode() != null) {
+            selectRowsOptions.setRowCountMode(options.getRowCountMode());
+        }
+        return selectRowsOptions;
+    }
 
     public static String dateToString(Date date) {
         if (date == null) {
             return null;
         }
-        return dateFormat.format(date);
+        if (date instanceof Timestamp) {
+            return dateFormat.format(((Timestamp) date).toLocalDateTime());
+        }
+        // java.sql.Date и java.sql.Time не поддерживают toInstant()
+        return dateFormat.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault()));
     }
 
     public static byte[] blobToBytes(Blob blob) {
         try {
-            return blob.getBytes(0, (int) blob.length());
+            return blob.getBytes(1, (int) blob.length());
         } catch (SQLException e) {
             throw new DumpException("Cannot convert BLOB-value to BASE64: " + e.getMessage(), e);
         }
@@ -32,4 +51,54 @@ public abstract class DumpUtils {
         byte[] bytes = blobToBytes(blob);
         return DatatypeConverter.printBase64Binary(bytes);
     }
+
+    public static Timestamp stringToDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value, dateFormat));
+        } catch (DateTimeParseException e) {
+            throw new DumpException("Cannot convert value '" + value + "' to date: " + e.getMessage(), e);
+        }
+    }
+
+    public static byte[] base64ToBytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        return DatatypeConverter.parseBase64Binary(value);
+    }
+
+    /**
+     * Преобразует текстовое значение из дампа к java-типу, соответствующему типу столбца.
+     */
+    public static Object parseValue(ColumnType columnType, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            switch (columnType) {
+                case BOOLEAN:
+                    if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                        return Boolean.valueOf(value);
+                    }
+                    return new BigDecimal(value).signum() != 0;
+                case INTEGER:
+                case FLOAT:
+                case SERIAL:
+                    return new BigDecimal(value);
+                case DATE:
+                case TIME:
+                case TIMESTAMP:
+                    return stringToDate(value);
+                case BLOB:
+                    return base64ToBytes(value);
+                default:
+                    return value;
+            }
+        } catch (NumberFormatException e) {
+            throw new DumpException("Cannot convert value '" + value + "' to " + columnType + ": " + e.getMessage(), e);
+        }
+    }
 }
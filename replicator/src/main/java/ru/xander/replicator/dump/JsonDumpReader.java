@@ -0,0 +1,120 @@
+package ru.xander.replicator.dump;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ru.xander.replicator.dump.json.TableDeserializer;
+import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Потоковое чтение дампа, записанного {@link JsonTableSerializer}.
+ * Строки разбираются по токенам, без построения дерева всего документа.
+ *
+ * @author Alexander Shakhov
+ */
+public class JsonDumpReader extends AbstractDumpReader {
+
+    private final JsonParser parser;
+    private boolean rowsStarted;
+    private boolean finished;
+
+    public JsonDumpReader(InputStream input) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new SimpleModule().addDeserializer(Table.class, new TableDeserializer()));
+        this.parser = objectMapper.getFactory().createParser(input);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new DumpException("Invalid JSON dump: root object expected");
+        }
+    }
+
+    @Override
+    public Table readTable() throws IOException {
+        while (!rowsStarted && !finished) {
+            String fieldName = nextField();
+            if ("table".equals(fieldName)) {
+                return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.readValueAs(Table.class);
+            }
+            startRows(fieldName);
+        }
+        return null;
+    }
+
+    @Override
+    public TableRow nextRow(Table table) throws IOException {
+        while (!rowsStarted && !finished) {
+            startRows(nextField());
+        }
+        if (finished) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            finished = true;
+            return null;
+        }
+        expect(token, JsonToken.START_OBJECT);
+        TableRow row = createRow(table);
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String columnName = parser.getCurrentName();
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            String value = null;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("value".equals(fieldName)) {
+                    value = valueToken == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            expect(token, JsonToken.END_OBJECT);
+            setValue(row, columnName, value);
+        }
+        expect(token, JsonToken.END_OBJECT);
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Переходит к значению следующего поля корневого объекта и возвращает имя поля.
+     * Если полей больше нет, то возвращает null.
+     */
+    private String nextField() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.FIELD_NAME) {
+            finished = true;
+            return null;
+        }
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        return fieldName;
+    }
+
+    private void startRows(String fieldName) throws IOException {
+        if (fieldName == null) {
+            return;
+        }
+        if ("rows".equals(fieldName) && (parser.currentToken() == JsonToken.START_ARRAY)) {
+            rowsStarted = true;
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new DumpException("Invalid JSON dump at " + parser.getCurrentLocation()
+                    + ": expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -17,7 +17,7 @@ import java.io.OutputStream;
 public class JsonTableSerializer implements TableSerializer {
     @Override
     public void serialize(Table table, Schema schema, OutputStream output, DumpOptions options) throws IOException {
-        try (TableRowCursor cursor = schema.selectRows(table, options.getVerboseEach())) {
+        try (TableRowCursor cursor = schema.selectRows(table, DumpUtils.selectRowsOptions(options))) {
             ObjectMapper objectMapper = new ObjectMapper();
             objectMapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
             if (options.isFormat()) {
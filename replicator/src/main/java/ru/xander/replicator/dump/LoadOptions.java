@@ -0,0 +1,88 @@
+package ru.xander.replicator.dump;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class LoadOptions {
+    private boolean createTable;
+    private int batchSize;
+    private long commitEach;
+    private boolean directPath;
+    private boolean noLogging;
+    private long verboseEach;
+    private boolean bulkLoad;
+    private int buildParallelism;
+    private boolean validateConstraints;
+
+    public boolean isCreateTable() {
+        return createTable;
+    }
+
+    public void setCreateTable(boolean createTable) {
+        this.createTable = createTable;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getCommitEach() {
+        return commitEach;
+    }
+
+    public void setCommitEach(long commitEach) {
+        this.commitEach = commitEach;
+    }
+
+    public boolean isDirectPath() {
+        return directPath;
+    }
+
+    public void setDirectPath(boolean directPath) {
+        this.directPath = directPath;
+    }
+
+    public boolean isNoLogging() {
+        return noLogging;
+    }
+
+    public void setNoLogging(boolean noLogging) {
+        this.noLogging = noLogging;
+    }
+
+    public long getVerboseEach() {
+        return verboseEach;
+    }
+
+    public void setVerboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public int getBuildParallelism() {
+        return buildParallelism;
+    }
+
+    public void setBuildParallelism(int buildParallelism) {
+        this.buildParallelism = buildParallelism;
+    }
+
+    public boolean isValidateConstraints() {
+        return validateConstraints;
+    }
+
+    public void setValidateConstraints(boolean validateConstraints) {
+        this.validateConstraints = validateConstraints;
+    }
+}
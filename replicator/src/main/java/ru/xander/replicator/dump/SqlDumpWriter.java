@@ -0,0 +1,123 @@
+package ru.xander.replicator.dump;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Запись текста дампа SQL в поток.
+ * <p>
+ * Текст накапливается в буфере символов ({@link #buffer()}), в который вызывающий код может дописывать значения напрямую.
+ * Когда буфер заполняется, текст копируется в массив и кодируется одним {@link CharsetEncoder} в буфер байт,
+ * который записывается в канал {@link Channels#newChannel(OutputStream)} (для файлового потока - его FileChannel).
+ * Оба буфера основаны на массивах: только для таких буферов кодировщик не обрабатывает текст посимвольно.
+ * FileChannel копирует буфер из кучи во временный буфер вне кучи, но это дешевле посимвольного кодирования.
+ * <p>
+ * Неотображаемые в кодировке символы заменяются, как в {@link String#getBytes(Charset)}.
+ * Поток не закрывается, в конце нужно вызвать {@link #finish()}.
+ *
+ * @author Alexander Shakhov
+ */
+class SqlDumpWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+    private final StringBuilder chars;
+    private final int charsThreshold;
+    private char[] charArray;
+
+    SqlDumpWriter(OutputStream output, Charset charset) {
+        this(output, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize размер буфера байт; буфер символов кодируется, когда в нем накапливается столько же символов
+     */
+    SqlDumpWriter(OutputStream output, Charset charset, int bufferSize) {
+        this.channel = Channels.newChannel(output);
+        this.bytes = ByteBuffer.allocate(bufferSize);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = new StringBuilder(bufferSize + 1024);
+        this.charsThreshold = bufferSize;
+        this.charArray = new char[bufferSize + 1024];
+    }
+
+    /**
+     * Буфер символов. После дописывания в буфер нужно вызвать {@link #written()}.
+     */
+    StringBuilder buffer() {
+        return chars;
+    }
+
+    /**
+     * Текст дописан в {@link #buffer()}: если буфер заполнен, то он кодируется и записывается в канал.
+     */
+    void written() throws IOException {
+        if (chars.length() >= charsThreshold) {
+            encode(false);
+        }
+    }
+
+    void write(CharSequence text) throws IOException {
+        chars.append(text);
+        written();
+    }
+
+    void write(char c) throws IOException {
+        chars.append(c);
+        written();
+    }
+
+    /**
+     * Запись всего накопленного текста в поток.
+     */
+    void finish() throws IOException {
+        encode(true);
+        while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+            drain();
+        }
+        drain();
+        encoder.reset();
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        int length = chars.length();
+        if (charArray.length < length) {
+            charArray = new char[Math.max(length, charArray.length * 2)];
+        }
+        chars.getChars(0, length, charArray, 0);
+        CharBuffer in = CharBuffer.wrap(charArray, 0, length);
+        while (true) {
+            CoderResult result = encoder.encode(in, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        // незакодированным может остаться старший символ суррогатной пары, он кодируется со следующим текстом
+        chars.delete(0, in.position());
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -1,9 +1,9 @@
 package ru.xander.replicator.dump;
 
 import ru.xander.replicator.action.DumpActionConfigurer;
-import ru.xander.replicator.exception.DumpException;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnFormatter;
 import ru.xander.replicator.schema.DataFormatter;
 import ru.xander.replicator.schema.Dialect;
 import ru.xander.replicator.schema.ImportedKey;
@@ -19,8 +19,6 @@ import ru.xander.replicator.util.StringUtils;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
-import java.util.Arrays;
-import java.util.stream.Collectors;
 
 /**
  * @author Alexander Shakhov
@@ -31,160 +29,216 @@ public class SqlTableSerializer implements TableSerializer {
     public void serialize(Table table, Schema schema, OutputStream output, DumpOptions options) throws IOException {
         Charset charset = options.getCharset() == null ? DumpActionConfigurer.DEFAULT_CHARSET : options.getCharset();
         Dialect dialect = schema.getDialect();
+        SqlDumpWriter writer = new SqlDumpWriter(output, charset);
         if (options.isDumpDdl()) {
-            serializeTable(table, dialect, output, charset);
+            serializeTable(table, dialect, writer);
             if (options.isDumpDml()) {
-                output.write('\n');
-                serializeRows(table, schema, output, options);
+                writer.write('\n');
+                serializeRows(table, schema, writer, options);
             }
-            serializeTableObjects(table, dialect, output, charset);
-            serializeAnalyze(table, dialect, output, charset);
+            serializeTableObjects(table, dialect, writer);
+            serializeAnalyze(table, dialect, writer);
         } else if (options.isDumpDml()) {
-            serializeRows(table, schema, output, options);
-            serializeAnalyze(table, dialect, output, charset);
+            serializeRows(table, schema, writer, options);
+            serializeAnalyze(table, dialect, writer);
         }
+        writer.finish();
     }
 
-    private void serializeTable(Table table, Dialect dialect, OutputStream output, Charset charset) throws IOException {
-        output.write(dialect.createTableQuery(table).getBytes(charset));
-        output.write(';');
-        output.write('\n');
+    private void serializeTable(Table table, Dialect dialect, SqlDumpWriter writer) throws IOException {
+        writer.write(dialect.createTableQuery(table));
+        writer.write(';');
+        writer.write('\n');
     }
 
-    private void serializeTableObjects(Table table, Dialect dialect, OutputStream output, Charset charset) throws IOException {
+    private void serializeTableObjects(Table table, Dialect dialect, SqlDumpWriter writer) throws IOException {
         if (table.getPrimaryKey() != null) {
-            output.write('\n');
-            output.write(dialect.createPrimaryKeyQuery(table.getPrimaryKey()).getBytes(charset));
-            output.write(';');
-            output.write('\n');
+            writer.write('\n');
+            writer.write(dialect.createPrimaryKeyQuery(table.getPrimaryKey()));
+            writer.write(';');
+            writer.write('\n');
         }
         if (!table.getImportedKeys().isEmpty()) {
-            output.write('\n');
+            writer.write('\n');
             for (ImportedKey importedKey : table.getImportedKeys()) {
-                output.write(dialect.createImportedKeyQuery(importedKey).getBytes(charset));
-                output.write(';');
-                output.write('\n');
+                writer.write(dialect.createImportedKeyQuery(importedKey));
+                writer.write(';');
+                writer.write('\n');
             }
         }
         if (!table.getCheckConstraints().isEmpty()) {
-            output.write('\n');
+            writer.write('\n');
             for (CheckConstraint checkConstraint : table.getCheckConstraints()) {
                 //TODO: для Oracle не надо сериализовать чек-констрейнты, т.к. они создаются вместе со столбцами
                 String checkConstraintQuery = dialect.createCheckConstraintQuery(checkConstraint);
                 if (!StringUtils.isEmpty(checkConstraintQuery)) {
-                    output.write(checkConstraintQuery.getBytes(charset));
-                    output.write(';');
-                    output.write('\n');
+                    writer.write(checkConstraintQuery);
+                    writer.write(';');
+                    writer.write('\n');
                 }
             }
         }
         if (!table.getIndices().isEmpty()) {
-            output.write('\n');
+            writer.write('\n');
             for (Index index : table.getIndices()) {
-                output.write(dialect.createIndexQuery(index).getBytes(charset));
-                output.write(';');
-                output.write('\n');
+                writer.write(dialect.createIndexQuery(index));
+                writer.write(';');
+                writer.write('\n');
             }
         }
         if (table.getSequence() != null) {
-            output.write('\n');
-            output.write(dialect.createSequenceQuery(table.getSequence()).getBytes(charset));
-            output.write(';');
-            output.write('\n');
+            writer.write('\n');
+            writer.write(dialect.createSequenceQuery(table.getSequence()));
+            writer.write(';');
+            writer.write('\n');
         }
         if (!table.getTriggers().isEmpty()) {
-            output.write('\n');
+            writer.write('\n');
             for (Trigger trigger : table.getTriggers()) {
-                output.write(dialect.createTriggerQuery(trigger).getBytes(charset));
-                output.write('\n');
+                writer.write(dialect.createTriggerQuery(trigger));
+                writer.write('\n');
             }
         }
     }
 
-    private void serializeRows(Table table, Schema schema, OutputStream output, DumpOptions options) throws IOException {
-        try (TableRowCursor cursor = schema.selectRows(table, options.getVerboseEach())) {
+    private void serializeRows(Table table, Schema schema, SqlDumpWriter writer, DumpOptions options) throws IOException {
+        if (options.getRowsPerInsert() > 1) {
+            serializeMultiRows(table, schema, writer, options);
+            return;
+        }
+        try (TableRowCursor cursor = schema.selectRows(table, DumpUtils.selectRowsOptions(options))) {
+            final ColumnFormatter[] formatters = compileFormatters(table, schema.getDataFormatter());
+            final String insertPrefix = insertPrefix(table);
+            final String commitQuery = schema.getDialect().commitQuery() + ";\n";
+            final long commitEach = options.getCommitEach();
+            final StringBuilder buffer = writer.buffer();
+
+            long currentRow = 0;
+            TableRow row;
+            while ((row = cursor.nextRow()) != null) {
+                buffer.append(insertPrefix);
+                appendValues(row, formatters, buffer);
+                buffer.append(");\n");
+
+                currentRow++;
+                if ((commitEach > 0) && ((currentRow % commitEach) == 0)) {
+                    buffer.append(commitQuery);
+                }
+                writer.written();
+            }
+
+            if ((commitEach == 0) || ((currentRow % commitEach) != 0)) {
+                writer.write(commitQuery);
+            }
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Строки группируются в запросы вставки нескольких строк ({@link Dialect#multiRowInsertHead(Table)}).
+     * Запрос закрывается, когда в нем rowsPerInsert строк, когда следующая строка не умещается
+     * в {@link Dialect#maxQueryLength()}, и перед коммитом. Строка длиннее лимита выводится отдельным запросом.
+     */
+    private void serializeMultiRows(Table table, Schema schema, SqlDumpWriter writer, DumpOptions options) throws IOException {
+        try (TableRowCursor cursor = schema.selectRows(table, DumpUtils.selectRowsOptions(options))) {
             final Dialect dialect = schema.getDialect();
-            final DataFormatter formatter = schema.getDataFormatter();
+            final ColumnFormatter[] formatters = compileFormatters(table, schema.getDataFormatter());
+            final String head = dialect.multiRowInsertHead(table);
+            final String firstRow = dialect.multiRowInsertRow(table, true);
+            final String nextRow = dialect.multiRowInsertRow(table, false);
+            final String tail = dialect.multiRowInsertTail(table) + ";\n";
+            final String commitQuery = dialect.commitQuery() + ";\n";
+            final int maxRows = Math.min(options.getRowsPerInsert(), dialect.maxMultiRowInsertRows(table));
+            final int maxLength = dialect.maxQueryLength();
             final long commitEach = options.getCommitEach();
-            final Charset charset = options.getCharset();
+            final StringBuilder buffer = writer.buffer();
+            final StringBuilder values = new StringBuilder(256);
 
             long currentRow = 0;
+            int statementRows = 0;
+            long statementLength = 0;
             TableRow row;
             while ((row = cursor.nextRow()) != null) {
-                String insertQuery = insertQuery(row, formatter);
-                output.write(insertQuery.getBytes(charset));
-                output.write(';');
-                output.write('\n');
+                values.setLength(0);
+                appendValues(row, formatters, values);
+                int rowLength = nextRow.length() + values.length() + 1;
+                if ((statementRows > 0)
+                        && ((statementRows >= maxRows) || (statementLength + rowLength + tail.length() > maxLength))) {
+                    buffer.append(tail);
+                    statementRows = 0;
+                }
+                if (statementRows == 0) {
+                    buffer.append(head).append(firstRow);
+                    statementLength = head.length() + firstRow.length() + values.length() + 1;
+                } else {
+                    buffer.append(nextRow);
+                    statementLength += rowLength;
+                }
+                buffer.append(values).append(')');
+                statementRows++;
 
                 currentRow++;
                 if ((commitEach > 0) && ((currentRow % commitEach) == 0)) {
-                    output.write(dialect.commitQuery().getBytes(charset));
-                    output.write(';');
-                    output.write('\n');
+                    buffer.append(tail).append(commitQuery);
+                    statementRows = 0;
                 }
+                writer.written();
             }
 
+            if (statementRows > 0) {
+                buffer.append(tail);
+            }
             if ((commitEach == 0) || ((currentRow % commitEach) != 0)) {
-                output.write(dialect.commitQuery().getBytes(charset));
-                output.write(';');
-                output.write('\n');
+                buffer.append(commitQuery);
             }
+            writer.written();
         } catch (Exception e) {
             throw new IOException(e.getMessage(), e);
         }
     }
 
-    private void serializeAnalyze(Table table, Dialect dialect, OutputStream output, Charset charset) throws IOException {
-        output.write('\n');
-        output.write(dialect.analyzeTableQuery(table).getBytes(charset));
-        output.write('\n');
+    private void serializeAnalyze(Table table, Dialect dialect, SqlDumpWriter writer) throws IOException {
+        String analyzeTableQuery = dialect.analyzeTableQuery(table);
+        if (analyzeTableQuery == null) {
+            return;
+        }
+        writer.write('\n');
+        writer.write(analyzeTableQuery);
+        writer.write('\n');
     }
 
-    private String insertQuery(TableRow row, DataFormatter formatter) {
-        Table table = row.getTable();
-        return "INSERT INTO " + table.getSchema() + '.' + table.getName() +
-                " (" +
-                Arrays.stream(row.getFields())
-                        .map(field -> field.getColumn().getName())
-                        .collect(Collectors.joining(", ")) +
-                ")\n" +
-                "VALUES (" +
-                Arrays.stream(row.getFields())
-                        .map(field -> formatValue(field, formatter))
-                        .collect(Collectors.joining(", ")) +
-                ')';
+    /**
+     * Форматтеры создаются один раз на таблицу, порядок соответствует полям строки ({@link Table#getColumns()}).
+     */
+    private static ColumnFormatter[] compileFormatters(Table table, DataFormatter formatter) {
+        return table.getColumns().stream().map(formatter::compile).toArray(ColumnFormatter[]::new);
     }
 
-    private String formatValue(TableField field, DataFormatter formatter) {
-        Column column = field.getColumn();
-        Object value = field.getValue();
-        if (value == null) {
-            return formatter.formatNull(column);
+    /**
+     * Начало запроса вставки до значений столбцов, одно на таблицу: INSERT INTO schema.table (c1, c2)\nVALUES (
+     */
+    private static String insertPrefix(Table table) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("INSERT INTO ").append(table.getSchema()).append('.').append(table.getName()).append(" (");
+        boolean first = true;
+        for (Column column : table.getColumns()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(column.getName());
+            first = false;
         }
-        switch (column.getColumnType()) {
-            case BOOLEAN:
-                return formatter.formatBoolean(value, column);
-            case INTEGER:
-                return formatter.formatInteger(value, column);
-            case FLOAT:
-                return formatter.formatFloat(value, column);
-            case SERIAL:
-                return formatter.formatSerial(value, column);
-            case CHAR:
-                return formatter.formatChar(value, column);
-            case STRING:
-                return formatter.formatString(value, column);
-            case DATE:
-                return formatter.formatDate(value, column);
-            case TIME:
-                return formatter.formatTime(value, column);
-            case TIMESTAMP:
-                return formatter.formatTimestamp(value, column);
-            case CLOB:
-                return formatter.formatClob(value, column);
-            case BLOB:
-                return formatter.formatBlob(value, column);
+        return sb.append(")\nVALUES (").toString();
+    }
+
+    private static void appendValues(TableRow row, ColumnFormatter[] formatters, StringBuilder sb) {
+        TableField[] fields = row.getFields();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            formatters[i].format(fields[i].getValue(), sb);
         }
-        throw new DumpException("Unsupproted datatype <" + column.getColumnType() + ">");
     }
 }
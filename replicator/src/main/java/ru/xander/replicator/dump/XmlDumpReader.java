@@ -0,0 +1,306 @@
+package ru.xander.replicator.dump;
+
+import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.schema.CheckConstraint;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.ImportedKey;
+import ru.xander.replicator.schema.Index;
+import ru.xander.replicator.schema.IndexType;
+import ru.xander.replicator.schema.PrimaryKey;
+import ru.xander.replicator.schema.Sequence;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.schema.Trigger;
+import ru.xander.replicator.schema.VendorType;
+import ru.xander.replicator.util.StringUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+
+/**
+ * Потоковое чтение дампа, записанного {@link XmlTableSerializer}.
+ * Кодировка определяется по заголовку xml-документа.
+ *
+ * @author Alexander Shakhov
+ */
+public class XmlDumpReader extends AbstractDumpReader {
+
+    private final XMLStreamReader reader;
+    private boolean rowsStarted;
+    private boolean finished;
+
+    public XmlDumpReader(InputStream input) throws IOException {
+        try {
+            XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
+            xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            xmlFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+            this.reader = xmlFactory.createXMLStreamReader(input);
+            if ((reader.nextTag() != XMLStreamConstants.START_ELEMENT) || !"dump".equals(reader.getLocalName())) {
+                throw new DumpException("Invalid XML dump: root element <dump> expected");
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Table readTable() throws IOException {
+        try {
+            while (!rowsStarted && !finished) {
+                String elementName = nextElement();
+                if ("table".equals(elementName)) {
+                    return readTableElement();
+                }
+                startRows(elementName);
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public TableRow nextRow(Table table) throws IOException {
+        try {
+            while (!rowsStarted && !finished) {
+                startRows(nextElement());
+            }
+            if (finished) {
+                return null;
+            }
+            if (reader.nextTag() == XMLStreamConstants.END_ELEMENT) {
+                finished = true;
+                return null;
+            }
+            TableRow row = createRow(table);
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String columnName = reader.getAttributeValue(null, "name");
+                setValue(row, columnName, readFieldValue());
+            }
+            return row;
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Переходит к следующему дочернему элементу корня и возвращает его имя.
+     * Если элементов больше нет, то возвращает null.
+     */
+    private String nextElement() throws XMLStreamException {
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+            finished = true;
+            return null;
+        }
+        return reader.getLocalName();
+    }
+
+    private void startRows(String elementName) throws XMLStreamException {
+        if (elementName == null) {
+            return;
+        }
+        if ("rows".equals(elementName)) {
+            rowsStarted = true;
+        } else {
+            skipElement();
+        }
+    }
+
+    /**
+     * Значение поля строки. Строковые значения записываются в CDATA,
+     * поэтому текст null вне CDATA означает пустое значение.
+     */
+    private String readFieldValue() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        boolean cdata = false;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.CDATA) {
+                cdata = true;
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.CHARACTERS) {
+                text.append(reader.getText());
+            }
+        }
+        String value = text.toString();
+        return (!cdata && "null".equals(value)) ? null : value;
+    }
+
+    private Table readTableElement() throws XMLStreamException {
+        Table table = new Table();
+        table.setSchema(getAttribute("schema"));
+        table.setName(getAttribute("name"));
+        table.setComment(getAttribute("comment"));
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "columns":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        table.addColumn(readColumn(table));
+                    }
+                    break;
+                case "primaryKey":
+                    table.setPrimaryKey(readPrimaryKey(table));
+                    break;
+                case "importedKeys":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        table.addImportedKey(readImportedKey(table));
+                    }
+                    break;
+                case "checkConstraints":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        table.addCheckConstraint(readCheckConstraint(table));
+                    }
+                    break;
+                case "indices":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        table.addIndex(readIndex(table));
+                    }
+                    break;
+                case "sequence":
+                    table.setSequence(readSequence(table));
+                    break;
+                case "triggers":
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        table.addTrigger(readTrigger(table));
+                    }
+                    break;
+                default:
+                    skipElement();
+                    break;
+            }
+        }
+        return table;
+    }
+
+    private Column readColumn(Table table) throws XMLStreamException {
+        Column column = new Column();
+        column.setTable(table);
+        column.setNumber(Integer.parseInt(getAttribute("number")));
+        column.setName(getAttribute("name"));
+        column.setColumnType(ColumnType.valueOf(getAttribute("type")));
+        column.setSize(Integer.parseInt(getAttribute("size")));
+        column.setScale(Integer.parseInt(getAttribute("scale")));
+        column.setNullable(Boolean.parseBoolean(getAttribute("nullable")));
+        column.setDefaultValue(getAttribute("default"));
+        column.setComment(getAttribute("comment"));
+        skipElement();
+        return column;
+    }
+
+    private PrimaryKey readPrimaryKey(Table table) throws XMLStreamException {
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.setTable(table);
+        primaryKey.setName(getAttribute("name"));
+        primaryKey.setColumns(getColumns("columns"));
+        primaryKey.setEnabled(getBoolean("enabled"));
+        skipElement();
+        return primaryKey;
+    }
+
+    private ImportedKey readImportedKey(Table table) throws XMLStreamException {
+        ImportedKey importedKey = new ImportedKey();
+        importedKey.setTable(table);
+        importedKey.setName(getAttribute("name"));
+        importedKey.setColumns(getColumns("columns"));
+        importedKey.setEnabled(getBoolean("enabled"));
+        importedKey.setPkName(getAttribute("pkName"));
+        importedKey.setPkTableSchema(getAttribute("pkTableSchema"));
+        importedKey.setPkTableName(getAttribute("pkTableName"));
+        importedKey.setPkColumns(getColumns("pkColumns"));
+        skipElement();
+        return importedKey;
+    }
+
+    private CheckConstraint readCheckConstraint(Table table) throws XMLStreamException {
+        CheckConstraint checkConstraint = new CheckConstraint();
+        checkConstraint.setTable(table);
+        checkConstraint.setName(getAttribute("name"));
+        checkConstraint.setColumns(getColumns("columns"));
+        checkConstraint.setEnabled(getBoolean("enabled"));
+        checkConstraint.setCondition(reader.getElementText());
+        return checkConstraint;
+    }
+
+    private Index readIndex(Table table) throws XMLStreamException {
+        Index index = new Index();
+        index.setTable(table);
+        index.setName(getAttribute("name"));
+        index.setType(IndexType.valueOf(getAttribute("type")));
+        index.setColumns(getColumns("columns"));
+        index.setEnabled(getBoolean("enabled"));
+        skipElement();
+        return index;
+    }
+
+    private Sequence readSequence(Table table) throws XMLStreamException {
+        Sequence sequence = new Sequence();
+        sequence.setTable(table);
+        sequence.setSchema(getAttribute("schema"));
+        sequence.setName(getAttribute("name"));
+        sequence.setStartWith(getBigInteger("startWith"));
+        sequence.setIncrementBy(getBigInteger("incrementBy"));
+        sequence.setMinValue(getBigInteger("minValue"));
+        sequence.setMaxValue(getBigInteger("maxValue"));
+        sequence.setCacheSize(getBigInteger("cacheSize"));
+        sequence.setCycle(getBoolean("cycle"));
+        skipElement();
+        return sequence;
+    }
+
+    private Trigger readTrigger(Table table) throws XMLStreamException {
+        Trigger trigger = new Trigger();
+        trigger.setTable(table);
+        trigger.setName(getAttribute("name"));
+        String vendorType = getAttribute("vendorType");
+        trigger.setVendorType(vendorType == null ? null : VendorType.valueOf(vendorType));
+        trigger.setEnabled(getBoolean("enabled"));
+        trigger.setBody(reader.getElementText());
+        return trigger;
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private String getAttribute(String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    private Boolean getBoolean(String name) {
+        String value = getAttribute(name);
+        return ((value == null) || "null".equals(value)) ? null : Boolean.valueOf(value);
+    }
+
+    private String[] getColumns(String name) {
+        String value = getAttribute(name);
+        return value == null ? new String[0] : StringUtils.splitColumns(value);
+    }
+
+    private BigInteger getBigInteger(String name) {
+        String value = getAttribute(name);
+        return ((value == null) || "null".equals(value)) ? null : new BigInteger(value);
+    }
+}
@@ -64,7 +64,9 @@ public class XmlTableSerializer implements TableSerializer {
         writer.writeStartElement("table");
         writer.writeAttribute("schema", table.getSchema());
         writer.writeAttribute("name", table.getName());
-        writer.writeAttribute("comment", table.getComment());
+        if (table.getComment() != null) {
+            writer.writeAttribute("comment", table.getComment());
+        }
 
         writeColumns(writer, table.getColumns());
         writePrimaryKey(writer, table.getPrimaryKey());
@@ -79,7 +81,7 @@ public class XmlTableSerializer implements TableSerializer {
     }
 
     private void writeRows(XMLStreamWriter writer, Table table, Schema schema, DumpOptions options) throws Exception {
-        try (TableRowCursor cursor = schema.selectRows(table, options.getVerboseEach())) {
+        try (TableRowCursor cursor = schema.selectRows(table, DumpUtils.selectRowsOptions(options))) {
             indenter.write(1);
             writer.writeStartElement("rows");
             TableRow row;
@@ -102,6 +104,7 @@ public class XmlTableSerializer implements TableSerializer {
                                 writer.writeCData((String) value);
                                 break;
                             case DATE:
+                            case TIME:
                             case TIMESTAMP:
                                 writer.writeCharacters(DumpUtils.dateToString((Date) value));
                                 break;
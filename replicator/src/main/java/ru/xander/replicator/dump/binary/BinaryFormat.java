@@ -0,0 +1,39 @@
+package ru.xander.replicator.dump.binary;
+
+/**
+ * Константы бинарного формата дампа.
+ * <pre>
+ * файл     := MAGIC version flags header block* END_OF_BLOCKS index footer
+ * header   := varint(length) описание таблицы в json (как в секции table json-дампа)
+ * block    := varint(rowCount) varint(rawLength) varint(compressedLength) deflate(columns)
+ * columns  := для каждого столбца заголовка: битовая маска null-значений, код кодирования, значения
+ * index    := varint(blockCount) (varint(offset) varint(rowCount))*
+ * footer   := int64(смещение index) INDEX_MAGIC
+ * </pre>
+ * Целые числа и даты пишутся как zigzag-varint разности с предыдущим значением,
+ * строки с большим количеством повторов - через словарь блока.
+ *
+ * @author Alexander Shakhov
+ */
+public final class BinaryFormat {
+
+    public static final byte[] MAGIC = {'R', 'P', 'L', 'D'};
+    public static final byte[] INDEX_MAGIC = {'R', 'P', 'L', 'I'};
+    public static final int VERSION = 1;
+
+    public static final int FLAG_DDL = 1;
+
+    public static final int DEFAULT_BLOCK_ROWS = 4096;
+    public static final int END_OF_BLOCKS = 0;
+
+    static final int ENCODING_LONG = 1;
+    static final int ENCODING_DECIMAL = 2;
+    static final int ENCODING_BOOLEAN = 3;
+    static final int ENCODING_DICTIONARY = 4;
+    static final int ENCODING_STRING = 5;
+    static final int ENCODING_TIMESTAMP = 6;
+    static final int ENCODING_BYTES = 7;
+
+    private BinaryFormat() {
+    }
+}
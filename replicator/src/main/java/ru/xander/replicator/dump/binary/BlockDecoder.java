@@ -0,0 +1,118 @@
+package ru.xander.replicator.dump.binary;
+
+import ru.xander.replicator.exception.DumpException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+
+import static ru.xander.replicator.dump.binary.BinaryFormat.*;
+
+/**
+ * Раскодирует блок, записанный {@link BlockEncoder}, в значения по столбцам.
+ *
+ * @author Alexander Shakhov
+ */
+public class BlockDecoder {
+
+    private final int columnCount;
+
+    public BlockDecoder(int columnCount) {
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Значения блока в виде [столбец][строка].
+     */
+    public Object[][] decode(byte[] buffer, int length, int rowCount) {
+        BlockInput input = new BlockInput(buffer, length);
+        Object[][] values = new Object[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            values[c] = decodeColumn(input, rowCount);
+        }
+        return values;
+    }
+
+    private Object[] decodeColumn(BlockInput input, int rowCount) {
+        boolean[] nulls = new boolean[rowCount];
+        for (int i = 0; i < rowCount; i += 8) {
+            int bits = input.read();
+            for (int j = 0; (j < 8) && (i + j < rowCount); j++) {
+                nulls[i + j] = (bits & (1 << j)) != 0;
+            }
+        }
+        Object[] column = new Object[rowCount];
+        int encoding = input.read();
+        switch (encoding) {
+            case ENCODING_LONG:
+                long previous = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        previous += input.readZigZag();
+                        column[i] = previous;
+                    }
+                }
+                break;
+            case ENCODING_DECIMAL:
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        int scale = (int) input.readZigZag();
+                        column[i] = new BigDecimal(new BigInteger(input.readBytes()), scale);
+                    }
+                }
+                break;
+            case ENCODING_BOOLEAN:
+                int bits = 0;
+                int count = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        if (count == 0) {
+                            bits = input.read();
+                        }
+                        column[i] = (bits & (1 << count)) != 0;
+                        count = (count + 1) % 8;
+                    }
+                }
+                break;
+            case ENCODING_DICTIONARY:
+                String[] entries = new String[(int) input.readVarLong()];
+                for (int d = 0; d < entries.length; d++) {
+                    entries[d] = input.readString();
+                }
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        column[i] = entries[(int) input.readVarLong()];
+                    }
+                }
+                break;
+            case ENCODING_STRING:
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        column[i] = input.readString();
+                    }
+                }
+                break;
+            case ENCODING_TIMESTAMP:
+                long previousMillis = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        previousMillis += input.readZigZag();
+                        Timestamp timestamp = new Timestamp(previousMillis);
+                        timestamp.setNanos(timestamp.getNanos() + (int) input.readVarLong());
+                        column[i] = timestamp;
+                    }
+                }
+                break;
+            case ENCODING_BYTES:
+                for (int i = 0; i < rowCount; i++) {
+                    if (!nulls[i]) {
+                        column[i] = input.readBytes();
+                    }
+                }
+                break;
+            default:
+                throw new DumpException("Unknown column encoding " + encoding + " in binary dump block");
+        }
+        return column;
+    }
+}
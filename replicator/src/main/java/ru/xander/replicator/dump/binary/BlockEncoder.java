@@ -0,0 +1,327 @@
+package ru.xander.replicator.dump.binary;
+
+import ru.xander.replicator.exception.DumpException;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.TableField;
+import ru.xander.replicator.schema.TableRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static ru.xander.replicator.dump.binary.BinaryFormat.*;
+
+/**
+ * Накапливает строки в колоночном виде и записывает их сжатыми блоками.
+ * Значения LOB-полей читаются сразу при добавлении строки,
+ * поэтому строку курсора можно переиспользовать.
+ *
+ * @author Alexander Shakhov
+ */
+public class BlockEncoder {
+
+    private final ColumnType[] columnTypes;
+    private final Object[][] values;
+    private final int blockRows;
+    private final BlockOutput raw;
+    private final BlockOutput header;
+    private final Deflater deflater;
+    private byte[] compressed;
+    private int rowCount;
+
+    public BlockEncoder(ColumnType[] columnTypes, int blockRows, int compressionLevel) {
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("Block rows must be greatest than 0");
+        }
+        this.columnTypes = columnTypes;
+        this.blockRows = blockRows;
+        this.values = new Object[columnTypes.length][blockRows];
+        this.raw = new BlockOutput(blockRows * columnTypes.length * 4);
+        this.header = new BlockOutput(32);
+        this.deflater = new Deflater(compressionLevel);
+        this.compressed = new byte[raw.getBuffer().length];
+    }
+
+    /**
+     * Добавляет строку в текущий блок. Возвращает true, если блок заполнен.
+     */
+    public boolean add(TableRow row) {
+        TableField[] fields = row.getFields();
+        for (int c = 0; c < columnTypes.length; c++) {
+            values[c][rowCount] = materialize(fields[c].getValue());
+        }
+        rowCount++;
+        return rowCount >= blockRows;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Кодирует, сжимает и записывает текущий блок. Возвращает количество записанных байт.
+     */
+    public int writeBlock(OutputStream output) throws IOException {
+        raw.reset();
+        for (int c = 0; c < columnTypes.length; c++) {
+            encodeColumn(c);
+        }
+
+        deflater.reset();
+        deflater.setInput(raw.getBuffer(), 0, raw.size());
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        header.reset();
+        header.writeVarLong(rowCount);
+        header.writeVarLong(raw.size());
+        header.writeVarLong(compressedLength);
+        output.write(header.getBuffer(), 0, header.size());
+        output.write(compressed, 0, compressedLength);
+
+        for (Object[] column : values) {
+            Arrays.fill(column, 0, rowCount, null);
+        }
+        rowCount = 0;
+        return header.size() + compressedLength;
+    }
+
+    public void close() {
+        deflater.end();
+    }
+
+    private void encodeColumn(int c) {
+        Object[] column = values[c];
+        int nonNullCount = 0;
+        for (int i = 0; i < rowCount; i += 8) {
+            int bits = 0;
+            for (int j = 0; (j < 8) && (i + j < rowCount); j++) {
+                if (column[i + j] == null) {
+                    bits |= 1 << j;
+                } else {
+                    nonNullCount++;
+                }
+            }
+            raw.write(bits);
+        }
+        switch (columnTypes[c]) {
+            case BOOLEAN:
+            case INTEGER:
+            case FLOAT:
+            case SERIAL:
+                encodeNumbers(column);
+                break;
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                encodeTimestamps(column);
+                break;
+            case BLOB:
+                encodeBytes(column);
+                break;
+            default:
+                encodeStrings(column, nonNullCount);
+                break;
+        }
+    }
+
+    private void encodeNumbers(Object[] column) {
+        boolean allBoolean = true;
+        boolean allLong = true;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = column[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Boolean) {
+                allLong = false;
+            } else {
+                allBoolean = false;
+                if (allLong && (toLong(value) == null)) {
+                    allLong = false;
+                }
+            }
+        }
+        if (allBoolean) {
+            raw.write(ENCODING_BOOLEAN);
+            int bits = 0;
+            int count = 0;
+            for (int i = 0; i < rowCount; i++) {
+                if (column[i] != null) {
+                    if ((Boolean) column[i]) {
+                        bits |= 1 << count;
+                    }
+                    if (++count == 8) {
+                        raw.write(bits);
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+            }
+            if (count > 0) {
+                raw.write(bits);
+            }
+        } else if (allLong) {
+            raw.write(ENCODING_LONG);
+            long previous = 0;
+            for (int i = 0; i < rowCount; i++) {
+                if (column[i] != null) {
+                    long value = toLong(column[i]);
+                    raw.writeZigZag(value - previous);
+                    previous = value;
+                }
+            }
+        } else {
+            raw.write(ENCODING_DECIMAL);
+            for (int i = 0; i < rowCount; i++) {
+                if (column[i] != null) {
+                    BigDecimal value = toDecimal(column[i]);
+                    raw.writeZigZag(value.scale());
+                    raw.writeBytes(value.unscaledValue().toByteArray());
+                }
+            }
+        }
+    }
+
+    private void encodeTimestamps(Object[] column) {
+        raw.write(ENCODING_TIMESTAMP);
+        long previous = 0;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = column[i];
+            if (value == null) {
+                continue;
+            }
+            Timestamp timestamp = toTimestamp(value);
+            long millis = timestamp.getTime();
+            raw.writeZigZag(millis - previous);
+            raw.writeVarLong(timestamp.getNanos() % 1_000_000);
+            previous = millis;
+        }
+    }
+
+    private void encodeBytes(Object[] column) {
+        raw.write(ENCODING_BYTES);
+        for (int i = 0; i < rowCount; i++) {
+            if (column[i] != null) {
+                raw.writeBytes((byte[]) column[i]);
+            }
+        }
+    }
+
+    private void encodeStrings(Object[] column, int nonNullCount) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        int dictionaryLimit = nonNullCount / 4;
+        for (int i = 0; (i < rowCount) && (dictionary.size() <= dictionaryLimit); i++) {
+            if (column[i] != null) {
+                dictionary.putIfAbsent(column[i].toString(), dictionary.size());
+            }
+        }
+        if ((nonNullCount > 0) && (dictionary.size() <= dictionaryLimit)) {
+            raw.write(ENCODING_DICTIONARY);
+            String[] entries = new String[dictionary.size()];
+            dictionary.forEach((value, index) -> entries[index] = value);
+            raw.writeVarLong(entries.length);
+            for (String entry : entries) {
+                raw.writeString(entry);
+            }
+            for (int i = 0; i < rowCount; i++) {
+                if (column[i] != null) {
+                    raw.writeVarLong(dictionary.get(column[i].toString()));
+                }
+            }
+        } else {
+            raw.write(ENCODING_STRING);
+            for (int i = 0; i < rowCount; i++) {
+                if (column[i] != null) {
+                    raw.writeString(column[i].toString());
+                }
+            }
+        }
+    }
+
+    private static Object materialize(Object value) {
+        try {
+            if (value instanceof Clob) {
+                Clob clob = (Clob) value;
+                return clob.getSubString(1, (int) clob.length());
+            }
+            if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                return blob.getBytes(1, (int) blob.length());
+            }
+            return value;
+        } catch (SQLException e) {
+            throw new DumpException("Cannot read LOB-value: " + e.getMessage(), e);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            return ((Number) value).longValue();
+        }
+        if ((value instanceof BigDecimal) || (value instanceof BigInteger)) {
+            BigDecimal decimal = toDecimal(value);
+            if ((decimal.signum() == 0) || (decimal.scale() <= 0) || (decimal.stripTrailingZeros().scale() <= 0)) {
+                try {
+                    return decimal.longValueExact();
+                } catch (ArithmeticException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if ((value instanceof Double) || (value instanceof Float)) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private static Timestamp toTimestamp(Object value) {
+        if (value instanceof Timestamp) {
+            return (Timestamp) value;
+        }
+        if (value instanceof Date) {
+            return new Timestamp(((Date) value).getTime());
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        if (value instanceof LocalDate) {
+            return Timestamp.valueOf(((LocalDate) value).atStartOfDay());
+        }
+        throw new DumpException("Cannot convert value of " + value.getClass().getName() + " to timestamp");
+    }
+}
@@ -0,0 +1,70 @@
+package ru.xander.replicator.dump.binary;
+
+import ru.xander.replicator.exception.DumpException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Чтение значений из раскодированного блока.
+ *
+ * @author Alexander Shakhov
+ */
+public class BlockInput {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public BlockInput(byte[] buffer, int limit) {
+        this.buffer = buffer;
+        this.limit = limit;
+    }
+
+    public int read() {
+        if (position >= limit) {
+            throw new DumpException("Unexpected end of binary dump block");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new DumpException("Malformed varint in binary dump block");
+            }
+            b = read();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public byte[] readBytes() {
+        int length = (int) readVarLong();
+        if (position + length > limit) {
+            throw new DumpException("Unexpected end of binary dump block");
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public String readString() {
+        int length = (int) readVarLong();
+        if (position + length > limit) {
+            throw new DumpException("Unexpected end of binary dump block");
+        }
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
@@ -26,6 +26,11 @@ public class RowsSerializer extends JsonSerializer<TableRowCursor> {
                 gen.writeObjectFieldStart(field.getColumn().getName());
                 Object value = field.getValue();
                 gen.writeObjectField("type", field.getColumn().getColumnType());
+                if (value == null) {
+                    gen.writeNullField("value");
+                    gen.writeEndObject();
+                    continue;
+                }
                 switch (field.getColumn().getColumnType()) {
                     case CHAR:
                     case STRING:
@@ -0,0 +1,176 @@
+package ru.xander.replicator.dump.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import ru.xander.replicator.schema.CheckConstraint;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.ImportedKey;
+import ru.xander.replicator.schema.Index;
+import ru.xander.replicator.schema.IndexType;
+import ru.xander.replicator.schema.PrimaryKey;
+import ru.xander.replicator.schema.Sequence;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.Trigger;
+import ru.xander.replicator.schema.VendorType;
+import ru.xander.replicator.util.StringUtils;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Чтение секции table, записанной {@link TableSerializer}.
+ *
+ * @author Alexander Shakhov
+ */
+public class TableDeserializer extends JsonDeserializer<Table> {
+    @Override
+    public Table deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonNode node = parser.getCodec().readTree(parser);
+
+        Table table = new Table();
+        table.setSchema(getText(node, "schema"));
+        table.setName(getText(node, "name"));
+        table.setComment(getText(node, "comment"));
+
+        readColumns(node, table);
+        readPrimaryKey(node, table);
+        readImportedKeys(node, table);
+        readCheckConstraints(node, table);
+        readIndices(node, table);
+        readSequence(node, table);
+        readTriggers(node, table);
+
+        return table;
+    }
+
+    private void readColumns(JsonNode node, Table table) {
+        for (JsonNode columnNode : node.path("columns")) {
+            Column column = new Column();
+            column.setTable(table);
+            column.setNumber(columnNode.path("number").asInt());
+            column.setName(getText(columnNode, "name"));
+            column.setColumnType(ColumnType.valueOf(getText(columnNode, "type")));
+            column.setSize(columnNode.path("size").asInt());
+            column.setScale(columnNode.path("scale").asInt());
+            column.setNullable(columnNode.path("nullable").asBoolean());
+            column.setDefaultValue(getText(columnNode, "default"));
+            column.setComment(getText(columnNode, "comment"));
+            table.addColumn(column);
+        }
+    }
+
+    private void readPrimaryKey(JsonNode node, Table table) {
+        JsonNode primaryKeyNode = node.get("primaryKey");
+        if ((primaryKeyNode == null) || primaryKeyNode.isNull()) {
+            return;
+        }
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.setTable(table);
+        primaryKey.setName(getText(primaryKeyNode, "name"));
+        primaryKey.setColumns(getColumns(primaryKeyNode, "columns"));
+        primaryKey.setEnabled(getBoolean(primaryKeyNode, "enabled"));
+        table.setPrimaryKey(primaryKey);
+    }
+
+    private void readImportedKeys(JsonNode node, Table table) {
+        for (JsonNode importedKeyNode : node.path("importedKeys")) {
+            ImportedKey importedKey = new ImportedKey();
+            importedKey.setTable(table);
+            importedKey.setName(getText(importedKeyNode, "name"));
+            importedKey.setColumns(getColumns(importedKeyNode, "columns"));
+            importedKey.setEnabled(getBoolean(importedKeyNode, "enabled"));
+            importedKey.setPkName(getText(importedKeyNode, "pkName"));
+            importedKey.setPkTableSchema(getText(importedKeyNode, "pkTableSchema"));
+            importedKey.setPkTableName(getText(importedKeyNode, "pkTableName"));
+            importedKey.setPkColumns(getColumns(importedKeyNode, "pkColumns"));
+            table.addImportedKey(importedKey);
+        }
+    }
+
+    private void readCheckConstraints(JsonNode node, Table table) {
+        for (JsonNode checkConstraintNode : node.path("checkConstraints")) {
+            CheckConstraint checkConstraint = new CheckConstraint();
+            checkConstraint.setTable(table);
+            checkConstraint.setName(getText(checkConstraintNode, "name"));
+            checkConstraint.setColumns(getColumns(checkConstraintNode, "columns"));
+            checkConstraint.setEnabled(getBoolean(checkConstraintNode, "enabled"));
+            checkConstraint.setCondition(getText(checkConstraintNode, "condition"));
+            table.addCheckConstraint(checkConstraint);
+        }
+    }
+
+    private void readIndices(JsonNode node, Table table) {
+        for (JsonNode indexNode : node.path("indices")) {
+            Index index = new Index();
+            index.setTable(table);
+            index.setName(getText(indexNode, "name"));
+            index.setType(IndexType.valueOf(getText(indexNode, "type")));
+            index.setColumns(getColumns(indexNode, "columns"));
+            index.setEnabled(getBoolean(indexNode, "enabled"));
+            table.addIndex(index);
+        }
+    }
+
+    private void readSequence(JsonNode node, Table table) {
+        JsonNode sequenceNode = node.get("sequence");
+        if ((sequenceNode == null) || sequenceNode.isNull()) {
+            return;
+        }
+        Sequence sequence = new Sequence();
+        sequence.setTable(table);
+        sequence.setSchema(getText(sequenceNode, "schema"));
+        sequence.setName(getText(sequenceNode, "name"));
+        sequence.setStartWith(getBigInteger(sequenceNode, "startWith"));
+        sequence.setIncrementBy(getBigInteger(sequenceNode, "incrementBy"));
+        sequence.setMinValue(getBigInteger(sequenceNode, "minValue"));
+        sequence.setMaxValue(getBigInteger(sequenceNode, "maxValue"));
+        sequence.setCacheSize(getBigInteger(sequenceNode, "cacheSize"));
+        sequence.setCycle(getBoolean(sequenceNode, "cycle"));
+        table.setSequence(sequence);
+    }
+
+    private void readTriggers(JsonNode node, Table table) {
+        for (JsonNode triggerNode : node.path("triggers")) {
+            Trigger trigger = new Trigger();
+            trigger.setTable(table);
+            trigger.setName(getText(triggerNode, "name"));
+            String vendorType = getText(triggerNode, "vendorType");
+            trigger.setVendorType(vendorType == null ? null : VendorType.valueOf(vendorType));
+            trigger.setEnabled(getBoolean(triggerNode, "enabled"));
+            trigger.setBody(getText(triggerNode, "body"));
+            table.addTrigger(trigger);
+        }
+    }
+
+    private static String getText(JsonNode node, String fieldName) {
+        JsonNode value = node.get(fieldName);
+        if ((value == null) || value.isNull()) {
+            return null;
+        }
+        return value.asText();
+    }
+
+    private static Boolean getBoolean(JsonNode node, String fieldName) {
+        JsonNode value = node.get(fieldName);
+        if ((value == null) || value.isNull()) {
+            return null;
+        }
+        return value.asBoolean();
+    }
+
+    private static String[] getColumns(JsonNode node, String fieldName) {
+        String columns = getText(node, fieldName);
+        return columns == null ? new String[0] : StringUtils.splitColumns(columns);
+    }
+
+    private static BigInteger getBigInteger(JsonNode node, String fieldName) {
+        String value = getText(node, fieldName);
+        if ((value == null) || "null".equals(value)) {
+            return null;
+        }
+        return new BigInteger(value);
+    }
+}
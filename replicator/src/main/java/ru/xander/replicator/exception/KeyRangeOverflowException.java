@@ -0,0 +1,12 @@
+package ru.xander.replicator.exception;
+
+/**
+ * Значения целочисленного ключа или размер их диапазона не помещаются в long.
+ *
+ * @author Alexander Shakhov
+ */
+public class KeyRangeOverflowException extends SchemaException {
+    public KeyRangeOverflowException(String message) {
+        super(message);
+    }
+}
@@ -9,6 +9,8 @@ public enum AlterType {
     DROP_TABLE,
     ANALYZE_TABLE,
     RENAME_TABLE,
+    ENABLE_LOGGING,
+    DISABLE_LOGGING,
 
     CREATE_COLUMN,
     CREATE_COLUMN_COMMENT,
@@ -1,9 +1,14 @@
 package ru.xander.replicator.listener;
 
+/**
+ * Событие прогресса. Если общее количество (total) меньше или равно 0, то оно неизвестно.
+ */
 public class Progress {
     private long value;
     private long total;
     private String message;
+    private double rowsPerSecond;
+    private long roundTrips;
 
     public Progress() {
     }
@@ -37,4 +42,26 @@ public class Progress {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    /**
+     * Наблюдаемая скорость обработки (строк в секунду), 0 если неизвестна.
+     */
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Количество обращений к серверу, 0 если неизвестно.
+     */
+    public long getRoundTrips() {
+        return roundTrips;
+    }
+
+    public void setRoundTrips(long roundTrips) {
+        this.roundTrips = roundTrips;
+    }
 }
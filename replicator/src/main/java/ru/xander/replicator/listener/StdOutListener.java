@@ -67,9 +67,20 @@ public class StdOutListener implements Listener {
 
     @Override
     public void progress(Progress progress) {
-        int percent = (int) ((double) progress.getValue() / progress.getTotal() * 100.0);
-        String message = String.format("%s%s (%d/%d, %d%%)%s", GREEN, progress.getMessage(), progress.getValue(), progress.getTotal(), percent, RESET);
-        printMessage(message);
+        StringBuilder message = new StringBuilder();
+        message.append(GREEN).append(progress.getMessage()).append(" (").append(progress.getValue());
+        if (progress.getTotal() > 0) {
+            int percent = (int) ((double) progress.getValue() / progress.getTotal() * 100.0);
+            message.append('/').append(progress.getTotal()).append(", ").append(percent).append('%');
+        }
+        if (progress.getRowsPerSecond() > 0) {
+            message.append(", ").append(Math.round(progress.getRowsPerSecond())).append(" rows/s");
+        }
+        if (progress.getRoundTrips() > 0) {
+            message.append(", ").append(progress.getRoundTrips()).append(" round trips");
+        }
+        message.append(')').append(RESET);
+        printMessage(message.toString());
     }
 
     @Override
@@ -0,0 +1,40 @@
+package ru.xander.replicator.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчик событий (строк, коммитов и т.п.).
+ *
+ * @author Alexander Shakhov
+ */
+public class Counter implements Metric {
+
+    private final LongAdder count = new LongAdder();
+    private final Counter parent;
+
+    Counter(Counter parent) {
+        this.parent = parent;
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void add(long value) {
+        count.add(value);
+        if (parent != null) {
+            parent.add(value);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public Map<String, Number> getValues() {
+        return Collections.singletonMap("count", getCount());
+    }
+}
@@ -0,0 +1,29 @@
+package ru.xander.replicator.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Выгрузка показателей в CSV: по строке на каждое значение показателя ({@code metric,type,stat,value}).
+ *
+ * @author Alexander Shakhov
+ */
+public class CsvMetricsExporter implements MetricsExporter {
+
+    @Override
+    public void export(Metrics metrics, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        writer.write("metric,type,stat,value\n");
+        for (Map.Entry<String, Metric> entry : metrics.getMetrics().entrySet()) {
+            String type = MetricType.of(entry.getValue());
+            for (Map.Entry<String, Number> value : entry.getValue().getValues().entrySet()) {
+                writer.write(entry.getKey() + ',' + type + ',' + value.getKey() + ',' + value.getValue() + '\n');
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.xander.replicator.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Распределение неотрицательных значений (размеров пакетов, длительностей и т.п.).
+ * <p>
+ * Значения раскладываются по интервалам, границы которых - степени двойки, поэтому перцентили
+ * приблизительные: возвращается верхняя граница интервала (но не больше максимального значения).
+ *
+ * @author Alexander Shakhov
+ */
+public class Histogram implements Metric {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+    /**
+     * Интервал N содержит значения от 2^(N-1) до 2^N - 1, интервал 0 - нулевые значения.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+    private final Histogram parent;
+
+    Histogram(Histogram parent) {
+        this.parent = parent;
+    }
+
+    public void update(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram value cannot be negative: " + value);
+        }
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+        if (parent != null) {
+            parent.update(value);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0.0d : getSum() / (double) count;
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0L : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile доля значений от 0 до 1, например, 0.95
+     * @return значение, не меньше которого quantile значений
+     */
+    public long getPercentile(double quantile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long accumulated = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            accumulated += buckets.get(i);
+            if (accumulated >= rank) {
+                long upperBound = i == 0 ? 0L : (1L << i) - 1;
+                return Math.min(upperBound, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public Map<String, Number> getValues() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put("count", getCount());
+        values.put("sum", getSum());
+        values.put("mean", getMean());
+        values.put("min", getMin());
+        values.put("max", getMax());
+        values.put("p50", getPercentile(0.5d));
+        values.put("p95", getPercentile(0.95d));
+        values.put("p99", getPercentile(0.99d));
+        return values;
+    }
+}
@@ -0,0 +1,120 @@
+package ru.xander.replicator.metrics;
+
+import ru.xander.replicator.exception.ReplicatorException;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Публикация показателей через JMX. Каждое значение показателя - атрибут только для чтения
+ * с именем {@code <показатель>.<значение>}, например, {@code fetch.rows.totalMillis}.
+ * Набор атрибутов строится при каждом запросе описания, поэтому видны и показатели, появившиеся после регистрации.
+ *
+ * @author Alexander Shakhov
+ */
+public class JmxMetrics implements DynamicMBean {
+
+    public static final String DEFAULT_OBJECT_NAME = "ru.xander.replicator:type=Metrics";
+
+    private final Metrics metrics;
+
+    public JmxMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Регистрация в платформенном MBean-сервере. Ранее зарегистрированный объект с тем же именем заменяется.
+     */
+    public static ObjectName register(Metrics metrics, String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new JmxMetrics(metrics), name);
+            return name;
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid MBean name " + objectName, e);
+        } catch (Exception e) {
+            throw new ReplicatorException("Failed to register metrics MBean " + objectName + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static void unregister(ObjectName name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            throw new ReplicatorException("Failed to unregister metrics MBean " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            Metric metric = metrics.getMetrics().get(attribute.substring(0, dot));
+            if (metric != null) {
+                Number value = metric.getValues().get(attribute.substring(dot + 1));
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        throw new AttributeNotFoundException("Metric attribute " + attribute + " not found");
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metric attribute " + attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // отсутствующие атрибуты пропускаются
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("Metrics MBean has no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, Metric> entry : metrics.getMetrics().entrySet()) {
+            for (Map.Entry<String, Number> value : entry.getValue().getValues().entrySet()) {
+                attributes.add(new MBeanAttributeInfo(entry.getKey() + '.' + value.getKey(), value.getValue().getClass().getName(),
+                        MetricType.of(entry.getValue()) + ' ' + entry.getKey() + ": " + value.getKey(), true, false, false));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "Replicator metrics", attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.xander.replicator.metrics;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Выгрузка показателей в JSON: объект, в котором по имени показателя лежат его тип и значения.
+ * <pre>
+ * {"fetch.rows": {"type": "timer", "count": 1000, "totalMillis": 12, ...}, ...}
+ * </pre>
+ *
+ * @author Alexander Shakhov
+ */
+public class JsonMetricsExporter implements MetricsExporter {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public void export(Metrics metrics, OutputStream output) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            for (Map.Entry<String, Metric> entry : metrics.getMetrics().entrySet()) {
+                generator.writeObjectFieldStart(entry.getKey());
+                generator.writeStringField("type", MetricType.of(entry.getValue()));
+                for (Map.Entry<String, Number> value : entry.getValue().getValues().entrySet()) {
+                    generator.writeFieldName(value.getKey());
+                    if (value.getValue() instanceof Double) {
+                        generator.writeNumber(value.getValue().doubleValue());
+                    } else {
+                        generator.writeNumber(value.getValue().longValue());
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+}
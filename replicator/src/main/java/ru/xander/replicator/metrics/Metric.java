@@ -0,0 +1,17 @@
+package ru.xander.replicator.metrics;
+
+import java.util.Map;
+
+/**
+ * Показатель реестра {@link Metrics}.
+ *
+ * @author Alexander Shakhov
+ */
+public interface Metric {
+
+    /**
+     * Текущие значения показателя по имени статистики (например, count, totalMillis, p95).
+     * Порядок значений постоянный, его используют экспортеры.
+     */
+    Map<String, Number> getValues();
+}
@@ -0,0 +1,25 @@
+package ru.xander.replicator.metrics;
+
+/**
+ * Название типа показателя для экспортеров.
+ *
+ * @author Alexander Shakhov
+ */
+final class MetricType {
+
+    private MetricType() {
+    }
+
+    static String of(Metric metric) {
+        if (metric instanceof Counter) {
+            return "counter";
+        }
+        if (metric instanceof Timer) {
+            return "timer";
+        }
+        if (metric instanceof Histogram) {
+            return "histogram";
+        }
+        return metric.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,108 @@
+package ru.xander.replicator.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Реестр показателей: счетчиков, таймеров и гистограмм. Задается в конфигурации схемы
+ * ({@link ru.xander.replicator.schema.SchemaConfig#getMetrics()}) и может разделяться между несколькими схемами и действиями.
+ * <p>
+ * Имя показателя состоит из этапа и операции через точку (например, {@code fetch.rows}):
+ * <ul>
+ * <li>{@code query.*} - запросы к словарю данных и DDL ({@code query.select}, {@code query.execute}, {@code query.update});</li>
+ * <li>{@code fetch.*} - выборка строк таблиц ({@code fetch.execute} - выполнение запроса, {@code fetch.rows} - чтение строк);</li>
+ * <li>{@code dump.*} - сериализация таблицы в дамп, по формату ({@code dump.sql}, {@code dump.json}, ...);</li>
+ * <li>{@code write.*} - пакетная запись в приемник ({@code write.batch}, {@code write.batchSize}, {@code write.rows}, {@code write.commits}).</li>
+ * </ul>
+ * Сводка по этапам - {@link #getPhaseMillis()}.
+ * <p>
+ * Реестр может иметь родителя ({@link #Metrics(Metrics)}): все значения дочернего реестра попадают и в родительский.
+ * Так можно получить показатели отдельного действия и при этом накапливать общие показатели за весь запуск.
+ *
+ * @author Alexander Shakhov
+ */
+public class Metrics {
+
+    private final Metrics parent;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public Metrics() {
+        this(null);
+    }
+
+    /**
+     * @param parent реестр, в который дополнительно попадают все значения
+     */
+    public Metrics(Metrics parent) {
+        this.parent = parent;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter(parent == null ? null : parent.counter(name)));
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, k -> new Timer(parent == null ? null : parent.timer(name)));
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Histogram(parent == null ? null : parent.histogram(name)));
+    }
+
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(new TreeMap<>(counters));
+    }
+
+    public Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(new TreeMap<>(timers));
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(histograms));
+    }
+
+    /**
+     * Все показатели по имени в алфавитном порядке.
+     */
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> metrics = new TreeMap<>();
+        metrics.putAll(counters);
+        metrics.putAll(timers);
+        metrics.putAll(histograms);
+        return metrics;
+    }
+
+    /**
+     * Суммарное время таймеров по этапам (часть имени до первой точки), в порядке убывания времени.
+     * Этапы могут пересекаться: например, время {@code fetch.rows} при снятии дампа входит и в {@code dump.*}.
+     */
+    public Map<String, Double> getPhaseMillis() {
+        Map<String, Double> phases = new TreeMap<>();
+        timers.forEach((name, timer) -> phases.merge(phaseOf(name), timer.getTotalMillis(), Double::sum));
+        Map<String, Double> sorted = new LinkedHashMap<>();
+        phases.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Удаление всех показателей (родительский реестр не меняется).
+     */
+    public void clear() {
+        counters.clear();
+        timers.clear();
+        histograms.clear();
+    }
+
+    private static String phaseOf(String name) {
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+}
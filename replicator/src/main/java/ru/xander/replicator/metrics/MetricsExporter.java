@@ -0,0 +1,13 @@
+package ru.xander.replicator.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Выгрузка текущих значений показателей реестра.
+ *
+ * @author Alexander Shakhov
+ */
+public interface MetricsExporter {
+    void export(Metrics metrics, OutputStream output) throws IOException;
+}
@@ -0,0 +1,89 @@
+package ru.xander.replicator.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Время выполнения операции: количество вызовов, суммарное, среднее, минимальное и максимальное время.
+ * <p>
+ * Время замеряется вызывающим кодом через {@link System#nanoTime()}. Для частых коротких операций
+ * (например, чтения строки курсором) время можно накапливать локально и передавать одним вызовом
+ * {@link #record(long, long)}, тогда минимум и максимум считаются по среднему времени пачки.
+ *
+ * @author Alexander Shakhov
+ */
+public class Timer implements Metric {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator minNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private final Timer parent;
+
+    Timer(Timer parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Одна операция.
+     */
+    public void record(long nanos) {
+        record(1L, nanos);
+    }
+
+    /**
+     * Несколько операций с суммарным временем.
+     */
+    public void record(long operations, long nanos) {
+        if (operations <= 0) {
+            return;
+        }
+        count.add(operations);
+        totalNanos.add(nanos);
+        long averageNanos = nanos / operations;
+        minNanos.accumulate(averageNanos);
+        maxNanos.accumulate(averageNanos);
+        if (parent != null) {
+            parent.record(operations, nanos);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double getTotalMillis() {
+        return getTotalNanos() / 1_000_000.0d;
+    }
+
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0.0d : getTotalMillis() / count;
+    }
+
+    public double getMinMillis() {
+        return getCount() == 0 ? 0.0d : minNanos.get() / 1_000_000.0d;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0d;
+    }
+
+    @Override
+    public Map<String, Number> getValues() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put("count", getCount());
+        values.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(getTotalNanos()));
+        values.put("meanMillis", getMeanMillis());
+        values.put("minMillis", getMinMillis());
+        values.put("maxMillis", getMaxMillis());
+        return values;
+    }
+}
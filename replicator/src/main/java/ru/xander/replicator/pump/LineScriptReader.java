@@ -0,0 +1,86 @@
+package ru.xander.replicator.pump;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * Построчное чтение скрипта. Запрос заканчивается строкой, завершающейся на ';',
+ * а запрос, содержащий строку, начинающуюся с BEGIN, - строкой, завершающейся на 'END;'.
+ * Используется для кодировок, которые не поддерживает {@link MappedScriptReader}.
+ * Позиция считается в символах, а не в байтах, поэтому для многобайтовых кодировок она приблизительная.
+ *
+ * @author Alexander Shakhov
+ */
+public class LineScriptReader implements ScriptReader {
+
+    private final BufferedReader bufferedReader;
+    private final long size;
+    private final StringBuilder statement = new StringBuilder();
+    private long position;
+    private int lineNumber;
+
+    public LineScriptReader(File scriptFile, Charset charset) throws IOException {
+        this.bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(scriptFile), charset));
+        this.size = scriptFile.length();
+    }
+
+    @Override
+    public ScriptStatement nextStatement() throws IOException {
+        String line;
+        boolean script = false;
+        int startLine = 0;
+        statement.setLength(0);
+        while ((line = bufferedReader.readLine()) != null) {
+            int lineSize = line.length();
+            position += (lineSize + 1);
+            lineNumber++;
+            if (lineSize == 0) {
+                continue;
+            }
+            if (statement.length() == 0) {
+                startLine = lineNumber;
+            }
+            if (!script) {
+                script = line.startsWith("BEGIN");
+            }
+
+            boolean endStatement;
+            if (script) {
+                endStatement = line.endsWith("END;");
+            } else {
+                endStatement = line.charAt(lineSize - 1) == ';';
+            }
+
+            if (endStatement) {
+                if (script) {
+                    statement.append(line);
+                } else {
+                    statement.append(line, 0, line.length() - 1);
+                }
+                return new ScriptStatement(statement.toString(), startLine);
+            } else {
+                statement.append(line).append('\n');
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        bufferedReader.close();
+    }
+}
@@ -0,0 +1,270 @@
+package ru.xander.replicator.pump;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение скрипта через отображение файла в память.
+ * <p>
+ * Границы запросов ищутся прямо в байтах файла, в строку декодируются только найденные запросы.
+ * Запрос заканчивается на ';' вне строковых литералов, идентификаторов в кавычках и комментариев.
+ * Если строка скрипта начинается с BEGIN или DECLARE, то запрос считается блоком и заканчивается
+ * строкой, завершающейся на 'END;'.
+ * <p>
+ * Подходит только для кодировок, в которых символы ASCII кодируются одним байтом и не встречаются
+ * внутри многобайтовых символов (UTF-8, однобайтовые кодировки), см. {@link #isSupported(Charset)}.
+ *
+ * @author Alexander Shakhov
+ */
+public class MappedScriptReader implements ScriptReader {
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final byte[] BEGIN = {'B', 'E', 'G', 'I', 'N'};
+    private static final byte[] DECLARE = {'D', 'E', 'C', 'L', 'A', 'R', 'E'};
+    private static final byte[] END = {'E', 'N', 'D'};
+
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long position;
+    private long statementStart;
+    private int lineNumber = 1;
+
+    public MappedScriptReader(File scriptFile, Charset charset) throws IOException {
+        if (!isSupported(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported by mapped script reader");
+        }
+        this.channel = FileChannel.open(scriptFile.toPath(), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    public static boolean isSupported(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)) {
+            return true;
+        }
+        if (!charset.canEncode() || (charset.newEncoder().maxBytesPerChar() > 1.0f)) {
+            return false;
+        }
+        String ascii = "BEGIN DECLARE END;'\"-/*\r\n";
+        return ascii.equals(new String(ascii.getBytes(charset), StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public ScriptStatement nextStatement() throws IOException {
+        // пропускаем пробелы между запросами
+        statementStart = position;
+        while ((position < size) && isWhitespace(byteAt(position))) {
+            if (byteAt(position) == '\n') {
+                lineNumber++;
+            }
+            position++;
+        }
+        if (position >= size) {
+            return null;
+        }
+
+        long start = position;
+        statementStart = start;
+        int startLine = lineNumber;
+        boolean block = false;
+        boolean lineStart = true;
+        boolean hasContent = false;
+        while (position < size) {
+            byte b = byteAt(position);
+            if (lineStart && !block) {
+                block = matches(position, BEGIN) || matches(position, DECLARE);
+            }
+            lineStart = false;
+            switch (b) {
+                case '\n':
+                    lineNumber++;
+                    lineStart = true;
+                    position++;
+                    break;
+                case '\'':
+                case '"':
+                    hasContent = true;
+                    skipQuoted(b);
+                    break;
+                case '-':
+                    if (byteAt(position + 1) == '-') {
+                        skipLineComment();
+                    } else {
+                        hasContent = true;
+                        position++;
+                    }
+                    break;
+                case '/':
+                    if (byteAt(position + 1) == '*') {
+                        skipBlockComment();
+                    } else {
+                        hasContent = true;
+                        position++;
+                    }
+                    break;
+                case ';':
+                    position++;
+                    if (!block) {
+                        if (!hasContent) {
+                            // пустой запрос
+                            return nextStatement();
+                        }
+                        return createStatement(start, position - 1, startLine);
+                    }
+                    if (isBlockEnd(position - 1)) {
+                        return createStatement(start, position, startLine);
+                    }
+                    break;
+                default:
+                    if (!isWhitespace(b)) {
+                        hasContent = true;
+                    }
+                    position++;
+                    break;
+            }
+        }
+        // последний запрос без завершающей ';'
+        return hasContent ? createStatement(start, size, startLine) : null;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private ScriptStatement createStatement(long start, long end, int startLine) throws IOException {
+        ensureMapped(start, end);
+        ByteBuffer bytes = window.duplicate();
+        bytes.limit((int) (end - windowStart));
+        bytes.position((int) (start - windowStart));
+        decoder.reset();
+        CharBuffer chars = decoder.decode(bytes);
+        return new ScriptStatement(chars.toString(), startLine);
+    }
+
+    private void skipQuoted(byte quote) throws IOException {
+        position++;
+        while (position < size) {
+            byte b = byteAt(position++);
+            if (b == '\n') {
+                lineNumber++;
+            } else if (b == quote) {
+                // удвоенная кавычка внутри литерала
+                if ((position < size) && (byteAt(position) == quote)) {
+                    position++;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void skipLineComment() throws IOException {
+        while ((position < size) && (byteAt(position) != '\n')) {
+            position++;
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        position += 2;
+        while (position < size) {
+            byte b = byteAt(position++);
+            if (b == '\n') {
+                lineNumber++;
+            } else if ((b == '*') && (position < size) && (byteAt(position) == '/')) {
+                position++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, что ';' в позиции semicolon завершает строку вида '...END;'.
+     */
+    private boolean isBlockEnd(long semicolon) throws IOException {
+        long endStart = semicolon - END.length;
+        if ((endStart < 0) || !matches(endStart, END)) {
+            return false;
+        }
+        long next = semicolon + 1;
+        return (next >= size) || (byteAt(next) == '\n') || (byteAt(next) == '\r');
+    }
+
+    private boolean matches(long at, byte[] keyword) throws IOException {
+        if (at + keyword.length > size) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            if (byteAt(at + i) != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte byteAt(long at) throws IOException {
+        if (at >= size) {
+            return 0;
+        }
+        if ((window == null) || (at < windowStart) || (at >= windowEnd)) {
+            remap(at);
+        }
+        return window.get((int) (at - windowStart));
+    }
+
+    /**
+     * Отображает окно, начинающееся не позже начала текущего запроса, чтобы запрос можно было декодировать целиком.
+     */
+    private void remap(long at) throws IOException {
+        long from = Math.min(at, statementStart);
+        long length = Math.min(size - from, Math.max((long) WINDOW_SIZE, at - from + WINDOW_SIZE));
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Statement at byte " + from + " is too long");
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        windowStart = from;
+        windowEnd = from + length;
+    }
+
+    private void ensureMapped(long start, long end) throws IOException {
+        if ((window == null) || (start < windowStart) || (end > windowEnd)) {
+            long length = end - start;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Statement at byte " + start + " is too long");
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(length, Math.min(size - start, WINDOW_SIZE)));
+            windowStart = start;
+            windowEnd = start + window.capacity();
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return (b == ' ') || (b == '\t') || (b == '\n') || (b == '\r') || (b == '\f');
+    }
+}
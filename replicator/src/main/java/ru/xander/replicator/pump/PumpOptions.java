@@ -0,0 +1,63 @@
+package ru.xander.replicator.pump;
+
+import java.nio.charset.Charset;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class PumpOptions {
+    private int parallelism;
+    private int batchSize;
+    private long commitEach;
+    private int queueSize;
+    private Charset charset;
+    private long verboseEach;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getCommitEach() {
+        return commitEach;
+    }
+
+    public void setCommitEach(long commitEach) {
+        this.commitEach = commitEach;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    public long getVerboseEach() {
+        return verboseEach;
+    }
+
+    public void setVerboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+    }
+}
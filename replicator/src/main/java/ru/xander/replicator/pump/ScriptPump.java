@@ -0,0 +1,282 @@
+package ru.xander.replicator.pump;
+
+import ru.xander.replicator.exception.ReplicatorException;
+import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.schema.BatchExecutor;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.BatchStatistics;
+import ru.xander.replicator.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Конвейер выполнения запросов скрипта.
+ * <p>
+ * Поток, читающий скрипт, раздает запросы INSERT рабочим потокам порциями по размеру пакета.
+ * Каждый рабочий поток выполняет свои запросы пакетами через собственное соединение.
+ * Остальные запросы (DDL, UPDATE/DELETE и блоки BEGIN...END;) являются барьерами: перед их выполнением
+ * все рабочие потоки выполняют накопленные пакеты и фиксируют транзакции. Запрос COMMIT из скрипта передается
+ * всем рабочим потокам, и каждый из них фиксирует свою транзакцию, не дожидаясь остальных.
+ *
+ * @author Alexander Shakhov
+ */
+public class ScriptPump implements AutoCloseable {
+
+    private final Schema schema;
+    private final Listener listener;
+    private final int batchSize;
+    private final List<Worker> workers;
+    private final ExecutorService executorService;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private long dispatched;
+
+    /**
+     * @param schema        схема для выполнения барьерных запросов
+     * @param workerSchemas источник схем для рабочих потоков, у каждой схемы свое соединение
+     */
+    public ScriptPump(Schema schema, Supplier<Schema> workerSchemas, PumpOptions options, Listener listener) {
+        this.schema = schema;
+        this.listener = listener;
+        this.batchSize = options.getBatchSize();
+        int parallelism = Math.max(1, options.getParallelism());
+        BatchOptions batchOptions = new BatchOptions(options.getBatchSize(), options.getCommitEach());
+        this.workers = new ArrayList<>(parallelism);
+        this.executorService = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                Schema workerSchema = (i == 0) ? schema : workerSchemas.get();
+                Worker worker = new Worker(i + 1, workerSchema, workerSchema != schema, batchOptions, options.getQueueSize());
+                workers.add(worker);
+                executorService.submit(worker);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public void execute(ScriptStatement statement) {
+        checkFailure();
+        switch (statement.getKind()) {
+            case INSERT:
+                Worker worker = workers.get((int) ((dispatched++ / batchSize) % workers.size()));
+                worker.submit(statement);
+                break;
+            case COMMIT:
+                for (Worker w : workers) {
+                    w.submit(statement);
+                }
+                break;
+            default:
+                barrier();
+                // барьерный запрос выполняет первый рабочий поток, его соединение совпадает с основным
+                Worker first = workers.get(0);
+                first.submit(statement);
+                barrier();
+                break;
+        }
+    }
+
+    /**
+     * Ожидает выполнения и фиксации всех переданных запросов.
+     */
+    public void finish() {
+        barrier();
+    }
+
+    /**
+     * Статистика рабочих потоков.
+     */
+    public List<String> getWorkerStatistics() {
+        List<String> statistics = new ArrayList<>(workers.size());
+        for (Worker worker : workers) {
+            statistics.add("Worker " + worker.number + ": " + worker.getStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+        executorService.shutdown();
+        for (Worker worker : workers) {
+            worker.awaitStopped();
+            if (worker.ownSchema) {
+                try {
+                    worker.schema.close();
+                } catch (Exception e) {
+                    warning("Failed to close worker " + worker.number + " connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void barrier() {
+        CountDownLatch latch = new CountDownLatch(workers.size());
+        for (Worker worker : workers) {
+            worker.submit(new Barrier(latch));
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReplicatorException("Interrupted while waiting for pump workers", e);
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        Throwable e = failure.get();
+        if (e != null) {
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new ReplicatorException(e.getMessage(), e);
+        }
+    }
+
+    private void warning(String message) {
+        if (listener != null) {
+            listener.warning(message);
+        }
+    }
+
+    private static class Barrier {
+        private final CountDownLatch latch;
+
+        Barrier(CountDownLatch latch) {
+            this.latch = latch;
+        }
+    }
+
+    private static final Object STOP = new Object();
+
+    private class Worker implements Runnable {
+
+        private final int number;
+        private final Schema schema;
+        private final boolean ownSchema;
+        private final BatchExecutor batchExecutor;
+        private final BlockingQueue<Object> queue;
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private volatile long executedStatements;
+        private volatile long startNanos;
+        private volatile long workNanos;
+        private int lastLineNumber;
+
+        Worker(int number, Schema schema, boolean ownSchema, BatchOptions batchOptions, int queueSize) {
+            this.number = number;
+            this.schema = schema;
+            this.ownSchema = ownSchema;
+            this.batchExecutor = schema.createBatchExecutor(batchOptions);
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        void submit(Object item) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReplicatorException("Interrupted while passing statement to pump worker " + number, e);
+            }
+        }
+
+        void stop() {
+            queue.clear();
+            queue.offer(STOP);
+        }
+
+        void awaitStopped() {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            startNanos = System.nanoTime();
+            try {
+                Object item;
+                while ((item = queue.take()) != STOP) {
+                    if (item instanceof Barrier) {
+                        try {
+                            flush();
+                        } finally {
+                            ((Barrier) item).latch.countDown();
+                        }
+                    } else if (failure.get() == null) {
+                        execute((ScriptStatement) item);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batchExecutor.close();
+                stopped.countDown();
+            }
+        }
+
+        private void execute(ScriptStatement statement) {
+            long start = System.nanoTime();
+            try {
+                lastLineNumber = statement.getLineNumber();
+                switch (statement.getKind()) {
+                    case INSERT:
+                        batchExecutor.execute(statement.getSql());
+                        break;
+                    case COMMIT:
+                        batchExecutor.finish();
+                        break;
+                    default:
+                        batchExecutor.execute(statement.getSql());
+                        batchExecutor.finish();
+                        break;
+                }
+                executedStatements++;
+            } catch (Exception e) {
+                fail(e);
+            } finally {
+                workNanos += System.nanoTime() - start;
+            }
+        }
+
+        private void flush() {
+            if (failure.get() != null) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                batchExecutor.finish();
+            } catch (Exception e) {
+                fail(e);
+            } finally {
+                workNanos += System.nanoTime() - start;
+            }
+        }
+
+        private void fail(Exception e) {
+            String errorMessage = "Worker " + number + " failed near line " + lastLineNumber + ": " + e.getMessage();
+            failure.compareAndSet(null, new ReplicatorException(errorMessage, e));
+        }
+
+        String getStatistics() {
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0d;
+            double statementsPerSecond = elapsedSeconds > 0 ? executedStatements / elapsedSeconds : 0.0d;
+            BatchStatistics statistics = batchExecutor.getStatistics();
+            return String.format("statements: %d, %.0f statements/s, busy: %d ms, %s",
+                    executedStatements, statementsPerSecond, workNanos / 1_000_000L, statistics);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.xander.replicator.pump;
+
+import java.io.IOException;
+
+/**
+ * Последовательное чтение запросов из скрипта.
+ *
+ * @author Alexander Shakhov
+ */
+public interface ScriptReader extends AutoCloseable {
+
+    /**
+     * Следующий запрос или null, если скрипт закончился.
+     */
+    ScriptStatement nextStatement() throws IOException;
+
+    /**
+     * Количество прочитанных байт скрипта.
+     */
+    long getPosition();
+
+    /**
+     * Размер скрипта в байтах.
+     */
+    long getSize();
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,34 @@
+package ru.xander.replicator.pump;
+
+/**
+ * Запрос, прочитанный из скрипта.
+ *
+ * @author Alexander Shakhov
+ */
+public class ScriptStatement {
+
+    private final String sql;
+    private final StatementKind kind;
+    private final int lineNumber;
+
+    public ScriptStatement(String sql, int lineNumber) {
+        this.sql = sql;
+        this.kind = StatementKind.of(sql);
+        this.lineNumber = lineNumber;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public StatementKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Номер строки скрипта, на которой начинается запрос.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
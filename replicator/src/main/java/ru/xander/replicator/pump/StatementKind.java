@@ -0,0 +1,73 @@
+package ru.xander.replicator.pump;
+
+/**
+ * Вид запроса скрипта.
+ *
+ * @author Alexander Shakhov
+ */
+public enum StatementKind {
+    /**
+     * INSERT - может выполняться параллельно с другими вставками.
+     */
+    INSERT,
+    /**
+     * UPDATE, DELETE, MERGE - зависят от ранее вставленных строк, поэтому выполняются
+     * только после завершения всех предыдущих запросов.
+     */
+    DML,
+    /**
+     * COMMIT.
+     */
+    COMMIT,
+    /**
+     * Анонимный блок BEGIN...END; - выполняется только после завершения всех предыдущих запросов.
+     */
+    BLOCK,
+    /**
+     * Все остальные запросы (CREATE, ALTER, DROP, COMMENT и т.д.) - выполняются только после завершения всех предыдущих запросов.
+     */
+    DDL;
+
+    public boolean isBarrier() {
+        return (this != INSERT) && (this != COMMIT);
+    }
+
+    public static StatementKind of(String sql) {
+        int start = 0;
+        int length = sql.length();
+        while (start < length) {
+            char c = sql.charAt(start);
+            if (Character.isWhitespace(c)) {
+                start++;
+            } else if (sql.startsWith("--", start)) {
+                int lineEnd = sql.indexOf('\n', start);
+                start = lineEnd < 0 ? length : lineEnd + 1;
+            } else if (sql.startsWith("/*", start)) {
+                int commentEnd = sql.indexOf("*/", start + 2);
+                start = commentEnd < 0 ? length : commentEnd + 2;
+            } else {
+                break;
+            }
+        }
+        int end = start;
+        while ((end < length) && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        String keyword = sql.substring(start, end).toUpperCase();
+        switch (keyword) {
+            case "INSERT":
+                return INSERT;
+            case "UPDATE":
+            case "DELETE":
+            case "MERGE":
+                return DML;
+            case "COMMIT":
+                return COMMIT;
+            case "BEGIN":
+            case "DECLARE":
+                return BLOCK;
+            default:
+                return DDL;
+        }
+    }
+}
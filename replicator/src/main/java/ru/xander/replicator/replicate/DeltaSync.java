@@ -0,0 +1,361 @@
+package ru.xander.replicator.replicate;
+
+import ru.xander.replicator.compare.RowHasher;
+import ru.xander.replicator.exception.KeyRangeOverflowException;
+import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.DataChecksum;
+import ru.xander.replicator.schema.KeyRange;
+import ru.xander.replicator.schema.RowCountMode;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaUtils;
+import ru.xander.replicator.schema.SelectRowsOptions;
+import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableBatchExecutor;
+import ru.xander.replicator.schema.TableField;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.schema.TableRowCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Инкрементальная синхронизация данных таблицы.
+ * <p>
+ * Диапазон первичного ключа делится на листья по {@link ReplicateOptions#getSyncChunkSize()} значений,
+ * листья объединяются в дерево с {@value #FANOUT} потомками у каждого узла. Контрольные суммы листьев
+ * на момент последней синхронизации хранятся в {@link SyncState}. При следующем запуске суммы источника
+ * считаются сверху вниз только для узлов, сумма которых изменилась, и сравниваются с сохраненными,
+ * поэтому приемник читается только в изменившихся листьях. Строки этих листьев сравниваются поштучно,
+ * различия применяются к приемнику пакетами DELETE, UPDATE и INSERT.
+ * <p>
+ * Суммы считаются на сервере, если СУБД источника это поддерживает ({@link ru.xander.replicator.schema.Dialect#selectChecksumQuery}),
+ * иначе источник читается целиком и хэшируется на клиенте. Если сохраненного состояния нет (первый запуск,
+ * изменилась структура таблицы), то суммы листьев источника сравниваются с суммами приемника.
+ * <p>
+ * Сохраненное состояние описывает содержимое приемника, поэтому приемник не должен изменяться в обход синхронизации.
+ *
+ * @author Alexander Shakhov
+ */
+public class DeltaSync {
+
+    private static final int FANOUT = 16;
+
+    private final Schema source;
+    private final Schema target;
+    private final SyncState syncState;
+    private final ReplicateOptions options;
+    private final Listener listener;
+
+    private Table table;
+    private String keyColumn;
+    private int keyIndex;
+    private long leafSize;
+    private long origin;
+    private boolean serverHash;
+    /**
+     * Контрольные суммы источника по номеру листа для изменившихся листьев.
+     */
+    private Map<Long, DataChecksum> changedLeaves;
+
+    public DeltaSync(Schema source, Schema target, SyncState syncState, ReplicateOptions options, Listener listener) {
+        this.source = source;
+        this.target = target;
+        this.syncState = syncState;
+        this.options = options;
+        this.listener = listener;
+    }
+
+    /**
+     * Синхронизация данных таблицы. Структура таблицы в приемнике должна совпадать с источником.
+     */
+    public void sync(Table table) {
+        this.keyColumn = SchemaUtils.getIntegerKeyColumn(table);
+        if (keyColumn == null) {
+            warning("Table " + table.getName() + " has no single-column integer primary key, data is not synchronized");
+            return;
+        }
+        this.table = table;
+        this.keyIndex = new ArrayList<>(table.getColumnMap().keySet()).indexOf(keyColumn);
+        this.leafSize = options.getSyncChunkSize();
+        this.changedLeaves = new TreeMap<>();
+        boolean sourceServerHash = source.getDialect().selectChecksumQuery(table, keyColumn) != null;
+        String columns = table.getColumns().stream().map(Column::getName).collect(Collectors.joining(","));
+
+        SyncState.TableState tableState = syncState.getTable(table.getName());
+        if ((tableState != null) && (!keyColumn.equals(tableState.getKeyColumn())
+                || !columns.equals(tableState.getColumns())
+                || (tableState.getLeafSize() != leafSize)
+                || (tableState.isServerHash() && !sourceServerHash))) {
+            notify("Sync state of table " + table.getName() + " is outdated, table will be compared with target");
+            tableState = null;
+        }
+
+        KeyRange sourceRange;
+        KeyRange targetRange = null;
+        try {
+            sourceRange = source.selectKeyRange(table, keyColumn);
+            if (tableState == null) {
+                targetRange = target.selectKeyRange(table, keyColumn);
+            }
+        } catch (KeyRangeOverflowException e) {
+            warning(e.getMessage() + ", data is not synchronized");
+            return;
+        }
+        KeyRange range;
+        long leafCount;
+        if (tableState == null) {
+            // хэши приемника должны считаться тем же способом, что и хэши источника
+            this.serverHash = sourceServerHash && (source.getVendorType() == target.getVendorType());
+            range = union(sourceRange, targetRange);
+            this.origin = range == null ? 0L : range.getLower();
+            tableState = new SyncState.TableState(keyColumn, columns, serverHash, leafSize, origin);
+            if (range != null) {
+                KeyRange aligned = align(range, leafSize);
+                long firstLeaf = leafNumber(aligned.getLower());
+                Map<Long, DataChecksum> sourceLeaves = toLeaves(selectChecksums(source, aligned, leafSize), firstLeaf);
+                Map<Long, DataChecksum> targetLeaves = toLeaves(selectChecksums(target, aligned, leafSize), firstLeaf);
+                tableState.getLeaves().putAll(sourceLeaves);
+                collectChanges(sourceLeaves, targetLeaves);
+            }
+            leafCount = tableState.getLeaves().size();
+        } else {
+            this.serverHash = tableState.isServerHash();
+            this.origin = tableState.getOrigin();
+            NavigableMap<Long, DataChecksum> leaves = tableState.getLeaves();
+            KeyRange storedRange = leaves.isEmpty() ? null : new KeyRange(keyColumn,
+                    origin + leaves.firstKey() * leafSize,
+                    origin + (leaves.lastKey() + 1) * leafSize - 1);
+            range = union(sourceRange, storedRange);
+            leafCount = leaves.size();
+            if (range != null) {
+                long childSize = leafSize;
+                if (serverHash) {
+                    // поднимаемся до уровня, на котором весь диапазон покрывается не более чем FANOUT узлами
+                    while ((range.getUpper() - align(range, childSize).getLower() + 1) > childSize * FANOUT) {
+                        childSize *= FANOUT;
+                    }
+                }
+                visit(align(range, childSize), childSize, tableState);
+            }
+        }
+
+        if (!changedLeaves.isEmpty()) {
+            applyChanges();
+            tableState = tableState.copy();
+            for (Map.Entry<Long, DataChecksum> leaf : changedLeaves.entrySet()) {
+                if (leaf.getValue() == null) {
+                    tableState.getLeaves().remove(leaf.getKey());
+                } else {
+                    tableState.getLeaves().put(leaf.getKey(), leaf.getValue());
+                }
+            }
+        } else {
+            notify("Table " + table.getName() + " is up to date (" + leafCount + " ranges checked)");
+        }
+        syncState.putTable(table.getName(), tableState);
+    }
+
+    /**
+     * Сравнение потомков узла с сохраненным состоянием и спуск в изменившиеся.
+     */
+    private void visit(KeyRange range, long childSize, SyncState.TableState tableState) {
+        Map<Long, DataChecksum> sourceChecksums = selectChecksums(source, range, childSize);
+        long leavesPerChild = childSize / leafSize;
+        long firstLeaf = leafNumber(range.getLower());
+        if (childSize == leafSize) {
+            long lastLeaf = leafNumber(range.getUpper());
+            collectChanges(toLeaves(sourceChecksums, firstLeaf), tableState.getLeaves().subMap(firstLeaf, true, lastLeaf, true));
+            return;
+        }
+        long childCount = (range.getSpan() + childSize - 1) / childSize;
+        for (long child = 0; child < childCount; child++) {
+            long first = firstLeaf + child * leavesPerChild;
+            DataChecksum stored = tableState.sum(first, first + leavesPerChild - 1);
+            if (!Objects.equals(sourceChecksums.get(child), stored)) {
+                long lower = range.getLower() + child * childSize;
+                visit(new KeyRange(keyColumn, lower, lower + childSize - 1), childSize / FANOUT, tableState);
+            }
+        }
+    }
+
+    /**
+     * Запоминает листья, суммы которых отличаются от прежних (или от приемника).
+     */
+    private void collectChanges(Map<Long, DataChecksum> sourceLeaves, Map<Long, DataChecksum> referenceLeaves) {
+        TreeSet<Long> leaves = new TreeSet<>(sourceLeaves.keySet());
+        leaves.addAll(referenceLeaves.keySet());
+        for (Long leaf : leaves) {
+            DataChecksum sourceLeaf = sourceLeaves.get(leaf);
+            if (!Objects.equals(sourceLeaf, referenceLeaves.get(leaf))) {
+                changedLeaves.put(leaf, sourceLeaf);
+            }
+        }
+    }
+
+    /**
+     * Перевод номеров порций диапазона, начинающегося с первого листа firstLeaf, в номера листьев.
+     */
+    private static Map<Long, DataChecksum> toLeaves(Map<Long, DataChecksum> chunks, long firstLeaf) {
+        Map<Long, DataChecksum> leaves = new HashMap<>();
+        chunks.forEach((chunk, checksum) -> leaves.put(firstLeaf + chunk, checksum));
+        return leaves;
+    }
+
+    private long leafNumber(long key) {
+        return Math.floorDiv(key - origin, leafSize);
+    }
+
+    private Map<Long, DataChecksum> selectChecksums(Schema schema, KeyRange range, long chunkSize) {
+        Map<Long, DataChecksum> checksums;
+        if (serverHash) {
+            checksums = schema.selectChecksums(table, range, chunkSize);
+        } else {
+            Map<Long, long[]> sums = new HashMap<>();
+            try (TableRowCursor cursor = schema.selectRows(table, rangeOptions(range))) {
+                String[] values = new String[cursor.getColumnCount()];
+                while (cursor.next()) {
+                    RowHasher.readRow(cursor, values);
+                    long chunk = Math.floorDiv(cursor.getLong(keyIndex) - range.getLower(), chunkSize);
+                    long[] sum = sums.computeIfAbsent(chunk, k -> new long[2]);
+                    sum[0]++;
+                    sum[1] += RowHasher.hashRow(values);
+                }
+            }
+            checksums = new HashMap<>();
+            for (Map.Entry<Long, long[]> sum : sums.entrySet()) {
+                checksums.put(sum.getKey(), new DataChecksum(sum.getValue()[0], sum.getValue()[1]));
+            }
+        }
+        return checksums;
+    }
+
+    private void applyChanges() {
+        Table keyTable = new Table();
+        keyTable.setSchema(table.getSchema());
+        keyTable.setName(table.getName());
+        keyTable.addColumn(table.getColumn(keyColumn));
+        // для UPDATE ключевой столбец последний, остальные в исходном порядке
+        Table updateTable = new Table();
+        updateTable.setSchema(table.getSchema());
+        updateTable.setName(table.getName());
+        int[] updateOrder = new int[table.getColumns().size()];
+        int index = 0;
+        int position = 0;
+        for (Column column : table.getColumns()) {
+            if (!column.getName().equals(keyColumn)) {
+                updateTable.addColumn(column);
+                updateOrder[position++] = index;
+            }
+            index++;
+        }
+        updateTable.addColumn(table.getColumn(keyColumn));
+        updateOrder[position] = keyIndex;
+
+        BatchOptions batchOptions = new BatchOptions(options.getBatchSize(), options.getCommitEach());
+        try (
+                TableBatchExecutor deleteExecutor = target.createTableBatchExecutor(keyTable, target.getDialect().deleteQuery(table, keyColumn), batchOptions);
+                TableBatchExecutor updateExecutor = target.createTableBatchExecutor(updateTable, target.getDialect().updateQuery(table, keyColumn), batchOptions);
+                TableBatchExecutor insertExecutor = target.createTableBatchExecutor(table, batchOptions)
+        ) {
+            for (Long leaf : changedLeaves.keySet()) {
+                KeyRange leafRange = new KeyRange(keyColumn, origin + leaf * leafSize, origin + (leaf + 1) * leafSize - 1);
+                Map<Long, TableRow> sourceRows = selectRows(source, leafRange);
+                Map<Long, TableRow> targetRows = selectRows(target, leafRange);
+                for (Map.Entry<Long, TableRow> targetRow : targetRows.entrySet()) {
+                    if (!sourceRows.containsKey(targetRow.getKey())) {
+                        TableField keyField = new TableField(keyTable.getColumn(keyColumn));
+                        keyField.setValue(targetRow.getKey());
+                        deleteExecutor.execute(new TableRow(keyTable, new TableField[]{keyField}));
+                    }
+                }
+                for (Map.Entry<Long, TableRow> sourceRow : sourceRows.entrySet()) {
+                    TableRow row = sourceRow.getValue();
+                    TableRow targetRow = targetRows.get(sourceRow.getKey());
+                    if (targetRow == null) {
+                        insertExecutor.execute(row);
+                    } else if (!Arrays.equals(normalize(row), normalize(targetRow))) {
+                        TableField[] fields = row.getFields();
+                        TableField[] updateFields = new TableField[fields.length];
+                        for (int i = 0; i < fields.length; i++) {
+                            updateFields[i] = fields[updateOrder[i]];
+                        }
+                        updateExecutor.execute(new TableRow(updateTable, updateFields));
+                    }
+                }
+            }
+            deleteExecutor.finish();
+            updateExecutor.finish();
+            insertExecutor.finish();
+            notify("Synchronized table " + table.getName() + ": "
+                    + insertExecutor.getTotalRows() + " inserted, "
+                    + updateExecutor.getTotalRows() + " updated, "
+                    + deleteExecutor.getTotalRows() + " deleted"
+                    + " (" + changedLeaves.size() + " changed ranges)");
+        }
+    }
+
+    private Map<Long, TableRow> selectRows(Schema schema, KeyRange range) {
+        Map<Long, TableRow> rows = new HashMap<>();
+        try (TableRowCursor cursor = schema.selectRows(table, rangeOptions(range))) {
+            TableRow row;
+            while ((row = cursor.nextDetachedRow()) != null) {
+                rows.put(((Number) row.getFields()[keyIndex].getValue()).longValue(), row);
+            }
+        }
+        return rows;
+    }
+
+    private static String[] normalize(TableRow row) {
+        TableField[] fields = row.getFields();
+        String[] values = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = RowHasher.normalize(fields[i].getColumn(), fields[i].getValue());
+        }
+        return values;
+    }
+
+    private KeyRange align(KeyRange range, long chunkSize) {
+        long lower = origin + Math.floorDiv(range.getLower() - origin, chunkSize) * chunkSize;
+        return new KeyRange(keyColumn, lower, range.getUpper());
+    }
+
+    private KeyRange union(KeyRange range1, KeyRange range2) {
+        if (range1 == null) {
+            return range2;
+        }
+        if (range2 == null) {
+            return range1;
+        }
+        return new KeyRange(keyColumn,
+                Math.min(range1.getLower(), range2.getLower()),
+                Math.max(range1.getUpper(), range2.getUpper()));
+    }
+
+    private static SelectRowsOptions rangeOptions(KeyRange range) {
+        SelectRowsOptions selectOptions = new SelectRowsOptions(Long.MAX_VALUE);
+        selectOptions.setRowCountMode(RowCountMode.NONE);
+        selectOptions.setKeyRange(range);
+        return selectOptions;
+    }
+
+    private void notify(String message) {
+        if (listener != null) {
+            listener.notify(message);
+        }
+    }
+
+    private void warning(String message) {
+        if (listener != null) {
+            listener.warning(message);
+        }
+    }
+}
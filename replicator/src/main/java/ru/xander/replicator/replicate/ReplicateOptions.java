@@ -0,0 +1,165 @@
+package ru.xander.replicator.replicate;
+
+import ru.xander.replicator.schema.RowCountMode;
+
+import java.io.File;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class ReplicateOptions {
+
+    private boolean updateImported;
+    private boolean copyData;
+    private int queueSize;
+    private long verboseEach;
+    private int batchSize;
+    private long commitEach;
+    private boolean directPath;
+    private boolean noLogging;
+    private int parallelism;
+    private int tableParallelism;
+    private RowCountMode rowCountMode;
+    private boolean bulkLoad;
+    private int buildParallelism;
+    private boolean validateConstraints;
+    private boolean syncData;
+    private long syncChunkSize;
+    private File syncStateFile;
+
+    public boolean isUpdateImported() {
+        return updateImported;
+    }
+
+    public void setUpdateImported(boolean updateImported) {
+        this.updateImported = updateImported;
+    }
+
+    public boolean isCopyData() {
+        return copyData;
+    }
+
+    public void setCopyData(boolean copyData) {
+        this.copyData = copyData;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public long getVerboseEach() {
+        return verboseEach;
+    }
+
+    public void setVerboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getCommitEach() {
+        return commitEach;
+    }
+
+    public void setCommitEach(long commitEach) {
+        this.commitEach = commitEach;
+    }
+
+    public boolean isDirectPath() {
+        return directPath;
+    }
+
+    public void setDirectPath(boolean directPath) {
+        this.directPath = directPath;
+    }
+
+    public boolean isNoLogging() {
+        return noLogging;
+    }
+
+    public void setNoLogging(boolean noLogging) {
+        this.noLogging = noLogging;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getTableParallelism() {
+        return tableParallelism;
+    }
+
+    public void setTableParallelism(int tableParallelism) {
+        this.tableParallelism = tableParallelism;
+    }
+
+    public RowCountMode getRowCountMode() {
+        return rowCountMode;
+    }
+
+    public void setRowCountMode(RowCountMode rowCountMode) {
+        this.rowCountMode = rowCountMode;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public int getBuildParallelism() {
+        return buildParallelism;
+    }
+
+    public void setBuildParallelism(int buildParallelism) {
+        this.buildParallelism = buildParallelism;
+    }
+
+    public boolean isValidateConstraints() {
+        return validateConstraints;
+    }
+
+    public void setValidateConstraints(boolean validateConstraints) {
+        this.validateConstraints = validateConstraints;
+    }
+
+    public boolean isSyncData() {
+        return syncData;
+    }
+
+    public void setSyncData(boolean syncData) {
+        this.syncData = syncData;
+    }
+
+    public long getSyncChunkSize() {
+        return syncChunkSize;
+    }
+
+    public void setSyncChunkSize(long syncChunkSize) {
+        this.syncChunkSize = syncChunkSize;
+    }
+
+    public File getSyncStateFile() {
+        return syncStateFile;
+    }
+
+    public void setSyncStateFile(File syncStateFile) {
+        this.syncStateFile = syncStateFile;
+    }
+}
@@ -0,0 +1,198 @@
+package ru.xander.replicator.replicate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.xander.replicator.exception.ReplicatorException;
+import ru.xander.replicator.schema.DataChecksum;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Состояние синхронизации данных: для каждой таблицы контрольные суммы листьев дерева диапазонов
+ * первичного ключа на момент последней синхронизации.
+ * <p>
+ * Лист - диапазон из {@code leafSize} значений ключа, лист с номером N начинается со значения
+ * {@code origin + N * leafSize}. Контрольные суммы аддитивны, поэтому сумма узла дерева
+ * (диапазона из нескольких листьев) вычисляется сложением сумм его листьев и не хранится.
+ *
+ * @author Alexander Shakhov
+ */
+public class SyncState {
+
+    private static final int STATE_VERSION = 1;
+
+    private final Map<String, TableState> tables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public synchronized TableState getTable(String tableName) {
+        return tables.get(tableName);
+    }
+
+    public synchronized void putTable(String tableName, TableState tableState) {
+        tables.put(tableName, tableState);
+    }
+
+    public synchronized void removeTable(String tableName) {
+        tables.remove(tableName);
+    }
+
+    /**
+     * Загрузка состояния. Если файла нет, то состояние пустое.
+     */
+    public static SyncState load(File file) {
+        SyncState syncState = new SyncState();
+        if (!file.exists()) {
+            return syncState;
+        }
+        try (InputStream input = new FileInputStream(file)) {
+            syncState.read(input);
+            return syncState;
+        } catch (IOException e) {
+            throw new ReplicatorException("Failed to load sync state from " + file.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Сохранение состояния. Файл записывается через временный, поэтому при сбое прежнее состояние не теряется.
+     */
+    public synchronized void save(File file) {
+        File tempFile = new File(file.getAbsolutePath() + ".tmp");
+        try {
+            try (OutputStream output = new FileOutputStream(tempFile)) {
+                write(output);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ReplicatorException("Failed to save sync state to " + file.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void read(InputStream input) throws IOException {
+        JsonNode root = objectMapper.readTree(input);
+        if ((root == null) || (root.path("version").asInt() != STATE_VERSION)) {
+            return;
+        }
+        root.path("tables").fields().forEachRemaining(entry -> {
+            JsonNode tableNode = entry.getValue();
+            TableState tableState = new TableState(
+                    tableNode.path("keyColumn").asText(),
+                    tableNode.path("columns").asText(),
+                    tableNode.path("serverHash").asBoolean(),
+                    tableNode.path("leafSize").asLong(),
+                    tableNode.path("origin").asLong());
+            for (JsonNode leafNode : tableNode.path("leaves")) {
+                tableState.leaves.put(leafNode.get(0).asLong(), new DataChecksum(leafNode.get(1).asLong(), leafNode.get(2).asLong()));
+            }
+            tables.put(entry.getKey(), tableState);
+        });
+    }
+
+    private void write(OutputStream output) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(output)) {
+            gen.writeStartObject();
+            gen.writeNumberField("version", STATE_VERSION);
+            gen.writeObjectFieldStart("tables");
+            for (Map.Entry<String, TableState> entry : tables.entrySet()) {
+                TableState tableState = entry.getValue();
+                gen.writeObjectFieldStart(entry.getKey());
+                gen.writeStringField("keyColumn", tableState.keyColumn);
+                gen.writeStringField("columns", tableState.columns);
+                gen.writeBooleanField("serverHash", tableState.serverHash);
+                gen.writeNumberField("leafSize", tableState.leafSize);
+                gen.writeNumberField("origin", tableState.origin);
+                gen.writeArrayFieldStart("leaves");
+                for (Map.Entry<Long, DataChecksum> leaf : tableState.leaves.entrySet()) {
+                    gen.writeStartArray();
+                    gen.writeNumber(leaf.getKey());
+                    gen.writeNumber(leaf.getValue().getRowCount());
+                    gen.writeNumber(leaf.getValue().getChecksum());
+                    gen.writeEndArray();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Состояние таблицы. Действительно, пока не изменились ключ, набор столбцов, способ хэширования и размер листа.
+     */
+    public static class TableState {
+        private final String keyColumn;
+        private final String columns;
+        private final boolean serverHash;
+        private final long leafSize;
+        private final long origin;
+        private final NavigableMap<Long, DataChecksum> leaves = new TreeMap<>();
+
+        public TableState(String keyColumn, String columns, boolean serverHash, long leafSize, long origin) {
+            this.keyColumn = keyColumn;
+            this.columns = columns;
+            this.serverHash = serverHash;
+            this.leafSize = leafSize;
+            this.origin = origin;
+        }
+
+        public String getKeyColumn() {
+            return keyColumn;
+        }
+
+        public String getColumns() {
+            return columns;
+        }
+
+        public boolean isServerHash() {
+            return serverHash;
+        }
+
+        public long getLeafSize() {
+            return leafSize;
+        }
+
+        public long getOrigin() {
+            return origin;
+        }
+
+        /**
+         * Копия состояния. Сохраненное состояние не изменяется на месте, т.к. может записываться в файл из другого потока.
+         */
+        public TableState copy() {
+            TableState copy = new TableState(keyColumn, columns, serverHash, leafSize, origin);
+            copy.leaves.putAll(leaves);
+            return copy;
+        }
+
+        /**
+         * Контрольные суммы непустых листьев по номеру листа.
+         */
+        public NavigableMap<Long, DataChecksum> getLeaves() {
+            return leaves;
+        }
+
+        /**
+         * Контрольная сумма листьев с номерами от first до last включительно или null, если все они пусты.
+         */
+        public DataChecksum sum(long first, long last) {
+            long rowCount = 0;
+            long checksum = 0;
+            for (DataChecksum leaf : leaves.subMap(first, true, last, true).values()) {
+                rowCount += leaf.getRowCount();
+                checksum += leaf.getChecksum();
+            }
+            return rowCount == 0 ? null : new DataChecksum(rowCount, checksum);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ru.xander.replicator.replicate;
+
+import ru.xander.replicator.schema.ImportedKey;
+import ru.xander.replicator.schema.SchemaUtils;
+import ru.xander.replicator.schema.Table;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Граф зависимостей реплицируемых таблиц по внешним ключам.
+ * <p>
+ * Таблица может реплицироваться только после таблиц, на которые ссылаются ее внешние ключи.
+ * Циклы должны быть разорваны вызовом {@link #breakCycles()} до начала раздачи таблиц: внешние ключи,
+ * замыкающие цикл, откладываются и создаются после репликации всех таблиц. После этого граф раздает
+ * таблицы в порядке топологической сортировки (алгоритм Кана): {@link #take()} возвращает таблицу, все зависимости которой уже реплицированы
+ * ({@link #complete(String)}), поэтому независимые таблицы могут реплицироваться параллельно.
+ *
+ * @author Alexander Shakhov
+ */
+public class TableGraph {
+
+    private final Map<String, Table> tables = SchemaUtils.newTableMap();
+    /**
+     * Таблицы, от которых зависит таблица (кроме нее самой).
+     */
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    /**
+     * Таблицы, зависящие от таблицы.
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, List<ImportedKey>> deferredKeys = new HashMap<>();
+
+    private Map<String, Integer> pending;
+    private Deque<String> ready;
+    private int running;
+    private boolean failed;
+
+    public void addTable(Table table) {
+        tables.put(table.getName(), table);
+        dependencies.computeIfAbsent(table.getName(), k -> new LinkedHashSet<>());
+        dependents.computeIfAbsent(table.getName(), k -> new LinkedHashSet<>());
+    }
+
+    public boolean containsTable(String tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    public Table getTable(String tableName) {
+        return tables.get(tableName);
+    }
+
+    public Collection<Table> getTables() {
+        return tables.values();
+    }
+
+    /**
+     * Зависимость таблицы от таблицы, на которую ссылается внешний ключ. Обе таблицы должны быть в графе.
+     * Ссылки таблицы на саму себя не учитываются.
+     */
+    public void addDependency(String tableName, ImportedKey importedKey) {
+        String pkTableName = tables.get(importedKey.getPkTableName()).getName();
+        tableName = tables.get(tableName).getName();
+        if (!tableName.equals(pkTableName)) {
+            dependencies.get(tableName).add(pkTableName);
+            dependents.get(pkTableName).add(tableName);
+        }
+    }
+
+    /**
+     * Разрывает циклы зависимостей. Пока топологическая сортировка не может продолжиться,
+     * у первой по имени таблицы из оставшихся откладываются внешние ключи на оставшиеся таблицы.
+     *
+     * @return отложенные внешние ключи, которые нужно создать после репликации всех таблиц
+     */
+    public List<ImportedKey> breakCycles() {
+        Map<String, Set<String>> remaining = new HashMap<>();
+        dependencies.forEach((tableName, pkTables) -> remaining.put(tableName, new LinkedHashSet<>(pkTables)));
+        List<ImportedKey> deferred = new ArrayList<>();
+        while (!remaining.isEmpty()) {
+            boolean progress = false;
+            for (String tableName : tables.keySet()) {
+                Set<String> pkTables = remaining.get(tableName);
+                if ((pkTables != null) && pkTables.isEmpty()) {
+                    remaining.remove(tableName);
+                    remaining.values().forEach(set -> set.remove(tableName));
+                    progress = true;
+                }
+            }
+            if (progress) {
+                continue;
+            }
+            String tableName = tables.keySet().stream().filter(remaining::containsKey).findFirst().orElseThrow(IllegalStateException::new);
+            Set<String> pkTables = remaining.get(tableName);
+            for (ImportedKey importedKey : tables.get(tableName).getImportedKeys()) {
+                Table pkTable = tables.get(importedKey.getPkTableName());
+                if ((pkTable != null) && pkTables.contains(pkTable.getName())) {
+                    deferredKeys.computeIfAbsent(tableName, k -> new ArrayList<>()).add(importedKey);
+                    deferred.add(importedKey);
+                }
+            }
+            for (String pkTableName : pkTables) {
+                dependencies.get(tableName).remove(pkTableName);
+                dependents.get(pkTableName).remove(tableName);
+            }
+            pkTables.clear();
+        }
+        return deferred;
+    }
+
+    /**
+     * Отложенный ли внешний ключ таблицы.
+     */
+    public boolean isDeferred(String tableName, ImportedKey importedKey) {
+        List<ImportedKey> keys = deferredKeys.get(tableName);
+        return (keys != null) && keys.contains(importedKey);
+    }
+
+    /**
+     * Следующая таблица, все зависимости которой реплицированы. Ожидает, пока такая таблица появится.
+     *
+     * @return null, если все таблицы розданы или репликация прервана ({@link #fail()})
+     */
+    public synchronized Table take() throws InterruptedException {
+        if (pending == null) {
+            pending = new HashMap<>();
+            ready = new ArrayDeque<>();
+            for (String tableName : tables.keySet()) {
+                int count = dependencies.get(tableName).size();
+                pending.put(tableName, count);
+                if (count == 0) {
+                    ready.add(tableName);
+                }
+            }
+        }
+        while (!failed && ready.isEmpty() && (running > 0)) {
+            wait();
+        }
+        if (failed || ready.isEmpty()) {
+            return null;
+        }
+        running++;
+        return tables.get(ready.poll());
+    }
+
+    /**
+     * Таблица реплицирована, зависящие от нее таблицы могут быть розданы.
+     */
+    public synchronized void complete(String tableName) {
+        running--;
+        for (String dependent : dependents.get(tableName)) {
+            int count = pending.merge(dependent, -1, Integer::sum);
+            if (count == 0) {
+                ready.add(dependent);
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Прерывание репликации: {@link #take()} больше не раздает таблицы.
+     */
+    public synchronized void fail() {
+        failed = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,225 @@
+package ru.xander.replicator.schema;
+
+import ru.xander.replicator.exception.SchemaException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Базовый форматтер: реализации описывают только форматтеры столбцов ({@link #compileValue(ColumnType, Column)}),
+ * методы formatXXX строятся на их основе. Форматтеры не хранят изменяемого состояния, поэтому один экземпляр
+ * можно использовать из нескольких потоков.
+ *
+ * @author Alexander Shakhov
+ */
+public abstract class AbstractDataFormatter implements DataFormatter {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    @Override
+    public ColumnFormatter compile(Column column) {
+        ColumnFormatter formatter = compileValue(column.getColumnType(), column);
+        String nullValue = formatNull(column);
+        return (value, sb) -> {
+            if (value == null) {
+                sb.append(nullValue);
+            } else {
+                formatter.format(value, sb);
+            }
+        };
+    }
+
+    /**
+     * Форматтер непустых значений столбца.
+     *
+     * @param columnType тип, по правилам которого форматируются значения
+     */
+    protected abstract ColumnFormatter compileValue(ColumnType columnType, Column column);
+
+    @Override
+    public String formatBoolean(Object value, Column column) {
+        return format(ColumnType.BOOLEAN, value, column);
+    }
+
+    @Override
+    public String formatInteger(Object value, Column column) {
+        return format(ColumnType.INTEGER, value, column);
+    }
+
+    @Override
+    public String formatFloat(Object value, Column column) {
+        return format(ColumnType.FLOAT, value, column);
+    }
+
+    @Override
+    public String formatSerial(Object value, Column column) {
+        return format(ColumnType.SERIAL, value, column);
+    }
+
+    @Override
+    public String formatChar(Object value, Column column) {
+        return format(ColumnType.CHAR, value, column);
+    }
+
+    @Override
+    public String formatString(Object value, Column column) {
+        return format(ColumnType.STRING, value, column);
+    }
+
+    @Override
+    public String formatDate(Object value, Column column) {
+        return format(ColumnType.DATE, value, column);
+    }
+
+    @Override
+    public String formatTime(Object value, Column column) {
+        return format(ColumnType.TIME, value, column);
+    }
+
+    @Override
+    public String formatTimestamp(Object value, Column column) {
+        return format(ColumnType.TIMESTAMP, value, column);
+    }
+
+    @Override
+    public String formatClob(Object value, Column column) {
+        return format(ColumnType.CLOB, value, column);
+    }
+
+    @Override
+    public String formatBlob(Object value, Column column) {
+        return format(ColumnType.BLOB, value, column);
+    }
+
+    private String format(ColumnType columnType, Object value, Column column) {
+        StringBuilder sb = new StringBuilder();
+        compileValue(columnType, column).format(value, sb);
+        return sb.toString();
+    }
+
+    protected static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    /**
+     * Целые числа дописываются без создания строки, остальные - в виде десятичной дроби без экспоненты.
+     */
+    protected static void appendNumber(Object value, StringBuilder sb) {
+        if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            sb.append(((Number) value).longValue());
+        } else {
+            sb.append(toBigDecimal(value).toPlainString());
+        }
+    }
+
+    /**
+     * Десятичная дробь без экспоненты, округленная до maxFractionDigits знаков (HALF_EVEN),
+     * без незначащих нулей, но как минимум с одним знаком после точки (1.0, 12.25).
+     */
+    protected static void appendDecimal(Object value, int maxFractionDigits, StringBuilder sb) {
+        BigDecimal decimal = toBigDecimal(value);
+        if (decimal.scale() > maxFractionDigits) {
+            decimal = decimal.setScale(maxFractionDigits, RoundingMode.HALF_EVEN);
+        }
+        if (decimal.signum() == 0) {
+            sb.append("0.0");
+            return;
+        }
+        decimal = decimal.stripTrailingZeros();
+        if (decimal.scale() < 1) {
+            decimal = decimal.setScale(1);
+        }
+        sb.append(decimal.toPlainString());
+    }
+
+    protected static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if ((value instanceof Double) || (value instanceof Float)) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    /**
+     * Дата-время значения. Значения java.util.Date переводятся в часовой пояс zone.
+     */
+    protected static LocalDateTime toLocalDateTime(Object value, ZoneId zone) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof Date) {
+            // java.sql.Date и java.sql.Time не поддерживают toInstant()
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((Date) value).getTime()), zone);
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        }
+        throw new SchemaException("Cannot format value of type " + value.getClass().getName() + " as date");
+    }
+
+    protected static String readClob(Object value) {
+        if (!(value instanceof Clob)) {
+            return value.toString();
+        }
+        StringBuilder sb = new StringBuilder();
+        try (Reader reader = ((Clob) value).getCharacterStream()) {
+            char[] buffer = new char[4096];
+            int len;
+            while ((len = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, len);
+            }
+        } catch (SQLException | IOException e) {
+            String errorMessage = "Cannot read CLOB value: " + e.getMessage();
+            throw new SchemaException(errorMessage, e);
+        }
+        return sb.toString();
+    }
+
+    protected static byte[] readBlob(Object value) {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        try {
+            Blob blob = (Blob) value;
+            return blob.getBytes(1, (int) blob.length());
+        } catch (SQLException e) {
+            String errorMessage = "Cannot read BLOB value: " + e.getMessage();
+            throw new SchemaException(errorMessage, e);
+        }
+    }
+
+    protected static void appendHex(byte[] bytes, StringBuilder sb) {
+        for (byte b : bytes) {
+            sb.append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+        }
+    }
+}
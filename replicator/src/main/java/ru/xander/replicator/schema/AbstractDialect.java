@@ -1,5 +1,8 @@
 package ru.xander.replicator.schema;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+
 public abstract class AbstractDialect implements Dialect {
 
     protected final String workSchema;
@@ -8,6 +11,189 @@ public abstract class AbstractDialect implements Dialect {
         this.workSchema = workSchema;
     }
 
+    /**
+     * Запрос для создания первичного ключа по заранее построенному уникальному индексу.
+     * Если СУБД не поддерживает указание индекса, то совпадает с {@link #createPrimaryKeyQuery(PrimaryKey)}.
+     */
+    @Override
+    public String createPrimaryKeyQuery(PrimaryKey primaryKey, Index index) {
+        return createPrimaryKeyQuery(primaryKey);
+    }
+
+    /**
+     * Запрос для создания внешнего ключа на уже загруженных данных.
+     * Если validate = false и СУБД это поддерживает, то существующие строки не проверяются.
+     */
+    @Override
+    public String createImportedKeyQuery(ImportedKey importedKey, boolean validate) {
+        return createImportedKeyQuery(importedKey);
+    }
+
+    /**
+     * Запрос для создания check-ограничения на уже загруженных данных.
+     * Если validate = false и СУБД это поддерживает, то существующие строки не проверяются.
+     */
+    @Override
+    public String createCheckConstraintQuery(CheckConstraint checkConstraint, boolean validate) {
+        return createCheckConstraintQuery(checkConstraint);
+    }
+
+    /**
+     * Запрос для построения индекса на уже загруженных данных с заданной степенью параллелизма.
+     * Если СУБД не поддерживает параллельное построение, то совпадает с {@link #createIndexQuery(Index)}.
+     */
+    @Override
+    public String createIndexQuery(Index index, int parallelism) {
+        return createIndexQuery(index);
+    }
+
+    /**
+     * Запрос, возвращающий индексу обычные атрибуты после {@link #createIndexQuery(Index, int)}, или null, если не требуется.
+     */
+    @Override
+    public String finishIndexQuery(Index index) {
+        return null;
+    }
+
+    /**
+     * Параметризованный запрос для вставки строки таблицы.
+     * Порядок параметров совпадает с порядком {@link Table#getColumns()}.
+     */
+    @Override
+    public String insertQuery(Table table) {
+        Collection<Column> columns = table.getColumns();
+        return "INSERT INTO " + getQualifiedName(table) +
+                " (" + columns.stream().map(Column::getName).collect(Collectors.joining(", ")) + ")\n" +
+                "VALUES (" + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ')';
+    }
+
+    /**
+     * Параметризованный запрос для вставки строки таблицы в обход буферного кэша (direct-path)
+     * с тем же порядком параметров, что и {@link #insertQuery(Table)}, или null, если СУБД его не поддерживает.
+     */
+    @Override
+    public String directPathInsertQuery(Table table) {
+        return null;
+    }
+
+    /**
+     * Начало запроса вставки нескольких строк, по умолчанию INSERT INTO ... VALUES со списком строк.
+     * Запрос собирается так: {@link #multiRowInsertHead(Table)}, затем для каждой строки
+     * {@link #multiRowInsertRow(Table, boolean)}, значения столбцов в порядке {@link Table#getColumns()}
+     * через ", " и ')', в конце {@link #multiRowInsertTail(Table)}.
+     */
+    @Override
+    public String multiRowInsertHead(Table table) {
+        return "INSERT INTO " + getQualifiedName(table) +
+                " (" + table.getColumns().stream().map(Column::getName).collect(Collectors.joining(", ")) + ")\n" +
+                "VALUES ";
+    }
+
+    /**
+     * Текст перед значениями строки в запросе вставки нескольких строк, заканчивается на '('.
+     *
+     * @param first первая строка запроса
+     */
+    @Override
+    public String multiRowInsertRow(Table table, boolean first) {
+        return first ? "(" : ",\n(";
+    }
+
+    /**
+     * Окончание запроса вставки нескольких строк.
+     */
+    @Override
+    public String multiRowInsertTail(Table table) {
+        return "";
+    }
+
+    /**
+     * Наибольшее количество строк в одном запросе вставки нескольких строк.
+     */
+    @Override
+    public int maxMultiRowInsertRows(Table table) {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Наибольшая длина запроса в символах, на которую рассчитаны запросы вставки нескольких строк.
+     */
+    @Override
+    public int maxQueryLength() {
+        return 1024 * 1024;
+    }
+
+    /**
+     * Запрос для включения или отключения записи изменений таблицы в redo-лог или null, если СУБД его не поддерживает.
+     */
+    @Override
+    public String toggleLoggingQuery(Table table, boolean logging) {
+        return null;
+    }
+
+    /**
+     * Параметризованный запрос для изменения строки таблицы по ключу.
+     * Параметры - значения столбцов, кроме ключевого, в порядке {@link Table#getColumns()}, затем значение ключа.
+     */
+    @Override
+    public String updateQuery(Table table, String keyColumn) {
+        return "UPDATE " + getQualifiedName(table) + '\n' +
+                "SET " + table.getColumns().stream()
+                .map(Column::getName)
+                .filter(name -> !name.equals(keyColumn))
+                .map(name -> name + " = ?")
+                .collect(Collectors.joining(", ")) + '\n' +
+                "WHERE " + keyColumn + " = ?";
+    }
+
+    /**
+     * Параметризованный запрос для удаления строки таблицы по ключу. Параметр - значение ключа.
+     */
+    @Override
+    public String deleteQuery(Table table, String keyColumn) {
+        return "DELETE FROM " + getQualifiedName(table) + '\n' +
+                "WHERE " + keyColumn + " = ?";
+    }
+
+    /**
+     * Запрос для выборки диапазона строк таблицы по ключевому столбцу.
+     * Параметры - нижняя и верхняя границы диапазона (включительно).
+     */
+    @Override
+    public String selectQuery(Table table, String keyColumn) {
+        return selectQuery(table) + '\n' +
+                "WHERE " + keyColumn + " BETWEEN ? AND ?";
+    }
+
+    /**
+     * Запрос для получения минимального (MIN_KEY) и максимального (MAX_KEY) значения ключевого столбца.
+     */
+    @Override
+    public String selectKeyBoundsQuery(Table table, String keyColumn) {
+        return "SELECT MIN(" + keyColumn + ") AS MIN_KEY, MAX(" + keyColumn + ") AS MAX_KEY\n" +
+                "FROM " + getQualifiedName(table);
+    }
+
+    /**
+     * Запрос для выборки одной из хэш-корзин таблицы. Параметр - номер корзины.
+     * Если СУБД не поддерживает разбиение на корзины, то возвращает null.
+     */
+    @Override
+    public String selectBucketQuery(Table table, int bucketCount) {
+        return null;
+    }
+
+    /**
+     * Запрос для подсчета контрольных сумм порций таблицы на сервере.
+     * Параметры - нижняя граница диапазона ключа, размер порции, нижняя и верхняя границы диапазона.
+     * Результат - номер порции (CHUNK), количество строк (ROW_COUNT) и сумма хэшей строк (CHECKSUM).
+     * Если СУБД не поддерживает хэширование строк, то возвращает null.
+     */
+    @Override
+    public String selectChecksumQuery(Table table, String keyColumn) {
+        return null;
+    }
+
     protected String getQualifiedName(Table table) {
         return workSchema + '.' + table.getName();
     }
@@ -1,5 +1,7 @@
 package ru.xander.replicator.schema;
 
+import ru.xander.replicator.cache.MetadataCache;
+import ru.xander.replicator.exception.KeyRangeOverflowException;
 import ru.xander.replicator.exception.QueryFailedException;
 import ru.xander.replicator.exception.SchemaException;
 import ru.xander.replicator.filter.Filter;
@@ -9,17 +11,33 @@ import ru.xander.replicator.listener.Listener;
 import ru.xander.replicator.listener.Modify;
 import ru.xander.replicator.listener.ModifyType;
 import ru.xander.replicator.listener.Progress;
+import ru.xander.replicator.metrics.Metrics;
 import ru.xander.replicator.util.DataSetMapper;
 import ru.xander.replicator.util.RowMapper;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -27,24 +45,56 @@ import java.util.stream.Collectors;
  */
 public abstract class AbstractSchema implements Schema {
 
-    private final SchemaConnection connection;
+    private static final TableRow END_OF_PARTITION = new TableRow();
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    private final SchemaConfig config;
+    private final Properties connectionProperties;
+    private final ConnectionPool connectionPool;
     private final Listener listener;
+    private final MetadataCache metadataCache;
+    private final Metrics metrics;
+    private final String schemaId;
+    private SchemaConnection connection;
     protected final String workSchema;
+    protected final int fetchSize;
+    protected final int lobPrefetchSize;
+    protected final boolean defineColumnTypes;
 
     public AbstractSchema(SchemaConfig config) {
+        this(config, 0, 0, false);
+    }
+
+    /**
+     * @param defaultFetchSize         размер выборки за одно обращение к серверу, если он не задан в конфигурации
+     * @param defaultLobPrefetchSize   размер предвыборки LOB, если он не задан в конфигурации
+     * @param defaultDefineColumnTypes передавать драйверу типы столбцов выборки, если это не задано в конфигурации
+     */
+    protected AbstractSchema(SchemaConfig config, int defaultFetchSize, int defaultLobPrefetchSize, boolean defaultDefineColumnTypes) {
+        this.config = config;
         this.listener = config.getListener();
+        this.metadataCache = config.getMetadataCache();
+        this.metrics = config.getMetrics() != null ? config.getMetrics() : new Metrics();
+        this.schemaId = config.getJdbcUrl() + '|' + config.getUsername() + '|' + config.getWorkSchema();
         this.workSchema = config.getWorkSchema();
-        this.connection = new SchemaConnection(config, listener);
+        this.fetchSize = config.getFetchSize() != null ? config.getFetchSize() : defaultFetchSize;
+        this.lobPrefetchSize = config.getLobPrefetchSize() != null ? config.getLobPrefetchSize() : defaultLobPrefetchSize;
+        this.defineColumnTypes = config.getDefineColumnTypes() != null ? config.getDefineColumnTypes() : defaultDefineColumnTypes;
+        this.connectionProperties = new Properties();
+        if (config.getConnectionProperties() != null) {
+            this.connectionProperties.putAll(config.getConnectionProperties());
+        }
+        this.connectionPool = config.getConnectionPool();
     }
 
     public Connection getConnection() {
         // only for tests
-        return connection.getJdbcConnection();
+        return connection().getJdbcConnection();
     }
 
     @Override
     public SchemaConnectionTest testConnection() {
-        try (Statement statement = connection.getJdbcConnection().createStatement()) {
+        try (Statement statement = connection().getJdbcConnection().createStatement()) {
             statement.execute(getDialect().testQuery());
             return new SchemaConnectionTest(true, null);
         } catch (Exception e) {
@@ -53,29 +103,330 @@ public abstract class AbstractSchema implements Schema {
         }
     }
 
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public List<String> getTables() {
         return getTables(Collections.emptyList());
     }
 
+    @Override
+    public Table getTable(String tableName) {
+        return loadTables(Collections.singletonList(tableName)).get(tableName);
+    }
+
+    /**
+     * Если задан кэш описаний, то из словаря данных читаются только отсутствующие в нем или устаревшие таблицы.
+     * Актуальность проверяется по версии DDL ({@link #readDdlTimes(Collection)}), если СУБД ее предоставляет.
+     */
+    @Override
+    public Map<String, Table> loadTables(Collection<String> tableNames) {
+        if (metadataCache == null) {
+            return readTables(tableNames);
+        }
+        Map<String, String> ddlTimes = readDdlTimes(tableNames);
+        Map<String, Table> tables = SchemaUtils.newTableMap();
+        List<String> missingTables = new ArrayList<>();
+        if (tableNames == null) {
+            if (ddlTimes == null) {
+                return cacheTables(readTables(null), null);
+            }
+            tableNames = ddlTimes.keySet();
+        }
+        for (String tableName : tableNames) {
+            if ((ddlTimes != null) && !ddlTimes.containsKey(tableName)) {
+                // таблицы нет в схеме
+                metadataCache.invalidate(schemaId, tableName);
+                continue;
+            }
+            Table table = metadataCache.get(schemaId, tableName, ddlTimes == null ? null : ddlTimes.get(tableName));
+            if (table == null) {
+                missingTables.add(tableName);
+            } else {
+                tables.put(table.getName(), table);
+            }
+        }
+        if (!missingTables.isEmpty()) {
+            tables.putAll(cacheTables(readTables(missingTables), ddlTimes));
+        }
+        return tables;
+    }
+
+    /**
+     * Чтение описаний таблиц из словаря данных.
+     *
+     * @see Schema#loadTables(Collection)
+     */
+    protected abstract Map<String, Table> readTables(Collection<String> tableNames);
+
+    /**
+     * Версии DDL таблиц (время последнего изменения структуры таблицы и связанных с ней объектов).
+     * Ключи - имена существующих таблиц без учета регистра.
+     *
+     * @return версии DDL или null, если СУБД их не предоставляет
+     */
+    protected Map<String, String> readDdlTimes(Collection<String> tableNames) {
+        return null;
+    }
+
+    private Map<String, Table> cacheTables(Map<String, Table> tables, Map<String, String> ddlTimes) {
+        tables.values().forEach(table ->
+                metadataCache.put(schemaId, table, ddlTimes == null ? null : ddlTimes.get(table.getName())));
+        return tables;
+    }
+
     @Override
     public BatchExecutor createBatchExecutor() {
-        return new BatchExecutor(connection.getJdbcConnection());
+        return createBatchExecutor(new BatchOptions());
+    }
+
+    @Override
+    public BatchExecutor createBatchExecutor(BatchOptions options) {
+        return new BatchExecutor(connection().getJdbcConnection(), options, metrics);
+    }
+
+    @Override
+    public TableBatchExecutor createTableBatchExecutor(Table table) {
+        return createTableBatchExecutor(table, new BatchOptions());
+    }
+
+    /**
+     * Если задана вставка direct-path и СУБД ее поддерживает, то на время загрузки отключаются
+     * неуникальные индексы, триггеры и внешние ключи таблицы (с ними СУБД молча переходит к обычной вставке)
+     * и, если задано, запись в redo-лог. При закрытии исполнителя все отключенное включается обратно.
+     */
+    @Override
+    public TableBatchExecutor createTableBatchExecutor(Table table, BatchOptions options) {
+        String directPathQuery = options.isDirectPath() ? getDialect().directPathInsertQuery(table) : null;
+        if (directPathQuery == null) {
+            return createTableBatchExecutor(table, getDialect().insertQuery(table), options);
+        }
+        return createDirectPathExecutor(table, directPathQuery, options);
+    }
+
+    @Override
+    public TableBatchExecutor createTableBatchExecutor(Table table, String query, BatchOptions options) {
+        return new TableBatchExecutor(connection().getJdbcConnection(), table, query, options, metrics);
+    }
+
+    private TableBatchExecutor createDirectPathExecutor(Table table, String query, BatchOptions options) {
+        // объекты берем из словаря, т.к. описание таблицы может быть получено из источника
+        Table targetTable = getTable(table.getName());
+        if (targetTable == null) {
+            throw new SchemaException("Table " + table.getName() + " not found");
+        }
+        String primaryKeyName = targetTable.getPrimaryKey() == null ? null : targetTable.getPrimaryKey().getName();
+        List<Index> indices = targetTable.getIndices().stream()
+                .filter(index -> !Boolean.FALSE.equals(index.getEnabled()))
+                .filter(index -> (index.getType() != IndexType.UNIQUE) && !index.getName().equals(primaryKeyName))
+                .collect(Collectors.toList());
+        List<Trigger> triggers = targetTable.getTriggers().stream()
+                .filter(trigger -> !Boolean.FALSE.equals(trigger.getEnabled()))
+                .collect(Collectors.toList());
+        List<ImportedKey> importedKeys = targetTable.getImportedKeys().stream()
+                .filter(importedKey -> !Boolean.FALSE.equals(importedKey.getEnabled()))
+                .collect(Collectors.toList());
+        boolean noLogging = options.isNoLogging() && (getDialect().toggleLoggingQuery(targetTable, false) != null);
+
+        Runnable restore = () -> {
+            if (noLogging) {
+                toggleLogging(targetTable, true);
+            }
+            indices.forEach(index -> toggleIndex(index, true));
+            importedKeys.forEach(importedKey -> toggleConstraint(importedKey, true));
+            triggers.forEach(trigger -> toggleTrigger(trigger, true));
+        };
+        try {
+            if (noLogging) {
+                toggleLogging(targetTable, false);
+            }
+            indices.forEach(index -> toggleIndex(index, false));
+            importedKeys.forEach(importedKey -> toggleConstraint(importedKey, false));
+            triggers.forEach(trigger -> toggleTrigger(trigger, false));
+            // после вставки direct-path таблица недоступна сессии до коммита, поэтому коммит после каждого пакета
+            BatchOptions directPathOptions = new BatchOptions(options.getBatchSize(), 1L);
+            return new TableBatchExecutor(connection().getJdbcConnection(), table, query, directPathOptions, metrics) {
+                @Override
+                public void close() {
+                    try {
+                        super.close();
+                    } finally {
+                        restore.run();
+                    }
+                }
+            };
+        } catch (RuntimeException e) {
+            restore.run();
+            throw e;
+        }
+    }
+
+    private void toggleLogging(Table table, boolean logging) {
+        String sql = getDialect().toggleLoggingQuery(table, logging);
+        alter(logging ? AlterType.ENABLE_LOGGING : AlterType.DISABLE_LOGGING, table.getName(), sql);
+        execute(sql);
     }
 
     @Override
     public TableRowCursor selectRows(Table table, long verboseEach) {
-        return new CommonTableRowCursor(table, verboseEach);
+        return selectRows(table, new SelectRowsOptions(verboseEach));
+    }
+
+    @Override
+    public TableRowCursor selectRows(Table table, SelectRowsOptions options) {
+        if ((options.getParallelism() > 1) && (options.getKeyRange() == null)) {
+            List<TablePartition> partitions = splitTable(table, options.getParallelism());
+            if (partitions.size() > 1) {
+                return new PartitionedTableRowCursor(table, partitions, options);
+            }
+        }
+        return new CommonTableRowCursor(table, options);
+    }
+
+    /**
+     * Разбивает таблицу на части для параллельной выборки.
+     * Если первичный ключ состоит из одного целочисленного столбца, значения которого помещаются в long,
+     * то таблица делится на диапазоны ключа, иначе - на хэш-корзины, если их поддерживает диалект.
+     */
+    protected List<TablePartition> splitTable(Table table, int parallelism) {
+        Dialect dialect = getDialect();
+        String keyColumn = SchemaUtils.getIntegerKeyColumn(table);
+        KeyRange range = null;
+        if (keyColumn != null) {
+            try {
+                range = selectKeyRange(table, keyColumn);
+            } catch (KeyRangeOverflowException e) {
+                warning(e.getMessage() + ", table will not be split by key");
+                keyColumn = null;
+            }
+        }
+        if (keyColumn != null) {
+            if (range == null) {
+                return Collections.singletonList(new TablePartition(dialect.selectQuery(table), new Object[0], "empty table"));
+            }
+            long span = range.getSpan();
+            if (span > 0) {
+                String rangeQuery = dialect.selectQuery(table, keyColumn);
+                int count = (int) Math.min(parallelism, span);
+                long step = span / count;
+                List<TablePartition> partitions = new ArrayList<>(count);
+                long lower = range.getLower();
+                for (int i = 0; i < count; i++) {
+                    long upper = (i == count - 1) ? range.getUpper() : lower + step - 1;
+                    String description = keyColumn + " BETWEEN " + lower + " AND " + upper;
+                    partitions.add(new TablePartition(rangeQuery, new Object[]{lower, upper}, description));
+                    lower = upper + 1;
+                }
+                return partitions;
+            }
+        }
+        String bucketQuery = dialect.selectBucketQuery(table, parallelism);
+        if (bucketQuery != null) {
+            List<TablePartition> partitions = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                partitions.add(new TablePartition(bucketQuery, new Object[]{i}, "bucket " + (i + 1) + " of " + parallelism));
+            }
+            return partitions;
+        }
+        warning("Table " + table.getName() + " has no single-column integer primary key, it will be selected in one thread");
+        return Collections.singletonList(new TablePartition(dialect.selectQuery(table), new Object[0], "whole table"));
     }
 
     @Override
-    public void close() {
-        this.connection.close();
+    public KeyRange selectKeyRange(Table table, String keyColumn) {
+        String boundsQuery = getDialect().selectKeyBoundsQuery(table, keyColumn);
+        BigDecimal[] bounds = selectOne(boundsQuery, rs -> new BigDecimal[]{rs.getBigDecimal("MIN_KEY"), rs.getBigDecimal("MAX_KEY")});
+        if ((bounds == null) || (bounds[0] == null) || (bounds[1] == null)) {
+            return null;
+        }
+        try {
+            long lower = bounds[0].longValueExact();
+            long upper = bounds[1].longValueExact();
+            // размер диапазона тоже должен помещаться в long
+            Math.addExact(Math.subtractExact(upper, lower), 1L);
+            return new KeyRange(keyColumn, lower, upper);
+        } catch (ArithmeticException e) {
+            throw new KeyRangeOverflowException("Key range of table " + table.getName() + " ("
+                    + keyColumn + " BETWEEN " + bounds[0].toPlainString() + " AND " + bounds[1].toPlainString()
+                    + ") does not fit in long");
+        }
+    }
+
+    @Override
+    public Map<Long, DataChecksum> selectChecksums(Table table, KeyRange range, long chunkSize) {
+        String checksumQuery = getDialect().selectChecksumQuery(table, range.getKeyColumn());
+        if (checksumQuery == null) {
+            return null;
+        }
+        Query query = new Query();
+        query.bind(range.getLower());
+        query.bind(chunkSize);
+        query.bind(range.getLower());
+        query.bind(range.getUpper());
+        Map<Long, DataChecksum> checksums = new HashMap<>();
+        select(query.sql(checksumQuery), rs -> checksums.put(
+                rs.getBigDecimal("CHUNK").longValue(),
+                new DataChecksum(rs.getLong("ROW_COUNT"), rs.getBigDecimal("CHECKSUM").longValue())));
+        return checksums;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.connection != null) {
+            this.connection.close();
+            this.connection = null;
+        }
+    }
+
+    /**
+     * Устанавливает свойство соединения, если оно не задано явно в конфигурации.
+     * Должно вызываться до первого обращения к соединению.
+     */
+    protected void defaultConnectionProperty(String name, String value) {
+        if (!connectionProperties.containsKey(name)) {
+            connectionProperties.setProperty(name, value);
+        }
+    }
+
+    /**
+     * Дополнительное соединение с теми же настройками, что и основное.
+     * Если задан пул, то соединение берется из него и возвращается в пул при закрытии.
+     */
+    protected SchemaConnection createConnection() {
+        if (connectionPool == null) {
+            return new SchemaConnection(config, connectionProperties, listener);
+        }
+        return connectionPool.borrow(schemaId,
+                () -> new SchemaConnection(config, connectionProperties, listener),
+                getDialect().testQuery());
+    }
+
+    /**
+     * Основное соединение схемы, открывается (или берется из пула) при первом обращении.
+     */
+    private synchronized SchemaConnection connection() {
+        if (connection == null) {
+            connection = createConnection();
+        }
+        return connection;
+    }
+
+    /**
+     * Настройка запроса выборки строк таблицы перед его выполнением.
+     */
+    protected void prepareSelect(PreparedStatement statement, Table table) throws SQLException {
+        if (fetchSize > 0) {
+            statement.setFetchSize(fetchSize);
+        }
     }
 
     protected <T> T selectOne(String sql, RowMapper<T> mapper) {
+        long start = System.nanoTime();
         try (
-                Statement statement = connection.getJdbcConnection().createStatement();
+                Statement statement = connection().getJdbcConnection().createStatement();
                 ResultSet resultSet = statement.executeQuery(sql)
         ) {
             if (resultSet.next()) {
@@ -86,12 +437,53 @@ public abstract class AbstractSchema implements Schema {
         } catch (Exception e) {
             error(e, sql);
             throw new QueryFailedException(sql, e);
+        } finally {
+            metrics.timer("query.select").record(System.nanoTime() - start);
+        }
+    }
+
+    protected <T> T selectOne(Query query, RowMapper<T> mapper) {
+        List<T> result = new ArrayList<>(1);
+        select(query, rs -> {
+            if (result.isEmpty()) {
+                result.add(mapper.map(rs));
+            }
+        });
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Выполнение параметризованного запроса через кэш подготовленных выражений соединения.
+     * В журнал ошибок попадает текст запроса с подставленными значениями.
+     */
+    protected void select(Query query, DataSetMapper mapper) {
+        long start = System.nanoTime();
+        try {
+            PreparedStatement statement = connection().prepareStatement(query.getSql());
+            // выражение из кэша не может одновременно использоваться несколькими потоками
+            synchronized (statement) {
+                List<Object> params = query.getParams();
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        mapper.map(resultSet);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            error(e, query.toString());
+            throw new QueryFailedException(query.toString(), e);
+        } finally {
+            metrics.timer("query.select").record(System.nanoTime() - start);
         }
     }
 
     protected void select(String sql, DataSetMapper mapper) {
+        long start = System.nanoTime();
         try (
-                Statement statement = connection.getJdbcConnection().createStatement();
+                Statement statement = connection().getJdbcConnection().createStatement();
                 ResultSet resultSet = statement.executeQuery(sql)
         ) {
             while (resultSet.next()) {
@@ -100,14 +492,16 @@ public abstract class AbstractSchema implements Schema {
         } catch (Exception e) {
             error(e, sql);
             throw new QueryFailedException(sql, e);
+        } finally {
+            metrics.timer("query.select").record(System.nanoTime() - start);
         }
     }
 
     @SuppressWarnings("SqlDialectInspection")
-    private long selectCount(String sql) {
+    private long selectCount(Connection jdbcConnection, String sql) {
         String countSql = "SELECT COUNT(*) AS C FROM(" + sql + ")";
         try (
-                Statement statement = connection.getJdbcConnection().createStatement();
+                Statement statement = jdbcConnection.createStatement();
                 ResultSet resultSet = statement.executeQuery(countSql)
         ) {
             if (resultSet.next()) {
@@ -125,7 +519,8 @@ public abstract class AbstractSchema implements Schema {
     }
 
     protected void execute(String sql, boolean suppressException) {
-        try (Statement statement = connection.getJdbcConnection().createStatement()) {
+        long start = System.nanoTime();
+        try (Statement statement = connection().getJdbcConnection().createStatement()) {
             statement.execute(sql);
         } catch (SQLException e) {
             if (suppressException) {
@@ -134,6 +529,8 @@ public abstract class AbstractSchema implements Schema {
                 error(e, sql);
                 throw new QueryFailedException(sql, e);
             }
+        } finally {
+            metrics.timer("query.execute").record(System.nanoTime() - start);
         }
     }
 
@@ -142,7 +539,8 @@ public abstract class AbstractSchema implements Schema {
     }
 
     protected int update(String sql, boolean suppressException) {
-        try (Statement statement = connection.getJdbcConnection().createStatement()) {
+        long start = System.nanoTime();
+        try (Statement statement = connection().getJdbcConnection().createStatement()) {
             return statement.executeUpdate(sql);
         } catch (SQLException e) {
             if (suppressException) {
@@ -152,6 +550,8 @@ public abstract class AbstractSchema implements Schema {
                 error(e, sql);
                 throw new QueryFailedException(sql, e);
             }
+        } finally {
+            metrics.timer("query.update").record(System.nanoTime() - start);
         }
     }
 
@@ -182,6 +582,7 @@ public abstract class AbstractSchema implements Schema {
     }
 
     protected void alter(AlterType type, String tableName, String objectName, String extra, String sql) {
+        invalidateCache(type, tableName);
         if (listener != null) {
             Alter alter = new Alter();
             alter.setType(type);
@@ -193,6 +594,32 @@ public abstract class AbstractSchema implements Schema {
         }
     }
 
+    private void invalidateCache(AlterType type, String tableName) {
+        if (metadataCache == null) {
+            return;
+        }
+        switch (type) {
+            case ANALYZE_TABLE:
+                // статистика в описании таблицы не хранится
+                break;
+            case DROP_TABLE:
+            case RENAME_TABLE:
+            case CREATE_IMPORTED_KEY:
+            case DROP_CONSTRAINT:
+            case ENABLE_CONSTRAINT:
+            case DISABLE_CONSTRAINT:
+                // затрагивают внешние ключи, экспортируемые другими таблицами
+                metadataCache.invalidateSchema(schemaId);
+                break;
+            default:
+                if (tableName == null) {
+                    metadataCache.invalidateSchema(schemaId);
+                } else {
+                    metadataCache.invalidate(schemaId, tableName);
+                }
+        }
+    }
+
     protected void modify(ModifyType type, String tableName, String sql) {
         modify(type, tableName, sql, null);
     }
@@ -208,6 +635,34 @@ public abstract class AbstractSchema implements Schema {
         }
     }
 
+    /**
+     * Событие прогресса выборки строк. Количество обращений к серверу - оценка по размеру выборки.
+     */
+    private void extractProgress(Table table, long rowNumber, RowCounter rowCounter, long startNanos) {
+        if (listener == null) {
+            return;
+        }
+        Progress progress = new Progress();
+        progress.setMessage("Extract rows for table " + table.getName());
+        progress.setValue(rowNumber);
+        progress.setTotal(rowCounter.getTotal());
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (elapsedNanos > 0) {
+            progress.setRowsPerSecond(rowNumber / (elapsedNanos / 1_000_000_000.0d));
+        }
+        if (fetchSize > 0) {
+            progress.setRoundTrips((rowNumber + fetchSize - 1) / fetchSize);
+        }
+        listener.progress(progress);
+    }
+
+    protected static String tableNamesToString(Collection<String> tableNames) {
+        if (tableNames == null) {
+            return "ALL";
+        }
+        return String.join(", ", tableNames);
+    }
+
     protected static String filterListToString(List<Filter> filters) {
         if (filters.isEmpty()) {
             return "ALL";
@@ -215,31 +670,55 @@ public abstract class AbstractSchema implements Schema {
         return filters.stream().map(f -> f.getType() + " (" + f.getValue() + ')').collect(Collectors.joining(", "));
     }
 
+    /**
+     * Курсор по одному запросу. Порядковые номера столбцов в выборке определяются один раз при открытии,
+     * а {@link #nextRow()} возвращает один и тот же буфер строки, перезаписывая его значения.
+     * Время чтения строк накапливается в курсоре и при закрытии попадает в показатель {@code fetch.rows}.
+     */
     protected class CommonTableRowCursor implements TableRowCursor {
 
         private final PreparedStatement preparedStatement;
         private final ResultSet resultSet;
         private final Table table;
+        private final Column[] columns;
+        private final int[] ordinals;
         private final TableField[] fields;
-        private final long totalRows;
+        private final TableRow row;
+        private final RowCounter rowCounter;
         private final long verboseEach;
-        private int currentRow;
+        private final long startNanos = System.nanoTime();
+        private boolean materialized;
+        private long currentRow;
+        private long fetchNanos;
 
-        CommonTableRowCursor(Table table, long verboseEach) {
-            String selectQuery = getDialect().selectQuery(table);
+        CommonTableRowCursor(Table table, SelectRowsOptions options) {
+            KeyRange keyRange = options.getKeyRange();
+            String selectQuery = keyRange == null
+                    ? getDialect().selectQuery(table)
+                    : getDialect().selectQuery(table, keyRange.getKeyColumn());
+            this.table = table;
+            this.verboseEach = options.getVerboseEach();
+            this.rowCounter = new RowCounter(table, options.getRowCountMode());
             try {
-                this.table = table;
-                this.verboseEach = verboseEach;
-                this.totalRows = selectCount(selectQuery);
-                this.preparedStatement = connection.getJdbcConnection().prepareStatement(selectQuery);
+                this.preparedStatement = connection().getJdbcConnection().prepareStatement(selectQuery);
+                prepareSelect(this.preparedStatement, table);
+                if (keyRange != null) {
+                    this.preparedStatement.setLong(1, keyRange.getLower());
+                    this.preparedStatement.setLong(2, keyRange.getUpper());
+                }
+                long start = System.nanoTime();
                 this.resultSet = this.preparedStatement.executeQuery();
-                Collection<Column> columns = table.getColumns();
-                this.fields = new TableField[columns.size()];
-                int columnIndex = 0;
-                for (Column column : columns) {
-                    this.fields[columnIndex++] = new TableField(column);
+                metrics.timer("fetch.execute").record(System.nanoTime() - start);
+                this.columns = table.getColumns().toArray(new Column[0]);
+                this.ordinals = new int[columns.length];
+                this.fields = new TableField[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    this.ordinals[i] = resultSet.findColumn(columns[i].getName());
+                    this.fields[i] = new TableField(columns[i]);
                 }
+                this.row = new TableRow(table, fields);
             } catch (SQLException e) {
+                rowCounter.close();
                 error(e, selectQuery);
                 throw new QueryFailedException(selectQuery, e);
             }
@@ -247,41 +726,137 @@ public abstract class AbstractSchema implements Schema {
 
         @Override
         public TableRow nextRow() {
+            if (!next()) {
+                return null;
+            }
+            long start = System.nanoTime();
             try {
-                return mapRow();
-            } catch (Exception e) {
-                String errorMessage = "Error occurred while select new row: " + e.getMessage();
-                throw new SchemaException(errorMessage, e);
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i].setValue(resultSet.getObject(ordinals[i]));
+                }
+                materialized = true;
+                fetchNanos += System.nanoTime() - start;
+                return row;
+            } catch (SQLException e) {
+                throw selectFailed(e);
             }
         }
 
-        private TableRow mapRow() throws SQLException {
-            if (resultSet.next()) {
-                progress();
-                for (TableField field : fields) {
-                    field.setValue(resultSet.getObject(field.getColumn().getName()));
+        @Override
+        public boolean next() {
+            long start = System.nanoTime();
+            try {
+                materialized = false;
+                boolean hasNext = resultSet.next();
+                fetchNanos += System.nanoTime() - start;
+                if (hasNext) {
+                    progress();
                 }
-                return new TableRow(table, fields);
+                return hasNext;
+            } catch (SQLException e) {
+                throw selectFailed(e);
             }
-            return null;
+        }
+
+        @Override
+        public Table getTable() {
+            return table;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public Column getColumn(int columnIndex) {
+            return columns[columnIndex];
+        }
+
+        @Override
+        public boolean isNull(int columnIndex) {
+            if (materialized) {
+                return fields[columnIndex].isNull();
+            }
+            return getObject(columnIndex) == null;
+        }
+
+        @Override
+        public Object getObject(int columnIndex) {
+            if (materialized) {
+                return fields[columnIndex].getValue();
+            }
+            try {
+                return resultSet.getObject(ordinals[columnIndex]);
+            } catch (SQLException e) {
+                throw selectFailed(e);
+            }
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            if (materialized) {
+                return fields[columnIndex].getString();
+            }
+            try {
+                return resultSet.getString(ordinals[columnIndex]);
+            } catch (SQLException e) {
+                throw selectFailed(e);
+            }
+        }
+
+        @Override
+        public long getLong(int columnIndex) {
+            if (materialized) {
+                return fields[columnIndex].getLong();
+            }
+            try {
+                return resultSet.getLong(ordinals[columnIndex]);
+            } catch (SQLException e) {
+                throw selectFailed(e);
+            }
+        }
+
+        @Override
+        public double getDouble(int columnIndex) {
+            if (materialized) {
+                return fields[columnIndex].getDouble();
+            }
+            try {
+                return resultSet.getDouble(ordinals[columnIndex]);
+            } catch (SQLException e) {
+                throw selectFailed(e);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(int columnIndex) {
+            if (materialized) {
+                return fields[columnIndex].getBoolean();
+            }
+            try {
+                return resultSet.getBoolean(ordinals[columnIndex]);
+            } catch (SQLException e) {
+                throw selectFailed(e);
+            }
+        }
+
+        private SchemaException selectFailed(SQLException e) {
+            String errorMessage = "Error occurred while select new row: " + e.getMessage();
+            return new SchemaException(errorMessage, e);
         }
 
         private void progress() {
             currentRow++;
-            if ((currentRow % verboseEach) != 0) {
-                return;
-            }
-            if (listener != null) {
-                Progress progress = new Progress();
-                progress.setMessage("Extract rows for table " + table.getName());
-                progress.setValue(currentRow);
-                progress.setTotal(totalRows);
-                listener.progress(progress);
+            if ((currentRow % verboseEach) == 0) {
+                extractProgress(table, currentRow, rowCounter, startNanos);
             }
         }
 
         @Override
         public void close() {
+            this.rowCounter.close();
+            metrics.timer("fetch.rows").record(currentRow, fetchNanos);
             try {
                 this.resultSet.close();
                 this.preparedStatement.close();
@@ -291,4 +866,322 @@ public abstract class AbstractSchema implements Schema {
             }
         }
     }
+
+    /**
+     * Курсор, выбирающий части таблицы параллельно, каждую через отдельное соединение.
+     * Строки всех частей сливаются в общую очередь, порядок строк не гарантируется.
+     * Каждая строка, возвращаемая {@link #nextRow()}, является отдельной копией, поэтому этот метод
+     * можно вызывать из нескольких потоков. Методы доступа по индексу столбца читают строку,
+     * выбранную последним вызовом {@link #next()}, и предназначены для одного потока.
+     */
+    protected class PartitionedTableRowCursor implements TableRowCursor {
+
+        private final Table table;
+        private final Column[] columns;
+        private final long verboseEach;
+        private final RowCounter rowCounter;
+        private final BlockingQueue<TableRow> queue;
+        private final List<SchemaConnection> connections;
+        private final ExecutorService executorService;
+        private final AtomicInteger activePartitions;
+        private final AtomicLong currentRow = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+        private final Queue<Statement> statements = new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+        private TableField[] current;
+
+        PartitionedTableRowCursor(Table table, List<TablePartition> partitions, SelectRowsOptions options) {
+            this.table = table;
+            this.columns = table.getColumns().toArray(new Column[0]);
+            this.verboseEach = options.getVerboseEach();
+            this.rowCounter = new RowCounter(table, options.getRowCountMode());
+            this.queue = new ArrayBlockingQueue<>(options.getQueueSize());
+            this.connections = new ArrayList<>(partitions.size());
+            this.activePartitions = new AtomicInteger(partitions.size());
+            try {
+                for (int i = 0; i < partitions.size(); i++) {
+                    SchemaConnection partitionConnection = createConnection();
+                    this.connections.add(partitionConnection);
+                    partitionConnection.getJdbcConnection();
+                }
+            } catch (RuntimeException e) {
+                rowCounter.close();
+                closeConnections();
+                throw e;
+            }
+            AbstractSchema.this.notify("Select table " + table.getName() + " in " + partitions.size() + " partitions");
+            this.executorService = Executors.newFixedThreadPool(partitions.size());
+            for (int i = 0; i < partitions.size(); i++) {
+                TablePartition partition = partitions.get(i);
+                Connection partitionConnection = connections.get(i).getJdbcConnection();
+                this.executorService.submit(() -> extract(partitionConnection, partition));
+            }
+            this.executorService.shutdown();
+        }
+
+        private void extract(Connection partitionConnection, TablePartition partition) {
+            try (PreparedStatement statement = partitionConnection.prepareStatement(partition.getQuery())) {
+                // запрос регистрируется, чтобы close() мог его прервать
+                statements.add(statement);
+                try {
+                    if (!closed) {
+                        select(statement, partition);
+                    }
+                } finally {
+                    statements.remove(statement);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (!closed) {
+                    error(e, partition.getQuery() + "\n-- " + partition.getDescription());
+                    failure.compareAndSet(null, e);
+                }
+            } finally {
+                finishPartition();
+            }
+        }
+
+        private void select(PreparedStatement statement, TablePartition partition) throws SQLException, InterruptedException {
+            prepareSelect(statement, table);
+            Object[] params = partition.getParams();
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int[] ordinals = new int[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    ordinals[i] = resultSet.findColumn(columns[i].getName());
+                }
+                while (!closed && resultSet.next()) {
+                    TableField[] fields = new TableField[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        fields[i] = new TableField(columns[i]);
+                        fields[i].setValue(resultSet.getObject(ordinals[i]));
+                    }
+                    queue.put(new TableRow(table, fields));
+                }
+            }
+        }
+
+        private void finishPartition() {
+            try {
+                while (!closed && !queue.offer(END_OF_PARTITION, 100, TimeUnit.MILLISECONDS)) {
+                    // ждем, пока читатель освободит место в очереди
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public TableRow nextRow() {
+            try {
+                TableRow row;
+                while ((row = queue.take()) == END_OF_PARTITION) {
+                    Exception e = failure.get();
+                    if (e != null) {
+                        queue.offer(END_OF_PARTITION);
+                        throw new SchemaException("Error occurred while select new row: " + e.getMessage(), e);
+                    }
+                    if (activePartitions.decrementAndGet() <= 0) {
+                        // возвращаем маркер, чтобы остальные читатели тоже увидели конец выборки
+                        queue.offer(END_OF_PARTITION);
+                        return null;
+                    }
+                }
+                progress();
+                return row;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SchemaException("Interrupted while select new row", e);
+            }
+        }
+
+        @Override
+        public TableRow nextDetachedRow() {
+            return nextRow();
+        }
+
+        @Override
+        public boolean next() {
+            TableRow row = nextRow();
+            current = row == null ? null : row.getFields();
+            return row != null;
+        }
+
+        @Override
+        public Table getTable() {
+            return table;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public Column getColumn(int columnIndex) {
+            return columns[columnIndex];
+        }
+
+        @Override
+        public boolean isNull(int columnIndex) {
+            return current[columnIndex].isNull();
+        }
+
+        @Override
+        public Object getObject(int columnIndex) {
+            return current[columnIndex].getValue();
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            return current[columnIndex].getString();
+        }
+
+        @Override
+        public long getLong(int columnIndex) {
+            return current[columnIndex].getLong();
+        }
+
+        @Override
+        public double getDouble(int columnIndex) {
+            return current[columnIndex].getDouble();
+        }
+
+        @Override
+        public boolean getBoolean(int columnIndex) {
+            return current[columnIndex].getBoolean();
+        }
+
+        private void progress() {
+            long rowNumber = currentRow.incrementAndGet();
+            if ((rowNumber % verboseEach) == 0) {
+                extractProgress(table, rowNumber, rowCounter, startNanos);
+            }
+        }
+
+        /**
+         * Выполняющиеся запросы прерываются, и соединения возвращаются в пул только после завершения
+         * потоков выборки. Если потоки не завершились за CLOSE_TIMEOUT_SECONDS, то соединения
+         * помечаются непригодными и закрываются, а не возвращаются в пул.
+         */
+        @Override
+        public void close() {
+            this.closed = true;
+            this.rowCounter.close();
+            for (Statement statement : statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    warning("Failed to cancel select of table " + table.getName() + ": " + e.getMessage());
+                }
+            }
+            this.executorService.shutdownNow();
+            this.queue.clear();
+            boolean terminated;
+            try {
+                terminated = this.executorService.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                terminated = false;
+            }
+            if (!terminated) {
+                warning("Select of table " + table.getName() + " is not stopped, partition connections are discarded");
+                connections.forEach(SchemaConnection::invalidate);
+            }
+            closeConnections();
+        }
+
+        private void closeConnections() {
+            RuntimeException closeException = null;
+            for (SchemaConnection partitionConnection : connections) {
+                try {
+                    partitionConnection.close();
+                } catch (RuntimeException e) {
+                    closeException = e;
+                }
+            }
+            if (closeException != null) {
+                String errorMessage = "Failed to close cursor: " + closeException.getMessage();
+                throw new SchemaException(errorMessage, closeException);
+            }
+        }
+    }
+
+    /**
+     * Общее количество строк таблицы для событий прогресса.
+     * Значение меньше или равное 0 означает, что количество неизвестно.
+     */
+    protected class RowCounter implements AutoCloseable {
+
+        private final Table table;
+        private volatile long total;
+        private volatile boolean closed;
+        private volatile Statement countStatement;
+
+        RowCounter(Table table, RowCountMode rowCountMode) {
+            this.table = table;
+            switch (rowCountMode) {
+                case EXACT:
+                    this.total = selectCount(connection().getJdbcConnection(), getDialect().selectQuery(table));
+                    break;
+                case ESTIMATED:
+                    this.total = estimateRowCount(table);
+                    break;
+                case PARALLEL:
+                    this.total = estimateRowCount(table);
+                    Thread countThread = new Thread(this::countRows, "count-" + table.getName());
+                    countThread.setDaemon(true);
+                    countThread.start();
+                    break;
+                default:
+                    this.total = -1L;
+                    break;
+            }
+        }
+
+        long getTotal() {
+            return total;
+        }
+
+        @SuppressWarnings("SqlDialectInspection")
+        private void countRows() {
+            String countSql = "SELECT COUNT(*) AS C FROM(" + getDialect().selectQuery(table) + ")";
+            try (SchemaConnection countConnection = createConnection()) {
+                try (Statement statement = countConnection.getJdbcConnection().createStatement()) {
+                    this.countStatement = statement;
+                    if (closed) {
+                        return;
+                    }
+                    try (ResultSet resultSet = statement.executeQuery(countSql)) {
+                        if (resultSet.next()) {
+                            this.total = resultSet.getLong("C");
+                        }
+                    }
+                } finally {
+                    this.countStatement = null;
+                }
+            } catch (Exception e) {
+                if (!closed) {
+                    warning("Failed to count rows for table " + table.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            Statement statement = this.countStatement;
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    warning("Failed to cancel count rows for table " + table.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package ru.xander.replicator.schema;
 
 import ru.xander.replicator.exception.BatchException;
+import ru.xander.replicator.metrics.Metrics;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -8,14 +9,36 @@ import java.sql.Statement;
 
 public class BatchExecutor implements AutoCloseable {
 
-    private static final int batchSize = 1000;
     private final Connection connection;
     private final Statement statement;
+    private final int batchSize;
+    private final long commitEach;
+    private final BatchStatistics statistics;
+    private final BatchMetrics metrics;
     private int currentBatchSize;
+    private long uncommittedCount;
 
     public BatchExecutor(Connection connection) {
+        this(connection, new BatchOptions());
+    }
+
+    public BatchExecutor(Connection connection, BatchOptions options) {
+        this(connection, options, null);
+    }
+
+    /**
+     * @param metrics реестр, в который попадают время и размер пакетов, количество строк и коммитов (может быть null)
+     */
+    public BatchExecutor(Connection connection, BatchOptions options, Metrics metrics) {
+        if (options.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("Batch size must be greatest than 0");
+        }
         try {
             this.connection = connection;
+            this.batchSize = options.getBatchSize();
+            this.commitEach = options.getCommitEach();
+            this.statistics = new BatchStatistics();
+            this.metrics = metrics == null ? null : new BatchMetrics(metrics);
             this.statement = connection.createStatement();
             this.connection.setAutoCommit(false);
         } catch (SQLException e) {
@@ -27,9 +50,8 @@ public class BatchExecutor implements AutoCloseable {
         try {
             this.statement.addBatch(sql);
             this.currentBatchSize++;
-            if ((currentBatchSize % batchSize) == 0) {
-                this.statement.executeBatch();
-                this.currentBatchSize = 0;
+            if (currentBatchSize >= batchSize) {
+                executeBatch();
             }
         } catch (SQLException e) {
             throw new BatchException(e.getMessage(), e);
@@ -39,15 +61,25 @@ public class BatchExecutor implements AutoCloseable {
     public void finish() {
         try {
             if (this.currentBatchSize > 0) {
-                this.statement.executeBatch();
-                this.currentBatchSize = 0;
+                executeBatch();
+            }
+            if (this.uncommittedCount > 0) {
                 this.connection.commit();
+                this.statistics.committed();
+                if (this.metrics != null) {
+                    this.metrics.committed();
+                }
+                this.uncommittedCount = 0;
             }
         } catch (SQLException e) {
             throw new BatchException(e.getMessage(), e);
         }
     }
 
+    public BatchStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void close() {
         try {
@@ -56,4 +88,24 @@ public class BatchExecutor implements AutoCloseable {
             throw new BatchException(e.getMessage(), e);
         }
     }
+
+    private void executeBatch() throws SQLException {
+        long start = System.nanoTime();
+        this.statement.executeBatch();
+        long nanos = System.nanoTime() - start;
+        this.statistics.batchExecuted(currentBatchSize, nanos);
+        if (this.metrics != null) {
+            this.metrics.batchExecuted(currentBatchSize, nanos);
+        }
+        this.uncommittedCount += currentBatchSize;
+        this.currentBatchSize = 0;
+        if ((commitEach > 0) && (uncommittedCount >= commitEach)) {
+            this.connection.commit();
+            this.statistics.committed();
+            if (this.metrics != null) {
+                this.metrics.committed();
+            }
+            this.uncommittedCount = 0;
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package ru.xander.replicator.schema;
+
+import ru.xander.replicator.metrics.Counter;
+import ru.xander.replicator.metrics.Histogram;
+import ru.xander.replicator.metrics.Metrics;
+import ru.xander.replicator.metrics.Timer;
+
+/**
+ * Показатели пакетной записи ({@code write.*}), общие для {@link BatchExecutor} и {@link TableBatchExecutor}.
+ *
+ * @author Alexander Shakhov
+ */
+class BatchMetrics {
+
+    private final Timer batchTimer;
+    private final Histogram batchSize;
+    private final Counter rows;
+    private final Counter commits;
+
+    BatchMetrics(Metrics metrics) {
+        this.batchTimer = metrics.timer("write.batch");
+        this.batchSize = metrics.histogram("write.batchSize");
+        this.rows = metrics.counter("write.rows");
+        this.commits = metrics.counter("write.commits");
+    }
+
+    void batchExecuted(int rows, long nanos) {
+        this.batchTimer.record(nanos);
+        this.batchSize.update(rows);
+        this.rows.add(rows);
+    }
+
+    void committed() {
+        this.commits.increment();
+    }
+}
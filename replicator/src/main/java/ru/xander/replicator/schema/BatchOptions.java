@@ -0,0 +1,73 @@
+package ru.xander.replicator.schema;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class BatchOptions {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final long DEFAULT_COMMIT_EACH = 0L;
+
+    /**
+     * Количество запросов в одном пакете.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Количество записей, после которого будет выполняться коммит.
+     * Если 0, то коммит будет только в конце.
+     */
+    private long commitEach = DEFAULT_COMMIT_EACH;
+
+    /**
+     * Вставка в обход буферного кэша (direct-path), если СУБД ее поддерживает ({@link Dialect#directPathInsertQuery(Table)}).
+     * На время загрузки отключаются неуникальные индексы, триггеры и внешние ключи таблицы,
+     * коммит выполняется после каждого пакета. Иначе используется обычная пакетная вставка.
+     */
+    private boolean directPath;
+
+    /**
+     * Не писать в redo-лог изменения таблицы при вставке direct-path (на время загрузки таблица переводится в NOLOGGING).
+     */
+    private boolean noLogging;
+
+    public BatchOptions() {
+    }
+
+    public BatchOptions(int batchSize, long commitEach) {
+        this.batchSize = batchSize;
+        this.commitEach = commitEach;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getCommitEach() {
+        return commitEach;
+    }
+
+    public void setCommitEach(long commitEach) {
+        this.commitEach = commitEach;
+    }
+
+    public boolean isDirectPath() {
+        return directPath;
+    }
+
+    public void setDirectPath(boolean directPath) {
+        this.directPath = directPath;
+    }
+
+    public boolean isNoLogging() {
+        return noLogging;
+    }
+
+    public void setNoLogging(boolean noLogging) {
+        this.noLogging = noLogging;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.xander.replicator.schema;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика выполнения пакетов.
+ *
+ * @author Alexander Shakhov
+ */
+public class BatchStatistics {
+
+    private long batchCount;
+    private long rowCount;
+    private long commitCount;
+    private long totalNanos;
+    private long minNanos;
+    private long maxNanos;
+    private long lastNanos;
+
+    void batchExecuted(int rows, long nanos) {
+        if ((batchCount == 0) || (nanos < minNanos)) {
+            minNanos = nanos;
+        }
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        batchCount++;
+        rowCount += rows;
+        totalNanos += nanos;
+        lastNanos = nanos;
+    }
+
+    void committed() {
+        commitCount++;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+    }
+
+    public double getAverageMillis() {
+        if (batchCount == 0) {
+            return 0.0d;
+        }
+        return totalNanos / (double) batchCount / 1_000_000.0d;
+    }
+
+    public double getMinMillis() {
+        return minNanos / 1_000_000.0d;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / 1_000_000.0d;
+    }
+
+    public double getLastMillis() {
+        return lastNanos / 1_000_000.0d;
+    }
+
+    public double getRowsPerSecond() {
+        if (totalNanos == 0) {
+            return 0.0d;
+        }
+        return rowCount / (totalNanos / 1_000_000_000.0d);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rows: %d, batches: %d, commits: %d, total: %d ms, avg: %.2f ms, min: %.2f ms, max: %.2f ms, %.0f rows/s",
+                rowCount, batchCount, commitCount, getTotalMillis(), getAverageMillis(), getMinMillis(), getMaxMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,48 @@
+package ru.xander.replicator.schema;
+
+/**
+ * Параметры создания индексов и ограничений таблицы после загрузки данных.
+ *
+ * @author Alexander Shakhov
+ */
+public class BuildOptions {
+
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final boolean DEFAULT_VALIDATE = true;
+
+    /**
+     * Степень параллелизма построения индексов: количество индексов, строящихся одновременно
+     * в отдельных сессиях, и степень параллелизма построения одного индекса на сервере, если СУБД ее поддерживает.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Проверять ли загруженные данные при создании внешних ключей и check-ограничений.
+     * Если false, то ограничения включаются только для новых данных (в Oracle - ENABLE NOVALIDATE).
+     */
+    private boolean validate = DEFAULT_VALIDATE;
+
+    public BuildOptions() {
+    }
+
+    public BuildOptions(int parallelism, boolean validate) {
+        this.parallelism = parallelism;
+        this.validate = validate;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isValidate() {
+        return validate;
+    }
+
+    public void setValidate(boolean validate) {
+        this.validate = validate;
+    }
+}
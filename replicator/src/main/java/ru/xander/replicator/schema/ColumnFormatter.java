@@ -0,0 +1,17 @@
+package ru.xander.replicator.schema;
+
+/**
+ * Форматирование значений одного столбца для дампа в формате SQL ({@link DataFormatter#compile(Column)}).
+ * Шаблоны и параметры форматирования определяются один раз при создании, значение дописывается
+ * в буфер вызывающего кода без создания промежуточных строк.
+ *
+ * @author Alexander Shakhov
+ */
+@FunctionalInterface
+public interface ColumnFormatter {
+
+    /**
+     * Дописывает в буфер литерал значения (для null - литерал {@link DataFormatter#formatNull(Column)}).
+     */
+    void format(Object value, StringBuilder sb);
+}
@@ -0,0 +1,300 @@
+package ru.xander.replicator.schema;
+
+import ru.xander.replicator.exception.SchemaException;
+
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Пул соединений. Задается в конфигурации схемы ({@link SchemaConfig#getConnectionPool()}) и может
+ * разделяться между несколькими схемами и действиями: соединения группируются по идентификатору схемы
+ * (адрес, пользователь, рабочая схема), ограничения размера действуют для каждой группы отдельно.
+ * <p>
+ * Схема берет соединение из пула при первом обращении к базе и возвращает его при закрытии.
+ * Дополнительные соединения (параллельная выборка, подсчет строк) также берутся из пула.
+ * Перед выдачей соединение, простаивавшее дольше {@value #VALIDATION_INTERVAL} мс, проверяется
+ * запросом {@link Dialect#testQuery()}. Соединения, простаивающие дольше {@link #getIdleTimeout()},
+ * закрываются, пока в группе остается больше {@link #getMinSize()} соединений.
+ *
+ * @author Alexander Shakhov
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    public static final int DEFAULT_MIN_SIZE = 1;
+    public static final int DEFAULT_MAX_SIZE = 16;
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_MAX_WAIT = TimeUnit.MINUTES.toMillis(1);
+
+    private static final long VALIDATION_INTERVAL = 5_000L;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long maxWait;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Group> groups = new HashMap<>();
+    private boolean closed;
+
+    public ConnectionPool() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * @param minSize     количество простаивающих соединений, которые не закрываются по таймауту
+     * @param maxSize     максимальное количество соединений с одной схемой
+     * @param idleTimeout время простоя (мс), после которого соединение закрывается
+     * @param maxWait     время ожидания (мс) свободного соединения, когда все заняты
+     */
+    public ConnectionPool(int minSize, int maxSize, long idleTimeout, long maxWait) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be greatest than 0");
+        }
+        if ((minSize < 0) || (minSize > maxSize)) {
+            throw new IllegalArgumentException("Minimal pool size must be between 0 and " + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Количество открытых соединений (занятых и свободных) с заданной схемой.
+     */
+    public int size(String schemaId) {
+        lock.lock();
+        try {
+            Group group = groups.get(schemaId);
+            return group == null ? 0 : group.total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Количество свободных соединений с заданной схемой.
+     */
+    public int idleSize(String schemaId) {
+        lock.lock();
+        try {
+            Group group = groups.get(schemaId);
+            return group == null ? 0 : group.idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Получение соединения. Закрытие полученного соединения возвращает его в пул.
+     *
+     * @param schemaId        идентификатор схемы
+     * @param factory         создание нового соединения, если свободных нет
+     * @param validationQuery запрос проверки соединения
+     */
+    SchemaConnection borrow(String schemaId, Supplier<SchemaConnection> factory, String validationQuery) {
+        long deadline = System.currentTimeMillis() + maxWait;
+        SchemaConnection connection = null;
+        while (connection == null) {
+            Idle idle = takeIdle(schemaId, deadline);
+            if (idle == null) {
+                // под соединение зарезервировано место, создаем его вне блокировки
+                try {
+                    connection = factory.get();
+                } catch (RuntimeException e) {
+                    discard(schemaId);
+                    throw e;
+                }
+            } else if (((System.currentTimeMillis() - idle.since) <= VALIDATION_INTERVAL) || isValid(idle.connection, validationQuery)) {
+                connection = idle.connection;
+            } else {
+                discard(schemaId);
+                disconnect(idle.connection);
+            }
+        }
+        connection.setReleaser(c -> release(schemaId, c));
+        return connection;
+    }
+
+    /**
+     * Закрытие соединений, простаивающих дольше {@link #getIdleTimeout()}.
+     * Вызывается при каждой выдаче соединения, но может вызываться и явно.
+     */
+    public void evictIdle() {
+        List<SchemaConnection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            groups.values().forEach(group -> evictIdle(group, toClose));
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(ConnectionPool::disconnect);
+    }
+
+    @Override
+    public void close() {
+        List<SchemaConnection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            groups.values().forEach(group -> {
+                group.idle.forEach(idle -> toClose.add(idle.connection));
+                group.total -= group.idle.size();
+                group.idle.clear();
+                group.released.signalAll();
+            });
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(ConnectionPool::disconnect);
+    }
+
+    /**
+     * Свободное соединение или null, если под новое соединение зарезервировано место в группе.
+     */
+    private Idle takeIdle(String schemaId, long deadline) {
+        List<SchemaConnection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new SchemaException("Connection pool is closed");
+            }
+            Group group = groups.computeIfAbsent(schemaId, k -> new Group());
+            evictIdle(group, toClose);
+            while (true) {
+                Idle idle = group.idle.pollFirst();
+                if (idle != null) {
+                    return idle;
+                }
+                if (group.total < maxSize) {
+                    group.total++;
+                    return null;
+                }
+                long timeout = deadline - System.currentTimeMillis();
+                if ((timeout <= 0) || !group.released.await(timeout, TimeUnit.MILLISECONDS)) {
+                    throw new SchemaException("No free connection in pool after " + maxWait + " ms"
+                            + " (max size " + maxSize + " connections per schema)");
+                }
+                if (closed) {
+                    throw new SchemaException("Connection pool is closed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaException("Interrupted while waiting for connection", e);
+        } finally {
+            lock.unlock();
+            toClose.forEach(ConnectionPool::disconnect);
+        }
+    }
+
+    private void release(String schemaId, SchemaConnection connection) {
+        connection.setReleaser(null);
+        if (!connection.reset()) {
+            discard(schemaId);
+            disconnect(connection);
+            return;
+        }
+        lock.lock();
+        try {
+            Group group = groups.get(schemaId);
+            if (!closed && (group != null)) {
+                group.idle.addFirst(new Idle(connection));
+                group.released.signal();
+                return;
+            }
+            if (group != null) {
+                group.total--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        disconnect(connection);
+    }
+
+    private void discard(String schemaId) {
+        lock.lock();
+        try {
+            Group group = groups.get(schemaId);
+            if (group != null) {
+                group.total--;
+                group.released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdle(Group group, List<SchemaConnection> toClose) {
+        long now = System.currentTimeMillis();
+        // самые давно простаивающие соединения в конце очереди
+        Iterator<Idle> iterator = group.idle.descendingIterator();
+        while (iterator.hasNext() && (group.total > minSize)) {
+            Idle idle = iterator.next();
+            if ((now - idle.since) <= idleTimeout) {
+                break;
+            }
+            iterator.remove();
+            group.total--;
+            toClose.add(idle.connection);
+        }
+    }
+
+    private static boolean isValid(SchemaConnection connection, String validationQuery) {
+        try (Statement statement = connection.getJdbcConnection().createStatement()) {
+            statement.execute(validationQuery);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void disconnect(SchemaConnection connection) {
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            // соединение уже недоступно, ошибка передана слушателю
+        }
+    }
+
+    private class Group {
+        private final Deque<Idle> idle = new ArrayDeque<>();
+        private final Condition released = lock.newCondition();
+        private int total;
+    }
+
+    private static class Idle {
+        private final SchemaConnection connection;
+        private final long since;
+
+        private Idle(SchemaConnection connection) {
+            this.connection = connection;
+            this.since = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.xander.replicator.schema;
+
+/**
+ * Контрольная сумма части таблицы: количество строк и сумма хэшей строк.
+ * Сумма не зависит от порядка строк, поэтому ее можно вычислять агрегатной функцией на сервере.
+ *
+ * @author Alexander Shakhov
+ */
+public class DataChecksum {
+
+    private final long rowCount;
+    private final long checksum;
+
+    public DataChecksum(long rowCount, long checksum) {
+        this.rowCount = rowCount;
+        this.checksum = checksum;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DataChecksum that = (DataChecksum) o;
+        return rowCount == that.rowCount && checksum == that.checksum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(rowCount) * 31 + Long.hashCode(checksum);
+    }
+
+    @Override
+    public String toString() {
+        return "rows: " + rowCount + ", checksum: " + checksum;
+    }
+}
@@ -1,7 +1,16 @@
 package ru.xander.replicator.schema;
 
+import ru.xander.replicator.exception.SchemaException;
+
+import java.util.function.BiFunction;
+
 /**
  * Используется при снятии дампа в формате SQL.
+ * <p>
+ * Для форматирования множества строк следует использовать {@link #compile(Column)}: форматтер столбца создается
+ * один раз при открытии курсора и дописывает значения в общий буфер. Методы formatXXX удобны для единичных значений.
+ * Реализации должны быть потокобезопасными.
+ *
  * @author Alexander Shakhov
  */
 public interface DataFormatter {
@@ -32,4 +41,49 @@ public interface DataFormatter {
 
     String formatBlob(Object value, Column column);
 
+    /**
+     * Форматтер значений столбца. Реализация по умолчанию выбирает метод formatXXX по типу столбца.
+     */
+    default ColumnFormatter compile(Column column) {
+        BiFunction<Object, Column, String> formatter;
+        switch (column.getColumnType()) {
+            case BOOLEAN:
+                formatter = this::formatBoolean;
+                break;
+            case INTEGER:
+                formatter = this::formatInteger;
+                break;
+            case FLOAT:
+                formatter = this::formatFloat;
+                break;
+            case SERIAL:
+                formatter = this::formatSerial;
+                break;
+            case CHAR:
+                formatter = this::formatChar;
+                break;
+            case STRING:
+                formatter = this::formatString;
+                break;
+            case DATE:
+                formatter = this::formatDate;
+                break;
+            case TIME:
+                formatter = this::formatTime;
+                break;
+            case TIMESTAMP:
+                formatter = this::formatTimestamp;
+                break;
+            case CLOB:
+                formatter = this::formatClob;
+                break;
+            case BLOB:
+                formatter = this::formatBlob;
+                break;
+            default:
+                throw new SchemaException("Unsupported datatype <" + column.getColumnType() + ">");
+        }
+        String nullValue = formatNull(column);
+        return (value, sb) -> sb.append(value == null ? nullValue : formatter.apply(value, column));
+    }
 }
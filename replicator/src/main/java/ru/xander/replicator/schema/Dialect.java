@@ -26,12 +26,18 @@ public interface Dialect {
 
     String createPrimaryKeyQuery(PrimaryKey primaryKey);
 
+    String createPrimaryKeyQuery(PrimaryKey primaryKey, Index index);
+
     String dropPrimaryKeyQuery(PrimaryKey primaryKey);
 
     String createImportedKeyQuery(ImportedKey importedKey);
 
+    String createImportedKeyQuery(ImportedKey importedKey, boolean validate);
+
     String createCheckConstraintQuery(CheckConstraint checkConstraint);
 
+    String createCheckConstraintQuery(CheckConstraint checkConstraint, boolean validate);
+
     String dropConstraintQuery(Constraint constraint);
 
     String toggleConstraintQuery(Constraint constraint, boolean enabled);
@@ -40,6 +46,10 @@ public interface Dialect {
 
     String createIndexQuery(Index index);
 
+    String createIndexQuery(Index index, int parallelism);
+
+    String finishIndexQuery(Index index);
+
     String dropIndexQuery(Index index);
 
     String toggleIndexQuery(Index index, boolean enabled);
@@ -61,4 +71,32 @@ public interface Dialect {
     }
 
     String selectQuery(Table table);
+
+    String selectQuery(Table table, String keyColumn);
+
+    String selectKeyBoundsQuery(Table table, String keyColumn);
+
+    String selectBucketQuery(Table table, int bucketCount);
+
+    String selectChecksumQuery(Table table, String keyColumn);
+
+    String insertQuery(Table table);
+
+    String directPathInsertQuery(Table table);
+
+    String multiRowInsertHead(Table table);
+
+    String multiRowInsertRow(Table table, boolean first);
+
+    String multiRowInsertTail(Table table);
+
+    int maxMultiRowInsertRows(Table table);
+
+    int maxQueryLength();
+
+    String toggleLoggingQuery(Table table, boolean logging);
+
+    String updateQuery(Table table, String keyColumn);
+
+    String deleteQuery(Table table, String keyColumn);
 }
@@ -0,0 +1,47 @@
+package ru.xander.replicator.schema;
+
+/**
+ * Диапазон значений целочисленного ключевого столбца (границы включаются).
+ *
+ * @author Alexander Shakhov
+ */
+public class KeyRange {
+
+    private final String keyColumn;
+    private final long lower;
+    private final long upper;
+
+    public KeyRange(String keyColumn, long lower, long upper) {
+        this.keyColumn = keyColumn;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    public long getLower() {
+        return lower;
+    }
+
+    public long getUpper() {
+        return upper;
+    }
+
+    /**
+     * Количество значений ключа в диапазоне или Long.MAX_VALUE, если оно не помещается в long.
+     */
+    public long getSpan() {
+        try {
+            return Math.addExact(Math.subtractExact(upper, lower), 1L);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return keyColumn + " BETWEEN " + lower + " AND " + upper;
+    }
+}
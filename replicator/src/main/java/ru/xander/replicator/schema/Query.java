@@ -0,0 +1,136 @@
+package ru.xander.replicator.schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Параметризованный запрос к словарю данных. Значения передаются через bind-переменные,
+ * поэтому текст запроса не зависит от схемы и имен таблиц и разбирается сервером один раз.
+ * <p>
+ * Параметры добавляются методами {@link #bind(Object)} и {@link #tableCondition(String, Collection)}
+ * прямо при конкатенации текста запроса (операнды вычисляются слева направо):
+ * <pre>
+ * Query query = new Query();
+ * return query.sql("SELECT * FROM T WHERE OWNER = UPPER(" + query.bind(workSchema) + ")");
+ * </pre>
+ * Для журнала {@link #toString()} возвращает текст с подставленными значениями.
+ *
+ * @author Alexander Shakhov
+ */
+public class Query {
+
+    /**
+     * Максимальное количество элементов в списке IN (ограничение Oracle).
+     */
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
+    private final List<Object> params = new ArrayList<>();
+    private String sql;
+
+    public Query sql(String sql) {
+        this.sql = sql;
+        return this;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParams() {
+        return Collections.unmodifiableList(params);
+    }
+
+    /**
+     * Добавление параметра.
+     *
+     * @return placeholder для вставки в текст запроса
+     */
+    public String bind(Object value) {
+        params.add(value);
+        return "?";
+    }
+
+    /**
+     * Условие на список таблиц. Если список не задан (null), то условие истинно.
+     * <p>
+     * Количество параметров округляется вверх до степени двойки (список дополняется последним именем),
+     * чтобы число различных текстов запроса, а значит и подготовленных выражений, оставалось небольшим.
+     * Списки больше {@value #MAX_IN_LIST_SIZE} элементов разбиваются на несколько IN, объединенных через OR.
+     */
+    public String tableCondition(String column, Collection<String> tableNames) {
+        if (tableNames == null) {
+            return "1 = 1";
+        }
+        if (tableNames.isEmpty()) {
+            return "1 = 0";
+        }
+        if (tableNames.size() == 1) {
+            return column + " = UPPER(" + bind(tableNames.iterator().next()) + ")";
+        }
+        List<String> names = new ArrayList<>(tableNames);
+        int paddedSize = paddedSize(names.size());
+        String lastName = names.get(names.size() - 1);
+        while (names.size() < paddedSize) {
+            names.add(lastName);
+        }
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        int count = 0;
+        for (String tableName : names) {
+            part.append(count == 0 ? column + " IN (" : ", ").append("UPPER(").append(bind(tableName)).append(')');
+            if (++count == MAX_IN_LIST_SIZE) {
+                parts.add(part.append(')').toString());
+                part.setLength(0);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            parts.add(part.append(')').toString());
+        }
+        return parts.size() == 1 ? parts.get(0) : '(' + String.join(" OR ", parts) + ')';
+    }
+
+    /**
+     * Текст запроса с подставленными значениями параметров.
+     */
+    @Override
+    public String toString() {
+        if (sql == null) {
+            return "";
+        }
+        StringBuilder literal = new StringBuilder(sql.length() + params.size() * 16);
+        int paramIndex = 0;
+        boolean inString = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inString = !inString;
+            }
+            if ((c == '?') && !inString && (paramIndex < params.size())) {
+                literal.append(toLiteral(params.get(paramIndex++)));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.toString();
+    }
+
+    private static int paddedSize(int size) {
+        if (size > MAX_IN_LIST_SIZE) {
+            return (size + MAX_IN_LIST_SIZE - 1) / MAX_IN_LIST_SIZE * MAX_IN_LIST_SIZE;
+        }
+        return Math.min(Integer.highestOneBit(size - 1) << 1, MAX_IN_LIST_SIZE);
+    }
+
+    private static String toLiteral(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        return '\'' + value.toString().replace("'", "''") + '\'';
+    }
+}
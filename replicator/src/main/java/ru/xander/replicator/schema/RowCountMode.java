@@ -0,0 +1,26 @@
+package ru.xander.replicator.schema;
+
+/**
+ * Способ определения общего количества строк для событий прогресса.
+ *
+ * @author Alexander Shakhov
+ */
+public enum RowCountMode {
+    /**
+     * Точное количество через SELECT COUNT(*) перед выборкой.
+     */
+    EXACT,
+    /**
+     * Оценка по статистике СУБД, без дополнительного сканирования таблицы.
+     */
+    ESTIMATED,
+    /**
+     * Точное количество считается в отдельном соединении параллельно с выборкой,
+     * до его получения используется оценка по статистике.
+     */
+    PARALLEL,
+    /**
+     * Количество строк не определяется.
+     */
+    NONE
+}
@@ -1,8 +1,11 @@
 package ru.xander.replicator.schema;
 
 import ru.xander.replicator.filter.Filter;
+import ru.xander.replicator.metrics.Metrics;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Alexander Shakhov
@@ -17,12 +20,28 @@ public interface Schema extends AutoCloseable {
 
     DataFormatter getDataFormatter();
 
+    /**
+     * Реестр показателей: заданный в конфигурации ({@link SchemaConfig#getMetrics()}) или собственный реестр схемы.
+     */
+    Metrics getMetrics();
+
     List<String> getTables();
 
     List<String> getTables(List<Filter> filterList);
 
     Table getTable(String tableName);
 
+    /**
+     * Загрузка описаний сразу нескольких таблиц. Число запросов к словарю данных не зависит
+     * от количества таблиц. Если список не задан (null), то загружаются все таблицы схемы.
+     *
+     * @param tableNames список имен таблиц
+     * @return описания найденных таблиц по имени (без учета регистра)
+     */
+    Map<String, Table> loadTables(Collection<String> tableNames);
+
+    long estimateRowCount(Table table);
+
     void createTable(Table table);
 
     void dropTable(Table table);
@@ -43,18 +62,38 @@ public interface Schema extends AutoCloseable {
 
     void createPrimaryKey(PrimaryKey primaryKey);
 
+    /**
+     * Создание первичного ключа на уже загруженных данных.
+     */
+    void createPrimaryKey(PrimaryKey primaryKey, BuildOptions options);
+
     void dropPrimaryKey(PrimaryKey primaryKey);
 
     void createImportedKey(ImportedKey importedKey);
 
+    /**
+     * Создание внешнего ключа на уже загруженных данных.
+     */
+    void createImportedKey(ImportedKey importedKey, BuildOptions options);
+
     void createCheckConstraint(CheckConstraint checkConstraint);
 
+    /**
+     * Создание check-ограничения на уже загруженных данных.
+     */
+    void createCheckConstraint(CheckConstraint checkConstraint, BuildOptions options);
+
     void dropConstraint(Constraint constraint);
 
     void toggleConstraint(Constraint constraint, boolean enabled);
 
     void createIndex(Index index);
 
+    /**
+     * Построение индекса на уже загруженных данных.
+     */
+    void createIndex(Index index, BuildOptions options);
+
     void dropIndex(Index index);
 
     void toggleIndex(Index index, boolean enabled);
@@ -73,6 +112,37 @@ public interface Schema extends AutoCloseable {
 
     TableRowCursor selectRows(Table table, long verboseEach);
 
+    TableRowCursor selectRows(Table table, SelectRowsOptions options);
+
+    /**
+     * Минимальное и максимальное значение целочисленного ключевого столбца или null, если таблица пуста.
+     *
+     * @throws ru.xander.replicator.exception.KeyRangeOverflowException если значения или размер диапазона
+     *                                                                  не помещаются в long
+     */
+    KeyRange selectKeyRange(Table table, String keyColumn);
+
+    /**
+     * Контрольные суммы строк таблицы, вычисленные на сервере по порциям диапазона ключа.
+     * Порция с номером N содержит значения ключа от {@code lower + N * chunkSize} до {@code lower + (N + 1) * chunkSize - 1}.
+     * Порции без строк в результат не попадают. Хэшируются столбцы {@link Table#getColumns()} в заданном порядке.
+     *
+     * @return контрольные суммы по номеру порции или null, если СУБД не поддерживает хэширование строк
+     */
+    Map<Long, DataChecksum> selectChecksums(Table table, KeyRange range, long chunkSize);
+
     BatchExecutor createBatchExecutor();
 
+    BatchExecutor createBatchExecutor(BatchOptions options);
+
+    TableBatchExecutor createTableBatchExecutor(Table table);
+
+    TableBatchExecutor createTableBatchExecutor(Table table, BatchOptions options);
+
+    /**
+     * Пакетное выполнение произвольного параметризованного запроса (например, {@link Dialect#updateQuery}).
+     * Параметры запроса - значения столбцов строки в порядке {@link Table#getColumns()}.
+     */
+    TableBatchExecutor createTableBatchExecutor(Table table, String query, BatchOptions options);
+
 }
@@ -1,6 +1,10 @@
 package ru.xander.replicator.schema;
 
+import ru.xander.replicator.cache.MetadataCache;
 import ru.xander.replicator.listener.Listener;
+import ru.xander.replicator.metrics.Metrics;
+
+import java.util.Properties;
 
 /**
  * @author Alexander Shakhov
@@ -13,6 +17,13 @@ public class SchemaConfig {
     private String password;
     private String workSchema;
     private Listener listener;
+    private Integer fetchSize;
+    private Integer lobPrefetchSize;
+    private Boolean defineColumnTypes;
+    private MetadataCache metadataCache;
+    private ConnectionPool connectionPool;
+    private Metrics metrics;
+    private Properties connectionProperties = new Properties();
 
     public String getJdbcDriver() {
         return jdbcDriver;
@@ -62,6 +73,89 @@ public class SchemaConfig {
         this.listener = listener;
     }
 
+    /**
+     * Количество строк, получаемых за одно обращение к серверу.
+     * Если не задано, то используется значение по умолчанию для СУБД.
+     */
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Размер данных LOB (в байтах/символах), передаваемых вместе со строкой без отдельного обращения к серверу.
+     * Если не задано, то используется значение по умолчанию для СУБД.
+     */
+    public Integer getLobPrefetchSize() {
+        return lobPrefetchSize;
+    }
+
+    public void setLobPrefetchSize(Integer lobPrefetchSize) {
+        this.lobPrefetchSize = lobPrefetchSize;
+    }
+
+    /**
+     * Заранее сообщать драйверу типы столбцов выборки, чтобы избежать лишнего описания результата.
+     * Если не задано, то используется значение по умолчанию для СУБД.
+     */
+    public Boolean getDefineColumnTypes() {
+        return defineColumnTypes;
+    }
+
+    public void setDefineColumnTypes(Boolean defineColumnTypes) {
+        this.defineColumnTypes = defineColumnTypes;
+    }
+
+    /**
+     * Кэш описаний таблиц. Один экземпляр можно разделять между несколькими схемами и действиями.
+     * Если не задан, то описания читаются из словаря данных при каждом обращении.
+     */
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    public void setMetadataCache(MetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * Пул соединений. Один экземпляр можно разделять между несколькими схемами и действиями.
+     * Если не задан, то каждая схема открывает собственное соединение и закрывает его при закрытии схемы.
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public void setConnectionPool(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Реестр показателей (время запросов, выборки и записи строк). Один экземпляр можно разделять
+     * между несколькими схемами и действиями. Если не задан, то схема ведет собственный реестр ({@link Schema#getMetrics()}).
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Дополнительные свойства соединения, передаваемые драйверу.
+     */
+    public Properties getConnectionProperties() {
+        return connectionProperties;
+    }
+
+    public void setConnectionProperties(Properties connectionProperties) {
+        this.connectionProperties = connectionProperties;
+    }
+
     public static SchemaConfigBuilder builder() {
         return new SchemaConfigBuilder();
     }
@@ -101,6 +195,41 @@ public class SchemaConfig {
             return this;
         }
 
+        public SchemaConfigBuilder fetchSize(int fetchSize) {
+            this.setFetchSize(fetchSize);
+            return this;
+        }
+
+        public SchemaConfigBuilder lobPrefetchSize(int lobPrefetchSize) {
+            this.setLobPrefetchSize(lobPrefetchSize);
+            return this;
+        }
+
+        public SchemaConfigBuilder defineColumnTypes(boolean defineColumnTypes) {
+            this.setDefineColumnTypes(defineColumnTypes);
+            return this;
+        }
+
+        public SchemaConfigBuilder metadataCache(MetadataCache metadataCache) {
+            this.setMetadataCache(metadataCache);
+            return this;
+        }
+
+        public SchemaConfigBuilder connectionPool(ConnectionPool connectionPool) {
+            this.setConnectionPool(connectionPool);
+            return this;
+        }
+
+        public SchemaConfigBuilder metrics(Metrics metrics) {
+            this.setMetrics(metrics);
+            return this;
+        }
+
+        public SchemaConfigBuilder connectionProperty(String name, String value) {
+            this.getConnectionProperties().setProperty(name, value);
+            return this;
+        }
+
         public SchemaConfig build() {
             SchemaConfig schemaConfig = new SchemaConfig();
             schemaConfig.setJdbcDriver(this.getJdbcDriver());
@@ -109,6 +238,15 @@ public class SchemaConfig {
             schemaConfig.setPassword(this.getPassword());
             schemaConfig.setWorkSchema(this.getWorkSchema());
             schemaConfig.setListener(this.getListener());
+            schemaConfig.setFetchSize(this.getFetchSize());
+            schemaConfig.setLobPrefetchSize(this.getLobPrefetchSize());
+            schemaConfig.setDefineColumnTypes(this.getDefineColumnTypes());
+            schemaConfig.setMetadataCache(this.getMetadataCache());
+            schemaConfig.setConnectionPool(this.getConnectionPool());
+            schemaConfig.setMetrics(this.getMetrics());
+            Properties properties = new Properties();
+            properties.putAll(this.getConnectionProperties());
+            schemaConfig.setConnectionProperties(properties);
             return schemaConfig;
         }
     }
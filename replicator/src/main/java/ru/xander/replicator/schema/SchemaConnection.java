@@ -6,26 +6,55 @@ import ru.xander.replicator.listener.Listener;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * @author Alexander Shakhov
  */
 public class SchemaConnection implements AutoCloseable {
 
+    /**
+     * Количество подготовленных выражений, которые держит открытыми одно соединение.
+     */
+    public static final int STATEMENT_CACHE_SIZE = 64;
+
     private final String jdbcDriver;
     private final String jdbcUrl;
     private final String username;
     private final String password;
+    private final Properties properties;
     private final Listener listener;
+    private final Map<String, PreparedStatement> statementCache;
     private Connection connection;
+    private volatile Consumer<SchemaConnection> releaser;
+    private volatile boolean invalid;
 
     public SchemaConnection(SchemaConfig config, Listener listener) {
+        this(config, config.getConnectionProperties(), listener);
+    }
+
+    public SchemaConnection(SchemaConfig config, Properties properties, Listener listener) {
         this.jdbcDriver = config.getJdbcDriver();
         this.jdbcUrl = config.getJdbcUrl();
         this.username = config.getUsername();
         this.password = config.getPassword();
+        this.properties = properties;
         this.listener = listener;
+        this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > STATEMENT_CACHE_SIZE) {
+                    closeStatement(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
     }
 
     public Connection getJdbcConnection() {
@@ -33,7 +62,17 @@ public class SchemaConnection implements AutoCloseable {
             try {
                 notify("Connect to " + jdbcUrl + "...");
                 Class.forName(jdbcDriver);
-                connection = DriverManager.getConnection(jdbcUrl, username, password);
+                Properties info = new Properties();
+                if (properties != null) {
+                    info.putAll(properties);
+                }
+                if (username != null) {
+                    info.setProperty("user", username);
+                }
+                if (password != null) {
+                    info.setProperty("password", password);
+                }
+                connection = DriverManager.getConnection(jdbcUrl, info);
             } catch (SQLException | ClassNotFoundException e) {
                 error(e);
                 String errorMessage = String.format(
@@ -45,8 +84,67 @@ public class SchemaConnection implements AutoCloseable {
         return connection;
     }
 
+    /**
+     * Подготовленное выражение из кэша соединения. Выражение не нужно закрывать после использования,
+     * оно закрывается при вытеснении из кэша или при закрытии соединения.
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        synchronized (statementCache) {
+            PreparedStatement statement = statementCache.get(sql);
+            if ((statement == null) || statement.isClosed()) {
+                statement = getJdbcConnection().prepareStatement(sql);
+                statementCache.put(sql, statement);
+            }
+            return statement;
+        }
+    }
+
+    /**
+     * Соединение, полученное из пула, при закрытии возвращается в пул.
+     */
+    void setReleaser(Consumer<SchemaConnection> releaser) {
+        this.releaser = releaser;
+    }
+
+    /**
+     * Соединение может использоваться другим потоком, поэтому при закрытии оно не возвращается в пул.
+     */
+    void invalidate() {
+        this.invalid = true;
+    }
+
+    /**
+     * Откат незафиксированных изменений и восстановление режима автофиксации перед возвратом в пул.
+     *
+     * @return false, если соединение непригодно для повторного использования
+     */
+    boolean reset() {
+        try {
+            if (invalid || (connection == null) || connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            error(e);
+            return false;
+        }
+    }
+
     @Override
     public void close() {
+        Consumer<SchemaConnection> releaser = this.releaser;
+        if (releaser != null) {
+            releaser.accept(this);
+            return;
+        }
+        synchronized (statementCache) {
+            statementCache.values().forEach(this::closeStatement);
+            statementCache.clear();
+        }
         try {
             if (this.connection != null) {
                 notify("Close connection.");
@@ -59,6 +157,14 @@ public class SchemaConnection implements AutoCloseable {
         }
     }
 
+    private void closeStatement(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            error(e);
+        }
+    }
+
     private void notify(String message) {
         if (listener != null) {
             listener.notify(message);
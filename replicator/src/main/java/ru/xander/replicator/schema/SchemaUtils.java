@@ -4,7 +4,9 @@ import ru.xander.replicator.util.StringUtils;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * @author Alexander Shakhov
@@ -56,4 +58,33 @@ public abstract class SchemaUtils {
         cloned.setComment(column.getComment());
         return cloned;
     }
+
+    /**
+     * Карта таблиц по имени без учета регистра (имена в запросах к словарю приводятся к верхнему регистру).
+     */
+    public static Map<String, Table> newTableMap() {
+        return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    /**
+     * Столбец первичного ключа, если ключ состоит из одного целочисленного столбца, иначе null.
+     * По такому ключу таблицу можно делить на диапазоны.
+     */
+    public static String getIntegerKeyColumn(Table table) {
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        if ((primaryKey == null) || (primaryKey.getColumns() == null) || (primaryKey.getColumns().length != 1)) {
+            return null;
+        }
+        Column column = table.getColumn(primaryKey.getColumns()[0]);
+        if (column == null) {
+            return null;
+        }
+        switch (column.getColumnType()) {
+            case INTEGER:
+            case SERIAL:
+                return column.getName();
+            default:
+                return null;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package ru.xander.replicator.schema;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class SelectRowsOptions {
+
+    public static final long DEFAULT_VERBOSE_EACH = 1000L;
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+    public static final RowCountMode DEFAULT_ROW_COUNT_MODE = RowCountMode.ESTIMATED;
+
+    /**
+     * Количество записей, после которого будет генерироваться событие прогресса.
+     */
+    private long verboseEach = DEFAULT_VERBOSE_EACH;
+
+    /**
+     * Количество соединений, по которым будет разбита выборка таблицы.
+     * Таблица делится на диапазоны первичного ключа (или на хэш-корзины по ROWID для Oracle).
+     * Если 1, то выборка выполняется одним запросом.
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Размер очереди строк, выбранных параллельно.
+     */
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    /**
+     * Способ определения общего количества строк для событий прогресса.
+     */
+    private RowCountMode rowCountMode = DEFAULT_ROW_COUNT_MODE;
+
+    /**
+     * Диапазон ключа, строки которого нужно выбрать. Если не задан, то выбирается вся таблица.
+     * Выборка диапазона всегда выполняется одним запросом.
+     */
+    private KeyRange keyRange;
+
+    public SelectRowsOptions() {
+    }
+
+    public SelectRowsOptions(long verboseEach) {
+        this.verboseEach = verboseEach;
+    }
+
+    public SelectRowsOptions(long verboseEach, int parallelism) {
+        this.verboseEach = verboseEach;
+        this.parallelism = parallelism;
+    }
+
+    public long getVerboseEach() {
+        return verboseEach;
+    }
+
+    public void setVerboseEach(long verboseEach) {
+        this.verboseEach = verboseEach;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public RowCountMode getRowCountMode() {
+        return rowCountMode;
+    }
+
+    public void setRowCountMode(RowCountMode rowCountMode) {
+        this.rowCountMode = rowCountMode;
+    }
+
+    public KeyRange getKeyRange() {
+        return keyRange;
+    }
+
+    public void setKeyRange(KeyRange keyRange) {
+        this.keyRange = keyRange;
+    }
+}
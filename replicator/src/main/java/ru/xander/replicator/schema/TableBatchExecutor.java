@@ -0,0 +1,272 @@
+package ru.xander.replicator.schema;
+
+import ru.xander.replicator.exception.BatchException;
+import ru.xander.replicator.metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Пакетная вставка строк таблицы через параметризованный запрос.
+ * Способ привязки значения определяется один раз для каждого столбца по его типу.
+ *
+ * @author Alexander Shakhov
+ */
+public class TableBatchExecutor implements AutoCloseable {
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final FieldBinder[] binders;
+    private final int batchSize;
+    private final long commitEach;
+    private final BatchStatistics statistics;
+    private final BatchMetrics metrics;
+    private int currentBatchSize;
+    private long uncommittedRows;
+    private long totalRows;
+
+    public TableBatchExecutor(Connection connection, Table table, String insertQuery, BatchOptions options) {
+        this(connection, table, insertQuery, options, null);
+    }
+
+    /**
+     * @param metrics реестр, в который попадают время и размер пакетов, количество строк и коммитов (может быть null)
+     */
+    public TableBatchExecutor(Connection connection, Table table, String insertQuery, BatchOptions options, Metrics metrics) {
+        if (options.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("Batch size must be greatest than 0");
+        }
+        try {
+            this.connection = connection;
+            this.batchSize = options.getBatchSize();
+            this.commitEach = options.getCommitEach();
+            this.statistics = new BatchStatistics();
+            this.metrics = metrics == null ? null : new BatchMetrics(metrics);
+            this.binders = createBinders(table.getColumns());
+            this.statement = connection.prepareStatement(insertQuery);
+            this.connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new BatchException(e.getMessage(), e);
+        }
+    }
+
+    public void execute(TableRow row) {
+        try {
+            TableField[] fields = row.getFields();
+            for (int i = 0; i < fields.length; i++) {
+                Object value = fields[i].getValue();
+                if (value == null) {
+                    this.statement.setNull(i + 1, getSqlType(fields[i].getColumn()));
+                } else {
+                    this.binders[i].bind(this.statement, i + 1, value);
+                }
+            }
+            this.statement.addBatch();
+            this.currentBatchSize++;
+            this.totalRows++;
+            if (currentBatchSize >= batchSize) {
+                executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new BatchException(e.getMessage(), e);
+        }
+    }
+
+    public void finish() {
+        try {
+            if (this.currentBatchSize > 0) {
+                executeBatch();
+            }
+            this.connection.commit();
+            this.statistics.committed();
+            if (this.metrics != null) {
+                this.metrics.committed();
+            }
+            this.uncommittedRows = 0;
+        } catch (SQLException e) {
+            throw new BatchException(e.getMessage(), e);
+        }
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public BatchStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.statement.close();
+        } catch (SQLException e) {
+            throw new BatchException(e.getMessage(), e);
+        }
+    }
+
+    private void executeBatch() throws SQLException {
+        long start = System.nanoTime();
+        this.statement.executeBatch();
+        long nanos = System.nanoTime() - start;
+        this.statistics.batchExecuted(currentBatchSize, nanos);
+        if (this.metrics != null) {
+            this.metrics.batchExecuted(currentBatchSize, nanos);
+        }
+        this.uncommittedRows += currentBatchSize;
+        this.currentBatchSize = 0;
+        if ((commitEach > 0) && (uncommittedRows >= commitEach)) {
+            this.connection.commit();
+            this.statistics.committed();
+            if (this.metrics != null) {
+                this.metrics.committed();
+            }
+            this.uncommittedRows = 0;
+        }
+    }
+
+    private static FieldBinder[] createBinders(Collection<Column> columns) {
+        FieldBinder[] binders = new FieldBinder[columns.size()];
+        int index = 0;
+        for (Column column : columns) {
+            binders[index++] = getBinder(column.getColumnType());
+        }
+        return binders;
+    }
+
+    private static FieldBinder getBinder(ColumnType columnType) {
+        switch (columnType) {
+            case BOOLEAN:
+                return TableBatchExecutor::bindBoolean;
+            case INTEGER:
+            case SERIAL:
+                return TableBatchExecutor::bindInteger;
+            case FLOAT:
+                return TableBatchExecutor::bindFloat;
+            case CHAR:
+            case STRING:
+                return (ps, index, value) -> ps.setString(index, value.toString());
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return TableBatchExecutor::bindTimestamp;
+            case CLOB:
+                return TableBatchExecutor::bindClob;
+            case BLOB:
+                return TableBatchExecutor::bindBlob;
+            default:
+                return PreparedStatement::setObject;
+        }
+    }
+
+    private static void bindBoolean(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof Boolean) {
+            ps.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Number) {
+            ps.setBoolean(index, ((Number) value).intValue() != 0);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    private static void bindInteger(PreparedStatement ps, int index, Object value) throws SQLException {
+        if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            ps.setLong(index, ((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            if ((decimal.scale() <= 0) && (decimal.precision() - decimal.scale() < 19)) {
+                ps.setLong(index, decimal.longValue());
+            } else {
+                ps.setBigDecimal(index, decimal);
+            }
+        } else if (value instanceof BigInteger) {
+            ps.setBigDecimal(index, new BigDecimal((BigInteger) value));
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    private static void bindFloat(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof BigDecimal) {
+            ps.setBigDecimal(index, (BigDecimal) value);
+        } else if ((value instanceof Double) || (value instanceof Float)) {
+            ps.setDouble(index, ((Number) value).doubleValue());
+        } else {
+            bindInteger(ps, index, value);
+        }
+    }
+
+    private static void bindTimestamp(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof Timestamp) {
+            ps.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof Date) {
+            ps.setTimestamp(index, new Timestamp(((Date) value).getTime()));
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    private static void bindClob(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            ps.setCharacterStream(index, clob.getCharacterStream(), clob.length());
+        } else {
+            String string = value.toString();
+            ps.setCharacterStream(index, new StringReader(string), string.length());
+        }
+    }
+
+    private static void bindBlob(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            ps.setBinaryStream(index, blob.getBinaryStream(), blob.length());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            ps.setBinaryStream(index, new ByteArrayInputStream(bytes), bytes.length);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+
+    private static int getSqlType(Column column) {
+        switch (column.getColumnType()) {
+            case BOOLEAN:
+            case INTEGER:
+            case FLOAT:
+            case SERIAL:
+                return Types.NUMERIC;
+            case CHAR:
+                return Types.CHAR;
+            case STRING:
+                return Types.VARCHAR;
+            case DATE:
+                return Types.DATE;
+            case TIME:
+                return Types.TIME;
+            case TIMESTAMP:
+                return Types.TIMESTAMP;
+            case CLOB:
+                return Types.CLOB;
+            case BLOB:
+                return Types.BLOB;
+            default:
+                return Types.NULL;
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldBinder {
+        void bind(PreparedStatement ps, int index, Object value) throws SQLException;
+    }
+}
@@ -23,4 +23,60 @@ public class TableField {
     public void setValue(Object value) {
         this.value = value;
     }
+
+    public boolean isNull() {
+        return value == null;
+    }
+
+    public String getString() {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Значение в виде long. Для null возвращает 0.
+     */
+    public long getLong() {
+        if (value == null) {
+            return 0L;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        }
+        return Long.parseLong(value.toString());
+    }
+
+    /**
+     * Значение в виде double. Для null возвращает 0.
+     */
+    public double getDouble() {
+        if (value == null) {
+            return 0.0d;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1.0d : 0.0d;
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    /**
+     * Значение в виде boolean. Для null возвращает false.
+     */
+    public boolean getBoolean() {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return Boolean.parseBoolean(value.toString());
+    }
 }
@@ -0,0 +1,101 @@
+package ru.xander.replicator.schema;
+
+import ru.xander.replicator.exception.SchemaException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Создание первичного ключа, индексов и ограничений таблицы после загрузки данных.
+ * <p>
+ * При загрузке в таблицу без индексов и ограничений не тратится время на обновление индексов и проверку
+ * внешних ключей для каждой строки. После загрузки сначала создается первичный ключ (его индекс строится
+ * с теми же параметрами, что и остальные индексы), затем индексы строятся параллельно в отдельных сессиях
+ * ({@link BuildOptions#getParallelism()}), после чего создаются
+ * check-ограничения и внешние ключи (они блокируют таблицу, поэтому создаются последовательно).
+ *
+ * @author Alexander Shakhov
+ */
+public class TableObjectsBuilder {
+
+    private final SchemaConfig schemaConfig;
+    private final BuildOptions options;
+
+    /**
+     * @param schemaConfig конфигурация схемы для открытия дополнительных сессий
+     * @param options      параметры создания объектов
+     */
+    public TableObjectsBuilder(SchemaConfig schemaConfig, BuildOptions options) {
+        this.schemaConfig = schemaConfig;
+        this.options = options;
+    }
+
+    /**
+     * @param schema            схема, в которой загружена таблица
+     * @param table             описание таблицы
+     * @param importedKeyFilter внешние ключи, которые нужно создать
+     */
+    public void build(Schema schema, Table table, Predicate<ImportedKey> importedKeyFilter) {
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        if (primaryKey != null) {
+            schema.createPrimaryKey(primaryKey, options);
+        }
+        buildIndices(schema, table);
+        table.getCheckConstraints().forEach(checkConstraint -> schema.createCheckConstraint(checkConstraint, options));
+        table.getImportedKeys().stream()
+                .filter(importedKeyFilter)
+                .forEach(importedKey -> schema.createImportedKey(importedKey, options));
+    }
+
+    private void buildIndices(Schema schema, Table table) {
+        int parallelism = Math.max(1, options.getParallelism());
+        int sessions = Math.min(parallelism, table.getIndices().size());
+        if (sessions <= 1) {
+            table.getIndices().forEach(index -> schema.createIndex(index, options));
+            return;
+        }
+        // степень параллелизма делится между сессиями, чтобы общее число процессов не превышало заданное
+        BuildOptions sessionOptions = new BuildOptions(Math.max(1, parallelism / sessions), options.isValidate());
+        Queue<Index> indices = new ConcurrentLinkedQueue<>(table.getIndices());
+        ExecutorService executorService = Executors.newFixedThreadPool(sessions);
+        try {
+            List<Future<?>> futures = new ArrayList<>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                futures.add(executorService.submit(() -> {
+                    Schema session = SchemaFactory.getInstance().create(schemaConfig);
+                    try {
+                        Index index;
+                        while (((index = indices.poll()) != null) && !Thread.currentThread().isInterrupted()) {
+                            session.createIndex(index, sessionOptions);
+                        }
+                    } finally {
+                        session.close();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaException("Interrupted build indices for table " + table.getName(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SchemaException("Failed to build indices for table " + table.getName() + ": " + cause.getMessage(), cause);
+        } finally {
+            indices.clear();
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.xander.replicator.schema;
+
+/**
+ * Часть таблицы, выбираемая отдельным запросом.
+ *
+ * @author Alexander Shakhov
+ */
+public class TablePartition {
+
+    private final String query;
+    private final Object[] params;
+    private final String description;
+
+    public TablePartition(String query, Object[] params, String description) {
+        this.query = query;
+        this.params = params;
+        this.description = description;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Object[] getParams() {
+        return params;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -31,4 +31,16 @@ public class TableRow {
     public void setFields(TableField[] fields) {
         this.fields = fields;
     }
+
+    /**
+     * Копия строки, не зависящая от буфера курсора.
+     */
+    public TableRow copy() {
+        TableField[] copyFields = new TableField[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            copyFields[i] = new TableField(fields[i].getColumn());
+            copyFields[i].setValue(fields[i].getValue());
+        }
+        return new TableRow(table, copyFields);
+    }
 }
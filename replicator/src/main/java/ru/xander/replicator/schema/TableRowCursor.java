@@ -1,8 +1,71 @@
 package ru.xander.replicator.schema;
 
 /**
+ * Курсор по строкам таблицы.
+ * <p>
+ * Строки можно читать двумя способами:
+ * <ul>
+ * <li>{@link #nextRow()} / {@link #nextDetachedRow()} - строка целиком в виде {@link TableRow};</li>
+ * <li>{@link #next()} и типизированные методы доступа по индексу столбца - без создания объектов строки.</li>
+ * </ul>
+ * Индекс столбца начинается с 0 и соответствует порядку {@link Table#getColumns()}.
+ *
  * @author Alexander Shakhov
  */
 public interface TableRowCursor extends AutoCloseable {
+
+    /**
+     * Следующая строка или null, если строк больше нет.
+     * Возвращаемая строка может быть буфером курсора, который перезаписывается при следующем чтении.
+     * Если строку нужно сохранить или передать в другой поток, то следует использовать {@link #nextDetachedRow()}.
+     */
     TableRow nextRow();
+
+    /**
+     * Следующая строка в виде копии, не зависящей от буфера курсора, или null, если строк больше нет.
+     */
+    default TableRow nextDetachedRow() {
+        TableRow row = nextRow();
+        return row == null ? null : row.copy();
+    }
+
+    /**
+     * Переход к следующей строке. Значения текущей строки доступны через методы доступа по индексу столбца.
+     *
+     * @return false, если строк больше нет
+     */
+    boolean next();
+
+    Table getTable();
+
+    int getColumnCount();
+
+    Column getColumn(int columnIndex);
+
+    /**
+     * Индекс столбца по имени или -1, если столбца нет.
+     */
+    default int findColumn(String columnName) {
+        for (int i = 0; i < getColumnCount(); i++) {
+            if (getColumn(i).getName().equals(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean isNull(int columnIndex);
+
+    Object getObject(int columnIndex);
+
+    String getString(int columnIndex);
+
+    long getLong(int columnIndex);
+
+    double getDouble(int columnIndex);
+
+    boolean getBoolean(int columnIndex);
+
+    @Override
+    void close();
 }
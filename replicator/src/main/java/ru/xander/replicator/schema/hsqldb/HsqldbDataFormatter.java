@@ -1,64 +1,73 @@
 package ru.xander.replicator.schema.hsqldb;
 
+import ru.xander.replicator.exception.SchemaException;
+import ru.xander.replicator.schema.AbstractDataFormatter;
 import ru.xander.replicator.schema.Column;
-import ru.xander.replicator.schema.DataFormatter;
+import ru.xander.replicator.schema.ColumnFormatter;
+import ru.xander.replicator.schema.ColumnType;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
+ * Литералы HSQLDB: TRUE/FALSE, DATE '...', TIME '...', TIMESTAMP '...', X'...' для BLOB.
+ *
  * @author Alexander Shakhov
  */
-class HsqldbDataFormatter implements DataFormatter {
-    @Override
-    public String formatBoolean(Object value, Column column) {
-        return null;
-    }
+class HsqldbDataFormatter extends AbstractDataFormatter {
 
-    @Override
-    public String formatInteger(Object value, Column column) {
-        return null;
-    }
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
 
     @Override
-    public String formatFloat(Object value, Column column) {
-        return null;
+    protected ColumnFormatter compileValue(ColumnType columnType, Column column) {
+        switch (columnType) {
+            case BOOLEAN:
+                return (value, sb) -> sb.append(toBoolean(value) ? "TRUE" : "FALSE");
+            case INTEGER:
+            case SERIAL:
+            case FLOAT:
+                return AbstractDataFormatter::appendNumber;
+            case CHAR:
+            case STRING:
+                return (value, sb) -> appendQuoted(value.toString(), sb);
+            case DATE:
+                return compileDateTime("DATE '", DATE_FORMAT);
+            case TIME:
+                return compileDateTime("TIME '", TIME_FORMAT);
+            case TIMESTAMP:
+                return compileDateTime("TIMESTAMP '", TIMESTAMP_FORMAT);
+            case CLOB:
+                return (value, sb) -> appendQuoted(readClob(value), sb);
+            case BLOB:
+                return (value, sb) -> {
+                    sb.append("X'");
+                    appendHex(readBlob(value), sb);
+                    sb.append('\'');
+                };
+        }
+        throw new SchemaException("Unsupported datatype <" + columnType + ">");
     }
 
-    @Override
-    public String formatSerial(Object value, Column column) {
-        return null;
+    private static ColumnFormatter compileDateTime(String prefix, DateTimeFormatter format) {
+        ZoneId zone = ZoneId.systemDefault();
+        return (value, sb) -> {
+            sb.append(prefix);
+            format.formatTo(toLocalDateTime(value, zone), sb);
+            sb.append('\'');
+        };
     }
 
-    @Override
-    public String formatChar(Object value, Column column) {
-        return null;
-    }
-
-    @Override
-    public String formatString(Object value, Column column) {
-        return null;
-    }
-
-    @Override
-    public String formatDate(Object value, Column column) {
-        return null;
-    }
-
-    @Override
-    public String formatTime(Object value, Column column) {
-        return null;
-    }
-
-    @Override
-    public String formatTimestamp(Object value, Column column) {
-        return null;
-    }
-
-    @Override
-    public String formatClob(Object value, Column column) {
-        return null;
-    }
-
-    @Override
-    public String formatBlob(Object value, Column column) {
-        return null;
+    private static void appendQuoted(String string, StringBuilder sb) {
+        sb.append('\'');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '\'') {
+                sb.append('\'');
+            }
+            sb.append(c);
+        }
+        sb.append('\'');
     }
 }
@@ -161,7 +161,13 @@ public class HsqldbDialect extends AbstractDialect {
 
     @Override
     public String selectQuery(Table table) {
-        return null;
+        return "SELECT " +
+                table.getColumns()
+                        .stream()
+                        .sorted()
+                        .map(Column::getName)
+                        .collect(Collectors.joining(",\n")) + '\n' +
+                "FROM " + getQualifiedName(table);
     }
 
     private static String getColumnDefinition(Column column) {
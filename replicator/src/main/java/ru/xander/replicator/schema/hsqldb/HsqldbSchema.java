@@ -3,6 +3,7 @@ package ru.xander.replicator.schema.hsqldb;
 import ru.xander.replicator.exception.SchemaException;
 import ru.xander.replicator.filter.Filter;
 import ru.xander.replicator.schema.AbstractSchema;
+import ru.xander.replicator.schema.BuildOptions;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
 import ru.xander.replicator.schema.ColumnType;
@@ -15,25 +16,34 @@ import ru.xander.replicator.schema.Index;
 import ru.xander.replicator.schema.IndexType;
 import ru.xander.replicator.schema.PrimaryKey;
 import ru.xander.replicator.schema.SchemaConfig;
+import ru.xander.replicator.schema.SchemaUtils;
 import ru.xander.replicator.schema.Sequence;
 import ru.xander.replicator.schema.Table;
 import ru.xander.replicator.schema.Trigger;
 import ru.xander.replicator.schema.VendorType;
 import ru.xander.replicator.util.StringUtils;
 
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+
+import static ru.xander.replicator.listener.AlterType.CREATE_TABLE;
 
 /**
  * @author Alexander Shakhov
  */
 public class HsqldbSchema extends AbstractSchema {
 
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_LOB_PREFETCH_SIZE = 0;
+    private static final boolean DEFAULT_DEFINE_COLUMN_TYPES = false;
+
     private final HsqldbDialect dialect;
     private final HsqldbSchemaQueries schemaQueries;
 
     public HsqldbSchema(SchemaConfig config) {
-        super(config);
+        super(config, DEFAULT_FETCH_SIZE, DEFAULT_LOB_PREFETCH_SIZE, DEFAULT_DEFINE_COLUMN_TYPES);
         this.dialect = new HsqldbDialect(workSchema);
         this.schemaQueries = new HsqldbSchemaQueries(workSchema);
     }
@@ -59,22 +69,37 @@ public class HsqldbSchema extends AbstractSchema {
     }
 
     @Override
-    public Table getTable(String tableName) {
-        Table table = findTable(tableName);
-        if (table == null) {
-            return null;
+    protected Map<String, Table> readTables(Collection<String> tableNames) {
+        Map<String, Table> tables = findTables(tableNames);
+        if (tables.isEmpty()) {
+            return tables;
         }
-        findColumns(table);
-        findConstraints(table);
-        findIndices(table);
-//        findTriggers(table);
-//        findSequence(table);
-        return table;
+        findColumns(tables, tableNames);
+        findConstraints(tables, tableNames);
+        findIndices(tables, tableNames);
+//        findTriggers(tables, tableNames);
+//        findSequences(tables, tableNames);
+        return tables;
+    }
+
+    /**
+     * Количество строк по данным INFORMATION_SCHEMA.SYSTEM_TABLESTATS.
+     * Если данных нет, то возвращает -1.
+     */
+    @Override
+    public long estimateRowCount(Table table) {
+        Long rowCount = selectOne(schemaQueries.selectCardinality(table), rs -> {
+            long value = rs.getLong("CARDINALITY");
+            return rs.wasNull() ? null : value;
+        });
+        return rowCount == null ? -1L : rowCount;
     }
 
     @Override
     public void createTable(Table table) {
-
+        String sql = dialect.createTableQuery(table);
+        alter(CREATE_TABLE, table.getName(), sql);
+        execute(sql);
     }
 
     @Override
@@ -122,6 +147,11 @@ public class HsqldbSchema extends AbstractSchema {
 
     }
 
+    @Override
+    public void createPrimaryKey(PrimaryKey primaryKey, BuildOptions options) {
+        createPrimaryKey(primaryKey);
+    }
+
     @Override
     public void dropPrimaryKey(PrimaryKey primaryKey) {
 
@@ -132,11 +162,21 @@ public class HsqldbSchema extends AbstractSchema {
 
     }
 
+    @Override
+    public void createImportedKey(ImportedKey importedKey, BuildOptions options) {
+        createImportedKey(importedKey);
+    }
+
     @Override
     public void createCheckConstraint(CheckConstraint checkConstraint) {
 
     }
 
+    @Override
+    public void createCheckConstraint(CheckConstraint checkConstraint, BuildOptions options) {
+        createCheckConstraint(checkConstraint);
+    }
+
     @Override
     public void dropConstraint(Constraint constraint) {
 
@@ -152,6 +192,11 @@ public class HsqldbSchema extends AbstractSchema {
 
     }
 
+    @Override
+    public void createIndex(Index index, BuildOptions options) {
+        createIndex(index);
+    }
+
     @Override
     public void dropIndex(Index index) {
 
@@ -199,21 +244,26 @@ public class HsqldbSchema extends AbstractSchema {
         return tableList;
     }
 
-    private Table findTable(String tableName) {
-        notify("Find table " + tableName);
-        return selectOne(schemaQueries.selectTable(tableName),
-                rs -> {
-                    Table table = new Table();
-                    table.setSchema(rs.getString("TABLE_SCHEM"));
-                    table.setName(rs.getString("TABLE_NAME"));
-                    table.setComment(rs.getString("REMARKS"));
-                    return table;
-                });
+    private Map<String, Table> findTables(Collection<String> tableNames) {
+        notify("Find tables " + tableNamesToString(tableNames));
+        Map<String, Table> tables = SchemaUtils.newTableMap();
+        select(schemaQueries.selectTable(tableNames), rs -> {
+            Table table = new Table();
+            table.setSchema(rs.getString("TABLE_SCHEM"));
+            table.setName(rs.getString("TABLE_NAME"));
+            table.setComment(rs.getString("REMARKS"));
+            tables.put(table.getName(), table);
+        });
+        return tables;
     }
 
-    private void findColumns(Table table) {
-        notify("Find columns for table " + table.getName());
-        select(schemaQueries.selectColumns(table), rs -> {
+    private void findColumns(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find columns for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectColumns(tableNames), rs -> {
+            Table table = tables.get(rs.getString("TABLE_NAME"));
+            if (table == null) {
+                return;
+            }
             final String typeName = rs.getString("TYPE_NAME");
             final int size = rs.getInt("COLUMN_SIZE");
             final int scale = rs.getInt("DECIMAL_DIGITS");
@@ -290,10 +340,15 @@ public class HsqldbSchema extends AbstractSchema {
         });
     }
 
-    private void findConstraints(Table table) {
-        notify("Find constraints for table " + table.getName());
-        select(schemaQueries.selectConstraints(table), rs -> {
+    private void findConstraints(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find constraints for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectConstraints(tableNames), rs -> {
             String constraintType = rs.getString("CONSTRAINT_TYPE").trim();
+            // экспортируемый ключ относится к таблице, на которую он ссылается
+            Table table = tables.get(rs.getString("EXPORTED KEY".equals(constraintType) ? "R_TABLE_NAME" : "TABLE_NAME"));
+            if (table == null) {
+                return;
+            }
             switch (constraintType) {
                 case "PRIMARY KEY":
                     PrimaryKey primaryKey = new PrimaryKey();
@@ -340,9 +395,13 @@ public class HsqldbSchema extends AbstractSchema {
         });
     }
 
-    private void findIndices(Table table) {
-        notify("Find indices for table " + table.getName());
-        select(schemaQueries.selectIndices(table), rs -> {
+    private void findIndices(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find indices for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectIndices(tableNames), rs -> {
+            Table table = tables.get(rs.getString("TABLE_NAME"));
+            if (table == null) {
+                return;
+            }
             Index index = new Index();
             index.setTable(table);
             index.setName(rs.getString("INDEX_NAME"));
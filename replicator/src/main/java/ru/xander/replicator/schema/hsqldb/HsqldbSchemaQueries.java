@@ -1,8 +1,11 @@
 package ru.xander.replicator.schema.hsqldb;
 
 import ru.xander.replicator.filter.Filter;
+import ru.xander.replicator.schema.Query;
 import ru.xander.replicator.schema.Table;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,44 +18,58 @@ class HsqldbSchemaQueries {
         this.workSchema = workSchema;
     }
 
-    String selectTables(List<Filter> filterList) {
+    Query selectTables(List<Filter> filterList) {
+        Query query = new Query();
         StringBuilder sql = new StringBuilder();
         sql
                 .append("SELECT\n")
                 .append("  T.TABLE_NAME\n")
                 .append("FROM INFORMATION_SCHEMA.SYSTEM_TABLES T\n")
-                .append("WHERE T.TABLE_SCHEM = UPPER('").append(workSchema).append("')\n");
+                .append("WHERE T.TABLE_SCHEM = UPPER(").append(query.bind(workSchema)).append(")\n");
         if (filterList != null) {
             for (Filter filter : filterList) {
                 switch (filter.getType()) {
                     case LIKE:
-                        sql.append("      AND T.TABLE_NAME LIKE '").append(filter.getValue()).append("'\n");
+                        sql.append("      AND T.TABLE_NAME LIKE ").append(query.bind(filter.getValue())).append("\n");
                         break;
                     case NOT_LIKE:
-                        sql.append("      AND T.TABLE_NAME NOT LIKE '").append(filter.getValue()).append("'\n");
+                        sql.append("      AND T.TABLE_NAME NOT LIKE ").append(query.bind(filter.getValue())).append("\n");
                         break;
                     case IN:
-                        String tableList = filter.getValue().replace(",", "', '");
-                        sql.append("      AND T.TABLE_NAME IN ('").append(tableList).append("')\n");
+                        List<String> tableList = Arrays.asList(filter.getValue().split("\\s*,\\s*"));
+                        sql.append("      AND ").append(query.tableCondition("T.TABLE_NAME", tableList)).append("\n");
                         break;
                 }
             }
         }
         sql.append("ORDER BY T.TABLE_NAME");
-        return sql.toString();
+        return query.sql(sql.toString());
     }
 
-    String selectTable(String tableName) {
-        return "SELECT T.TABLE_SCHEM,\n" +
+    /**
+     * Если список таблиц не задан (null), то выбираются все таблицы схемы.
+     */
+    Query selectTable(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT T.TABLE_SCHEM,\n" +
                 "       T.TABLE_NAME,\n" +
                 "       T.REMARKS\n" +
                 "FROM INFORMATION_SCHEMA.SYSTEM_TABLES T\n" +
-                "WHERE T.TABLE_SCHEM = UPPER('" + workSchema + "')\n" +
-                "  AND T.TABLE_NAME = UPPER('" + tableName + "')";
+                "WHERE T.TABLE_SCHEM = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND " + query.tableCondition("T.TABLE_NAME", tableNames));
     }
 
-    String selectColumns(Table table) {
-        return "SELECT\n" +
+    Query selectCardinality(Table table) {
+        Query query = new Query();
+        return query.sql("SELECT S.CARDINALITY\n" +
+                "FROM INFORMATION_SCHEMA.SYSTEM_TABLESTATS S\n" +
+                "WHERE S.TABLE_SCHEMA = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND S.TABLE_NAME = UPPER(" + query.bind(table.getName()) + ")");
+    }
+
+    Query selectColumns(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  C.TABLE_SCHEM,\n" +
                 "  C.TABLE_NAME,\n" +
                 "  C.ORDINAL_POSITION,\n" +
@@ -64,13 +81,14 @@ class HsqldbSchemaQueries {
                 "  C.COLUMN_DEF,\n" +
                 "  C.REMARKS\n" +
                 "FROM INFORMATION_SCHEMA.SYSTEM_COLUMNS C\n" +
-                "WHERE C.TABLE_SCHEM = UPPER('" + workSchema + "')\n" +
-                "      AND C.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
-                "ORDER BY C.ORDINAL_POSITION";
+                "WHERE C.TABLE_SCHEM = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("C.TABLE_NAME", tableNames) + "\n" +
+                "ORDER BY C.TABLE_NAME, C.ORDINAL_POSITION");
     }
 
-    String selectConstraints(Table table) {
-        return "SELECT\n" +
+    Query selectConstraints(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  'PRIMARY KEY'               AS CONSTRAINT_TYPE,\n" +
                 "  P.TABLE_SCHEM               AS TABLE_SCHEMA,\n" +
                 "  P.TABLE_NAME                AS TABLE_NAME,\n" +
@@ -82,8 +100,8 @@ class HsqldbSchemaQueries {
                 "  NULL                        AS R_COLUMN_NAME,\n" +
                 "  NULL                        AS CONDITION\n" +
                 "FROM INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS P\n" +
-                "WHERE P.TABLE_SCHEM = UPPER('" + workSchema + "')\n" +
-                "      AND P.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "WHERE P.TABLE_SCHEM = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("P.TABLE_NAME", tableNames) + "\n" +
                 "GROUP BY P.TABLE_SCHEM, P.TABLE_NAME, P.PK_NAME\n" +
                 "UNION ALL\n" +
                 "SELECT\n" +
@@ -98,8 +116,8 @@ class HsqldbSchemaQueries {
                 "  GROUP_CONCAT(F.PKCOLUMN_NAME) AS R_COLUMN_NAME,\n" +
                 "  NULL                          AS CONDITION\n" +
                 "FROM INFORMATION_SCHEMA.SYSTEM_CROSSREFERENCE F\n" +
-                "WHERE F.FKTABLE_SCHEM = UPPER('" + workSchema + "')\n" +
-                "      AND F.FKTABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "WHERE F.FKTABLE_SCHEM = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("F.FKTABLE_NAME", tableNames) + "\n" +
                 "GROUP BY F.FKTABLE_SCHEM, F.FKTABLE_NAME, F.FK_NAME, F.PKTABLE_SCHEM, F.PKTABLE_NAME, F.PK_NAME\n" +
                 "UNION ALL\n" +
                 "SELECT\n" +
@@ -114,8 +132,8 @@ class HsqldbSchemaQueries {
                 "  GROUP_CONCAT(E.PKCOLUMN_NAME) AS R_COLUMN_NAME,\n" +
                 "  NULL                          AS CONDITION\n" +
                 "FROM INFORMATION_SCHEMA.SYSTEM_CROSSREFERENCE E\n" +
-                "WHERE E.PKTABLE_SCHEM = UPPER('" + workSchema + "')\n" +
-                "      AND E.PKTABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "WHERE E.PKTABLE_SCHEM = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("E.PKTABLE_NAME", tableNames) + "\n" +
                 "GROUP BY E.FKTABLE_SCHEM, E.FKTABLE_NAME, E.FK_NAME, E.PKTABLE_SCHEM, E.PKTABLE_NAME, E.PK_NAME\n" +
                 "UNION ALL\n" +
                 "SELECT\n" +
@@ -131,26 +149,27 @@ class HsqldbSchemaQueries {
                 "  CC.CHECK_CLAUSE    AS CONDITION\n" +
                 "FROM INFORMATION_SCHEMA.CHECK_CONSTRAINTS CC,\n" +
                 "  INFORMATION_SCHEMA.CONSTRAINT_COLUMN_USAGE CCU\n" +
-                "WHERE CCU.TABLE_SCHEMA = UPPER('" + workSchema + "')\n" +
-                "      AND CCU.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "WHERE CCU.TABLE_SCHEMA = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("CCU.TABLE_NAME", tableNames) + "\n" +
                 "      AND CC.CONSTRAINT_SCHEMA = CCU.CONSTRAINT_SCHEMA\n" +
-                "      AND CC.CONSTRAINT_NAME = CCU.CONSTRAINT_NAME";
+                "      AND CC.CONSTRAINT_NAME = CCU.CONSTRAINT_NAME");
     }
 
-    String selectIndices(Table table) {
-        return "SELECT\n" +
+    Query selectIndices(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  TABLE_SCHEM,\n" +
                 "  TABLE_NAME,\n" +
                 "  INDEX_NAME,\n" +
                 "  NON_UNIQUE,\n" +
                 "  GROUP_CONCAT(COLUMN_NAME) AS COLUMNS\n" +
                 "FROM INFORMATION_SCHEMA.SYSTEM_INDEXINFO\n" +
-                "WHERE TABLE_SCHEM = UPPER('" + workSchema + "')\n" +
-                "  AND TABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "WHERE TABLE_SCHEM = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND " + query.tableCondition("TABLE_NAME", tableNames) + "\n" +
                 "GROUP BY\n" +
                 "  TABLE_SCHEM,\n" +
                 "  TABLE_NAME,\n" +
                 "  INDEX_NAME,\n" +
-                "  NON_UNIQUE";
+                "  NON_UNIQUE");
     }
 }
@@ -1,122 +1,100 @@
 package ru.xander.replicator.schema.oracle;
 
 import ru.xander.replicator.exception.SchemaException;
+import ru.xander.replicator.schema.AbstractDataFormatter;
 import ru.xander.replicator.schema.Column;
-import ru.xander.replicator.schema.DataFormatter;
-import ru.xander.replicator.util.StringUtils;
+import ru.xander.replicator.schema.ColumnFormatter;
+import ru.xander.replicator.schema.ColumnType;
 
-import java.io.IOException;
-import java.io.Reader;
-import java.sql.Clob;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 /**
  * @author Alexander Shakhov
  */
-class OracleDataFormatter implements DataFormatter {
+class OracleDataFormatter extends AbstractDataFormatter {
 
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    private static final SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM.dd HH:mm:ss.SSS");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
     @Override
-    public String formatBoolean(Object value, Column column) {
-        return (Boolean) value ? "1" : "0";
-    }
-
-    @Override
-    public String formatInteger(Object value, Column column) {
-        return String.valueOf(value);
-    }
-
-    @Override
-    public String formatFloat(Object value, Column column) {
-        DecimalFormatSymbols formatSymbols = DecimalFormatSymbols.getInstance();
-        formatSymbols.setDecimalSeparator('.');
-        DecimalFormat decimalFormat = new DecimalFormat("##0.0" + StringUtils.repeat('#', column.getScale() - 1));
-        decimalFormat.setDecimalFormatSymbols(formatSymbols);
-        return decimalFormat.format(value);
-    }
-
-    @Override
-    public String formatSerial(Object value, Column column) {
-        return String.valueOf(value);
-    }
-
-    @Override
-    public String formatChar(Object value, Column column) {
-        return formatClobValue(String.valueOf(value));
-    }
-
-    @Override
-    public String formatString(Object value, Column column) {
-        return formatClobValue(String.valueOf(value));
-    }
-
-    @Override
-    public String formatDate(Object value, Column column) {
-        return "TO_DATE('" + dateFormat.format(value) + "', 'YYYY-MM-DD HH24:MI:SS')";
-    }
-
-    @Override
-    public String formatTime(Object value, Column column) {
-        return "TO_DATE('" + dateFormat.format(value) + "', 'YYYY-MM-DD HH24:MI:SS')";
-    }
-
-    @Override
-    public String formatTimestamp(Object value, Column column) {
-        return "TO_TIMESTAMP('" + timestampFormat.format(value) + "', 'YYYY-MM-DD HH24:MI:SS.FF3')";
-    }
-
-    @Override
-    public String formatClob(Object value, Column column) {
-        String clob = readClob((Clob) value);
-        return formatClobValue(clob);
-    }
-
-    @Override
-    public String formatBlob(Object value, Column column) {
-        //TODO: blob не поддерживается
-        return "NULL";
+    protected ColumnFormatter compileValue(ColumnType columnType, Column column) {
+        switch (columnType) {
+            case BOOLEAN:
+                return (value, sb) -> sb.append(toBoolean(value) ? '1' : '0');
+            case INTEGER:
+            case SERIAL:
+                return AbstractDataFormatter::appendNumber;
+            case FLOAT:
+                int maxFractionDigits = Math.max(1, column.getScale());
+                return (value, sb) -> appendDecimal(value, maxFractionDigits, sb);
+            case CHAR:
+            case STRING:
+                return (value, sb) -> appendString(value.toString(), sb);
+            case DATE:
+            case TIME: {
+                ZoneId zone = ZoneId.systemDefault();
+                return (value, sb) -> {
+                    sb.append("TO_DATE('");
+                    DATE_FORMAT.formatTo(toLocalDateTime(value, zone), sb);
+                    sb.append("', 'YYYY-MM-DD HH24:MI:SS')");
+                };
+            }
+            case TIMESTAMP: {
+                ZoneId zone = ZoneId.systemDefault();
+                return (value, sb) -> {
+                    sb.append("TO_TIMESTAMP('");
+                    TIMESTAMP_FORMAT.formatTo(toLocalDateTime(value, zone), sb);
+                    sb.append("', 'YYYY-MM-DD HH24:MI:SS.FF3')");
+                };
+            }
+            case CLOB:
+                return (value, sb) -> appendString(readClob(value), sb);
+            case BLOB:
+                //TODO: blob не поддерживается
+                return (value, sb) -> sb.append(formatNull(column));
+        }
+        throw new SchemaException("Unsupported datatype <" + columnType + ">");
     }
 
-    private String formatClobValue(String clob) {
-        if (clob.length() <= OracleDialect.MAX_VARCHAR_SIZE) {
-            return quoteString(clob);
+    /**
+     * Строки длиннее {@link OracleDialect#MAX_VARCHAR_SIZE} собираются из частей через TO_CLOB.
+     */
+    private static void appendString(String string, StringBuilder sb) {
+        int length = string.length();
+        if (length <= OracleDialect.MAX_VARCHAR_SIZE) {
+            appendQuoted(string, 0, length, sb);
+            return;
         }
-        String[] parts = StringUtils.cutString(clob, OracleDialect.MAX_VARCHAR_SIZE);
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < parts.length; i++) {
-            sb.append("TO_CLOB(").append(quoteString(parts[i])).append(")");
-            if (i < (parts.length - 1)) {
+        for (int from = 0; from < length; from += OracleDialect.MAX_VARCHAR_SIZE) {
+            if (from > 0) {
                 sb.append(" || ");
             }
+            sb.append("TO_CLOB(");
+            appendQuoted(string, from, Math.min(length, from + OracleDialect.MAX_VARCHAR_SIZE), sb);
+            sb.append(')');
         }
-        return sb.toString();
-    }
-
-    private static String quoteString(String string) {
-        return '\'' + string
-                .replace("'", "''")
-                .replace("\n", "'||CHR(10)||'")
-                .replace("\r", "'||CHR(13)||'")
-                + '\'';
     }
 
-    private static String readClob(Clob clob) {
-        StringBuilder value = new StringBuilder();
-        try (Reader reader = clob.getCharacterStream()) {
-            char[] buffer = new char[4096];
-            int len;
-            while ((len = reader.read(buffer)) != -1) {
-                value.append(buffer, 0, len);
+    private static void appendQuoted(String string, int from, int to, StringBuilder sb) {
+        sb.append('\'');
+        for (int i = from; i < to; i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '\'':
+                    sb.append("''");
+                    break;
+                case '\n':
+                    sb.append("'||CHR(10)||'");
+                    break;
+                case '\r':
+                    sb.append("'||CHR(13)||'");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
             }
-        } catch (SQLException | IOException e) {
-            String errorMessage = "Cannot read CLOB value: " + e.getMessage();
-            throw new SchemaException(errorMessage, e);
         }
-        return value.toString();
+        sb.append('\'');
     }
 }
@@ -4,6 +4,7 @@ import ru.xander.replicator.schema.AbstractDialect;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
 import ru.xander.replicator.schema.ColumnDiff;
+import ru.xander.replicator.schema.ColumnType;
 import ru.xander.replicator.schema.Constraint;
 import ru.xander.replicator.schema.ImportedKey;
 import ru.xander.replicator.schema.Index;
@@ -25,6 +26,7 @@ class OracleDialect extends AbstractDialect {
     private static final int MAX_NUMBER_SIZE = 38;
     private static final int MAX_NUMBER_SCALE = 127;
     static final int MAX_VARCHAR_SIZE = 2000;
+    private static final int MAX_INSERT_ALL_COLUMNS = 999;
 
     OracleDialect(String workSchema) {
         super(workSchema);
@@ -123,6 +125,11 @@ class OracleDialect extends AbstractDialect {
                 + " ADD CONSTRAINT " + primaryKey.getName() + " PRIMARY KEY (" + StringUtils.joinColumns(primaryKey.getColumns()) + ')';
     }
 
+    @Override
+    public String createPrimaryKeyQuery(PrimaryKey primaryKey, Index index) {
+        return createPrimaryKeyQuery(primaryKey) + " USING INDEX " + getQualifiedName(index);
+    }
+
     @Override
     public String dropPrimaryKeyQuery(PrimaryKey primaryKey) {
         return "ALTER TABLE " + getQualifiedName(primaryKey.getTable()) + " DROP PRIMARY KEY";
@@ -137,6 +144,11 @@ class OracleDialect extends AbstractDialect {
                 + " (" + StringUtils.joinColumns(importedKey.getPkColumns()) + ')';
     }
 
+    @Override
+    public String createImportedKeyQuery(ImportedKey importedKey, boolean validate) {
+        return validate ? createImportedKeyQuery(importedKey) : createImportedKeyQuery(importedKey) + " ENABLE NOVALIDATE";
+    }
+
     @Override
     public String createCheckConstraintQuery(CheckConstraint checkConstraint) {
         return "ALTER TABLE " + getQualifiedName(checkConstraint.getTable())
@@ -144,6 +156,11 @@ class OracleDialect extends AbstractDialect {
                 + " CHECK (" + checkConstraint.getCondition() + ')';
     }
 
+    @Override
+    public String createCheckConstraintQuery(CheckConstraint checkConstraint, boolean validate) {
+        return validate ? createCheckConstraintQuery(checkConstraint) : createCheckConstraintQuery(checkConstraint) + " ENABLE NOVALIDATE";
+    }
+
     @Override
     public String dropConstraintQuery(Constraint constraint) {
         return "ALTER TABLE " + getQualifiedName(constraint.getTable()) + " DROP CONSTRAINT " + constraint.getName();
@@ -177,6 +194,20 @@ class OracleDialect extends AbstractDialect {
         return ddl.toString();
     }
 
+    /**
+     * Индекс строится без записи в redo-лог и параллельно, после построения атрибуты возвращаются
+     * {@link #finishIndexQuery(Index)}, чтобы степень параллелизма не влияла на планы запросов.
+     */
+    @Override
+    public String createIndexQuery(Index index, int parallelism) {
+        return createIndexQuery(index) + " NOLOGGING" + (parallelism > 1 ? " PARALLEL " + parallelism : "");
+    }
+
+    @Override
+    public String finishIndexQuery(Index index) {
+        return "ALTER INDEX " + getQualifiedName(index) + " LOGGING NOPARALLEL";
+    }
+
     @Override
     public String dropIndexQuery(Index index) {
         return "DROP INDEX " + getQualifiedName(index);
@@ -257,6 +288,56 @@ class OracleDialect extends AbstractDialect {
                 "END;";
     }
 
+    /**
+     * Вставка массивом параметров с подсказкой APPEND_VALUES: строки пишутся в новые блоки выше HWM,
+     * минуя буферный кэш и undo. До коммита сессия не может читать и изменять таблицу.
+     */
+    @Override
+    public String directPathInsertQuery(Table table) {
+        return insertQuery(table).replaceFirst("^INSERT ", "INSERT /*+ APPEND_VALUES */ ");
+    }
+
+    /**
+     * Вставка нескольких строк через INSERT ALL ... SELECT * FROM DUAL: у каждой строки своя секция INTO.
+     */
+    @Override
+    public String multiRowInsertHead(Table table) {
+        return "INSERT ALL";
+    }
+
+    @Override
+    public String multiRowInsertRow(Table table, boolean first) {
+        return "\n  INTO " + getQualifiedName(table) +
+                " (" + table.getColumns().stream().map(Column::getName).collect(Collectors.joining(", ")) + ")" +
+                " VALUES (";
+    }
+
+    @Override
+    public String multiRowInsertTail(Table table) {
+        return "\nSELECT * FROM DUAL";
+    }
+
+    /**
+     * В INSERT ALL суммарное количество столбцов во всех секциях INTO не может превышать 1000 (ORA-24335).
+     */
+    @Override
+    public int maxMultiRowInsertRows(Table table) {
+        return Math.max(1, MAX_INSERT_ALL_COLUMNS / Math.max(1, table.getColumns().size()));
+    }
+
+    /**
+     * Лимит длины запроса 64K байт, в символах берется половина с запасом на многобайтные символы.
+     */
+    @Override
+    public int maxQueryLength() {
+        return 32 * 1024;
+    }
+
+    @Override
+    public String toggleLoggingQuery(Table table, boolean logging) {
+        return "ALTER TABLE " + getQualifiedName(table) + (logging ? " LOGGING" : " NOLOGGING");
+    }
+
     @Override
     public String selectQuery(Table table) {
         return "SELECT " +
@@ -268,11 +349,63 @@ class OracleDialect extends AbstractDialect {
                 "FROM " + getQualifiedName(table);
     }
 
+    @Override
+    public String selectBucketQuery(Table table, int bucketCount) {
+        return selectQuery(table) + '\n' +
+                "WHERE ORA_HASH(ROWID, " + (bucketCount - 1) + ") = ?";
+    }
+
+    /**
+     * ORA_HASH не принимает LOB, а хэш только части значения не замечает изменений за ее пределами,
+     * поэтому таблицы со столбцами CLOB и BLOB хэшируются на клиенте.
+     */
+    @Override
+    public String selectChecksumQuery(Table table, String keyColumn) {
+        boolean hasLob = table.getColumns()
+                .stream()
+                .anyMatch(column -> (column.getColumnType() == ColumnType.CLOB) || (column.getColumnType() == ColumnType.BLOB));
+        if (hasLob) {
+            return null;
+        }
+        String rowHash = table.getColumns()
+                .stream()
+                .map(column -> "ORA_HASH(" + getHashExpression(column) + ")")
+                .collect(Collectors.joining(" || ',' || "));
+        return "SELECT CHUNK, COUNT(*) AS ROW_COUNT, SUM(ROW_HASH) AS CHECKSUM\n" +
+                "FROM (\n" +
+                "    SELECT FLOOR((" + keyColumn + " - ?) / ?) AS CHUNK, ORA_HASH(" + rowHash + ") AS ROW_HASH\n" +
+                "    FROM " + getQualifiedName(table) + '\n' +
+                "    WHERE " + keyColumn + " BETWEEN ? AND ?\n" +
+                ")\n" +
+                "GROUP BY CHUNK";
+    }
+
     String updateColumnQuery(Column column, String value) {
         return "UPDATE " + getQualifiedName(column.getTable()) + "\n" +
                 "SET " + column.getName() + " = " + value;
     }
 
+    /**
+     * Строковое представление значения столбца для хэширования, не зависящее от настроек NLS сессии.
+     */
+    private static String getHashExpression(Column column) {
+        String name = column.getName();
+        switch (column.getColumnType()) {
+            case BOOLEAN:
+            case INTEGER:
+            case FLOAT:
+            case SERIAL:
+                return "TO_CHAR(" + name + ", 'TM9')";
+            case DATE:
+            case TIME:
+                return "TO_CHAR(" + name + ", 'YYYYMMDDHH24MISS')";
+            case TIMESTAMP:
+                return "TO_CHAR(" + name + ", 'YYYYMMDDHH24MISSFF9')";
+            default:
+                return name;
+        }
+    }
+
     private static String getColumnDefinition(Column column) {
         StringBuilder definition = new StringBuilder();
         definition.append(column.getName()).append(' ').append(getDataType(column));
@@ -4,6 +4,7 @@ import ru.xander.replicator.filter.Filter;
 import ru.xander.replicator.listener.AlterType;
 import ru.xander.replicator.listener.ModifyType;
 import ru.xander.replicator.schema.AbstractSchema;
+import ru.xander.replicator.schema.BuildOptions;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
 import ru.xander.replicator.schema.ColumnDiff;
@@ -14,6 +15,7 @@ import ru.xander.replicator.schema.Dialect;
 import ru.xander.replicator.schema.ExportedKey;
 import ru.xander.replicator.schema.ImportedKey;
 import ru.xander.replicator.schema.Index;
+import ru.xander.replicator.schema.IndexType;
 import ru.xander.replicator.schema.PrimaryKey;
 import ru.xander.replicator.schema.SchemaConfig;
 import ru.xander.replicator.schema.SchemaUtils;
@@ -23,11 +25,20 @@ import ru.xander.replicator.schema.Trigger;
 import ru.xander.replicator.schema.VendorType;
 import ru.xander.replicator.util.StringUtils;
 
+import java.lang.reflect.Method;
 import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static ru.xander.replicator.listener.AlterType.*;
 
@@ -36,13 +47,24 @@ import static ru.xander.replicator.listener.AlterType.*;
  */
 public class OracleSchema extends AbstractSchema {
 
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_LOB_PREFETCH_SIZE = 32768;
+    private static final boolean DEFAULT_DEFINE_COLUMN_TYPES = false;
+
     private final OracleDialect dialect;
     private final OracleSchemaQueries schemaQueries;
 
     public OracleSchema(SchemaConfig config) {
-        super(config);
+        super(config, DEFAULT_FETCH_SIZE, DEFAULT_LOB_PREFETCH_SIZE, DEFAULT_DEFINE_COLUMN_TYPES);
         this.dialect = new OracleDialect(workSchema);
         this.schemaQueries = new OracleSchemaQueries(workSchema);
+        // драйвер Oracle по умолчанию получает 10 строк за обращение, в том числе для запросов метаданных
+        if (fetchSize > 0) {
+            defaultConnectionProperty("defaultRowPrefetch", String.valueOf(fetchSize));
+        }
+        if (lobPrefetchSize > 0) {
+            defaultConnectionProperty("oracle.jdbc.defaultLobPrefetchSize", String.valueOf(lobPrefetchSize));
+        }
     }
 
     @Override
@@ -65,18 +87,85 @@ public class OracleSchema extends AbstractSchema {
         return findTables(filterList);
     }
 
+    /**
+     * Описания таблиц загружаются фиксированным числом запросов к словарю данных,
+     * независимо от количества таблиц, триггеров и их зависимостей.
+     */
     @Override
-    public Table getTable(String tableName) {
-        Table table = findTable(tableName);
-        if (table == null) {
-            return null;
+    protected Map<String, Table> readTables(Collection<String> tableNames) {
+        Map<String, Table> tables = findTables(tableNames);
+        if (tables.isEmpty()) {
+            return tables;
+        }
+        findColumns(tables, tableNames);
+        findConstraints(tables, tableNames);
+        findIndices(tables, tableNames);
+        findTriggers(tables, tableNames);
+        findSequences(tables, tableNames);
+        return tables;
+    }
+
+    /**
+     * Кроме размера выборки, при необходимости передает драйверу типы столбцов (OracleStatement.defineColumnType),
+     * чтобы драйвер не запрашивал описание результата у сервера.
+     * Драйвер Oracle подключен только во время выполнения, поэтому метод вызывается через рефлексию.
+     */
+    @Override
+    protected void prepareSelect(PreparedStatement statement, Table table) throws SQLException {
+        super.prepareSelect(statement, table);
+        if (!defineColumnTypes) {
+            return;
+        }
+        try {
+            Class<?> oracleStatementClass = Class.forName("oracle.jdbc.OracleStatement");
+            Object oracleStatement = statement.unwrap(oracleStatementClass);
+            Method defineType = oracleStatementClass.getMethod("defineColumnType", int.class, int.class);
+            Method defineTypeWithSize = oracleStatementClass.getMethod("defineColumnType", int.class, int.class, int.class);
+            Column[] columns = table.getColumns().stream().sorted().toArray(Column[]::new);
+            for (int i = 0; i < columns.length; i++) {
+                Column column = columns[i];
+                switch (column.getColumnType()) {
+                    case CHAR:
+                    case STRING:
+                        defineTypeWithSize.invoke(oracleStatement, i + 1, Types.VARCHAR, column.getSize());
+                        break;
+                    case BOOLEAN:
+                    case INTEGER:
+                    case FLOAT:
+                    case SERIAL:
+                        defineType.invoke(oracleStatement, i + 1, Types.NUMERIC);
+                        break;
+                    case DATE:
+                    case TIME:
+                    case TIMESTAMP:
+                        defineType.invoke(oracleStatement, i + 1, Types.TIMESTAMP);
+                        break;
+                    case CLOB:
+                        defineType.invoke(oracleStatement, i + 1, Types.CLOB);
+                        break;
+                    case BLOB:
+                        defineType.invoke(oracleStatement, i + 1, Types.BLOB);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            warning("Failed to define column types for table " + table.getName() + ": " + e.getMessage());
         }
-        findColumns(table);
-        findConstraints(table);
-        findIndices(table);
-        findTriggers(table);
-        findSequence(table);
-        return table;
+    }
+
+    /**
+     * Оценка количества строк по статистике оптимизатора (ALL_TABLES.NUM_ROWS).
+     * Если статистика не собрана, то возвращает -1.
+     */
+    @Override
+    public long estimateRowCount(Table table) {
+        Long rowCount = selectOne(schemaQueries.selectNumRows(table), rs -> {
+            long value = rs.getLong("NUM_ROWS");
+            return rs.wasNull() ? null : value;
+        });
+        return rowCount == null ? -1L : rowCount;
     }
 
     @Override
@@ -180,6 +269,24 @@ public class OracleSchema extends AbstractSchema {
         execute(sql);
     }
 
+    /**
+     * Уникальный индекс первичного ключа строится так же, как остальные индексы ({@link #createIndex(Index, BuildOptions)}),
+     * после чего ограничение создается по готовому индексу.
+     */
+    @Override
+    public void createPrimaryKey(PrimaryKey primaryKey, BuildOptions options) {
+        Index index = new Index();
+        index.setTable(primaryKey.getTable());
+        index.setName(primaryKey.getName());
+        index.setType(IndexType.UNIQUE);
+        index.setColumns(primaryKey.getColumns());
+        index.setEnabled(true);
+        createIndex(index, options);
+        String sql = dialect.createPrimaryKeyQuery(primaryKey, index);
+        alter(CREATE_PRIMARY_KEY, primaryKey.getTable().getName(), primaryKey.getName(), sql);
+        execute(sql);
+    }
+
     @Override
     public void dropPrimaryKey(PrimaryKey primaryKey) {
         String sql = dialect.dropPrimaryKeyQuery(primaryKey);
@@ -194,6 +301,13 @@ public class OracleSchema extends AbstractSchema {
         execute(sql);
     }
 
+    @Override
+    public void createImportedKey(ImportedKey importedKey, BuildOptions options) {
+        String sql = dialect.createImportedKeyQuery(importedKey, options.isValidate());
+        alter(CREATE_IMPORTED_KEY, importedKey.getTable().getName(), importedKey.getName(), sql);
+        execute(sql);
+    }
+
     @Override
     public void createCheckConstraint(CheckConstraint checkConstraint) {
         if (!isObjectExists(checkConstraint.getName(), "CONSTRAINT")) {
@@ -203,6 +317,15 @@ public class OracleSchema extends AbstractSchema {
         }
     }
 
+    @Override
+    public void createCheckConstraint(CheckConstraint checkConstraint, BuildOptions options) {
+        if (!isObjectExists(checkConstraint.getName(), "CONSTRAINT")) {
+            String sql = dialect.createCheckConstraintQuery(checkConstraint, options.isValidate());
+            alter(CREATE_CHECK_CONSTRAINT, checkConstraint.getTable().getName(), checkConstraint.getName(), sql);
+            execute(sql, true);
+        }
+    }
+
     @Override
     public void dropConstraint(Constraint constraint) {
         String sql = dialect.dropConstraintQuery(constraint);
@@ -225,6 +348,18 @@ public class OracleSchema extends AbstractSchema {
         execute(sql);
     }
 
+    @Override
+    public void createIndex(Index index, BuildOptions options) {
+        String sql = dialect.createIndexQuery(index, options.getParallelism());
+        alter(CREATE_INDEX, index.getTable().getName(), index.getName(), sql);
+        execute(sql);
+        String finishSql = dialect.finishIndexQuery(index);
+        if (finishSql != null) {
+            alter(CREATE_INDEX, index.getTable().getName(), index.getName(), finishSql);
+            execute(finishSql);
+        }
+    }
+
     @Override
     public void dropIndex(Index index) {
         String sql = dialect.dropIndexQuery(index);
@@ -302,21 +437,36 @@ public class OracleSchema extends AbstractSchema {
         return tableList;
     }
 
-    private Table findTable(String tableName) {
-        notify("Find table " + tableName);
-        return selectOne(schemaQueries.selectTable(tableName),
-                rs -> {
-                    Table table = new Table();
-                    table.setSchema(rs.getString("owner"));
-                    table.setName(rs.getString("table_name"));
-                    table.setComment(rs.getString("comments"));
-                    return table;
-                });
+    /**
+     * Версии DDL по ALL_OBJECTS.LAST_DDL_TIME (с точностью до секунды).
+     */
+    @Override
+    protected Map<String, String> readDdlTimes(Collection<String> tableNames) {
+        Map<String, String> ddlTimes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        select(schemaQueries.selectDdlTimes(tableNames), rs -> ddlTimes.put(rs.getString("TABLE_NAME"), rs.getString("DDL_TIME")));
+        return ddlTimes;
+    }
+
+    private Map<String, Table> findTables(Collection<String> tableNames) {
+        notify("Find tables " + tableNamesToString(tableNames));
+        Map<String, Table> tables = SchemaUtils.newTableMap();
+        select(schemaQueries.selectTable(tableNames), rs -> {
+            Table table = new Table();
+            table.setSchema(rs.getString("owner"));
+            table.setName(rs.getString("table_name"));
+            table.setComment(rs.getString("comments"));
+            tables.put(table.getName(), table);
+        });
+        return tables;
     }
 
-    private void findColumns(Table table) {
-        notify("Find columns for table " + table.getName());
-        select(schemaQueries.selectColumns(table), rs -> {
+    private void findColumns(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find columns for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectColumns(tableNames), rs -> {
+            Table table = tables.get(rs.getString("table_name"));
+            if (table == null) {
+                return;
+            }
 //            int dataLength = rs.getInt("data_length");
             int dataPrecision = rs.getInt("data_precision");
             int dataScale = rs.getInt("data_scale");
@@ -353,10 +503,15 @@ public class OracleSchema extends AbstractSchema {
         });
     }
 
-    private void findConstraints(Table table) {
-        notify("Find constraints for table " + table.getName());
-        select(schemaQueries.selectConstraints(table), rs -> {
+    private void findConstraints(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find constraints for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectConstraints(tableNames), rs -> {
             String constraintType = rs.getString("constraint_type");
+            // внешний ключ другой таблицы (D) относится к таблице, на которую он ссылается
+            Table table = tables.get(rs.getString("D".equals(constraintType) ? "r_table_name" : "table_name"));
+            if (table == null) {
+                return;
+            }
             switch (constraintType) {
                 case "P":
                     PrimaryKey primaryKey = new PrimaryKey();
@@ -403,9 +558,13 @@ public class OracleSchema extends AbstractSchema {
         });
     }
 
-    private void findIndices(Table table) {
-        notify("Find indices for table " + table.getName());
-        select(schemaQueries.selectIndices(table), rs -> {
+    private void findIndices(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find indices for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectIndices(tableNames), rs -> {
+            Table table = tables.get(rs.getString("table_name"));
+            if (table == null) {
+                return;
+            }
             Index index = new Index();
             index.setTable(table);
             index.setName(rs.getString("index_name"));
@@ -416,9 +575,23 @@ public class OracleSchema extends AbstractSchema {
         });
     }
 
-    private void findTriggers(Table table) {
-        notify("Find trigger for table " + table.getName());
-        select(schemaQueries.selectTriggers(table), rs -> {
+    private void findTriggers(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find triggers for tables " + tableNamesToString(tableNames));
+        // зависимости всех триггеров выбираются одним запросом, а не отдельным запросом на каждый триггер
+        Map<String, List<OracleTriggerDependency>> dependencyMap = new HashMap<>();
+        select(schemaQueries.selectTriggerDependencies(tableNames), rs -> {
+            OracleTriggerDependency dependency = new OracleTriggerDependency();
+            dependency.setSchema(rs.getString("REFERENCED_OWNER"));
+            dependency.setName(rs.getString("REFERENCED_NAME"));
+            dependency.setType(rs.getString("REFERENCED_TYPE"));
+            String triggerKey = rs.getString("TABLE_NAME") + '.' + rs.getString("TRIGGER_NAME");
+            dependencyMap.computeIfAbsent(triggerKey, k -> new ArrayList<>()).add(dependency);
+        });
+        select(schemaQueries.selectTriggers(tableNames), rs -> {
+            Table table = tables.get(rs.getString("table_name"));
+            if (table == null) {
+                return;
+            }
             String description = rs.getString("description").trim();
             String whenClause = rs.getString("when_clause");
             String triggerBody = rs.getString("trigger_body").trim();
@@ -428,14 +601,8 @@ public class OracleSchema extends AbstractSchema {
             trigger.setTable(table);
             trigger.setName(rs.getString("trigger_name"));
 
-            List<OracleTriggerDependency> dependencies = new ArrayList<>();
-            select(schemaQueries.selectTriggerDependencies(trigger), rsDeps -> {
-                OracleTriggerDependency dependency = new OracleTriggerDependency();
-                dependency.setSchema(rsDeps.getString("REFERENCED_OWNER"));
-                dependency.setName(rsDeps.getString("REFERENCED_NAME"));
-                dependency.setType(rsDeps.getString("REFERENCED_TYPE"));
-                dependencies.add(dependency);
-            });
+            List<OracleTriggerDependency> dependencies = dependencyMap.getOrDefault(
+                    rs.getString("table_name") + '.' + trigger.getName(), Collections.emptyList());
 
             String body = prepareTriggerBody(dependencies, description, whenClause, triggerBody);
             trigger.setBody("CREATE OR REPLACE TRIGGER " + body);
@@ -445,9 +612,13 @@ public class OracleSchema extends AbstractSchema {
         });
     }
 
-    private void findSequence(Table table) {
-        notify("Find sequence for table " + table.getName());
-        table.setSequence(selectOne(schemaQueries.selectSequence(table), rs -> {
+    private void findSequences(Map<String, Table> tables, Collection<String> tableNames) {
+        notify("Find sequences for tables " + tableNamesToString(tableNames));
+        select(schemaQueries.selectSequences(tableNames), rs -> {
+            Table table = tables.get(rs.getString("TABLE_NAME"));
+            if ((table == null) || (table.getSequence() != null)) {
+                return;
+            }
             Sequence sequence = new Sequence();
             sequence.setTable(table);
             sequence.setSchema(rs.getString("SEQUENCE_OWNER"));
@@ -458,8 +629,8 @@ public class OracleSchema extends AbstractSchema {
             sequence.setMaxValue(new BigInteger(rs.getString("MAX_VALUE")));
             sequence.setCacheSize(new BigInteger(rs.getString("CACHE_SIZE")));
             sequence.setCycle("Y".equals(rs.getString("CYCLE_FLAG")));
-            return sequence;
-        }));
+            table.setSequence(sequence);
+        });
     }
 
     private boolean isObjectExists(String objectName, String objectType) {
@@ -1,9 +1,11 @@
 package ru.xander.replicator.schema.oracle;
 
 import ru.xander.replicator.filter.Filter;
+import ru.xander.replicator.schema.Query;
 import ru.xander.replicator.schema.Table;
-import ru.xander.replicator.schema.Trigger;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,35 +19,41 @@ final class OracleSchemaQueries {
         this.workSchema = workSchema;
     }
 
-    String selectTables(List<Filter> filterList) {
+    Query selectTables(List<Filter> filterList) {
+        Query query = new Query();
         StringBuilder sql = new StringBuilder();
         sql
                 .append("SELECT\n")
                 .append("  T.TABLE_NAME\n")
                 .append("FROM SYS.ALL_TABLES T\n")
-                .append("WHERE T.OWNER = UPPER('").append(workSchema).append("')\n");
+                .append("WHERE T.OWNER = UPPER(").append(query.bind(workSchema)).append(")\n");
         if (filterList != null) {
             for (Filter filter : filterList) {
                 switch (filter.getType()) {
                     case LIKE:
-                        sql.append("      AND T.TABLE_NAME LIKE '").append(filter.getValue()).append("'\n");
+                        sql.append("      AND T.TABLE_NAME LIKE ").append(query.bind(filter.getValue())).append("\n");
                         break;
                     case NOT_LIKE:
-                        sql.append("      AND T.TABLE_NAME NOT LIKE '").append(filter.getValue()).append("'\n");
+                        sql.append("      AND T.TABLE_NAME NOT LIKE ").append(query.bind(filter.getValue())).append("\n");
                         break;
                     case IN:
-                        String tableList = filter.getValue().replace(",", "', '");
-                        sql.append("      AND T.TABLE_NAME IN ('").append(tableList).append("')\n");
+                        List<String> tableList = Arrays.asList(filter.getValue().split("\\s*,\\s*"));
+                        sql.append("      AND ").append(query.tableCondition("T.TABLE_NAME", tableList)).append("\n");
                         break;
                 }
             }
         }
         sql.append("ORDER BY T.TABLE_NAME");
-        return sql.toString();
+        return query.sql(sql.toString());
     }
 
-    String selectTable(String tableName) {
-        return "SELECT\n" +
+    /**
+     * Запросы описания таблиц принимают список имен таблиц.
+     * Если список null, то выбираются данные по всем таблицам схемы.
+     */
+    Query selectTable(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  T.OWNER,\n" +
                 "  T.TABLE_NAME,\n" +
                 "  TC.COMMENTS\n" +
@@ -54,12 +62,23 @@ final class OracleSchemaQueries {
                 "    T.OWNER = TC.OWNER\n" +
                 "    AND T.TABLE_NAME = TC.TABLE_NAME\n" +
                 "WHERE\n" +
-                "  T.OWNER = UPPER('" + workSchema + "')\n" +
-                "  AND T.TABLE_NAME = UPPER('" + tableName + "')";
+                "  T.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND " + query.tableCondition("T.TABLE_NAME", tableNames));
     }
 
-    String selectColumns(Table table) {
-        return "SELECT\n" +
+    Query selectNumRows(Table table) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
+                "  T.NUM_ROWS\n" +
+                "FROM SYS.ALL_TABLES T\n" +
+                "WHERE\n" +
+                "  T.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND T.TABLE_NAME = UPPER(" + query.bind(table.getName()) + ")");
+    }
+
+    Query selectColumns(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  C.OWNER,\n" +
                 "  C.TABLE_NAME,\n" +
                 "  C.COLUMN_ID,\n" +
@@ -78,14 +97,15 @@ final class OracleSchemaQueries {
                 "    AND C.TABLE_NAME = CC.TABLE_NAME\n" +
                 "    AND C.COLUMN_NAME = CC.COLUMN_NAME\n" +
                 "WHERE\n" +
-                "  C.OWNER = UPPER('" + workSchema + "')\n" +
-                "  AND C.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
-                "ORDER BY C.COLUMN_ID";
+                "  C.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND " + query.tableCondition("C.TABLE_NAME", tableNames) + "\n" +
+                "ORDER BY C.TABLE_NAME, C.COLUMN_ID");
     }
 
-    String selectConstraints(Table table) {
+    Query selectConstraints(Collection<String> tableNames) {
         //TODO: предусмотреть выборку нескольких столбцов на констрейнт
-        return "SELECT\n" +
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  C.OWNER,\n" +
                 "  C.TABLE_NAME,\n" +
                 "  C.CONSTRAINT_NAME,\n" +
@@ -110,8 +130,8 @@ final class OracleSchemaQueries {
                 "    AND CR.TABLE_NAME = CCR.TABLE_NAME\n" +
                 "    AND CR.CONSTRAINT_NAME = CCR.CONSTRAINT_NAME\n" +
                 "WHERE C.CONSTRAINT_TYPE IN ('P', 'R', 'C')\n" +
-                "      AND C.OWNER = UPPER('" + workSchema + "')\n" +
-                "      AND C.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "      AND C.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("C.TABLE_NAME", tableNames) + "\n" +
                 "UNION ALL\n" +
                 "SELECT\n" +
                 "  C.OWNER,\n" +
@@ -137,12 +157,13 @@ final class OracleSchemaQueries {
                 "    CR.OWNER = CCR.OWNER\n" +
                 "    AND CR.TABLE_NAME = CCR.TABLE_NAME\n" +
                 "    AND CR.CONSTRAINT_NAME = CCR.CONSTRAINT_NAME\n" +
-                "WHERE CR.OWNER = UPPER('" + workSchema + "')\n" +
-                "      AND CR.TABLE_NAME = UPPER('" + table.getName() + "')";
+                "WHERE CR.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("CR.TABLE_NAME", tableNames));
     }
 
-    String selectIndices(Table table) {
-        return "SELECT\n" +
+    Query selectIndices(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
                 "  I.OWNER,\n" +
                 "  I.INDEX_NAME,\n" +
                 "  I.INDEX_TYPE,\n" +
@@ -156,16 +177,17 @@ final class OracleSchemaQueries {
                 "    I.OWNER = IC.INDEX_OWNER\n" +
                 "    AND I.INDEX_NAME = IC.INDEX_NAME\n" +
                 "WHERE\n" +
-                "  I.TABLE_OWNER = UPPER('" + workSchema + "')\n" +
-                "  AND I.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
-                "  AND (/*I.OWNER, */I.INDEX_NAME) NOT IN\n" +
+                "  I.TABLE_OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "  AND " + query.tableCondition("I.TABLE_NAME", tableNames) + "\n" +
+                "  AND (/*I.OWNER, */I.TABLE_NAME, I.INDEX_NAME) NOT IN\n" +
                 "      (\n" +
                 "        SELECT DISTINCT\n" +
                 "          /*C.INDEX_OWNER,*/\n" +
+                "          C.TABLE_NAME,\n" +
                 "          C.INDEX_NAME\n" +
                 "        FROM SYS.ALL_CONSTRAINTS C\n" +
-                "        WHERE C.OWNER = UPPER('" + workSchema + "')\n" +
-                "              AND C.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "        WHERE C.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "              AND " + query.tableCondition("C.TABLE_NAME", tableNames) + "\n" +
                 "              /*AND C.INDEX_OWNER IS NOT NULL\n*/" +
                 "              AND C.INDEX_NAME IS NOT NULL\n" +
                 "      )\n" +
@@ -176,11 +198,13 @@ final class OracleSchemaQueries {
                 "  I.TABLE_OWNER,\n" +
                 "  I.TABLE_NAME,\n" +
                 "  I.TABLESPACE_NAME,\n" +
-                "  I.STATUS";
+                "  I.STATUS");
     }
 
-    String selectTriggers(Table table) {
-        return "SELECT T.OWNER,\n" +
+    Query selectTriggers(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT T.OWNER,\n" +
+                "  T.TABLE_NAME,\n" +
                 "  T.TRIGGER_NAME,\n" +
                 "  T.TRIGGER_TYPE,\n" +
                 "  T.TRIGGERING_EVENT,\n" +
@@ -189,26 +213,30 @@ final class OracleSchemaQueries {
                 "  T.TRIGGER_BODY,\n" +
                 "  T.STATUS\n" +
                 "FROM SYS.ALL_TRIGGERS T\n" +
-                "WHERE T.TABLE_OWNER = UPPER('" + workSchema + "')\n" +
-                "      AND T.TABLE_NAME = UPPER('" + table.getName() + "')";
+                "WHERE T.TABLE_OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "      AND " + query.tableCondition("T.TABLE_NAME", tableNames));
     }
 
-    String selectTriggerDependencies(Trigger trigger) {
-        return "SELECT D.REFERENCED_OWNER,\n" +
+    Query selectTriggerDependencies(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT T.TABLE_NAME,\n" +
+                "       T.TRIGGER_NAME,\n" +
+                "       D.REFERENCED_OWNER,\n" +
                 "       D.REFERENCED_NAME,\n" +
                 "       D.REFERENCED_TYPE\n" +
                 "FROM SYS.ALL_TRIGGERS T\n" +
                 "  INNER JOIN SYS.ALL_DEPENDENCIES D ON\n" +
-                "    T.TABLE_OWNER = UPPER('" + workSchema + "')\n" +
-                "    AND T.TABLE_NAME = UPPER('" + trigger.getTable().getName() + "')\n" +
-                "    AND T.TRIGGER_NAME = UPPER('" + trigger.getName() + "')\n" +
+                "    T.TABLE_OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "    AND " + query.tableCondition("T.TABLE_NAME", tableNames) + "\n" +
                 "    AND D.OWNER = T.OWNER\n" +
                 "    AND D.NAME = T.TRIGGER_NAME\n" +
-                "    AND D.REFERENCED_TYPE <> 'PACKAGE'";
+                "    AND D.REFERENCED_TYPE <> 'PACKAGE'");
     }
 
-    String selectSequence(Table table) {
-        return "SELECT\n" +
+    Query selectSequences(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
+                "  T.TABLE_NAME,\n" +
                 "  S.SEQUENCE_OWNER,\n" +
                 "  S.SEQUENCE_NAME,\n" +
                 "  S.LAST_NUMBER,\n" +
@@ -219,28 +247,66 @@ final class OracleSchemaQueries {
                 "  S.CYCLE_FLAG\n" +
                 "FROM SYS.ALL_TRIGGERS T\n" +
                 "  INNER JOIN SYS.ALL_DEPENDENCIES D ON\n" +
-                "    T.TABLE_OWNER = UPPER('" + workSchema + "')\n" +
-                "    AND T.TABLE_NAME = UPPER('" + table.getName() + "')\n" +
+                "    T.TABLE_OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "    AND " + query.tableCondition("T.TABLE_NAME", tableNames) + "\n" +
                 "    AND D.OWNER = T.OWNER\n" +
                 "    AND D.NAME = T.TRIGGER_NAME\n" +
                 "    AND D.REFERENCED_TYPE = 'SEQUENCE'\n" +
                 "  INNER JOIN SYS.ALL_SEQUENCES S ON\n" +
                 "    S.SEQUENCE_OWNER = D.REFERENCED_OWNER\n" +
-                "    AND S.SEQUENCE_NAME = D.REFERENCED_NAME";
+                "    AND S.SEQUENCE_NAME = D.REFERENCED_NAME");
+    }
+
+    /**
+     * Версия DDL таблицы - наибольшее время изменения самой таблицы, ее триггеров
+     * и таблиц, ссылающихся на нее внешними ключами.
+     */
+    Query selectDdlTimes(Collection<String> tableNames) {
+        Query query = new Query();
+        return query.sql("SELECT\n" +
+                "  X.TABLE_NAME,\n" +
+                "  TO_CHAR(MAX(O.LAST_DDL_TIME), 'YYYYMMDDHH24MISS') AS DDL_TIME\n" +
+                "FROM (\n" +
+                "  SELECT T.TABLE_NAME, T.OWNER AS OBJECT_OWNER, T.TABLE_NAME AS OBJECT_NAME, 'TABLE' AS OBJECT_TYPE\n" +
+                "  FROM SYS.ALL_TABLES T\n" +
+                "  WHERE T.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "        AND " + query.tableCondition("T.TABLE_NAME", tableNames) + "\n" +
+                "  UNION ALL\n" +
+                "  SELECT T.TABLE_NAME, T.OWNER, T.TRIGGER_NAME, 'TRIGGER'\n" +
+                "  FROM SYS.ALL_TRIGGERS T\n" +
+                "  WHERE T.TABLE_OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "        AND " + query.tableCondition("T.TABLE_NAME", tableNames) + "\n" +
+                "  UNION ALL\n" +
+                "  SELECT P.TABLE_NAME, C.OWNER, C.TABLE_NAME, 'TABLE'\n" +
+                "  FROM SYS.ALL_CONSTRAINTS C\n" +
+                "    INNER JOIN SYS.ALL_CONSTRAINTS P ON\n" +
+                "      P.OWNER = C.R_OWNER\n" +
+                "      AND P.CONSTRAINT_NAME = C.R_CONSTRAINT_NAME\n" +
+                "  WHERE C.CONSTRAINT_TYPE = 'R'\n" +
+                "        AND P.OWNER = UPPER(" + query.bind(workSchema) + ")\n" +
+                "        AND " + query.tableCondition("P.TABLE_NAME", tableNames) + "\n" +
+                ") X\n" +
+                "  INNER JOIN SYS.ALL_OBJECTS O ON\n" +
+                "    O.OWNER = X.OBJECT_OWNER\n" +
+                "    AND O.OBJECT_NAME = X.OBJECT_NAME\n" +
+                "    AND O.OBJECT_TYPE = X.OBJECT_TYPE\n" +
+                "GROUP BY X.TABLE_NAME");
     }
 
-    String selectObject(String objectName, String objectType) {
-        return "SELECT *\n" +
+    Query selectObject(String objectName, String objectType) {
+        Query query = new Query();
+        return query.sql("SELECT *\n" +
                 "FROM SYS.ALL_OBJECTS\n" +
-                "WHERE OWNER = '" + workSchema + "'\n" +
-                "      AND OBJECT_NAME = '" + objectName + "'\n" +
-                "      AND OBJECT_TYPE = '" + objectType + '\'';
+                "WHERE OWNER = " + query.bind(workSchema) + "\n" +
+                "      AND OBJECT_NAME = " + query.bind(objectName) + "\n" +
+                "      AND OBJECT_TYPE = " + query.bind(objectType));
     }
 
-    String selectConstraint(String constraintName) {
-        return "SELECT *\n" +
+    Query selectConstraint(String constraintName) {
+        Query query = new Query();
+        return query.sql("SELECT *\n" +
                 "FROM SYS.ALL_CONSTRAINTS\n" +
-                "WHERE OWNER = '" + workSchema + "'\n" +
-                "      AND CONSTRAINT_NAME = '" + constraintName + '\'';
+                "WHERE OWNER = " + query.bind(workSchema) + "\n" +
+                "      AND CONSTRAINT_NAME = " + query.bind(constraintName));
     }
 }
@@ -47,6 +47,19 @@ public class ReplicatorTest {
                 .execute();
     }
 
+    @Test
+    public void replicateWithData() {
+        Replicator.replicate()
+                .sourceConfig(TestUtils.sourceSchemaOracle())
+                .targetConfig(TestUtils.targetSchemaOracle())
+                .updateImported(false)
+                .copyData(true)
+                .queueSize(5000)
+                .tables("SAMPLE_TABLE")
+                .configure()
+                .execute();
+    }
+
     @Test
     public void drop() {
         Replicator.drop()
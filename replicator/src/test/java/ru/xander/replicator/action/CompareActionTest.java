@@ -0,0 +1,126 @@
+package ru.xander.replicator.action;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.xander.replicator.Replicator;
+import ru.xander.replicator.compare.CompareDiff;
+import ru.xander.replicator.compare.CompareKind;
+import ru.xander.replicator.compare.CompareResult;
+import ru.xander.replicator.compare.CompareResultType;
+import ru.xander.replicator.listener.StdOutListener;
+import ru.xander.replicator.schema.ConnectionPool;
+import ru.xander.replicator.schema.SchemaConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class CompareActionTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:compare";
+    private static final int TABLE_COUNT = 300;
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA SRC");
+            statement.execute("CREATE SCHEMA TRG");
+            for (int i = 0; i < TABLE_COUNT; i++) {
+                statement.execute("CREATE TABLE SRC.T" + i + " (ID INTEGER, NAME VARCHAR(100))");
+                if (i == 7) {
+                    statement.execute("CREATE TABLE TRG.T" + i + " (ID INTEGER)");
+                } else if (i != 13) {
+                    statement.execute("CREATE TABLE TRG.T" + i + " (ID INTEGER, NAME VARCHAR(100))");
+                }
+            }
+            statement.execute("CREATE TABLE SRC.DATA (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(100), AMOUNT NUMERIC(10, 2))");
+            statement.execute("CREATE TABLE TRG.DATA (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(100), AMOUNT NUMERIC(10, 2))");
+            for (int i = 1; i <= 5000; i++) {
+                statement.execute("INSERT INTO SRC.DATA VALUES (" + i + ", 'name " + i + "', " + i + ".5)");
+                if (i != 1234) {
+                    String name = i == 4321 ? "changed" : "name " + i;
+                    statement.execute("INSERT INTO TRG.DATA VALUES (" + i + ", '" + name + "', " + i + ".50)");
+                }
+            }
+            statement.execute("INSERT INTO TRG.DATA VALUES (7000, 'extra', NULL)");
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void compareInParallel() {
+        String[] tables = new String[TABLE_COUNT];
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            tables[i] = "T" + i;
+        }
+        try (ConnectionPool connectionPool = new ConnectionPool()) {
+            Map<String, CompareResult> results = Replicator.compare()
+                    .sourceConfig(schemaConfig("SRC", connectionPool))
+                    .targetConfig(schemaConfig("TRG", connectionPool))
+                    .tables(tables)
+                    .parallelism(4)
+                    .configure()
+                    .execute();
+
+            Assert.assertEquals(TABLE_COUNT, results.size());
+            Assert.assertEquals(CompareResultType.EQUALS, results.get("T0").getResultType());
+            Assert.assertEquals(CompareResultType.ABSENT_ON_TARGET, results.get("T13").getResultType());
+            CompareResult different = results.get("T7");
+            Assert.assertEquals(CompareResultType.DIFFERENT, different.getResultType());
+            Assert.assertEquals(CompareKind.COLUMN_ABSENT_ON_TARGET, different.getDiffs().get(0).getKind());
+            Assert.assertEquals(2, results.values().stream().filter(r -> r.getResultType() != CompareResultType.EQUALS).count());
+            Assert.assertTrue(connectionPool.size(JDBC_URL + "|SA|SRC") <= 4);
+        }
+    }
+
+    @Test
+    public void compareData() {
+        Map<String, CompareResult> results = Replicator.compare()
+                .sourceConfig(schemaConfig("SRC", null))
+                .targetConfig(schemaConfig("TRG", null))
+                .tables("DATA")
+                .compareData(true)
+                .rowChunkSize(100)
+                .configure()
+                .execute();
+
+        List<CompareDiff> diffs = results.get("DATA").getDiffs().stream()
+                .filter(diff -> diff.getKind().name().startsWith("ROW_"))
+                .collect(Collectors.toList());
+        Assert.assertEquals(3, diffs.size());
+        Assert.assertEquals(CompareKind.ROW_ABSENT_ON_TARGET, diffs.get(0).getKind());
+        Assert.assertEquals("ID=1234", diffs.get(0).getSourceValue());
+        Assert.assertEquals(CompareKind.ROW_VALUES, diffs.get(1).getKind());
+        Assert.assertEquals("ID=4321, NAME=name 4321", diffs.get(1).getSourceValue());
+        Assert.assertEquals("ID=4321, NAME=changed", diffs.get(1).getTargetValue());
+        Assert.assertEquals(CompareKind.ROW_ABSENT_ON_SOURCE, diffs.get(2).getKind());
+        Assert.assertEquals("ID=7000", diffs.get(2).getTargetValue());
+    }
+
+    private static SchemaConfig schemaConfig(String workSchema, ConnectionPool connectionPool) {
+        return SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(JDBC_URL)
+                .username("SA")
+                .password("")
+                .workSchema(workSchema)
+                .listener(new StdOutListener(workSchema))
+                .connectionPool(connectionPool)
+                .build();
+    }
+}
@@ -0,0 +1,205 @@
+package ru.xander.replicator.cache;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.xander.replicator.listener.StdOutListener;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.schema.ExportedKey;
+import ru.xander.replicator.schema.Schema;
+import ru.xander.replicator.schema.SchemaConfig;
+import ru.xander.replicator.schema.SchemaFactory;
+import ru.xander.replicator.schema.Table;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class MetadataCacheTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:cache";
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA CACHE");
+            statement.execute("CREATE TABLE CACHE.MASTER (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(100))");
+            statement.execute("CREATE TABLE CACHE.DETAIL (ID INTEGER NOT NULL, MASTER_ID INTEGER,"
+                    + " CONSTRAINT DETAIL_FK FOREIGN KEY (MASTER_ID) REFERENCES CACHE.MASTER (ID))");
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void cacheTables() throws Exception {
+        MetadataCache metadataCache = new MetadataCache();
+        try (Schema schema = SchemaFactory.getInstance().create(schemaConfig(metadataCache))) {
+            Table master = schema.getTable("MASTER");
+            Assert.assertNotNull(master);
+            Assert.assertEquals(1, metadataCache.size());
+
+            Table cached = schema.getTable("master");
+            Assert.assertNotSame(master, cached);
+            Assert.assertEquals(2, cached.getColumns().size());
+            Assert.assertNotNull(cached.getPrimaryKey());
+            Assert.assertNotNull(cached.getExportedKey("DETAIL_FK"));
+
+            Assert.assertNull(schema.getTable("MISSING"));
+            Assert.assertEquals(1, metadataCache.size());
+        }
+
+        // кэш разделяется между экземплярами схемы
+        try (Schema schema = SchemaFactory.getInstance().create(schemaConfig(metadataCache))) {
+            Assert.assertEquals(2, schema.loadTables(Arrays.asList("MASTER", "DETAIL")).size());
+            Assert.assertEquals(2, metadataCache.size());
+        }
+    }
+
+    @Test
+    public void invalidateOnAlter() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE CACHE.ALTERED (ID INTEGER NOT NULL)");
+        }
+        MetadataCache metadataCache = new MetadataCache();
+        try (Schema schema = SchemaFactory.getInstance().create(schemaConfig(metadataCache))) {
+            Table altered = schema.getTable("ALTERED");
+            Assert.assertEquals(1, altered.getColumns().size());
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE CACHE.ALTERED");
+            }
+            altered.addColumn(copyColumn(altered, "ID", "NAME"));
+            schema.createTable(altered);
+
+            Assert.assertEquals(2, schema.getTable("ALTERED").getColumns().size());
+        }
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        MetadataCache metadataCache = new MetadataCache(2);
+        metadataCache.put("S", table("T1"), "1");
+        metadataCache.put("S", table("T2"), "1");
+        Assert.assertNotNull(metadataCache.get("S", "T1", "1"));
+        metadataCache.put("S", table("T3"), "1");
+
+        Assert.assertEquals(2, metadataCache.size());
+        Assert.assertNotNull(metadataCache.get("S", "T1", "1"));
+        Assert.assertNull(metadataCache.get("S", "T2", "1"));
+        Assert.assertNotNull(metadataCache.get("S", "T3", "1"));
+        Assert.assertNull(metadataCache.get("S", "T3", "2"));
+        Assert.assertEquals(1, metadataCache.size());
+    }
+
+    @Test
+    public void saveAndLoadSnapshot() {
+        MetadataCache metadataCache = new MetadataCache();
+        metadataCache.put("S", table("T1"), "20200101000000");
+        metadataCache.put("S", table("T2"), null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        metadataCache.save(output);
+
+        MetadataCache loaded = new MetadataCache();
+        loaded.load(new ByteArrayInputStream(output.toByteArray()));
+        Assert.assertEquals(1, loaded.size());
+        Table table = loaded.get("S", "T1", "20200101000000");
+        Assert.assertNotNull(table);
+        Assert.assertEquals("T1", table.getName());
+        Assert.assertEquals(1, table.getColumns().size());
+        Assert.assertNull(loaded.get("S", "T2", null));
+    }
+
+    @Test
+    public void exportedKeysRoundTrip() {
+        Table source = table("T1");
+        ExportedKey filled = new ExportedKey();
+        filled.setTable(source);
+        filled.setName("T1_PK");
+        filled.setColumns(new String[]{"ID"});
+        filled.setEnabled(false);
+        filled.setFkTableSchema("S");
+        filled.setFkTableName("T2");
+        filled.setFkName("T2_FK");
+        filled.setFkColumns(new String[]{"T1_ID", "T1_VER"});
+        source.addExportedKey(filled);
+        // незаполненные поля не должны превращаться в строку "null"
+        ExportedKey empty = new ExportedKey();
+        empty.setTable(source);
+        empty.setFkName("T3_FK");
+        source.addExportedKey(empty);
+
+        MetadataCache metadataCache = new MetadataCache();
+        metadataCache.put("S", source, "1");
+        Table cached = metadataCache.get("S", "T1", "1");
+
+        ExportedKey cachedFilled = cached.getExportedKey("T2_FK");
+        Assert.assertSame(cached, cachedFilled.getTable());
+        Assert.assertEquals("T1_PK", cachedFilled.getName());
+        Assert.assertArrayEquals(new String[]{"ID"}, cachedFilled.getColumns());
+        Assert.assertEquals(Boolean.FALSE, cachedFilled.getEnabled());
+        Assert.assertEquals("S", cachedFilled.getFkTableSchema());
+        Assert.assertEquals("T2", cachedFilled.getFkTableName());
+        Assert.assertEquals("T2_FK", cachedFilled.getFkName());
+        Assert.assertArrayEquals(new String[]{"T1_ID", "T1_VER"}, cachedFilled.getFkColumns());
+
+        ExportedKey cachedEmpty = cached.getExportedKey("T3_FK");
+        Assert.assertNull(cachedEmpty.getName());
+        Assert.assertNull(cachedEmpty.getColumns());
+        Assert.assertNull(cachedEmpty.getEnabled());
+        Assert.assertNull(cachedEmpty.getFkTableSchema());
+        Assert.assertNull(cachedEmpty.getFkTableName());
+        Assert.assertNull(cachedEmpty.getFkColumns());
+    }
+
+    private static SchemaConfig schemaConfig(MetadataCache metadataCache) {
+        return SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(JDBC_URL)
+                .username("SA")
+                .password("")
+                .workSchema("CACHE")
+                .listener(new StdOutListener("CACHE"))
+                .metadataCache(metadataCache)
+                .build();
+    }
+
+    private static Table table(String name) {
+        Table table = new Table();
+        table.setSchema("S");
+        table.setName(name);
+        Column column = new Column();
+        column.setTable(table);
+        column.setNumber(1);
+        column.setName("ID");
+        column.setColumnType(ColumnType.INTEGER);
+        table.addColumn(column);
+        return table;
+    }
+
+    private static Column copyColumn(Table table, String sourceName, String newName) {
+        Column source = table.getColumn(sourceName);
+        Column column = new Column();
+        column.setTable(table);
+        column.setNumber(table.getColumns().size() + 1);
+        column.setName(newName);
+        column.setColumnType(source.getColumnType());
+        column.setNullable(true);
+        return column;
+    }
+}
@@ -0,0 +1,190 @@
+package ru.xander.replicator.dump;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.xander.replicator.Replicator;
+import ru.xander.replicator.listener.StdOutListener;
+import ru.xander.replicator.schema.SchemaConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class DumpLoadTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:load";
+    private static final int ROW_COUNT = 25;
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA LOAD");
+            statement.execute("CREATE TABLE LOAD.SOURCE (ID INTEGER NOT NULL, NAME VARCHAR(100), "
+                    + "AMOUNT NUMERIC(10, 2), FLAG BOOLEAN, CREATED TIMESTAMP, DATA BLOB)");
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO LOAD.SOURCE VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROW_COUNT; i++) {
+                statement.setInt(1, i);
+                statement.setString(2, (i % 5) == 0 ? null : "name <" + i + "> \"null\"");
+                statement.setBigDecimal(3, new java.math.BigDecimal(i + ".25"));
+                statement.setBoolean(4, (i % 2) == 0);
+                statement.setTimestamp(5, new Timestamp(1500000000000L + i * 1000L));
+                statement.setBytes(6, new byte[]{(byte) i, 1, 2});
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void loadJson() throws Exception {
+        dumpAndLoad(DumpType.JSON, "TARGET_JSON");
+    }
+
+    @Test
+    public void loadXml() throws Exception {
+        dumpAndLoad(DumpType.XML, "TARGET_XML");
+    }
+
+    @Test
+    public void loadBinary() throws Exception {
+        int binarySize = dumpAndLoad(DumpType.BINARY, "TARGET_BINARY");
+        Assert.assertTrue(binarySize < dump(DumpType.JSON).length / 4);
+    }
+
+    @Test
+    public void bulkLoad() throws Exception {
+        dumpAndLoad(DumpType.JSON, "TARGET_BULK", true);
+    }
+
+    @Test
+    public void multiRowInsert() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Replicator.dump()
+                .schemaConfig(schemaConfig())
+                .dumpType(DumpType.SQL)
+                .dumpDdl(false)
+                .outputStream(output)
+                .tableName("SOURCE")
+                .rowsPerInsert(10)
+                .commitEach(20)
+                .configure()
+                .execute();
+        String script = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        // 1-10, 11-20, COMMIT, 21-25, COMMIT
+        Assert.assertEquals(3, script.split("INSERT INTO ", -1).length - 1);
+        Assert.assertEquals(2, script.split("COMMIT;", -1).length - 1);
+
+        File scriptFile = File.createTempFile("load", ".sql");
+        try {
+            Files.write(scriptFile.toPath(), script.replace("LOAD.SOURCE", "LOAD.TARGET_SQL").getBytes(StandardCharsets.UTF_8));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE LOAD.TARGET_SQL AS (SELECT * FROM LOAD.SOURCE) WITH NO DATA");
+            }
+            Replicator.pump()
+                    .schemaConfig(schemaConfig())
+                    .scriptFile(scriptFile)
+                    .configure()
+                    .execute();
+        } finally {
+            Assert.assertTrue(scriptFile.delete());
+        }
+
+        try (
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), SUM(ID) FROM LOAD.TARGET_SQL")
+        ) {
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(ROW_COUNT, resultSet.getInt(1));
+            Assert.assertEquals(ROW_COUNT * (ROW_COUNT + 1) / 2, resultSet.getInt(2));
+        }
+    }
+
+    private static byte[] dump(DumpType dumpType) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Replicator.dump()
+                .schemaConfig(schemaConfig())
+                .dumpType(dumpType)
+                .outputStream(output)
+                .tableName("SOURCE")
+                .format(true)
+                .configure()
+                .execute();
+        return output.toByteArray();
+    }
+
+    private int dumpAndLoad(DumpType dumpType, String targetTable) throws Exception {
+        return dumpAndLoad(dumpType, targetTable, false);
+    }
+
+    private int dumpAndLoad(DumpType dumpType, String targetTable, boolean bulkLoad) throws Exception {
+        byte[] dump = dump(dumpType);
+        Replicator.load()
+                .schemaConfig(schemaConfig())
+                .dumpType(dumpType)
+                .inputStream(new ByteArrayInputStream(dump))
+                .tableName(targetTable)
+                .createTable(true)
+                .batchSize(7)
+                .bulkLoad(bulkLoad)
+                .directPath(bulkLoad)
+                .buildParallelism(2)
+                .configure()
+                .execute();
+
+        String columns = "ID, NAME, AMOUNT, FLAG, CREATED, DATA";
+        try (
+                Statement statement = connection.createStatement();
+                ResultSet source = statement.executeQuery("SELECT " + columns + " FROM LOAD.SOURCE ORDER BY ID");
+                Statement targetStatement = connection.createStatement();
+                ResultSet target = targetStatement.executeQuery("SELECT " + columns + " FROM LOAD." + targetTable + " ORDER BY ID")
+        ) {
+            int rowCount = 0;
+            while (source.next()) {
+                Assert.assertTrue(target.next());
+                Assert.assertEquals(source.getInt(1), target.getInt(1));
+                Assert.assertEquals(source.getString(2), target.getString(2));
+                Assert.assertEquals(source.getBigDecimal(3), target.getBigDecimal(3));
+                Assert.assertEquals(source.getBoolean(4), target.getBoolean(4));
+                Assert.assertEquals(source.getTimestamp(5), target.getTimestamp(5));
+                Assert.assertArrayEquals(source.getBytes(6), target.getBytes(6));
+                rowCount++;
+            }
+            Assert.assertFalse(target.next());
+            Assert.assertEquals(ROW_COUNT, rowCount);
+        }
+        return dump.length;
+    }
+
+    private static SchemaConfig schemaConfig() {
+        return SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(JDBC_URL)
+                .username("SA")
+                .password("")
+                .workSchema("LOAD")
+                .listener(new StdOutListener("LOAD"))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.xander.replicator.dump;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class SqlDumpWriterTest {
+
+    @Test
+    public void encodeAcrossBufferBoundary() throws Exception {
+        // маленький буфер: многобайтные символы и суррогатные пары попадают на границу буфера
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SqlDumpWriter writer = new SqlDumpWriter(output, StandardCharsets.UTF_8, 7);
+        for (int i = 0; i < 100; i++) {
+            String text = "Строка " + i + " 😀;\n";
+            expected.append(text);
+            writer.write(text.substring(0, 9));
+            writer.buffer().append(text, 9, text.length());
+            writer.written();
+        }
+        writer.finish();
+        Assert.assertEquals(expected.toString(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void replaceUnmappable() throws Exception {
+        Charset charset = Charset.forName("windows-1251");
+        String text = "INSERT INTO T VALUES ('Привет é');\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SqlDumpWriter writer = new SqlDumpWriter(output, charset);
+        writer.write(text);
+        writer.finish();
+        Assert.assertArrayEquals(text.getBytes(charset), output.toByteArray());
+    }
+
+    @Test
+    public void writeToFile() throws Exception {
+        File file = File.createTempFile("dump", ".sql");
+        try {
+            try (FileOutputStream output = new FileOutputStream(file)) {
+                output.write("-- header\n".getBytes(StandardCharsets.UTF_8));
+                SqlDumpWriter writer = new SqlDumpWriter(output, StandardCharsets.UTF_8, 16);
+                writer.write("COMMIT;\n");
+                writer.write("ANALYZE TABLE T;\n");
+                writer.finish();
+            }
+            String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            Assert.assertEquals("-- header\nCOMMIT;\nANALYZE TABLE T;\n", content);
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+}
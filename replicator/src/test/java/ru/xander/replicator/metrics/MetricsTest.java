@@ -0,0 +1,122 @@
+package ru.xander.replicator.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import ru.xander.replicator.Replicator;
+import ru.xander.replicator.dump.DumpType;
+import ru.xander.replicator.schema.SchemaConfig;
+
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class MetricsTest {
+
+    @Test
+    public void instruments() {
+        Metrics parent = new Metrics();
+        Metrics metrics = new Metrics(parent);
+        metrics.counter("write.rows").add(10);
+        metrics.counter("write.rows").increment();
+        metrics.timer("write.batch").record(2_000_000L);
+        metrics.timer("write.batch").record(3, 12_000_000L);
+        for (int i = 1; i <= 100; i++) {
+            metrics.histogram("write.batchSize").update(i);
+        }
+
+        Assert.assertEquals(11L, metrics.counter("write.rows").getCount());
+        Timer timer = metrics.timer("write.batch");
+        Assert.assertEquals(4L, timer.getCount());
+        Assert.assertEquals(14.0d, timer.getTotalMillis(), 0.001d);
+        Assert.assertEquals(2.0d, timer.getMinMillis(), 0.001d);
+        Assert.assertEquals(4.0d, timer.getMaxMillis(), 0.001d);
+        Histogram histogram = metrics.histogram("write.batchSize");
+        Assert.assertEquals(1L, histogram.getMin());
+        Assert.assertEquals(100L, histogram.getMax());
+        Assert.assertEquals(50.5d, histogram.getMean(), 0.001d);
+        Assert.assertEquals(63L, histogram.getPercentile(0.5d));
+        Assert.assertEquals(100L, histogram.getPercentile(0.99d));
+
+        Assert.assertEquals(11L, parent.counter("write.rows").getCount());
+        Assert.assertEquals(4L, parent.timer("write.batch").getCount());
+        Assert.assertEquals(100L, parent.histogram("write.batchSize").getCount());
+        metrics.clear();
+        Assert.assertTrue(metrics.getMetrics().isEmpty());
+        Assert.assertEquals(3, parent.getMetrics().size());
+    }
+
+    @Test
+    public void exporters() throws Exception {
+        Metrics metrics = new Metrics();
+        metrics.counter("write.rows").add(5);
+        metrics.timer("fetch.rows").record(5, 1_000_000L);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new JsonMetricsExporter().export(metrics, json);
+        JsonNode node = new ObjectMapper().readTree(json.toByteArray());
+        Assert.assertEquals("counter", node.get("write.rows").get("type").asText());
+        Assert.assertEquals(5L, node.get("write.rows").get("count").asLong());
+        Assert.assertEquals(5L, node.get("fetch.rows").get("count").asLong());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        new CsvMetricsExporter().export(metrics, csv);
+        String[] lines = new String(csv.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals("metric,type,stat,value", lines[0]);
+        Assert.assertEquals("fetch.rows,timer,count,5", lines[1]);
+        Assert.assertEquals("write.rows,counter,count,5", lines[lines.length - 1]);
+
+        ObjectName name = JmxMetrics.register(metrics, "ru.xander.replicator:type=Metrics,name=test");
+        try {
+            metrics.counter("write.commits").increment();
+            Object commits = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "write.commits.count");
+            Assert.assertEquals(1L, commits);
+        } finally {
+            JmxMetrics.unregister(name);
+        }
+    }
+
+    @Test
+    public void schemaMetrics() throws Exception {
+        String jdbcUrl = "jdbc:hsqldb:mem:metrics";
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "SA", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE SCHEMA METRICS");
+                statement.execute("CREATE TABLE METRICS.SOURCE (ID INTEGER NOT NULL, NAME VARCHAR(100))");
+                for (int i = 1; i <= 20; i++) {
+                    statement.execute("INSERT INTO METRICS.SOURCE VALUES (" + i + ", 'name " + i + "')");
+                }
+            }
+            Metrics metrics = new Metrics();
+            Replicator.dump()
+                    .schemaConfig(SchemaConfig.builder()
+                            .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                            .jdbcUrl(jdbcUrl)
+                            .username("SA")
+                            .password("")
+                            .workSchema("METRICS")
+                            .metrics(metrics)
+                            .build())
+                    .dumpType(DumpType.JSON)
+                    .outputStream(new ByteArrayOutputStream())
+                    .tableName("SOURCE")
+                    .configure()
+                    .execute();
+
+            Assert.assertEquals(20L, metrics.timer("fetch.rows").getCount());
+            Assert.assertEquals(1L, metrics.timer("fetch.execute").getCount());
+            Assert.assertEquals(1L, metrics.timer("dump.json").getCount());
+            Assert.assertTrue(metrics.timer("query.select").getCount() > 0);
+            Assert.assertTrue(metrics.getPhaseMillis().keySet().containsAll(Arrays.asList("query", "fetch", "dump")));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.xander.replicator.pump;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class MappedScriptReaderTest {
+
+    @Test
+    public void splitStatements() throws Exception {
+        String script = "INSERT INTO T1 (C1, C2) VALUES (1, 'a;b');\n" +
+                "\n" +
+                "INSERT INTO T1 (C1, C2)\r\n" +
+                "VALUES (2, 'Привет, ''мир''; ');\r\n" +
+                "-- comment;\n" +
+                "COMMIT;\n" +
+                "BEGIN\n" +
+                "  DELETE FROM T1 WHERE C1 = 3;\n" +
+                "END;\n" +
+                "CREATE OR REPLACE TRIGGER TRG\n" +
+                "BEFORE INSERT ON T1\n" +
+                "BEGIN\n" +
+                "  NULL; /* END; */\n" +
+                "END;\n" +
+                ";\n" +
+                "DROP TABLE T2";
+        File scriptFile = createScript(script, StandardCharsets.UTF_8);
+        try (MappedScriptReader reader = new MappedScriptReader(scriptFile, StandardCharsets.UTF_8)) {
+            assertStatement(reader.nextStatement(), "INSERT INTO T1 (C1, C2) VALUES (1, 'a;b')", StatementKind.INSERT, 1);
+            assertStatement(reader.nextStatement(), "INSERT INTO T1 (C1, C2)\r\nVALUES (2, 'Привет, ''мир''; ')", StatementKind.INSERT, 3);
+            assertStatement(reader.nextStatement(), "-- comment;\nCOMMIT", StatementKind.COMMIT, 5);
+            assertStatement(reader.nextStatement(), "BEGIN\n  DELETE FROM T1 WHERE C1 = 3;\nEND;", StatementKind.BLOCK, 7);
+            assertStatement(reader.nextStatement(), "CREATE OR REPLACE TRIGGER TRG\nBEFORE INSERT ON T1\nBEGIN\n  NULL; /* END; */\nEND;", StatementKind.DDL, 10);
+            assertStatement(reader.nextStatement(), "DROP TABLE T2", StatementKind.DDL, 16);
+            Assert.assertNull(reader.nextStatement());
+            Assert.assertEquals(reader.getSize(), reader.getPosition());
+        }
+    }
+
+    @Test
+    public void singleByteCharset() throws Exception {
+        Charset charset = Charset.forName("windows-1251");
+        Assert.assertTrue(MappedScriptReader.isSupported(charset));
+        Assert.assertFalse(MappedScriptReader.isSupported(StandardCharsets.UTF_16));
+        File scriptFile = createScript("UPDATE T1 SET C2 = 'Строка';\n", charset);
+        try (MappedScriptReader reader = new MappedScriptReader(scriptFile, charset)) {
+            assertStatement(reader.nextStatement(), "UPDATE T1 SET C2 = 'Строка'", StatementKind.DML, 1);
+            Assert.assertNull(reader.nextStatement());
+        }
+    }
+
+    private static File createScript(String script, Charset charset) throws IOException {
+        File scriptFile = File.createTempFile("script", ".sql");
+        scriptFile.deleteOnExit();
+        Files.write(scriptFile.toPath(), script.getBytes(charset));
+        return scriptFile;
+    }
+
+    private static void assertStatement(ScriptStatement statement, String expectedSql, StatementKind expectedKind, int expectedLine) {
+        Assert.assertNotNull(statement);
+        Assert.assertEquals(expectedSql, statement.getSql());
+        Assert.assertEquals(expectedKind, statement.getKind());
+        Assert.assertEquals(expectedLine, statement.getLineNumber());
+    }
+}
@@ -0,0 +1,87 @@
+package ru.xander.replicator.pump;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.xander.replicator.Replicator;
+import ru.xander.replicator.listener.StdOutListener;
+import ru.xander.replicator.schema.SchemaConfig;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class ScriptPumpTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:pump";
+
+    private static File scriptFile;
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA PUMP");
+        }
+        scriptFile = File.createTempFile("pump", ".sql");
+        scriptFile.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(scriptFile, StandardCharsets.UTF_8.name())) {
+            writer.println("CREATE TABLE PUMP.T1 (ID INTEGER PRIMARY KEY, NAME VARCHAR(100));");
+            writer.println();
+            for (int i = 1; i <= 100; i++) {
+                writer.println("INSERT INTO PUMP.T1 (ID, NAME)");
+                writer.println("VALUES (" + i + ", 'name; " + i + "');");
+                if ((i % 10) == 0) {
+                    writer.println("COMMIT;");
+                }
+            }
+            writer.println("CREATE INDEX PUMP.T1_NAME ON PUMP.T1 (NAME);");
+            writer.println("UPDATE PUMP.T1 SET NAME = 'updated' WHERE ID > 90;");
+            writer.println("COMMIT;");
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void pumpInParallel() throws Exception {
+        SchemaConfig config = SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(JDBC_URL)
+                .username("SA")
+                .password("")
+                .workSchema("PUMP")
+                .listener(new StdOutListener("PUMP"))
+                .build();
+        Replicator.pump()
+                .schemaConfig(config)
+                .scriptFile(scriptFile)
+                .parallelism(3)
+                .batchSize(7)
+                .configure()
+                .execute();
+
+        try (
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), SUM(ID), "
+                        + "SUM(CASE WHEN NAME = 'updated' THEN 1 ELSE 0 END) FROM PUMP.T1")
+        ) {
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(100, resultSet.getInt(1));
+            Assert.assertEquals(5050, resultSet.getInt(2));
+            Assert.assertEquals(10, resultSet.getInt(3));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.xander.replicator.replicate;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ru.xander.replicator.Replicator;
+import ru.xander.replicator.listener.StdOutListener;
+import ru.xander.replicator.schema.SchemaConfig;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class DeltaSyncTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:sync";
+    private static final String DATA_QUERY = "SELECT ID, NAME, AMOUNT FROM %s.DATA ORDER BY ID";
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA SRC");
+            statement.execute("CREATE SCHEMA TRG");
+            statement.execute("CREATE TABLE SRC.DATA (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(100), AMOUNT NUMERIC(10, 2))");
+            for (int i = 1; i <= 3000; i++) {
+                statement.execute("INSERT INTO SRC.DATA VALUES (" + i + ", 'name " + i + "', " + i + ".5)");
+            }
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void syncChanges() throws Exception {
+        File stateFile = File.createTempFile("sync", ".json");
+        Assert.assertTrue(stateFile.delete());
+        try {
+            sync(stateFile);
+            Assert.assertTrue(stateFile.exists());
+            Assert.assertEquals(selectData("SRC"), selectData("TRG"));
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE SRC.DATA SET NAME = 'changed' WHERE ID = 1500");
+                statement.execute("UPDATE SRC.DATA SET AMOUNT = NULL WHERE ID = 2999");
+                statement.execute("DELETE FROM SRC.DATA WHERE ID = 77");
+                statement.execute("INSERT INTO SRC.DATA VALUES (5000, 'extra', 1)");
+            }
+            sync(stateFile);
+            Assert.assertEquals(selectData("SRC"), selectData("TRG"));
+
+            SyncState.TableState tableState = SyncState.load(stateFile).getTable("DATA");
+            Assert.assertEquals("ID", tableState.getKeyColumn());
+            Assert.assertEquals(3000, tableState.sum(Long.MIN_VALUE, Long.MAX_VALUE).getRowCount());
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            stateFile.delete();
+        }
+    }
+
+    private static void sync(File stateFile) {
+        Replicator.replicate()
+                .sourceConfig(schemaConfig("SRC"))
+                .targetConfig(schemaConfig("TRG"))
+                .tables("DATA")
+                .syncData(true)
+                .syncChunkSize(10)
+                .syncStateFile(stateFile)
+                .configure()
+                .execute();
+    }
+
+    private static String selectData(String schema) throws Exception {
+        StringBuilder data = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(String.format(DATA_QUERY, schema))) {
+            while (resultSet.next()) {
+                data.append(resultSet.getInt(1)).append('|')
+                        .append(resultSet.getString(2)).append('|')
+                        .append(resultSet.getBigDecimal(3)).append('\n');
+            }
+        }
+        return data.toString();
+    }
+
+    private static SchemaConfig schemaConfig(String workSchema) {
+        return SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(JDBC_URL)
+                .username("SA")
+                .password("")
+                .workSchema(workSchema)
+                .listener(new StdOutListener(workSchema))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.xander.replicator.replicate;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.xander.replicator.schema.ImportedKey;
+import ru.xander.replicator.schema.Table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class TableGraphTest {
+
+    @Test
+    public void topologicalOrder() throws Exception {
+        TableGraph graph = createGraph(
+                table("ORDERS", "CLIENT", "GOODS"),
+                table("CLIENT", "REGION"),
+                table("GOODS"),
+                table("REGION", "REGION"));
+        Assert.assertTrue(graph.breakCycles().isEmpty());
+
+        List<String> order = new ArrayList<>();
+        Table table;
+        while ((table = graph.take()) != null) {
+            order.add(table.getName());
+            graph.complete(table.getName());
+        }
+        Assert.assertEquals(4, order.size());
+        Assert.assertTrue(order.indexOf("REGION") < order.indexOf("CLIENT"));
+        Assert.assertTrue(order.indexOf("CLIENT") < order.indexOf("ORDERS"));
+        Assert.assertTrue(order.indexOf("GOODS") < order.indexOf("ORDERS"));
+    }
+
+    @Test
+    public void breakCycles() throws Exception {
+        Table a = table("A", "B");
+        Table b = table("B", "C");
+        Table c = table("C", "A");
+        TableGraph graph = createGraph(a, b, c, table("D", "C"));
+
+        List<ImportedKey> deferred = graph.breakCycles();
+        Assert.assertEquals(1, deferred.size());
+        Assert.assertSame(a.getImportedKey("FK_A_B"), deferred.get(0));
+        Assert.assertTrue(graph.isDeferred("A", deferred.get(0)));
+        Assert.assertFalse(graph.isDeferred("B", b.getImportedKey("FK_B_C")));
+
+        List<String> order = new ArrayList<>();
+        Table table;
+        while ((table = graph.take()) != null) {
+            order.add(table.getName());
+            graph.complete(table.getName());
+        }
+        Assert.assertEquals("[A, C, B, D]", order.toString());
+    }
+
+    @Test
+    public void takeInParallel() throws Exception {
+        List<Table> tables = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tables.add(i == 0 ? table("T0") : table("T" + i, "T" + (i - 1) / 2));
+        }
+        TableGraph graph = createGraph(tables.toArray(new Table[0]));
+        graph.breakCycles();
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(() -> {
+                    Table table;
+                    while ((table = graph.take()) != null) {
+                        order.add(table.getName());
+                        graph.complete(table.getName());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(50, order.size());
+        for (int i = 1; i < 50; i++) {
+            Assert.assertTrue(order.indexOf("T" + (i - 1) / 2) < order.indexOf("T" + i));
+        }
+    }
+
+    @Test
+    public void failWakesWaitingWorkers() throws Exception {
+        TableGraph graph = createGraph(table("PARENT"), table("CHILD", "PARENT"));
+        graph.breakCycles();
+        Assert.assertEquals("PARENT", graph.take().getName());
+
+        // CHILD ждет завершения PARENT, которое не наступит
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Table> waiting = executorService.submit(graph::take);
+            Thread.sleep(100);
+            Assert.assertFalse(waiting.isDone());
+            graph.fail();
+            Assert.assertNull(waiting.get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static TableGraph createGraph(Table... tables) {
+        TableGraph graph = new TableGraph();
+        for (Table table : tables) {
+            graph.addTable(table);
+        }
+        for (Table table : tables) {
+            table.getImportedKeys().forEach(importedKey -> graph.addDependency(table.getName(), importedKey));
+        }
+        return graph;
+    }
+
+    private static Table table(String name, String... pkTables) {
+        Table table = new Table();
+        table.setName(name);
+        for (String pkTable : pkTables) {
+            ImportedKey importedKey = new ImportedKey();
+            importedKey.setName("FK_" + name + '_' + pkTable);
+            importedKey.setPkTableName(pkTable);
+            table.addImportedKey(importedKey);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.xander.replicator.schema;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.xander.replicator.exception.SchemaException;
+import ru.xander.replicator.listener.StdOutListener;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class ConnectionPoolTest {
+
+    private static final String JDBC_URL = "jdbc:hsqldb:mem:pool";
+    private static final String SCHEMA_ID = JDBC_URL + "|SA|PUBLIC";
+
+    @Test
+    public void reuseConnection() {
+        try (ConnectionPool connectionPool = new ConnectionPool()) {
+            Connection first;
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                first = schema.getConnection();
+                Assert.assertEquals(1, connectionPool.size(SCHEMA_ID));
+                Assert.assertEquals(0, connectionPool.idleSize(SCHEMA_ID));
+            }
+            Assert.assertEquals(1, connectionPool.idleSize(SCHEMA_ID));
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                Assert.assertSame(first, schema.getConnection());
+                Assert.assertTrue(schema.testConnection().isValid());
+            }
+            Assert.assertEquals(1, connectionPool.size(SCHEMA_ID));
+        }
+    }
+
+    @Test
+    public void waitForFreeConnection() {
+        try (ConnectionPool connectionPool = new ConnectionPool(0, 1, ConnectionPool.DEFAULT_IDLE_TIMEOUT, 100)) {
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                schema.getConnection();
+                try (AbstractSchema other = createSchema(connectionPool)) {
+                    other.getConnection();
+                    Assert.fail("Pool size exceeded");
+                } catch (SchemaException e) {
+                    Assert.assertTrue(e.getMessage().startsWith("No free connection in pool"));
+                }
+            }
+            Assert.assertEquals(1, connectionPool.size(SCHEMA_ID));
+        }
+    }
+
+    @Test
+    public void evictIdle() throws Exception {
+        try (ConnectionPool connectionPool = new ConnectionPool(0, 4, 10, 100)) {
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                schema.getConnection();
+            }
+            Assert.assertEquals(1, connectionPool.idleSize(SCHEMA_ID));
+            Thread.sleep(50);
+            connectionPool.evictIdle();
+            Assert.assertEquals(0, connectionPool.size(SCHEMA_ID));
+        }
+    }
+
+    @Test
+    public void discardBrokenConnection() throws Exception {
+        try (ConnectionPool connectionPool = new ConnectionPool()) {
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                schema.getConnection().close();
+            }
+            Assert.assertEquals(0, connectionPool.size(SCHEMA_ID));
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                Assert.assertFalse(schema.getConnection().isClosed());
+            }
+            Assert.assertEquals(1, connectionPool.size(SCHEMA_ID));
+        }
+    }
+
+    @Test
+    public void closePartitionedCursor() throws Exception {
+        try (ConnectionPool connectionPool = new ConnectionPool()) {
+            try (AbstractSchema schema = createSchema(connectionPool)) {
+                try (Statement statement = schema.getConnection().createStatement()) {
+                    statement.execute("CREATE TABLE PUBLIC.PARTITIONED (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(100))");
+                    for (int i = 1; i <= 2000; i++) {
+                        statement.execute("INSERT INTO PUBLIC.PARTITIONED VALUES (" + i + ", 'name " + i + "')");
+                    }
+                }
+                SelectRowsOptions options = new SelectRowsOptions(1000L, 4);
+                options.setQueueSize(10);
+                options.setRowCountMode(RowCountMode.NONE);
+                // курсор закрывается, пока потоки выборки ждут места в очереди
+                try (TableRowCursor cursor = schema.selectRows(schema.getTable("PARTITIONED"), options)) {
+                    Assert.assertNotNull(cursor.nextRow());
+                }
+                int size = connectionPool.size(SCHEMA_ID);
+                Assert.assertTrue(size > 1);
+                Assert.assertEquals(size - 1, connectionPool.idleSize(SCHEMA_ID));
+                try (Statement statement = schema.getConnection().createStatement()) {
+                    statement.execute("DROP TABLE PUBLIC.PARTITIONED");
+                }
+            }
+        }
+    }
+
+    private static AbstractSchema createSchema(ConnectionPool connectionPool) {
+        SchemaConfig config = SchemaConfig.builder()
+                .jdbcDriver("org.hsqldb.jdbc.JDBCDriver")
+                .jdbcUrl(JDBC_URL)
+                .username("SA")
+                .password("")
+                .workSchema("PUBLIC")
+                .listener(new StdOutListener("POOL"))
+                .connectionPool(connectionPool)
+                .build();
+        return (AbstractSchema) SchemaFactory.getInstance().create(config);
+    }
+}
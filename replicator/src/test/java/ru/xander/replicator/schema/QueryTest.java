@@ -0,0 +1,43 @@
+package ru.xander.replicator.schema;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class QueryTest {
+    @Test
+    public void bindParams() {
+        Query query = new Query();
+        query.sql("SELECT '?' FROM T WHERE OWNER = UPPER(" + query.bind("o'wner") + ") AND N = " + query.bind(10));
+        Assert.assertEquals("SELECT '?' FROM T WHERE OWNER = UPPER(?) AND N = ?", query.getSql());
+        Assert.assertEquals(Arrays.asList("o'wner", 10), query.getParams());
+        Assert.assertEquals("SELECT '?' FROM T WHERE OWNER = UPPER('o''wner') AND N = 10", query.toString());
+    }
+
+    @Test
+    public void tableCondition() {
+        Assert.assertEquals("1 = 1", new Query().tableCondition("T", null));
+        Assert.assertEquals("1 = 0", new Query().tableCondition("T", Collections.emptyList()));
+        Assert.assertEquals("T = UPPER(?)", new Query().tableCondition("T", Collections.singletonList("A")));
+
+        Query query = new Query();
+        Assert.assertEquals("T IN (UPPER(?), UPPER(?), UPPER(?), UPPER(?))", query.tableCondition("T", Arrays.asList("A", "B", "C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "C", "C"), query.getParams());
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            names.add("T" + i);
+        }
+        query = new Query();
+        String condition = query.tableCondition("T", names);
+        Assert.assertTrue(condition.startsWith("(T IN (") && condition.contains(") OR T IN ("));
+        Assert.assertEquals(2000, query.getParams().size());
+    }
+}
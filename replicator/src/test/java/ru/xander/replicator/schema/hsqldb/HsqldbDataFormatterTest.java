@@ -0,0 +1,82 @@
+package ru.xander.replicator.schema.hsqldb;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnFormatter;
+import ru.xander.replicator.schema.ColumnType;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class HsqldbDataFormatterTest {
+
+    private final HsqldbDataFormatter formatter = new HsqldbDataFormatter();
+
+    @Test
+    public void formatValues() {
+        Assert.assertEquals("TRUE", formatter.formatBoolean(Boolean.TRUE, column(ColumnType.BOOLEAN)));
+        Assert.assertEquals("42", formatter.formatInteger(42, column(ColumnType.INTEGER)));
+        Assert.assertEquals("12.50", formatter.formatFloat(new BigDecimal("12.50"), column(ColumnType.FLOAT)));
+        Assert.assertEquals("'It''s'", formatter.formatString("It's", column(ColumnType.STRING)));
+        Assert.assertEquals("DATE '2020-03-15'", formatter.formatDate(Date.valueOf("2020-03-15"), column(ColumnType.DATE)));
+        Assert.assertEquals("TIME '10:20:30'", formatter.formatTime(Time.valueOf("10:20:30"), column(ColumnType.TIME)));
+        Assert.assertEquals("TIMESTAMP '2020-03-15 10:20:30.123456'",
+                formatter.formatTimestamp(Timestamp.valueOf("2020-03-15 10:20:30.123456"), column(ColumnType.TIMESTAMP)));
+        Assert.assertEquals("X'00FF10'", formatter.formatBlob(new byte[]{0, (byte) 0xFF, 0x10}, column(ColumnType.BLOB)));
+    }
+
+    @Test
+    public void literalsAreExecutable() throws Exception {
+        Column[] columns = {column(ColumnType.BOOLEAN), column(ColumnType.FLOAT), column(ColumnType.STRING),
+                column(ColumnType.DATE), column(ColumnType.TIME), column(ColumnType.TIMESTAMP), column(ColumnType.BLOB)};
+        Object[] values = {Boolean.TRUE, new BigDecimal("-12.25"), "a'b\nc", Date.valueOf("2020-03-15"),
+                Time.valueOf("10:20:30"), Timestamp.valueOf("2020-03-15 10:20:30.5"), new byte[]{1, 2, 3}};
+        StringBuilder sb = new StringBuilder("INSERT INTO FORMATTER.T VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            ColumnFormatter columnFormatter = formatter.compile(columns[i]);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            columnFormatter.format(values[i], sb);
+        }
+        sb.append(", ");
+        formatter.compile(column(ColumnType.STRING)).format(null, sb);
+        sb.append(')');
+
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:formatter", "SA", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA FORMATTER");
+            statement.execute("CREATE TABLE FORMATTER.T (B BOOLEAN, F NUMERIC(10, 2), S VARCHAR(10), D DATE, "
+                    + "TM TIME, TS TIMESTAMP, BL VARBINARY(10), N VARCHAR(10))");
+            statement.execute(sb.toString());
+            try (ResultSet resultSet = statement.executeQuery("SELECT * FROM FORMATTER.T")) {
+                Assert.assertTrue(resultSet.next());
+                Assert.assertTrue(resultSet.getBoolean(1));
+                Assert.assertEquals(new BigDecimal("-12.25"), resultSet.getBigDecimal(2));
+                Assert.assertEquals("a'b\nc", resultSet.getString(3));
+                Assert.assertEquals(values[3], resultSet.getDate(4));
+                Assert.assertEquals(values[4], resultSet.getTime(5));
+                Assert.assertEquals(values[5], resultSet.getTimestamp(6));
+                Assert.assertArrayEquals((byte[]) values[6], resultSet.getBytes(7));
+                Assert.assertNull(resultSet.getString(8));
+            }
+        }
+    }
+
+    private static Column column(ColumnType columnType) {
+        Column column = new Column();
+        column.setName(columnType.name());
+        column.setColumnType(columnType);
+        return column;
+    }
+}
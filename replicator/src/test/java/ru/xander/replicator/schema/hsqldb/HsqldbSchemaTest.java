@@ -6,7 +6,10 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import ru.xander.replicator.TestUtils;
+import ru.xander.replicator.exception.KeyRangeOverflowException;
 import ru.xander.replicator.schema.AbstractSchema;
+import ru.xander.replicator.schema.BatchOptions;
+import ru.xander.replicator.schema.BatchStatistics;
 import ru.xander.replicator.schema.CheckConstraint;
 import ru.xander.replicator.schema.Column;
 import ru.xander.replicator.schema.ColumnType;
@@ -16,15 +19,27 @@ import ru.xander.replicator.schema.ExportedKey;
 import ru.xander.replicator.schema.ImportedKey;
 import ru.xander.replicator.schema.Index;
 import ru.xander.replicator.schema.IndexType;
+import ru.xander.replicator.schema.KeyRange;
 import ru.xander.replicator.schema.PrimaryKey;
+import ru.xander.replicator.schema.RowCountMode;
 import ru.xander.replicator.schema.SchemaConnectionTest;
 import ru.xander.replicator.schema.SchemaFactory;
+import ru.xander.replicator.schema.SelectRowsOptions;
 import ru.xander.replicator.schema.Table;
+import ru.xander.replicator.schema.TableBatchExecutor;
+import ru.xander.replicator.schema.TableField;
+import ru.xander.replicator.schema.TableRow;
+import ru.xander.replicator.schema.TableRowCursor;
 import ru.xander.replicator.schema.VendorType;
 
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
@@ -202,6 +217,25 @@ public class HsqldbSchemaTest {
         Assert.assertNull(table2.getImportedKey("XXX"));
     }
 
+    @Test
+    public void loadTables() {
+        Map<String, Table> tables = schema.loadTables(Arrays.asList("TABLE2", "table3", "XXX"));
+        MatcherAssert.assertThat(tables.keySet(), contains("TABLE2", "TABLE3"));
+
+        Table table2 = tables.get("TABLE2");
+        Assert.assertEquals(3, table2.getColumns().size());
+        Assert.assertEquals("TAB2_PK", table2.getPrimaryKey().getName());
+        Assert.assertNotNull(table2.getExportedKey("TAB3_FK"));
+
+        Table table3 = tables.get("table3");
+        Assert.assertNotNull(table3);
+        Assert.assertNotNull(table3.getImportedKey("TAB3_FK"));
+        Assert.assertTrue(table3.getExportedKeys().isEmpty());
+
+        MatcherAssert.assertThat(schema.loadTables(null).keySet(), contains("TABLE1", "TABLE2", "TABLE3", "TABLE4"));
+        Assert.assertTrue(schema.loadTables(Collections.emptyList()).isEmpty());
+    }
+
     @Test
     public void getTableWithIndices() {
         Table table4 = schema.getTable("TABLE4");
@@ -229,6 +263,148 @@ public class HsqldbSchemaTest {
         Assert.assertNull(table4.getIndex("XXX"));
     }
 
+    @Test
+    public void insertAndSelectRows() throws Exception {
+        Table table4 = schema.getTable("TABLE4");
+        try (TableBatchExecutor batchExecutor = schema.createTableBatchExecutor(table4, new BatchOptions(2, 2))) {
+            for (int i = 1; i <= 3; i++) {
+                TableField[] fields = new TableField[3];
+                int columnIndex = 0;
+                for (Column column : table4.getColumns()) {
+                    fields[columnIndex] = new TableField(column);
+                    fields[columnIndex].setValue(i == 2 && columnIndex == 1 ? null : i * 10 + columnIndex);
+                    columnIndex++;
+                }
+                batchExecutor.execute(new TableRow(table4, fields));
+            }
+            batchExecutor.finish();
+            Assert.assertEquals(3, batchExecutor.getTotalRows());
+            BatchStatistics statistics = batchExecutor.getStatistics();
+            Assert.assertEquals(2, statistics.getBatchCount());
+            Assert.assertEquals(3, statistics.getRowCount());
+            Assert.assertEquals(2, statistics.getCommitCount());
+        }
+        Assert.assertEquals(3, schema.estimateRowCount(table4));
+
+        List<TableRow> rows = new ArrayList<>();
+        SelectRowsOptions options = new SelectRowsOptions(1);
+        options.setRowCountMode(RowCountMode.PARALLEL);
+        try (TableRowCursor cursor = schema.selectRows(table4, options)) {
+            TableRow row;
+            while ((row = cursor.nextDetachedRow()) != null) {
+                rows.add(row);
+            }
+        }
+        Assert.assertEquals(3, rows.size());
+        Assert.assertEquals(20, ((Number) rows.get(1).getFields()[0].getValue()).intValue());
+        Assert.assertNull(rows.get(1).getFields()[1].getValue());
+        Assert.assertEquals(32, ((Number) rows.get(2).getFields()[2].getValue()).intValue());
+
+        try (TableRowCursor cursor = schema.selectRows(table4, 1)) {
+            int c1 = cursor.findColumn("C1");
+            int c2 = cursor.findColumn("C2");
+            Assert.assertEquals(-1, cursor.findColumn("XXX"));
+            long sum = 0;
+            int nulls = 0;
+            while (cursor.next()) {
+                sum += cursor.getLong(c1);
+                if (cursor.isNull(c2)) {
+                    nulls++;
+                }
+            }
+            Assert.assertEquals(60, sum);
+            Assert.assertEquals(1, nulls);
+        }
+
+        try (TableRowCursor cursor = schema.selectRows(table4, 1)) {
+            TableRow first = cursor.nextRow();
+            TableRow second = cursor.nextRow();
+            Assert.assertSame(first, second);
+            Assert.assertEquals(20, cursor.getLong(0));
+        }
+    }
+
+    @Test
+    public void selectRowsInParallel() throws Exception {
+        Table table2 = schema.getTable("TABLE2");
+        try (TableBatchExecutor batchExecutor = schema.createTableBatchExecutor(table2)) {
+            for (int i = 1; i <= 10; i++) {
+                TableField[] fields = new TableField[3];
+                int columnIndex = 0;
+                for (Column column : table2.getColumns()) {
+                    fields[columnIndex] = new TableField(column);
+                    fields[columnIndex].setValue(columnIndex == 2 ? i * 10 : i);
+                    columnIndex++;
+                }
+                batchExecutor.execute(new TableRow(table2, fields));
+            }
+            batchExecutor.finish();
+        }
+
+        // таблица делится на диапазоны только по ключу из одного столбца
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.setTable(table2);
+        primaryKey.setName("TAB2_PK");
+        primaryKey.setColumns(new String[]{"C1"});
+        table2.setPrimaryKey(primaryKey);
+
+        List<Integer> keys = new ArrayList<>();
+        try (TableRowCursor cursor = schema.selectRows(table2, new SelectRowsOptions(5, 3))) {
+            TableRow row;
+            while ((row = cursor.nextRow()) != null) {
+                keys.add(((Number) row.getFields()[0].getValue()).intValue());
+                Assert.assertEquals(keys.get(keys.size() - 1) * 10, ((Number) row.getFields()[2].getValue()).intValue());
+            }
+            Assert.assertNull(cursor.nextRow());
+        }
+        Collections.sort(keys);
+        MatcherAssert.assertThat(keys, contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    @Test
+    public void selectRowsWithWideKey() throws Exception {
+        try (Statement statement = schema.getConnection().createStatement()) {
+            statement.execute("CREATE TABLE DV.WIDE_KEY (ID DECIMAL(30) NOT NULL PRIMARY KEY, NAME VARCHAR(10))");
+            statement.execute("INSERT INTO DV.WIDE_KEY VALUES (1, 'first')");
+            statement.execute("INSERT INTO DV.WIDE_KEY VALUES (100000000000000000000, 'last')");
+            statement.execute("CREATE TABLE DV.FULL_KEY (ID BIGINT NOT NULL PRIMARY KEY)");
+            statement.execute("INSERT INTO DV.FULL_KEY VALUES (" + Long.MIN_VALUE + ")");
+            statement.execute("INSERT INTO DV.FULL_KEY VALUES (" + Long.MAX_VALUE + ")");
+        }
+        try {
+            Table table = schema.getTable("WIDE_KEY");
+            try {
+                schema.selectKeyRange(table, "ID");
+                Assert.fail("Key range must not fit in long");
+            } catch (KeyRangeOverflowException e) {
+                Assert.assertTrue(e.getMessage().contains("100000000000000000000"));
+            }
+            try {
+                schema.selectKeyRange(schema.getTable("FULL_KEY"), "ID");
+                Assert.fail("Key range span must not fit in long");
+            } catch (KeyRangeOverflowException e) {
+                Assert.assertTrue(e.getMessage().contains(String.valueOf(Long.MAX_VALUE)));
+            }
+            Assert.assertEquals(Long.MAX_VALUE, new KeyRange("ID", Long.MIN_VALUE, Long.MAX_VALUE).getSpan());
+
+            // таблица выбирается одним курсором
+            List<String> names = new ArrayList<>();
+            try (TableRowCursor cursor = schema.selectRows(table, new SelectRowsOptions(5, 3))) {
+                TableRow row;
+                while ((row = cursor.nextRow()) != null) {
+                    names.add((String) row.getFields()[1].getValue());
+                }
+            }
+            Collections.sort(names);
+            MatcherAssert.assertThat(names, contains("first", "last"));
+        } finally {
+            try (Statement statement = schema.getConnection().createStatement()) {
+                statement.execute("DROP TABLE DV.WIDE_KEY");
+                statement.execute("DROP TABLE DV.FULL_KEY");
+            }
+        }
+    }
+
     private void assertColumn(Column actualColumn, int expectedNumber, String expectedName, ColumnType expectedType) {
         Assert.assertNotNull(actualColumn);
         Assert.assertEquals(expectedNumber, actualColumn.getNumber());
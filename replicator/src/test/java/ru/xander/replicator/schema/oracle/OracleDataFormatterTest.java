@@ -0,0 +1,88 @@
+package ru.xander.replicator.schema.oracle;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.xander.replicator.schema.Column;
+import ru.xander.replicator.schema.ColumnFormatter;
+import ru.xander.replicator.schema.ColumnType;
+import ru.xander.replicator.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Alexander Shakhov
+ */
+public class OracleDataFormatterTest {
+
+    private final OracleDataFormatter formatter = new OracleDataFormatter();
+
+    @Test
+    public void formatValues() {
+        Assert.assertEquals("1", formatter.formatBoolean(BigDecimal.ONE, column(ColumnType.BOOLEAN, 0)));
+        Assert.assertEquals("0", formatter.formatBoolean(Boolean.FALSE, column(ColumnType.BOOLEAN, 0)));
+        Assert.assertEquals("1000", formatter.formatInteger(new BigDecimal("1E+3"), column(ColumnType.INTEGER, 0)));
+        Assert.assertEquals("12.25", formatter.formatFloat(new BigDecimal("12.2500"), column(ColumnType.FLOAT, 4)));
+        Assert.assertEquals("12.0", formatter.formatFloat(12L, column(ColumnType.FLOAT, 2)));
+        Assert.assertEquals("0.12", formatter.formatFloat(0.125d, column(ColumnType.FLOAT, 2)));
+        Assert.assertEquals("'It''s'||CHR(10)||'ok'", formatter.formatString("It's\nok", column(ColumnType.STRING, 0)));
+        Timestamp timestamp = Timestamp.valueOf(LocalDateTime.of(2020, 3, 15, 10, 20, 30, 123_000_000));
+        Assert.assertEquals("TO_TIMESTAMP('2020-03-15 10:20:30.123', 'YYYY-MM-DD HH24:MI:SS.FF3')",
+                formatter.formatTimestamp(timestamp, column(ColumnType.TIMESTAMP, 0)));
+        Assert.assertEquals("TO_DATE('2020-03-15 10:20:30', 'YYYY-MM-DD HH24:MI:SS')",
+                formatter.formatDate(new java.util.Date(timestamp.getTime()), column(ColumnType.DATE, 0)));
+        Assert.assertEquals("TO_DATE('2020-03-15 00:00:00', 'YYYY-MM-DD HH24:MI:SS')",
+                formatter.formatDate(java.sql.Date.valueOf("2020-03-15"), column(ColumnType.DATE, 0)));
+
+        String longString = StringUtils.repeat('x', OracleDialect.MAX_VARCHAR_SIZE + 1);
+        Assert.assertEquals("TO_CLOB('" + StringUtils.repeat('x', OracleDialect.MAX_VARCHAR_SIZE) + "') || TO_CLOB('x')",
+                formatter.formatString(longString, column(ColumnType.STRING, 0)));
+    }
+
+    @Test
+    public void compiledFormatterIsThreadSafe() throws Exception {
+        ColumnFormatter columnFormatter = formatter.compile(column(ColumnType.TIMESTAMP, 0));
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executorService.submit(() -> {
+                    StringBuilder sb = new StringBuilder();
+                    for (int i = 0; i < 1000; i++) {
+                        LocalDateTime dateTime = LocalDateTime.of(2000 + thread, 1 + (i % 12), 1 + (i % 28), i % 24, i % 60, 0);
+                        sb.setLength(0);
+                        columnFormatter.format(Timestamp.valueOf(dateTime), sb);
+                        String expected = String.format("TO_TIMESTAMP('%04d-%02d-%02d %02d:%02d:00.000', 'YYYY-MM-DD HH24:MI:SS.FF3')",
+                                2000 + thread, 1 + (i % 12), 1 + (i % 28), i % 24, i % 60);
+                        Assert.assertEquals(expected, sb.toString());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        formatter.compile(column(ColumnType.STRING, 0)).format(null, sb);
+        Assert.assertEquals("NULL", sb.toString());
+    }
+
+    private static Column column(ColumnType columnType, int scale) {
+        Column column = new Column();
+        column.setName(columnType.name());
+        column.setColumnType(columnType);
+        column.setScale(scale);
+        return column;
+    }
+}
@@ -0,0 +1,4 @@
+@TITLE Run Replicator benchmarks
+call mvn clean package -P benchmarks -pl ru.xander.replicator:replicator-benchmarks -am
+mkdir %CD%\replicator-benchmarks\baseline
+java -jar %CD%\replicator-benchmarks\target\benchmarks.jar -rf json -rff %CD%\replicator-benchmarks\baseline\baseline.json